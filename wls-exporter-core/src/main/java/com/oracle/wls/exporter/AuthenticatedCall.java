@@ -8,13 +8,8 @@ import java.io.PrintStream;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.oracle.wls.exporter.domain.MBeanSelector;
 import com.oracle.wls.exporter.domain.QueryType;
@@ -37,10 +32,15 @@ public abstract class AuthenticatedCall {
     static final long COOKIE_LIFETIME_SECONDS = 1000L;
 
     /**
-     * A map of authentication credentials to lists of cookies. The cookies will be sent on any request with
-     * the specified credentials.
+     * The longest time in seconds for which credentials accepted by the REST API are trusted without being checked again.
      */
-    private static final Map<String,Map<String,Cookie>> COOKIES = new HashMap<>();
+    static final long CREDENTIAL_CHECK_SECONDS = 300L;
+
+    /**
+     * The cookies returned by the REST API. The cookies will be sent on any request with the credentials
+     * used to obtain them.
+     */
+    private static final SessionCookieStore COOKIES = new SessionCookieStore(COOKIE_LIFETIME_SECONDS);
 
     private final WebClientFactory webClientFactory;
     private final InvocationContext context;
@@ -66,83 +66,104 @@ public abstract class AuthenticatedCall {
         return urlBuilder.createUrl(QueryType.RUNTIME_URL_PATTERN);
     }
 
-    String getQueryUrl(MBeanSelector selector) {
+    // The pieces of a split query may request their URLs at the same time.
+    synchronized String getQueryUrl(MBeanSelector selector) {
         return urlBuilder.createUrl(selector.getQueryType().getUrlPattern());
     }
 
+    synchronized String getUrl(String urlPattern) {
+        return urlBuilder.createUrl(urlPattern);
+    }
+
+    // Returns the host to which to send a hedged query, if a healthy alternative to the current host is available.
+    synchronized Optional<UrlBuilder.AlternateHost> getAlternateHost(MBeanSelector selector) {
+        return urlBuilder.selectAlternateHost(selector.getQueryType().getUrlPattern());
+    }
+
+    // Switches to the alternate host, which answered a query that the current host could not.
+    synchronized void failOver(UrlBuilder.AlternateHost alternate) {
+        urlBuilder.reportFailureAnsweredBy(alternate);
+    }
+
     void reportFailure(RestPortConnectionException e) {
         urlBuilder.reportFailure(e);
     }
 
+    // Switches to the next candidate host without restarting the call, recording the retry.
+    void failOver(RestPortConnectionException e) {
+        urlBuilder.reportFailure(e);
+        addRetry();
+    }
+
     public WebClient createWebClient() {
+        final WebClient webClient = createClientWithCredentials();
+        manageCookies(webClient);
+        return webClient;
+    }
+
+    private WebClient createClientWithCredentials() {
         final WebClient webClient = webClientFactory.createClient();
         webClient.addHeader("X-Requested-By", "rest-exporter");
 
         webClient.setAuthentication(context.getAuthenticationHeader());
-        manageCookies(webClient);
         return webClient;
     }
 
+    /**
+     * Creates a client which sends none of the stored cookies, so that the server must authenticate the
+     * client's credentials themselves. Any session the server then establishes is recorded.
+     */
+    WebClient createAuthenticatingWebClient() {
+        final WebClient webClient = createClientWithCredentials();
+        webClient.onSetCookieReceivedDo(this::handleNewCookie);
+        return webClient;
+    }
+
+    // If a WebLogic session is already established for these credentials, rely on it rather than asking
+    // the server to authenticate the credentials again. As each request keeps the session alive, it is relied on
+    // only for a limited time after the credentials were last accepted. After that, the credentials are sent
+    // without the cookies, so that credentials revoked in the meantime are rejected; if they are accepted,
+    // the new session which the server establishes is recorded as verified.
     private void manageCookies(WebClient webClient) {
-        synchronized (COOKIES) {
-            getCookies(context.getAuthenticationHeader()).forEach(c -> webClient.addHeader(COOKIE_HEADER, c));
-            webClient.onSetCookieReceivedDo(this::handleNewCookie);
-            webClient.onSetCookieReceivedDo(c -> webClient.addHeader(COOKIE_HEADER, c));
-        }
+        final String credentials = context.getAuthenticationHeader();
+        final boolean sessionVerified = hasSessionVerifiedWithin(CREDENTIAL_CHECK_SECONDS);
+        if (sessionVerified || !COOKIES.hasSession(getSessionKey(credentials)))
+            getCookies(credentials).forEach(c -> webClient.addHeader(COOKIE_HEADER, c));
+        webClient.setAuthenticationDeferred(sessionVerified);
+        webClient.onSetCookieReceivedDo(this::handleNewCookie);
+        webClient.onSetCookieReceivedDo(c -> webClient.addHeader(COOKIE_HEADER, c));
     }
 
-    public List<String> getCookies(String credentials) {
-        final OffsetDateTime now = SystemClock.now();
-        final Collection<Cookie> cookieList = getCookieList(credentials);
-        cookieList.removeIf(c -> c.isExpiredAt(now));
-        
-        return cookieList.stream().map(Cookie::getValue).collect(Collectors.toList());
+    /**
+     * Returns true if a WebLogic session has been established for the credentials sent by the client,
+     * and the server has accepted the credentials themselves within the specified time.
+     * @param maxAgeSeconds the longest time since the credentials were last accepted
+     */
+    boolean hasSessionVerifiedWithin(long maxAgeSeconds) {
+        return COOKIES.hasSessionVerifiedWithin(getSessionKey(context.getAuthenticationHeader()), maxAgeSeconds);
     }
 
-    private Collection<Cookie> getCookieList(String credentials) {
-        return Optional.ofNullable(COOKIES.get(credentials))
-              .map(Map::values)
-              .orElse(Collections.emptySet());
+    /**
+     * Records that the server has just accepted the credentials sent by the client.
+     */
+    void markSessionVerified() {
+        COOKIES.markSessionVerified(getSessionKey(context.getAuthenticationHeader()));
+    }
+
+    public List<String> getCookies(String credentials) {
+        return COOKIES.getCookies(getSessionKey(credentials));
     }
 
     void handleNewCookie(String cookieHeader) {
         if (context.getAuthenticationHeader() == null) return;
 
-        final Cookie cookie = new Cookie(cookieHeader);
-        COOKIES
-              .computeIfAbsent(context.getAuthenticationHeader(), h -> new HashMap<>())
-              .put(cookie.getCookieName(), cookie);
+        COOKIES.addCookie(getSessionKey(context.getAuthenticationHeader()), cookieHeader);
     }
 
-    private static class Cookie {
-        private final String value;
-        private final OffsetDateTime expirationTime = SystemClock.now().plusSeconds(COOKIE_LIFETIME_SECONDS);
-
-        Cookie(String cookieHeader) {
-            this.value = trimParameters(cookieHeader);
-        }
-
-        String getValue() {
-            return value;
-        }
-
-        String getCookieName() {
-            if (!value.contains("="))
-                return value;
-            else
-                return value.substring(0, value.indexOf('='));
-        }
-
-        boolean isExpiredAt(OffsetDateTime now) {
-            return now.isAfter(expirationTime);
-        }
-
-        private String trimParameters(String cookieHeader) {
-          if (!cookieHeader.contains(";"))
-            return cookieHeader;
-          else
-            return cookieHeader.substring(0, cookieHeader.indexOf(';'));
-        }
+    // A session is established with a single server, so when the exporter scrapes several, each has its own sessions.
+    private String getSessionKey(String credentials) {
+        final String target = context.getTarget();
+        return target == null || credentials == null ? credentials : target + ' ' + credentials;
     }
 
     /**
@@ -0,0 +1,301 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.wls.exporter.domain.ConcurrencyConfiguration;
+import com.oracle.wls.exporter.domain.ConcurrencyConfiguration.OverloadAction;
+
+/**
+ * A limit on the number of REST requests in flight at once. A scrape needs a permit to start, and sends its queries
+ * one at a time under it. Each further request which a scrape sends at the same time, such as a piece of a split
+ * query sent in parallel or a hedge, needs a permit of its own, which is granted only if one is free at once;
+ * otherwise the pieces are sent one after another, or the query is not hedged. The limit adapts to the load on the server,
+ * in the manner of TCP congestion control: it rises slowly while queries are answered promptly, and is cut
+ * whenever a query takes much longer than the fastest recently seen, or fails in a way which suggests that
+ * the server is overloaded. Scrapes beyond the limit wait in a bounded queue for a bounded time. An exporter which
+ * scrapes several servers keeps a separate limit for each.
+ */
+class ConcurrencyLimiter {
+
+  /** The factor by which the limit is cut when the server appears overloaded. */
+  static final double BACKOFF_RATIO = 0.9;
+
+  /** How many times the fastest recent response time a response may take before the server is deemed overloaded. */
+  static final double LATENCY_TOLERANCE = 2.0;
+
+  /** The number of response times after which the fastest is forgotten, so that the baseline may adapt. */
+  static final int BASELINE_WINDOW = 100;
+
+  private static final AtomicLong numShed = new AtomicLong();
+  private static final AtomicLong numSnapshotsServed = new AtomicLong();
+  private static ConcurrencyLimiter current;
+  private static final Map<String, ConcurrencyLimiter> targetLimiters = new HashMap<>();
+
+  private final ConcurrencyConfiguration configuration;
+  private double limit;
+  private int inFlight;
+  private int queueLength;
+  private long baselineLatency = Long.MAX_VALUE;
+  private int numBaselineSamples;
+
+  /**
+   * A permission to run a scrape, or to send one further request. Exactly one of its methods should be called
+   * when the scrape or request is done.
+   */
+  interface Permit {
+
+    /**
+     * Reports that the scrape completed, taking the specified average time per query.
+     * @param latencyMillis the average time in milliseconds taken by each query
+     */
+    void onSuccess(long latencyMillis);
+
+    /**
+     * Reports that the scrape failed in a way which suggests that the server is overloaded.
+     */
+    void onOverload();
+
+    /**
+     * Reports that the scrape ended in a way which says nothing about the load on the server.
+     */
+    void onIgnore();
+  }
+
+  private static final Permit UNLIMITED_PERMIT = new Permit() {
+    @Override
+    public void onSuccess(long latencyMillis) {
+      // no limit to adjust
+    }
+
+    @Override
+    public void onOverload() {
+      // no limit to adjust
+    }
+
+    @Override
+    public void onIgnore() {
+      // no limit to adjust
+    }
+  };
+
+  private ConcurrencyLimiter(ConcurrencyConfiguration configuration) {
+    this.configuration = configuration;
+    this.limit = configuration.getInitialLimit();
+  }
+
+  /**
+   * Applies the specified settings. Scrapes already running keep the permits they hold.
+   * @param configuration the settings to use, or null to permit any number of concurrent scrapes
+   */
+  static synchronized void configure(ConcurrencyConfiguration configuration) {
+    if (current != null && current.configuration == configuration) return;
+
+    current = configuration == null ? null : new ConcurrencyLimiter(configuration);
+    targetLimiters.clear();
+  }
+
+  /**
+   * Returns the current limiter, or null if concurrent scrapes are not limited.
+   */
+  static ConcurrencyLimiter getCurrent() {
+    return getCurrent(null);
+  }
+
+  /**
+   * Returns the current limiter for the specified server, or null if concurrent scrapes are not limited.
+   * @param target the server to be scraped, or null if the exporter scrapes only one
+   */
+  static synchronized ConcurrencyLimiter getCurrent(String target) {
+    if (current == null || target == null) return current;
+
+    final ConcurrencyLimiter limiter = targetLimiters.get(target);
+    if (limiter != null && limiter.configuration == current.configuration) return limiter;
+
+    final ConcurrencyLimiter newLimiter = new ConcurrencyLimiter(current.configuration);
+    targetLimiters.put(target, newLimiter);
+    return newLimiter;
+  }
+
+  /**
+   * Obtains a permit to run a scrape, waiting in the queue if necessary.
+   * @return a permit, or null if the scrape may neither run nor wait
+   */
+  static Permit acquire() {
+    return acquire(null);
+  }
+
+  /**
+   * Obtains a permit to run a scrape of the specified server, waiting in the queue if necessary.
+   * @param target the server to be scraped, or null if the exporter scrapes only one
+   * @return a permit, or null if the scrape may neither run nor wait
+   */
+  static Permit acquire(String target) {
+    final ConcurrencyLimiter limiter = getCurrent(target);
+    return limiter == null ? UNLIMITED_PERMIT : limiter.acquirePermit();
+  }
+
+  /**
+   * Obtains, without waiting, a permit to send a request to the specified server at the same time as the running
+   * scrape which needs it. No such permit is granted while scrapes are waiting to run.
+   * @param target the server to be queried, or null if the exporter scrapes only one
+   * @return a permit, or null if the request should not be sent at the same time as others
+   */
+  static Permit tryAcquire(String target) {
+    final ConcurrencyLimiter limiter = getCurrent(target);
+    return limiter == null ? UNLIMITED_PERMIT : limiter.tryAcquirePermit();
+  }
+
+  /**
+   * Returns true if scrapes which can neither run nor wait should be answered from the latest snapshot.
+   */
+  static boolean isServingSnapshots() {
+    final ConcurrencyLimiter limiter = getCurrent();
+    return limiter != null && limiter.configuration.getOverloadAction() == OverloadAction.SNAPSHOT;
+  }
+
+  /**
+   * Records that a scrape was rejected.
+   */
+  static void recordShed() {
+    numShed.incrementAndGet();
+  }
+
+  /**
+   * Records that a scrape was answered from a snapshot.
+   */
+  static void recordSnapshotServed() {
+    numSnapshotsServed.incrementAndGet();
+  }
+
+  static long getNumShed() {
+    return numShed.get();
+  }
+
+  static long getNumSnapshotsServed() {
+    return numSnapshotsServed.get();
+  }
+
+  /**
+   * Returns the number of REST requests currently permitted at once.
+   */
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * Returns the number of permits now held, by running scrapes and by the further requests which they are sending.
+   */
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Returns the number of scrapes now waiting to run.
+   */
+  synchronized int getQueueLength() {
+    return queueLength;
+  }
+
+  private synchronized Permit acquirePermit() {
+    if (inFlight < getLimit()) return grantPermit();
+    if (queueLength >= configuration.getMaxQueueLength()) return null;
+
+    queueLength++;
+    try {
+      return awaitPermit();
+    } finally {
+      queueLength--;
+    }
+  }
+
+  private synchronized Permit tryAcquirePermit() {
+    return inFlight < getLimit() && queueLength == 0 ? grantPermit() : null;
+  }
+
+  private Permit awaitPermit() {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(configuration.getQueueTimeoutMillis());
+    try {
+      while (inFlight >= getLimit()) {
+        final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining <= 0) return null;
+        wait(remaining);
+      }
+      return grantPermit();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private Permit grantPermit() {
+    inFlight++;
+    return new LimitedPermit();
+  }
+
+  private synchronized void release() {
+    inFlight--;
+    notifyAll();
+  }
+
+  private synchronized void recordLatency(long latencyMillis) {
+    if (numBaselineSamples++ >= BASELINE_WINDOW) {
+      baselineLatency = Long.MAX_VALUE;
+      numBaselineSamples = 1;
+    }
+    baselineLatency = Math.min(baselineLatency, latencyMillis);
+
+    if (latencyMillis > LATENCY_TOLERANCE * Math.max(1, baselineLatency))
+      decreaseLimit();
+    else
+      increaseLimit();
+  }
+
+  // Additive increase: the limit grows by about one for each limit's worth of prompt replies.
+  private void increaseLimit() {
+    limit = Math.min(configuration.getMaxLimit(), limit + 1 / limit);
+  }
+
+  // Multiplicative decrease.
+  private synchronized void decreaseLimit() {
+    limit = Math.max(configuration.getMinLimit(), limit * BACKOFF_RATIO);
+  }
+
+  // Adjusts the limit before releasing the permit, so that any waiting scrape sees the new limit.
+  private class LimitedPermit implements Permit {
+    private boolean released;
+
+    @Override
+    public void onSuccess(long latencyMillis) {
+      if (markReleased()) {
+        recordLatency(latencyMillis);
+        release();
+      }
+    }
+
+    @Override
+    public void onOverload() {
+      if (markReleased()) {
+        decreaseLimit();
+        release();
+      }
+    }
+
+    @Override
+    public void onIgnore() {
+      if (markReleased()) release();
+    }
+
+    private synchronized boolean markReleased() {
+      if (released) return false;
+
+      released = true;
+      return true;
+    }
+  }
+}
@@ -3,17 +3,81 @@
 
 package com.oracle.wls.exporter;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
+
+/**
+ * A bounded record of reported errors. Identical errors are combined into a single entry which counts
+ * their occurrences. Entries not seen for an hour are discarded, as are the least recently seen entries
+ * when the log is full.
+ */
 public class ErrorLog {
-    private final StringBuilder errors = new StringBuilder();
+    static final int MAX_ENTRIES = 20;
+    static final int MAX_MESSAGE_LENGTH = 2000;
+    static final int MAX_ERROR_TYPES = 50;
+    static final Duration RETENTION_TIME = Duration.ofHours(1);
+    static final String OTHER_ERROR_TYPE = "other";
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, Long> errorTypeCounts = new TreeMap<>();
+
+    private static class Entry {
+        private final String message;
+        private final OffsetDateTime firstSeen;
+        private OffsetDateTime lastSeen;
+        private long count;
+
+        Entry(String message) {
+            this.message = message;
+            this.firstSeen = SystemClock.now();
+        }
+
+        private void recordOccurrence() {
+            lastSeen = SystemClock.now();
+            count++;
+        }
+
+        private boolean isObsolete() {
+            return Duration.between(lastSeen, SystemClock.now()).compareTo(RETENTION_TIME) > 0;
+        }
+
+        private void appendTo(StringBuilder sb) {
+            sb.append(message);
+            if (count > 1)
+                sb.append(System.lineSeparator())
+                      .append(String.format("  (occurred %d times from %s to %s)",
+                            count, ISO_LOCAL_TIME.format(firstSeen), ISO_LOCAL_TIME.format(lastSeen)));
+        }
+    }
 
     /**
      * Report an exception.
      * @param throwable the exception
      */
-    public void log(Throwable throwable) {
-        errors.append(toLogMessage(throwable));
+    public synchronized void log(Throwable throwable) {
+        removeObsoleteEntries();
+        entries.computeIfAbsent(toEntryMessage(throwable), Entry::new).recordOccurrence();
+        errorTypeCounts.merge(getErrorType(throwable), 1L, Long::sum);
+    }
+
+    private String toEntryMessage(Throwable throwable) {
+        StringBuilder sb = new StringBuilder(toLogMessage(throwable));
         for (Throwable cause = throwable.getCause(); cause != null; cause = cause.getCause())
-            errors.append(System.lineSeparator()).append("  ").append(toLogMessage(cause));
+            sb.append(System.lineSeparator()).append("  ").append(toLogMessage(cause));
+
+        return sb.length() <= MAX_MESSAGE_LENGTH ? sb.toString() : sb.substring(0, MAX_MESSAGE_LENGTH) + "...";
     }
 
     private String toLogMessage(Throwable throwable) {
@@ -24,11 +88,36 @@ public class ErrorLog {
         return sb.toString();
     }
 
+    // The number of distinct types is limited, so that the counts cannot grow without bound.
+    private String getErrorType(Throwable throwable) {
+        final String type = throwable.getClass().getSimpleName();
+        return errorTypeCounts.containsKey(type) || errorTypeCounts.size() < MAX_ERROR_TYPES ? type : OTHER_ERROR_TYPE;
+    }
+
+    private void removeObsoleteEntries() {
+        for (Iterator<Entry> each = entries.values().iterator(); each.hasNext();)
+            if (each.next().isObsolete()) each.remove();
+    }
+
     /**
      * returns the current error log.
      * @return a string of errors, separated by line breaks.
      */
-    public String getErrors() {
-        return errors.toString();
+    public synchronized String getErrors() {
+        removeObsoleteEntries();
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries.values()) {
+            if (sb.length() > 0) sb.append(System.lineSeparator());
+            entry.appendTo(sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the number of errors reported since the log was created, by the simple name of the exception class.
+     * @return a map of exception names to counts
+     */
+    public synchronized Map<String, Long> getErrorCounts() {
+        return Collections.unmodifiableMap(new TreeMap<>(errorTypeCounts));
     }
 }
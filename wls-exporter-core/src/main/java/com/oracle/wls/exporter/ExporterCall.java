@@ -4,20 +4,44 @@
 package com.oracle.wls.exporter;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.oracle.wls.exporter.domain.FieldDiscovery;
 import com.oracle.wls.exporter.domain.MBeanSelector;
+import com.oracle.wls.exporter.domain.MetricsSourceType;
+import com.oracle.wls.exporter.domain.QueryType;
 
-import static com.oracle.wls.exporter.domain.MapUtils.isNullOrEmptyString;
+import static com.oracle.wls.exporter.WebAppConstants.ACCEPT_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.GROUP_PARAMETER;
+import static com.oracle.wls.exporter.WebAppConstants.SCRAPE_TIMEOUT_HEADER;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 public class ExporterCall extends AuthenticatedCall {
 
+  /** A request for no fields, sent only so that the REST API will authenticate the client's credentials. **/
+  static final String AUTHENTICATION_REQUEST = "{\"fields\":[],\"links\":[]}";
+
+  private final AtomicInteger numQueriesSent = new AtomicInteger();
+  private ScrapeDeadline deadline = ScrapeDeadline.NONE;
+  private boolean overloadDetected;
+  private String group;
+  private String credentials;
+  private String target;
+  private ExpositionFormat format = ExpositionFormat.TEXT;
+
   public ExporterCall(WebClientFactory webClientFactory, InvocationContext context) {
     super(webClientFactory, context);
   }
@@ -25,45 +49,249 @@ public class ExporterCall extends AuthenticatedCall {
   @Override
   protected void invoke(WebClient webClient, InvocationContext context) throws IOException {
     LiveConfiguration.updateConfiguration();
-    context.setResponseHeader("Content-Type", "text/plain");
-    try (OutputStream responseStream = context.getResponseStream();
-         MetricsStream metricsStream = new MetricsStream(getInstanceName(), responseStream)) {
+    group = context.getRequestParameter(GROUP_PARAMETER);
+    credentials = context.getAuthenticationHeader();
+    target = context.getTarget();
+    format = ExpositionFormat.negotiate(context.getRequestHeader(ACCEPT_HEADER));
+    if (isUndefinedGroup()) {
+      context.sendError(HTTP_NOT_FOUND, "No queries are defined in group '" + group + "'");
+      return;
+    }
+
+    if (getMetricsSourceType() == MetricsSourceType.MBEAN_SERVER && !hasSessionVerifiedWithin(CREDENTIAL_CHECK_SECONDS))
+      authenticate();
+
+    final ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire(target);
+    if (permit == null)
+      handleOverload(context);
+    else
+      invoke(webClient, context, permit);
+  }
+
+  // Releases the permit when done, reporting the average time per query or any sign that the server is overloaded,
+  // whether it ended the scrape or only caused individual queries to fail.
+  private void invoke(WebClient webClient, InvocationContext context, ConcurrencyLimiter.Permit permit)
+        throws IOException {
+    final long startTime = System.nanoTime();
+    boolean completed = false;
+    try {
+      displayResponse(webClient, context);
+      completed = true;
+    } catch (ServerErrorException | RestPortConnectionException | InterruptedIOException e) {
+      permit.onOverload();
+      throw e;
+    } finally {
+      if (!completed)
+        permit.onIgnore();
+      else if (overloadDetected)
+        permit.onOverload();
+      else
+        permit.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) / Math.max(1, numQueriesSent.get()));
+    }
+  }
+
+  private MetricsSourceType getMetricsSourceType() {
+    return LiveConfiguration.getMetricsSource();
+  }
+
+  // Returns the source from which to read the MBeans, or null if they are to be read through the REST API.
+  // A JMX connection is made to the current candidate host, so that a failure to connect leads to failover.
+  private MetricsSource getMetricsSource() {
+    switch (getMetricsSourceType()) {
+      case MBEAN_SERVER:
+        return LocalMBeanServer.INSTANCE;
+      case JMX:
+        return JmxMetricsSource.get(getUrl(LiveConfiguration.getJmxConfiguration().getUrlPattern()), credentials);
+      default:
+        return null;
+    }
+  }
+
+  // When metrics are read from the MBean server rather than the REST API, the client's credentials must still
+  // be accepted by the server. Once they have been, they are trusted while the resulting session lasts, but
+  // as each scrape keeps the session alive, they are sent again without it after a fixed time, so that
+  // credentials revoked in the meantime are rejected.
+  private void authenticate() throws IOException {
+    createAuthenticatingWebClient().withUrl(getAuthenticationUrl()).doPostRequest(AUTHENTICATION_REQUEST);
+    markSessionVerified();
+  }
+
+  private boolean isUndefinedGroup() {
+    return group != null && LiveConfiguration.hasQueries() && !LiveConfiguration.hasQueryGroup(group);
+  }
+
+  private void displayResponse(WebClient webClient, InvocationContext context) throws IOException {
+    context.setResponseHeader("Content-Type", format.getContentType());
+    final OutputStream responseStream = context.getResponseStream();
+    final ScrapeSnapshot.Recorder recorder = isServingSnapshots()
+          ? ScrapeSnapshot.record(context.getAuthenticationHeader(), target, group, responseStream) : null;
+    try (OutputStream out = recorder != null ? recorder : responseStream;
+         MetricsStream metricsStream = new MetricsStream(getInstanceName(), out, format, LiveConfiguration.getCounterNames())) {
       if (!LiveConfiguration.hasQueries())
-        metricsStream.println("# No configuration defined.");
+        metricsStream.printComment("# No configuration defined.");
       else {
+        deadline = LiveConfiguration.createScrapeDeadline(context.getRequestHeader(SCRAPE_TIMEOUT_HEADER));
         displayMetrics(webClient, metricsStream);
       }
     }
+    if (recorder != null) recorder.complete();
+  }
+
+  private void handleOverload(InvocationContext context) throws IOException {
+    final byte[] snapshot
+          = isServingSnapshots() ? ScrapeSnapshot.getLatest(context.getAuthenticationHeader(), target, group) : null;
+    if (snapshot != null) {
+      ConcurrencyLimiter.recordSnapshotServed();
+      context.setResponseHeader("Content-Type", format.getContentType());
+      try (OutputStream out = context.getResponseStream()) {
+        out.write(snapshot);
+      }
+    } else {
+      ConcurrencyLimiter.recordShed();
+      context.sendError(HTTP_UNAVAILABLE, "The exporter is at its limit of concurrent scrapes");
+    }
+  }
+
+  // Snapshots begin with a comment giving their time, so they are only kept in the classic text format.
+  private boolean isServingSnapshots() {
+    return ConcurrencyLimiter.isServingSnapshots() && format == ExpositionFormat.TEXT;
   }
 
   private void displayMetrics(WebClient webClient, MetricsStream metricsStream) throws IOException {
-    try {
-      for (MBeanSelector selector : LiveConfiguration.getQueries())
-        displayMetrics(webClient, metricsStream, selector);
-      metricsStream.printPlatformMetrics();
-    } catch (RestPortConnectionException e) {
-      reportFailure(e);
-      webClient.setRetryNeeded();
+    final ResponseLimit scrapeLimit = LiveConfiguration.createScrapeLimit();
+    for (MBeanSelector selector : LiveConfiguration.getQueries(group, target))
+      displayMetricsWithFailover(webClient, metricsStream, selector, scrapeLimit);
+    metricsStream.printPlatformMetrics(target);
+  }
+
+  // If the REST API cannot be reached, retries the same query with the next candidate host, so that
+  // the queries which have already succeeded need not be repeated. Throws the exception once no candidates remain.
+  private void displayMetricsWithFailover(WebClient webClient, MetricsStream metricsStream, MBeanSelector selector,
+                                          ResponseLimit scrapeLimit) throws IOException {
+    while (true) {
+      try {
+        displayMetrics(webClient, metricsStream, selector, scrapeLimit);
+        return;
+      } catch (RestPortConnectionException e) {
+        failOver(e);
+      }
     }
   }
 
-  private void displayMetrics(WebClient webClient, MetricsStream metricsStream, MBeanSelector selector) throws IOException {
+  private void displayMetrics(WebClient webClient, MetricsStream metricsStream, MBeanSelector selector,
+                              ResponseLimit scrapeLimit) throws IOException {
+    final String queryName = metricsStream.recordQueryResult(selector.getQueryName(),
+          tryDisplayMetrics(webClient, metricsStream, selector, scrapeLimit));
+    Optional.ofNullable(selector.getFilterStrategy()).ifPresent(s -> metricsStream.recordFilterStrategy(queryName, s));
+  }
+
+  // Returns true if the metrics for the query were displayed. A query which fails is reported as a comment,
+  // so that the other queries may still be displayed, unless the failure means that no query can succeed.
+  private boolean tryDisplayMetrics(WebClient webClient, MetricsStream metricsStream, MBeanSelector selector,
+                                    ResponseLimit scrapeLimit) throws IOException {
+    final Map<String, Object> cachedMetrics = QueryResultCache.get(selector, credentials);
+    if (cachedMetrics != null) {
+      printMetrics(metricsStream, cachedMetrics);
+      return true;
+    }
+    if (deadline.isExpired()) {
+      ScrapeDeadline.recordSkippedQuery();
+      reportProblem(metricsStream, selector, getDeadlineProblem());
+      return false;
+    }
+    if (scrapeLimit.isExhausted()) {
+      reportProblem(metricsStream, selector, getScrapeLimitProblem(scrapeLimit));
+      return false;
+    }
+
     try {
-      Map<String, Object> metrics = getMetrics(webClient, selector);
-      if (!metrics.isEmpty())
-        sort(metrics).forEach(metricsStream::printMetric);
+      final ResponseLimit queryLimit = LiveConfiguration.createQueryLimit(scrapeLimit, selector);
+      webClient.setResponseLimit(queryLimit);
+      webClient.setTimeout(deadline.getTimeoutMillis(LiveConfiguration.getQueryTimeoutMillis(selector)));
+      webClient.setDeadline(deadline);
+      final MetricsSource metricsSource = getMetricsSource();
+      Map<String, Object> metrics = metricsSource != null
+            ? getSourceMetrics(metricsSource, selector) : getPlannedMetrics(webClient, selector, scrapeLimit, queryLimit);
+      QueryResultCache.put(selector, credentials, metrics);
+      printMetrics(metricsStream, metrics);
+      return true;
+    } catch (ResponseTooLargeException e) {
+      WlsRestExchanges.addExchange(getQueryUrl(selector), selector.getRequest(), e.toString());
+      reportProblem(metricsStream, selector, getResponseLimitProblem(e));
     } catch (RestQueryException e) {
       reportProblem(metricsStream, selector);
     } catch (AuthenticationChallengeException e) {  // don't add a message for this case
       throw e;
     } catch (IOException | RuntimeException e) {
       WlsRestExchanges.addExchange(getQueryUrl(selector), selector.getRequest(), e.toString());
-      throw e;
+      if (!isDeadlineReached() && affectsAllQueries(e)) throw e;
+      reportQueryFailure(metricsStream, selector, e);
+    }
+    return false;
+  }
+
+  private void printMetrics(MetricsStream metricsStream, Map<String, Object> metrics) {
+    if (!metrics.isEmpty())
+      sort(metrics).forEach(metricsStream::printMetric);
+  }
+
+  private void reportQueryFailure(MetricsStream metricsStream, MBeanSelector selector, Exception e) {
+    if (isDeadlineReached()) {
+      ScrapeDeadline.recordSkippedQuery();
+      reportProblem(metricsStream, selector, getDeadlineAbandonedProblem());
+    } else {
+      if (indicatesOverload(e)) overloadDetected = true;
+      reportProblem(metricsStream, selector, getQueryFailureProblem(e));
     }
   }
 
+  // The REST API is unreachable, the user lacks permission, or the scrape itself was interrupted.
+  private boolean affectsAllQueries(Exception e) {
+    return e instanceof RestPortConnectionException
+          || e instanceof ForbiddenException
+          || Thread.currentThread().isInterrupted();
+  }
+
+  private boolean indicatesOverload(Exception e) {
+    return e instanceof ServerErrorException || e instanceof InterruptedIOException;
+  }
+
   private void reportProblem(MetricsStream metricsStream, MBeanSelector selector) {
-    metricsStream.println(withCommentMarkers(getProblem(selector) + "\n" + selector.getPrintableRequest()));
+    reportProblem(metricsStream, selector, getProblem(selector));
+  }
+
+  private void reportProblem(MetricsStream metricsStream, MBeanSelector selector, String problem) {
+    metricsStream.printComment(withCommentMarkers(problem + "\n" + selector.getPrintableRequest()));
+  }
+
+  private String getResponseLimitProblem(ResponseTooLargeException e) {
+    if (e.isScrapeLimit())
+      return "The replies to this scrape reached the limit of " + e.getLimit()
+            + " bytes while reading the reply to this query, which was abandoned.";
+    else
+      return "The reply to this query exceeded the limit of " + e.getLimit() + " bytes and was abandoned.";
+  }
+
+  private String getScrapeLimitProblem(ResponseLimit scrapeLimit) {
+    return "This query was skipped because the replies to this scrape reached the limit of "
+          + scrapeLimit.getMaxBytes() + " bytes.";
+  }
+
+  // Returns true if a query failure is explained by the scrape running out of time.
+  private boolean isDeadlineReached() {
+    return deadline.isLimited() && deadline.isExpired();
+  }
+
+  private String getDeadlineProblem() {
+    return "This query was skipped because the scrape deadline was reached.";
+  }
+
+  private String getDeadlineAbandonedProblem() {
+    return "The reply to this query was abandoned because the scrape deadline was reached.";
+  }
+
+  private String getQueryFailureProblem(Exception e) {
+    return "This query failed and was abandoned: " + e;
   }
 
   private String getProblem(MBeanSelector selector) {
@@ -82,31 +310,179 @@ public class ExporterCall extends AuthenticatedCall {
     return sb.toString();
   }
 
-  private Map<String, Object> getMetrics(WebClient webClient, MBeanSelector selector) throws IOException {
-    String jsonResponse = requestMetrics(webClient, selector);
-    if (isNullOrEmptyString(jsonResponse)) return Collections.emptyMap();
+  // Sends the query whole, or if it is large or slow, as pieces sent at the same time, each with a client of its own,
+  // whose replies are charged against the limit for the whole query. A domain runtime query may instead be sent
+  // as pages, each selecting a limited number of servers.
+  private Map<String, Object> getPlannedMetrics(WebClient webClient, MBeanSelector selector, ResponseLimit scrapeLimit,
+                                                ResponseLimit queryLimit) throws IOException {
+    final List<MBeanSelector> pages = getServerPages(webClient, selector);
+    if (!pages.isEmpty())
+      return combine(QueryPlanner.sendPieces(pages, target, page -> getPieceMetrics(page, scrapeLimit, queryLimit)));
+
+    final List<MBeanSelector> pieces = QueryPlanner.getPieces(selector);
+    if (!pieces.isEmpty()) return getSplitMetrics(selector, pieces, scrapeLimit, queryLimit);
+
+    final long startTime = System.nanoTime();
+    final Map<String, Object> metrics = getMetrics(webClient, selector, scrapeLimit, queryLimit);
+    QueryPlanner.recordReply(selector, false, queryLimit.getBytesRead(),
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    return metrics;
+  }
+
+  // Reads the MBeans directly from an MBean server, so there is no reply to limit or split.
+  private Map<String, Object> getSourceMetrics(MetricsSource metricsSource, MBeanSelector selector) throws IOException {
+    numQueriesSent.incrementAndGet();
+    return metricsSource.getMetrics(target, selector);
+  }
+
+  private Map<String, Object> getSplitMetrics(MBeanSelector selector, List<MBeanSelector> pieces,
+                                              ResponseLimit scrapeLimit, ResponseLimit queryLimit) throws IOException {
+    final QueryPlanner.Replies<Map<String, Object>> replies
+          = QueryPlanner.sendPieces(pieces, target, piece -> getPieceMetrics(piece, scrapeLimit, queryLimit));
+    QueryPlanner.recordReply(selector, true, queryLimit.getBytesRead(), replies.getTotalLatencyMillis());
+    return combine(replies);
+  }
+
+  private Map<String, Object> combine(QueryPlanner.Replies<Map<String, Object>> replies) {
+    final Map<String, Object> metrics = new HashMap<>();
+    replies.getReplies().forEach(metrics::putAll);
+    return metrics;
+  }
+
+  // Asks the admin server for the names of the running servers, if the domain runtime query is to be paged.
+  private List<MBeanSelector> getServerPages(WebClient webClient, MBeanSelector selector) throws IOException {
+    final Integer serversPerRequest = LiveConfiguration.getServersPerRequest();
+    if (selector.getQueryType() != QueryType.DOMAIN_RUNTIME || serversPerRequest == null) return Collections.emptyList();
+
+    final String url = getQueryUrl(selector);
+    final JsonObject serverNamesResponse = webClient.withUrl(url).doPostRequestForJson(MBeanSelector.SERVER_NAMES_REQUEST);
+    WlsRestExchanges.addExchange(url, MBeanSelector.SERVER_NAMES_REQUEST, serverNamesResponse);
+    return selector.getServerPages(serverNamesResponse, serversPerRequest);
+  }
 
-    return LiveConfiguration.scrapeMetrics(selector, jsonResponse);
+  private Map<String, Object> getPieceMetrics(MBeanSelector piece, ResponseLimit scrapeLimit, ResponseLimit queryLimit)
+        throws IOException {
+    final ResponseLimit pieceLimit = queryLimit.forQuery(ResponseLimit.UNLIMITED);
+    final WebClient client = createWebClient();
+    client.setResponseLimit(pieceLimit);
+    client.setTimeout(deadline.getTimeoutMillis(LiveConfiguration.getQueryTimeoutMillis(piece)));
+    client.setDeadline(deadline);
+    return getMetrics(client, piece, scrapeLimit, pieceLimit);
   }
 
-  private String requestMetrics(WebClient webClient, MBeanSelector selector) throws IOException {
+  // Records the size of the reply, from which the query's filter strategy is chosen. The size is unknown
+  // if the reply was received by a hedging client. The reply is read with the field discovery used to build
+  // the request, since the selector may start discovering its fields again while the request is in flight.
+  private Map<String, Object> getMetrics(WebClient webClient, MBeanSelector selector, ResponseLimit scrapeLimit,
+                                         ResponseLimit queryLimit) throws IOException {
     if (selector.needsNewKeys()) refreshKeys(webClient, selector);
+    final long keyBytes = queryLimit.getBytesRead();
+    final FieldDiscovery discovery = selector.getFieldDiscovery();
+    JsonObject jsonResponse = requestMetrics(webClient, selector, discovery, scrapeLimit);
+    if (jsonResponse == null) return Collections.emptyMap();
+
+    final Map<String, Object> metrics = LiveConfiguration.scrapeMetrics(target, selector, discovery, jsonResponse);
+    final long responseBytes = queryLimit.getBytesRead() - keyBytes;
+    if (responseBytes > 0) selector.recordResponseSize(responseBytes);
+    return metrics;
+  }
 
+  // A query is hedged only if a healthy host other than the current one is available to answer it.
+  private JsonObject requestMetrics(WebClient webClient, MBeanSelector selector, FieldDiscovery discovery,
+                                    ResponseLimit scrapeLimit) throws IOException {
     final String url = getQueryUrl(selector);
-    final String jsonResponse = webClient.withUrl(url).doPostRequest(selector.getRequest());
-    WlsRestExchanges.addExchange(url, selector.getRequest(), jsonResponse);
+    final String request = selector.getRequest(discovery);
+    numQueriesSent.incrementAndGet();
+    final Optional<UrlBuilder.AlternateHost> alternate
+          = RequestHedger.mayHedge(selector) ? getAlternateHost(selector) : Optional.empty();
+    final JsonObject jsonResponse = alternate.isPresent()
+          ? sendHedged(selector, request, url, alternate.get(), scrapeLimit)
+          : RequestHedger.send(selector, createQueryRequest(webClient, url, request), null);
+    WlsRestExchanges.addExchange(url, request, jsonResponse);
+    return jsonResponse;
+  }
+
+  // The outcome of each request is recorded in the health of its host, so that a failure to connect to one host is
+  // noticed even when the other answers. The scrape then continues with the host which answered. The hedge is sent
+  // only if the concurrency limiter has a permit to spare, which it holds until its request ends.
+  private JsonObject sendHedged(MBeanSelector selector, String request, String url,
+                                UrlBuilder.AlternateHost alternate, ResponseLimit scrapeLimit) throws IOException {
+    final AtomicBoolean primaryUnreachable = new AtomicBoolean();
+    final JsonObject jsonResponse = RequestHedger.send(selector,
+          noticeConnectionFailure(createQueryRequest(createQueryClient(selector, scrapeLimit), url, request),
+                primaryUnreachable),
+          () -> withPermit(reportTo(alternate, createQueryRequest(createQueryClient(selector, scrapeLimit),
+                alternate.getUrl(), request))));
+    if (primaryUnreachable.get()) failOver(alternate);
     return jsonResponse;
   }
 
+  private RequestHedger.Request<JsonObject> withPermit(RequestHedger.Request<JsonObject> request) {
+    final ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.tryAcquire(target);
+    if (permit == null) return null;
+
+    return new RequestHedger.Request<JsonObject>() {
+      @Override
+      public JsonObject send() throws IOException {
+        try {
+          return request.send();
+        } finally {
+          permit.onIgnore();
+        }
+      }
+
+      @Override
+      public void discard() {
+        permit.onIgnore();
+      }
+    };
+  }
+
+  private RequestHedger.Request<JsonObject> noticeConnectionFailure(RequestHedger.Request<JsonObject> request,
+                                                                    AtomicBoolean connectionFailed) {
+    return () -> {
+      try {
+        return request.send();
+      } catch (RestPortConnectionException e) {
+        connectionFailed.set(true);
+        throw e;
+      }
+    };
+  }
+
+  private RequestHedger.Request<JsonObject> reportTo(UrlBuilder.AlternateHost host,
+                                                     RequestHedger.Request<JsonObject> request) {
+    return () -> {
+      final long start = System.nanoTime();
+      try {
+        final JsonObject reply = request.send();
+        host.reportSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return reply;
+      } catch (RestPortConnectionException e) {
+        host.reportFailure();
+        throw e;
+      }
+    };
+  }
+
+  private RequestHedger.Request<JsonObject> createQueryRequest(WebClient client, String url, String request) {
+    return () -> client.withUrl(url).doPostRequestForJson(request);
+  }
+
+  // A hedged request may still be running after the scrape has moved on, so it needs a client of its own.
+  private WebClient createQueryClient(MBeanSelector selector, ResponseLimit scrapeLimit) {
+    final WebClient client = createWebClient();
+    client.setResponseLimit(LiveConfiguration.createQueryLimit(scrapeLimit, selector));
+    client.setTimeout(deadline.getTimeoutMillis(LiveConfiguration.getQueryTimeoutMillis(selector)));
+    client.setDeadline(deadline);
+    return client;
+  }
+
   private void refreshKeys(WebClient webClient, MBeanSelector selector) throws IOException {
     final String url = getQueryUrl(selector);
-    final String keyResponse = webClient.withUrl(url).doPostRequest(selector.getKeyRequest());
+    final JsonObject keyResponse = webClient.withUrl(url).doPostRequestForJson(selector.getKeyRequest());
     WlsRestExchanges.addExchange(url, selector.getKeyRequest(), keyResponse);
-    selector.offerKeys(toJsonObject(keyResponse));
-  }
-
-  private static JsonObject toJsonObject(String response) {
-      return JsonParser.parseString(response).getAsJsonObject();
+    if (keyResponse != null) selector.offerKeys(keyResponse);
   }
 
   private TreeMap<String, Object> sort(Map<String, Object> metrics) {
@@ -0,0 +1,95 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.Locale;
+
+/**
+ * The formats in which the exporter can present its metrics, chosen from the Accept header of the scrape.
+ */
+enum ExpositionFormat {
+  /** The classic Prometheus text format. **/
+  TEXT("text/plain; version=0.0.4; charset=utf-8"),
+  /** The OpenMetrics text format, which ends with an EOF marker and has no free-form comments. **/
+  OPENMETRICS("application/openmetrics-text; version=1.0.0; charset=utf-8"),
+  /** Length-delimited Prometheus MetricFamily protocol buffers, the cheapest for Prometheus to parse. **/
+  PROTOBUF("application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited");
+
+  private static final String PROTOBUF_TYPE = "application/vnd.google.protobuf";
+  private static final String OPENMETRICS_TYPE = "application/openmetrics-text";
+  private static final String METRIC_FAMILY_PARAMETER = "proto=io.prometheus.client.MetricFamily";
+  private static final String DELIMITED_PARAMETER = "encoding=delimited";
+
+  private final String contentType;
+
+  ExpositionFormat(String contentType) {
+    this.contentType = contentType;
+  }
+
+  /**
+   * Returns the value of the Content-Type header with which metrics in this format are sent.
+   */
+  String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * Selects the format with the highest preference in an Accept header. A media range which names no
+   * format the exporter can produce is ignored, and if no format is acceptable, the classic text format is used.
+   * @param acceptHeader the value of the Accept header, or null if there was none
+   * @return the format in which to send the metrics
+   */
+  static ExpositionFormat negotiate(String acceptHeader) {
+    ExpositionFormat selected = TEXT;
+    double selectedQuality = 0;
+    if (acceptHeader == null) return selected;
+
+    for (String mediaRange : acceptHeader.split(",")) {
+      final String[] parts = mediaRange.split(";");
+      final ExpositionFormat format = toFormat(parts);
+      final double quality = getQuality(parts);
+      if (format != null && quality > selectedQuality) {
+        selected = format;
+        selectedQuality = quality;
+      }
+    }
+    return selected;
+  }
+
+  private static ExpositionFormat toFormat(String[] mediaRange) {
+    final String mediaType = mediaRange[0].trim().toLowerCase(Locale.ROOT);
+    if (mediaType.equals(PROTOBUF_TYPE))
+      return hasParameter(mediaRange, METRIC_FAMILY_PARAMETER) && hasParameter(mediaRange, DELIMITED_PARAMETER)
+            ? PROTOBUF : null;
+    else if (mediaType.equals(OPENMETRICS_TYPE))
+      return OPENMETRICS;
+    else if (mediaType.equals("text/plain") || mediaType.equals("text/*") || mediaType.equals("*/*"))
+      return TEXT;
+    else
+      return null;
+  }
+
+  private static boolean hasParameter(String[] mediaRange, String parameter) {
+    for (int i = 1; i < mediaRange.length; i++)
+      if (mediaRange[i].trim().equals(parameter)) return true;
+    return false;
+  }
+
+  // Returns the quality value of a media range, or 1 if none is given.
+  private static double getQuality(String[] mediaRange) {
+    for (int i = 1; i < mediaRange.length; i++) {
+      final String parameter = mediaRange[i].trim();
+      if (parameter.startsWith("q=")) return parseQuality(parameter.substring(2));
+    }
+    return 1;
+  }
+
+  private static double parseQuality(String value) {
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
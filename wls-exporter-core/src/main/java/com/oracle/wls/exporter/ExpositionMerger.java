@@ -0,0 +1,206 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Combines the metrics pages of several exporters into one. Every sample is labeled with the exporter from which
+ * it came, replacing any instance label it already has, so that the metrics of different exporters cannot collide.
+ * A series which has already been added, and the HELP or TYPE of a metric already described, is kept only once.
+ * Other comments are dropped. Since the text format requires the samples of a metric family to be contiguous,
+ * and the same family appears on the page of each exporter, the samples are held by family until all the pages
+ * have been added. This costs little more than the record of the series already added, which is needed in any case.
+ */
+class ExpositionMerger {
+
+  private static final String INSTANCE_LABEL = "instance";
+  private static final String LINE_SEPARATOR = "\n";
+
+  private final PrintStream out;
+  private final Set<String> seriesAdded = new HashSet<>();
+  private final Set<String> descriptionsAdded = new HashSet<>();
+  private final Map<String, Family> families = new LinkedHashMap<>();
+  private String describedFamily;
+  private long numDuplicates;
+
+  ExpositionMerger(PrintStream out) {
+    this.out = out;
+  }
+
+  /**
+   * Writes the metrics from the page of a single exporter.
+   * @param instance the name identifying the exporter
+   * @param exposition the text of its metrics page
+   */
+  void append(String instance, String exposition) {
+    describedFamily = null;
+    for (String line : exposition.split("\\r?\\n"))
+      appendLine(instance, line.trim());
+  }
+
+  /**
+   * Writes the metrics of all the pages appended, each family with its description followed by all its samples.
+   */
+  void finish() {
+    for (Family family : families.values())
+      family.writeTo(out);
+    families.clear();
+  }
+
+  /**
+   * Returns the number of samples dropped because their series had already been added.
+   */
+  long getNumDuplicates() {
+    return numDuplicates;
+  }
+
+  private void appendLine(String instance, String line) {
+    if (line.isEmpty())
+      return;
+    else if (line.startsWith("#"))
+      appendComment(line);
+    else
+      appendSample(instance, line);
+  }
+
+  private void appendComment(String line) {
+    final String[] words = line.substring(1).trim().split("\\s+", 3);
+    if (words.length < 2 || !isDescription(words[0])) return;
+
+    describedFamily = words[1];
+    if (descriptionsAdded.add(words[0] + ' ' + words[1]))
+      getFamily(describedFamily).descriptions.add(line);
+  }
+
+  private boolean isDescription(String keyword) {
+    return keyword.equals("HELP") || keyword.equals("TYPE");
+  }
+
+  private void appendSample(String instance, String line) {
+    final Sample sample = Sample.parse(line);
+    if (sample == null) return;
+
+    if (seriesAdded.add(sample.getSeriesKey(instance)))
+      getFamily(getFamilyName(sample)).samples.add(sample.getSeries(instance) + ' ' + sample.value);
+    else
+      numDuplicates++;
+  }
+
+  // A sample belongs to the family most recently described on its page if its name is that of the family,
+  // or that of the family with a suffix, such as the _count of a summary. Otherwise it is a family of its own.
+  private String getFamilyName(Sample sample) {
+    if (describedFamily != null
+          && (sample.name.equals(describedFamily) || sample.name.startsWith(describedFamily + '_')))
+      return describedFamily;
+    else
+      return sample.name;
+  }
+
+  private Family getFamily(String name) {
+    return families.computeIfAbsent(name, n -> new Family());
+  }
+
+  // The description and samples of a metric family, each in the order in which they were added.
+  private static class Family {
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<String> samples = new ArrayList<>();
+
+    void writeTo(PrintStream out) {
+      for (String line : descriptions)
+        out.print(line + LINE_SEPARATOR);
+      for (String line : samples)
+        out.print(line + LINE_SEPARATOR);
+    }
+  }
+
+  // A sample line from a metrics page: a metric name, optional labels, and a value, possibly with a timestamp.
+  private static class Sample {
+    private final String name;
+    private final List<String> labels;
+    private final String value;
+
+    private Sample(String name, List<String> labels, String value) {
+      this.name = name;
+      this.labels = labels;
+      this.value = value;
+    }
+
+    // Returns the parsed sample, or null if the line is not a well-formed sample.
+    static Sample parse(String line) {
+      int i = 0;
+      while (i < line.length() && line.charAt(i) != '{' && !Character.isWhitespace(line.charAt(i)))
+        i++;
+      final String name = line.substring(0, i);
+
+      final List<String> labels = new ArrayList<>();
+      if (i < line.length() && line.charAt(i) == '{')
+        i = parseLabels(line, i + 1, labels);
+      if (name.isEmpty() || i < 0) return null;
+
+      final String value = line.substring(i).trim();
+      return value.isEmpty() ? null : new Sample(name, labels, value);
+    }
+
+    // Adds the labels which start at the specified position, each as name="value", and returns the position
+    // following the closing brace, or -1 if the labels are malformed.
+    private static int parseLabels(String line, int start, List<String> labels) {
+      int i = start;
+      while (i < line.length()) {
+        final char c = line.charAt(i);
+        if (c == '}')
+          return i + 1;
+        else if (c == ',' || Character.isWhitespace(c))
+          i++;
+        else {
+          final int end = findLabelEnd(line, i);
+          if (end < 0) return -1;
+          labels.add(line.substring(i, end));
+          i = end;
+        }
+      }
+      return -1;
+    }
+
+    // Returns the position following the closing quote of the label value which starts at the specified position.
+    private static int findLabelEnd(String line, int start) {
+      final int equals = line.indexOf('=', start);
+      if (equals < 0 || equals + 1 >= line.length() || line.charAt(equals + 1) != '"') return -1;
+
+      for (int i = equals + 2; i < line.length(); i++)
+        if (line.charAt(i) == '\\')
+          i++;
+        else if (line.charAt(i) == '"')
+          return i + 1;
+      return -1;
+    }
+
+    // Returns a key which is the same for any two samples of the same series, whatever the order of their labels.
+    String getSeriesKey(String instance) {
+      final List<String> sortedLabels = new ArrayList<>();
+      sortedLabels.add(INSTANCE_LABEL + "=\"" + instance + '"');
+      for (String label : labels)
+        if (!label.startsWith(INSTANCE_LABEL + "="))
+          sortedLabels.add(label);
+      Collections.sort(sortedLabels);
+      return name + sortedLabels;
+    }
+
+    String getSeries(String instance) {
+      final StringBuilder sb = new StringBuilder(name).append('{');
+      sb.append(INSTANCE_LABEL).append("=\"").append(instance).append('"');
+      for (String label : labels)
+        if (!label.startsWith(INSTANCE_LABEL + "="))
+          sb.append(',').append(label);
+      return sb.append('}').toString();
+    }
+  }
+}
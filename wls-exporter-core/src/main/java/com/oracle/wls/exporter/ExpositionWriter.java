@@ -0,0 +1,243 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes metrics to a stream in one of the exposition formats. Each metric is written along with the type of its
+ * family: a counter if its name is among those declared as counters, and otherwise a gauge. Since every format
+ * requires the samples of a family to be written together, and different queries may produce samples of the same
+ * metric, the samples are held until the output is finished, and then written grouped by metric name, in the order
+ * in which each name first appeared.
+ */
+abstract class ExpositionWriter {
+
+  private static final String LINE_SEPARATOR = "\n"; // This is not dependent on the platform running the exporter.
+  private static final String TOTAL_SUFFIX = "_total";
+
+  final PrintStream out;
+  private final Set<String> counterNames;
+  private final Map<Object, List<Runnable>> pending = new LinkedHashMap<>();
+
+  private ExpositionWriter(PrintStream out, Set<String> counterNames) {
+    this.out = out;
+    this.counterNames = counterNames;
+  }
+
+  /**
+   * Creates a writer for the specified format.
+   * @param format the format in which to write the metrics
+   * @param out the stream to which the metrics are written
+   * @param counterNames the names of the metrics which are to be typed as counters
+   */
+  static ExpositionWriter create(ExpositionFormat format, PrintStream out, Set<String> counterNames) {
+    switch (format) {
+      case PROTOBUF:
+        return new ProtobufWriter(out, counterNames);
+      case OPENMETRICS:
+        return new TextWriter(out, counterNames, true);
+      default:
+        return new TextWriter(out, counterNames, false);
+    }
+  }
+
+  /**
+   * Records a single sample, to be written with the other samples of its metric.
+   * @param sample the metric name, followed by its qualifiers, if any, in braces
+   * @param value the value of the metric
+   */
+  void writeSample(String sample, Object value) {
+    pending.computeIfAbsent(getMetricName(sample), n -> new ArrayList<>()).add(() -> printSample(sample, value));
+  }
+
+  /**
+   * Records a comment, to be written after the metrics which preceded it, if the format permits free-form comments.
+   * @param comment the text of the comment, including its comment markers
+   */
+  void writeComment(String comment) {
+    pending.put(new Object(), Collections.singletonList(() -> printComment(comment)));
+  }
+
+  /**
+   * Writes the recorded samples and comments, followed by whatever the format requires after the last metric.
+   */
+  void finish() {
+    pending.values().forEach(entries -> entries.forEach(Runnable::run));
+    pending.clear();
+    printEnd();
+  }
+
+  /**
+   * Writes a single sample. All the samples of a metric are written one after another.
+   * @param sample the metric name, followed by its qualifiers, if any, in braces
+   * @param value the value of the metric
+   */
+  abstract void printSample(String sample, Object value);
+
+  /**
+   * Writes a comment, if the format permits free-form comments.
+   * @param comment the text of the comment, including its comment markers
+   */
+  void printComment(String comment) {
+  }
+
+  /**
+   * Writes whatever the format requires after the last metric.
+   */
+  void printEnd() {
+  }
+
+  boolean isCounter(String metricName) {
+    return counterNames.contains(metricName);
+  }
+
+  static String getMetricName(String sample) {
+    final int qualifiersStart = sample.indexOf('{');
+    return qualifiersStart < 0 ? sample : sample.substring(0, qualifiersStart);
+  }
+
+  // The classic and OpenMetrics text formats, which differ in their treatment of counters and comments.
+  private static class TextWriter extends ExpositionWriter {
+    private final boolean openMetrics;
+    private final Set<String> typedFamilies = new HashSet<>();
+
+    TextWriter(PrintStream out, Set<String> counterNames, boolean openMetrics) {
+      super(out, counterNames);
+      this.openMetrics = openMetrics;
+    }
+
+    @Override
+    void printSample(String sample, Object value) {
+      final String metricName = getMetricName(sample);
+      final boolean counter = isCounter(metricName);
+      final String family = openMetrics && counter ? withoutTotalSuffix(metricName) : metricName;
+      if (typedFamilies.add(family))
+        out.print("# TYPE " + family + ' ' + (counter ? "counter" : "gauge") + LINE_SEPARATOR);
+      out.print(getSampleName(sample, metricName, family, counter) + " " + value + LINE_SEPARATOR);
+    }
+
+    private String withoutTotalSuffix(String metricName) {
+      return metricName.endsWith(TOTAL_SUFFIX)
+            ? metricName.substring(0, metricName.length() - TOTAL_SUFFIX.length()) : metricName;
+    }
+
+    // OpenMetrics requires the samples of a counter to be named for its family, with a suffix of "_total".
+    private String getSampleName(String sample, String metricName, String family, boolean counter) {
+      return openMetrics && counter ? family + TOTAL_SUFFIX + sample.substring(metricName.length()) : sample;
+    }
+
+    @Override
+    void printComment(String comment) {
+      if (!openMetrics) out.println(comment);
+    }
+
+    @Override
+    void printEnd() {
+      if (openMetrics) out.print("# EOF" + LINE_SEPARATOR);
+    }
+  }
+
+  // Length-delimited MetricFamily messages, as defined in the Prometheus metrics.proto. Each family is written
+  // once its last sample has been seen. Samples whose values are not numeric cannot be represented, and are omitted.
+  private static class ProtobufWriter extends ExpositionWriter {
+    private static final int FAMILY_NAME = 1;
+    private static final int FAMILY_TYPE = 3;
+    private static final int FAMILY_METRIC = 4;
+    private static final int METRIC_LABEL = 1;
+    private static final int METRIC_GAUGE = 2;
+    private static final int METRIC_COUNTER = 3;
+    private static final int LABEL_NAME = 1;
+    private static final int LABEL_VALUE = 2;
+    private static final int VALUE = 1;
+    private static final int COUNTER_TYPE = 0;
+    private static final int GAUGE_TYPE = 1;
+
+    private String familyName;
+    private ProtobufMessage family;
+
+    ProtobufWriter(PrintStream out, Set<String> counterNames) {
+      super(out, counterNames);
+    }
+
+    @Override
+    void printSample(String sample, Object value) {
+      final Double number = toDouble(value);
+      if (number == null) return;
+
+      final String metricName = getMetricName(sample);
+      if (!metricName.equals(familyName)) startFamily(metricName);
+      family.addMessage(FAMILY_METRIC, createMetric(sample.substring(metricName.length()), number));
+    }
+
+    private Double toDouble(Object value) {
+      if (value instanceof Number) return ((Number) value).doubleValue();
+      try {
+        return Double.parseDouble(String.valueOf(value));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    private void startFamily(String metricName) {
+      writeFamily();
+      familyName = metricName;
+      family = new ProtobufMessage()
+            .addString(FAMILY_NAME, metricName)
+            .addVarint(FAMILY_TYPE, isCounter(metricName) ? COUNTER_TYPE : GAUGE_TYPE);
+    }
+
+    private ProtobufMessage createMetric(String qualifiers, double value) {
+      final ProtobufMessage metric = new ProtobufMessage();
+      for (String[] label : parseQualifiers(qualifiers))
+        metric.addMessage(METRIC_LABEL, new ProtobufMessage().addString(LABEL_NAME, label[0]).addString(LABEL_VALUE, label[1]));
+      metric.addMessage(isCounter(familyName) ? METRIC_COUNTER : METRIC_GAUGE, new ProtobufMessage().addDouble(VALUE, value));
+      return metric;
+    }
+
+    private void writeFamily() {
+      if (family == null) return;
+
+      final byte[] bytes = family.toDelimitedByteArray();
+      out.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    void printEnd() {
+      writeFamily();
+      family = null;
+    }
+  }
+
+  /**
+   * Splits the qualifiers of a sample into name-value pairs.
+   * @param qualifiers the qualifiers in braces, such as {@code {name="a",server="b"}}, or an empty string
+   * @return a list of two-element arrays, each holding a name and its unquoted value
+   */
+  static List<String[]> parseQualifiers(String qualifiers) {
+    final List<String[]> result = new ArrayList<>();
+    int i = qualifiers.indexOf('{') + 1;
+    while (i > 0 && i < qualifiers.length()) {
+      final int equals = qualifiers.indexOf("=\"", i);
+      if (equals < 0) break;
+
+      final StringBuilder value = new StringBuilder();
+      int j = equals + 2;
+      for (; j < qualifiers.length() && qualifiers.charAt(j) != '"'; j++) {
+        if (qualifiers.charAt(j) == '\\' && j + 1 < qualifiers.length()) j++;
+        value.append(qualifiers.charAt(j));
+      }
+      result.add(new String[] {qualifiers.substring(i, equals).trim(), value.toString()});
+      i = j + 2;  // skip the closing quote and the following comma
+    }
+    return result;
+  }
+}
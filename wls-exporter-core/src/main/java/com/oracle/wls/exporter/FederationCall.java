@@ -0,0 +1,214 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.oracle.wls.exporter.domain.FederationConfiguration;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+
+/**
+ * Produces the combined metrics of the exporters listed in the federation configuration. Their metrics pages
+ * are fetched at the same time, up to the configured limit, using the credentials sent by the client,
+ * and each is merged as soon as it and those listed before it have arrived. The combined page is written
+ * once all have been merged, so that the samples of each metric family are together. An exporter whose metrics
+ * have not arrived within the configured time of starting to fetch them is reported as down, even if the fetch
+ * is still running.
+ */
+public class FederationCall {
+
+  static final String FEDERATION_UP = "exporter_federation_up";
+  static final String FEDERATION_DURATION_SECONDS = "exporter_federation_duration_seconds";
+  static final String FEDERATION_DUPLICATES = "exporter_federation_duplicate_samples";
+
+  private static final double NANOSEC_PER_SECONDS = 1000000000;
+
+  private static final RequestThreadPool THREAD_POOL = RequestThreadPool.create("wls-exporter-federation-");
+
+  private final WebClientFactory webClientFactory;
+  private final InvocationContext context;
+
+  public FederationCall(WebClientFactory webClientFactory, InvocationContext context) {
+    this.webClientFactory = webClientFactory;
+    this.context = context;
+  }
+
+  /**
+   * Sends the combined metrics of the federated exporters to the client.
+   * @throws IOException if unable to write the reply
+   */
+  public void invoke() throws IOException {
+    LiveConfiguration.updateConfiguration();
+    final FederationConfiguration federation = LiveConfiguration.getFederationConfiguration();
+    try {
+      if (federation == null)
+        context.sendError(HTTP_NOT_FOUND, "No exporters are configured for federation");
+      else
+        displayMetrics(federation);
+    } finally {
+      context.close();
+    }
+  }
+
+  private void displayMetrics(FederationConfiguration federation) throws IOException {
+    context.setResponseHeader("Content-Type", "text/plain");
+    final Fetcher fetcher = new Fetcher(federation, context.getAuthenticationHeader());
+    fetcher.start();
+
+    try (PrintStream out = context.getResponseStream()) {
+      final ExpositionMerger merger = new ExpositionMerger(out);
+      final List<String> exporters = federation.getExporters();
+      for (int i = 0; i < exporters.size(); i++)
+        fetcher.getResult(i).writeTo(merger, out);
+      merger.finish();
+
+      writeType(out, FEDERATION_UP);
+      for (int i = 0; i < exporters.size(); i++)
+        fetcher.getResult(i).writeUp(out);
+      writeType(out, FEDERATION_DURATION_SECONDS);
+      for (int i = 0; i < exporters.size(); i++)
+        fetcher.getResult(i).writeDuration(out);
+      writeType(out, FEDERATION_DUPLICATES);
+      out.print(FEDERATION_DUPLICATES + String.format("{instance=\"%s\"}", context.getInstanceName())
+            + " " + merger.getNumDuplicates() + "\n");
+    }
+  }
+
+  private static void writeType(PrintStream out, String metricName) {
+    out.print("# TYPE " + metricName + " gauge\n");
+  }
+
+  // Returns the name by which the metrics of an exporter are labeled.
+  private static String toInstance(String url) {
+    return URI.create(url).getAuthority();
+  }
+
+  // Fetches the metrics pages of the exporters on pooled threads, no more at once than the configuration permits.
+  private class Fetcher implements Runnable {
+    private final FederationConfiguration federation;
+    private final String credentials;
+    private final AtomicInteger nextExporter = new AtomicInteger();
+    private final CompletableFuture<FetchResult>[] results;
+    private final AtomicLongArray startNanos;
+
+    @SuppressWarnings("unchecked")
+    Fetcher(FederationConfiguration federation, String credentials) {
+      this.federation = federation;
+      this.credentials = credentials;
+      this.results = new CompletableFuture[federation.getExporters().size()];
+      this.startNanos = new AtomicLongArray(results.length);
+      for (int i = 0; i < results.length; i++)
+        results[i] = new CompletableFuture<>();
+    }
+
+    // If no pooled thread is available, the remaining pages are fetched by the calling thread.
+    void start() {
+      try {
+        for (int i = 0; i < Math.min(federation.getMaxParallelRequests(), results.length); i++)
+          THREAD_POOL.getExecutor().execute(this);
+      } catch (RejectedExecutionException e) {
+        run();
+      }
+    }
+
+    @Override
+    public void run() {
+      for (int i = nextExporter.getAndIncrement(); i < results.length; i = nextExporter.getAndIncrement()) {
+        final long start = System.nanoTime();
+        startNanos.set(i, start);
+        results[i].complete(fetch(federation.getExporters().get(i), start));
+      }
+    }
+
+    private FetchResult fetch(String url, long start) {
+      try {
+        final WebClient client = webClientFactory.createClient();
+        client.setAuthentication(credentials);
+        client.setTimeout(federation.getTimeoutMillis());
+        client.setDeadline(ScrapeDeadline.afterMillis(federation.getTimeoutMillis()));
+        return new FetchResult(url, client.withUrl(url).doGetRequest(), null, System.nanoTime() - start);
+      } catch (Exception e) {
+        return new FetchResult(url, null, e, System.nanoTime() - start);
+      }
+    }
+
+    // Waits for the metrics of an exporter until the configured time has passed since the fetch started. An exporter
+    // whose fetch has not yet started, because the earlier ones are still running, is waited for until it does.
+    FetchResult getResult(int index) throws InterruptedIOException {
+      final long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(federation.getTimeoutMillis());
+      try {
+        while (true) {
+          final long start = startNanos.get(index);
+          final long waitNanos = start == 0 ? timeoutNanos : start + timeoutNanos - System.nanoTime();
+          try {
+            return results[index].get(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+          } catch (TimeoutException e) {
+            if (start != 0) recordTimeout(index, start);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while awaiting federated metrics");
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(e.getCause());  // the fetcher records its failures rather than throwing them
+      }
+    }
+
+    // Records the exporter as down, unless its metrics have just arrived, so that later calls return the same result.
+    private void recordTimeout(int index, long start) {
+      final String url = federation.getExporters().get(index);
+      final TimeoutException failure
+            = new TimeoutException("No metrics received within " + federation.getTimeoutMillis() + " ms");
+      results[index].complete(new FetchResult(url, null, failure, System.nanoTime() - start));
+    }
+  }
+
+  // The metrics page of a single exporter, or the reason it could not be fetched.
+  private static class FetchResult {
+    private final String url;
+    private final String exposition;
+    private final Exception failure;
+    private final long elapsedNanos;
+
+    FetchResult(String url, String exposition, Exception failure, long elapsedNanos) {
+      this.url = url;
+      this.exposition = exposition;
+      this.failure = failure;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    void writeTo(ExpositionMerger merger, PrintStream out) {
+      if (failure != null)
+        out.print("# Unable to fetch metrics from " + url + ": " + failure + "\n");
+      else if (exposition != null)
+        merger.append(toInstance(url), exposition);
+    }
+
+    void writeUp(PrintStream out) {
+      out.print(FEDERATION_UP + getQualifier() + " " + (failure == null ? 1 : 0) + "\n");
+    }
+
+    void writeDuration(PrintStream out) {
+      out.print(FEDERATION_DURATION_SECONDS + getQualifier() + " "
+            + String.format(Locale.US, "%.2f", elapsedNanos / NANOSEC_PER_SECONDS) + "\n");
+    }
+
+    private String getQualifier() {
+      return String.format("{instance=\"%s\"}", toInstance(url));
+    }
+  }
+}
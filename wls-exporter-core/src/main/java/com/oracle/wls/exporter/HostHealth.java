@@ -0,0 +1,102 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+/**
+ * The recent history of connections to a single REST API host and port, used to decide which candidate
+ * to try first. Each host has a circuit breaker: a connection failure opens the circuit, and the host is
+ * then tried only as a last resort until a backoff period has passed. That period doubles with each
+ * consecutive failure, up to a maximum. Once it has passed, the circuit is half-open, and a single request
+ * may probe the host; success closes the circuit, while failure opens it again.
+ *
+ * <p>The host also keeps a moving average of the time taken by its successful requests, so that the
+ * faster of several healthy hosts may be preferred.</p>
+ */
+class HostHealth {
+
+  /** The time for which a host is avoided after its first failure. */
+  static final long INITIAL_BACKOFF_MILLIS = 1000L;
+
+  /** The longest time for which a host is avoided after repeated failures. */
+  static final long MAX_BACKOFF_MILLIS = 60_000L;
+
+  /** The weight given to the newest sample in the moving average of the latency. */
+  static final double LATENCY_SMOOTHING = 0.3;
+
+  /** The value reported for the latency of a host which has not yet succeeded. */
+  static final long UNKNOWN_LATENCY = -1;
+
+  enum State {
+    /** The host is believed to be healthy. */
+    CLOSED,
+    /** The backoff period has passed, and the host may be probed. */
+    HALF_OPEN,
+    /** The host has failed recently, and should only be used if nothing else works. */
+    OPEN
+  }
+
+  private int consecutiveFailures;
+  private long retryTime;
+  private long probeExpirationTime;
+  private double latencyMillis = UNKNOWN_LATENCY;
+
+  /**
+   * Returns the state of the circuit breaker at the specified time. A half-open host for which a probe is
+   * already in progress is reported as open, so that only one request at a time will probe it.
+   * @param now the current time in milliseconds
+   */
+  synchronized State getState(long now) {
+    if (consecutiveFailures == 0)
+      return State.CLOSED;
+    else if (now < retryTime || now < probeExpirationTime)
+      return State.OPEN;
+    else
+      return State.HALF_OPEN;
+  }
+
+  /**
+   * Records that a request is about to be sent to this host. If the circuit is half-open, this starts a probe,
+   * which prevents other requests from probing it until the probe is reported or the maximum backoff has passed.
+   * @param now the current time in milliseconds
+   */
+  synchronized void recordAttempt(long now) {
+    if (getState(now) == State.HALF_OPEN) probeExpirationTime = now + MAX_BACKOFF_MILLIS;
+  }
+
+  /**
+   * Records a successful request, closing the circuit.
+   * @param latency the time in milliseconds taken by the request
+   */
+  synchronized void recordSuccess(long latency) {
+    consecutiveFailures = 0;
+    probeExpirationTime = 0;
+    if (latencyMillis == UNKNOWN_LATENCY)
+      latencyMillis = latency;
+    else
+      latencyMillis += LATENCY_SMOOTHING * (latency - latencyMillis);
+  }
+
+  /**
+   * Records a failure to connect, opening the circuit.
+   * @param now the current time in milliseconds
+   */
+  synchronized void recordFailure(long now) {
+    consecutiveFailures++;
+    probeExpirationTime = 0;
+    retryTime = now + getBackoffMillis();
+  }
+
+  private long getBackoffMillis() {
+    final int doublings = Math.min(consecutiveFailures - 1, Long.numberOfLeadingZeros(INITIAL_BACKOFF_MILLIS) - 1);
+    return Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << doublings);
+  }
+
+  /**
+   * Returns the moving average of the time in milliseconds taken by successful requests,
+   * or {@link #UNKNOWN_LATENCY} if none has succeeded.
+   */
+  synchronized long getLatencyMillis() {
+    return Math.round(latencyMillis);
+  }
+}
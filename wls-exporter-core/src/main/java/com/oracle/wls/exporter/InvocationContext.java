@@ -22,6 +22,15 @@ public interface InvocationContext {
    */
   String getApplicationContext();
 
+  /**
+   * Returns the name of the WebLogic server to be scraped, when the exporter scrapes more than one. Each such server
+   * has its own sessions, query state and concurrency limit.
+   * @return a name identifying the server, or null if the exporter scrapes only one
+   */
+  default String getTarget() {
+    return null;
+  }
+
   /**
    * Returns the authentication header sent to the exporter from the client. It will be passed on to WebLogic.
    */
@@ -32,6 +41,20 @@ public interface InvocationContext {
    */
   String getContentType();
 
+  /**
+   * Returns the value of the specified header in the client request.
+   * @param name the name of the header
+   * @return the header value, or null if the header was not sent
+   */
+  String getRequestHeader(String name);
+
+  /**
+   * Returns the value of the specified parameter in the client request.
+   * @param name the name of the parameter
+   * @return the parameter value, or null if the parameter was not sent
+   */
+  String getRequestParameter(String name);
+
   /**
    * Returns an identifier for the WebLogic Server instance. It will be included in generated metrics.
    */
@@ -0,0 +1,289 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import com.oracle.wls.exporter.domain.MBeanSelector;
+
+/**
+ * Reads metrics through a remote JMX connector to the MBean server of the server being scraped. The client's
+ * credentials are sent as the JMX credentials, so that the server authenticates them as the REST API would.
+ * Connectors are kept open between scrapes, one for each service URL and set of credentials. A connector is
+ * closed once a request made with it fails and it can no longer reach the server, once it has not been used for
+ * a while, and once it has been open for as long as credentials are trusted without being checked again,
+ * so that credentials revoked in the meantime are rejected. A connector retired for any of these reasons is
+ * no longer handed out, but is closed only once the scrapes already using it have finished with it. Connecting
+ * is bounded by the query timeout, as is each request through a WebLogic t3 connector.
+ */
+class JmxMetricsSource implements MetricsSource {
+
+  /** The longest time in seconds for which a connector may remain unused before it is closed. */
+  static final long MAX_IDLE_SECONDS = 120;
+
+  /** The longest time in seconds for which a connector is used, after which a new one is opened. */
+  static final long MAX_AGE_SECONDS = AuthenticatedCall.CREDENTIAL_CHECK_SECONDS;
+
+  /** The most connectors kept open at once. If another is needed, the least recently used is closed. */
+  static final int MAX_CONNECTORS = 64;
+
+  /** The WebLogic JMX client setting which limits the time in milliseconds that a request waits for its reply. */
+  static final String REQUEST_TIMEOUT_PROPERTY = "jmx.remote.x.request.waiting.timeout";
+
+  private static final String BASIC_PREFIX = "Basic ";
+  private static final String CHALLENGE = "Basic realm=\"weblogic\"";
+
+  private static final RequestThreadPool THREAD_POOL = RequestThreadPool.create("wls-exporter-jmx-");
+  private static final Map<String, Connection> connections = new HashMap<>();
+  private static final AtomicLong numConnections = new AtomicLong();
+
+  private final String url;
+  private final String credentials;
+
+  private JmxMetricsSource(String url, String credentials) {
+    this.url = url;
+    this.credentials = credentials;
+  }
+
+  /**
+   * Returns a source which reads metrics from the specified connector server.
+   * @param url the JMX service URL of the server being scraped
+   * @param credentials the authentication header sent by the client
+   */
+  static JmxMetricsSource get(String url, String credentials) {
+    return new JmxMetricsSource(url, credentials);
+  }
+
+  /**
+   * Returns the number of JMX connections which have been opened since the exporter started.
+   */
+  static long getNumConnections() {
+    return numConnections.get();
+  }
+
+  @Override
+  public Map<String, Object> getMetrics(String target, MBeanSelector selector) throws IOException {
+    final Connection connection = acquireConnection();
+    try {
+      final JMXConnector connector = connection.getConnector(LiveConfiguration.getQueryTimeoutMillis(selector));
+      try {
+        return LiveConfiguration.scrapeMetrics(target, selector, connector.getMBeanServerConnection());
+      } catch (IOException e) {
+        if (!isConnected(connector)) retire(connection);
+        throw e;
+      }
+    } finally {
+      release(connection);
+    }
+  }
+
+  // Finds or adds the connection for this URL and these credentials, and counts the caller as one of its users,
+  // retiring any connections which have expired. Only the lookup is done while holding the lock, so that
+  // connecting to one server does not delay scrapes of others.
+  private Connection acquireConnection() {
+    final List<Connection> unused = new ArrayList<>();
+    final Connection connection;
+    synchronized (connections) {
+      final long now = currentTimeMillis();
+      connections.values().removeIf(c -> c.isExpiredAt(now) && retireRemoved(c, unused));
+      connection = connections.computeIfAbsent(getConnectorKey(), k -> new Connection(now));
+      connection.lastUsed = now;
+      connection.users++;
+      if (connections.size() > MAX_CONNECTORS) retireRemoved(removeLeastRecentlyUsed(), unused);
+    }
+    unused.forEach(Connection::close);
+    return connection;
+  }
+
+  // Marks a connection just removed from the map as retired, adding it to the list of those to close
+  // if no scrape is using it. Called while holding the lock on the connections.
+  private static boolean retireRemoved(Connection connection, List<Connection> unused) {
+    connection.retired = true;
+    if (connection.users == 0) unused.add(connection);
+    return true;
+  }
+
+  // Stops handing out a connection whose connector can no longer reach the server. It is closed once its
+  // current users have released it, which includes the caller.
+  private static void retire(Connection connection) {
+    synchronized (connections) {
+      connections.values().removeIf(c -> c == connection);
+      connection.retired = true;
+    }
+  }
+
+  private static void release(Connection connection) {
+    final boolean unused;
+    synchronized (connections) {
+      unused = --connection.users == 0 && connection.retired;
+    }
+    if (unused) connection.close();
+  }
+
+  private static Connection removeLeastRecentlyUsed() {
+    final String key = connections.entrySet().stream()
+          .min(Comparator.comparingLong(e -> e.getValue().lastUsed))
+          .map(Map.Entry::getKey)
+          .orElseThrow(IllegalStateException::new);
+    return connections.remove(key);
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  // The credentials are hashed, so that they are not held in memory.
+  private String getConnectorKey() {
+    return url + ' ' + SessionCookieStore.toKey(String.valueOf(credentials));
+  }
+
+  // Connects on a pooled thread, so that a server which does not answer cannot hold the scrape beyond the timeout.
+  // A connector which arrives too late is closed.
+  private JMXConnector connect(int timeoutMillis) throws IOException {
+    final JMXServiceURL serviceUrl = toServiceUrl();
+    final Map<String, Object> environment = getEnvironment(timeoutMillis);
+    final CompletableFuture<JMXConnector> future;
+    try {
+      future = CompletableFuture.supplyAsync(() -> openConnector(serviceUrl, environment), THREAD_POOL.getExecutor());
+    } catch (RejectedExecutionException e) {
+      throw new RestPortConnectionException(url);
+    }
+
+    try {
+      final JMXConnector connector = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+      numConnections.incrementAndGet();
+      return connector;
+    } catch (TimeoutException e) {
+      future.thenAccept(JmxMetricsSource::close);
+      throw new RestPortConnectionException(url);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.thenAccept(JmxMetricsSource::close);
+      throw new InterruptedIOException("Interrupted while connecting to " + url);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SecurityException) throw new AuthenticationChallengeException(CHALLENGE);
+      throw new RestPortConnectionException(url);
+    }
+  }
+
+  private static JMXConnector openConnector(JMXServiceURL serviceUrl, Map<String, Object> environment) {
+    try {
+      return JMXConnectorFactory.connect(serviceUrl, environment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private JMXServiceURL toServiceUrl() throws IOException {
+    try {
+      return new JMXServiceURL(url);
+    } catch (MalformedURLException e) {
+      throw new IOException("Invalid JMX service URL: " + url, e);
+    }
+  }
+
+  private Map<String, Object> getEnvironment(int timeoutMillis) {
+    final Map<String, Object> environment = new HashMap<>();
+    final String[] userAndPassword = getUserAndPassword();
+    if (userAndPassword == null) throw new AuthenticationChallengeException(CHALLENGE);
+
+    environment.put(JMXConnector.CREDENTIALS, userAndPassword);
+    environment.put(REQUEST_TIMEOUT_PROPERTY, (long) timeoutMillis);
+    return environment;
+  }
+
+  // Decodes the user name and password from a basic authentication header.
+  private String[] getUserAndPassword() {
+    if (credentials == null || !credentials.startsWith(BASIC_PREFIX)) return null;
+
+    try {
+      final String decoded = new String(Base64.getDecoder().decode(credentials.substring(BASIC_PREFIX.length()).trim()),
+            StandardCharsets.UTF_8);
+      final int separator = decoded.indexOf(':');
+      return separator < 0 ? null : new String[] {decoded.substring(0, separator), decoded.substring(separator + 1)};
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private boolean isConnected(JMXConnector connector) {
+    try {
+      connector.getConnectionId();
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static void close(JMXConnector connector) {
+    try {
+      connector.close();
+    } catch (IOException ignored) {
+      // the connector is being abandoned anyway
+    }
+  }
+
+  /**
+   * Closes all connectors not in use, and those in use once they are released. Intended for unit testing.
+   */
+  static void clear() {
+    final List<Connection> unused = new ArrayList<>();
+    synchronized (connections) {
+      connections.values().forEach(c -> retireRemoved(c, unused));
+      connections.clear();
+    }
+    unused.forEach(Connection::close);
+    numConnections.set(0);
+  }
+
+  // The connector for one service URL and set of credentials, once it has been opened. Threads which need it
+  // while it is being opened wait for that, rather than each opening another. The number of users, and whether
+  // the connection has been retired, are guarded by the lock on the connections.
+  private class Connection {
+    private final long created;
+    private volatile long lastUsed;
+    private JMXConnector connector;
+    private int users;
+    private boolean retired;
+
+    Connection(long now) {
+      this.created = now;
+      this.lastUsed = now;
+    }
+
+    boolean isExpiredAt(long now) {
+      return now - lastUsed > TimeUnit.SECONDS.toMillis(MAX_IDLE_SECONDS)
+            || now - created > TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS);
+    }
+
+    synchronized JMXConnector getConnector(int timeoutMillis) throws IOException {
+      if (connector == null) connector = connect(timeoutMillis);
+      return connector;
+    }
+
+    // Called only once the connection has been retired and has no users, so that no connector will be opened later.
+    synchronized void close() {
+      if (connector != null) JmxMetricsSource.close(connector);
+    }
+  }
+}
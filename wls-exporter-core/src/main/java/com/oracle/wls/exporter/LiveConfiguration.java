@@ -8,15 +8,28 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServerConnection;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.oracle.wls.exporter.domain.DomainRuntimeConfiguration;
 import com.oracle.wls.exporter.domain.ExporterConfig;
+import com.oracle.wls.exporter.domain.FederationConfiguration;
+import com.oracle.wls.exporter.domain.FieldDiscovery;
+import com.oracle.wls.exporter.domain.JmxConfiguration;
 import com.oracle.wls.exporter.domain.MBeanSelector;
+import com.oracle.wls.exporter.domain.MetricsSourceType;
+import com.oracle.wls.exporter.domain.OtlpConfiguration;
 import com.oracle.wls.exporter.domain.QuerySyncConfiguration;
+import com.oracle.wls.exporter.domain.RemoteWriteConfiguration;
+import com.oracle.wls.exporter.domain.SubscriptionConfiguration;
 
 /**
  * The repository for the current exporter configuration.
@@ -40,6 +53,8 @@ public class LiveConfiguration {
     private static int serverPort;
     private static ConfigurationUpdater updater = new NullConfigurationUpdater();
     private static ErrorLog errorLog = new ErrorLog();
+    private static final Map<String, TargetConfig> targetConfigs = new ConcurrentHashMap<>();
+    private static final AtomicLong configGeneration = new AtomicLong();
 
     static {
         loadFromString("");
@@ -60,6 +75,27 @@ public class LiveConfiguration {
         return config;
     }
 
+    // Each server scraped by an exporter which scrapes several has its own copy of the queries. The configuration
+    // is changed in place, so each copy records the generation of the configuration from which it was made,
+    // and a copy made before the latest change is replaced, even if it was stored after the copies were cleared.
+    private static ExporterConfig getConfig(String target) {
+        if (target == null) return getConfig();
+
+        final long generation = configGeneration.get();
+        return targetConfigs.compute(target, (t, copy) -> copy != null && copy.generation >= generation
+              ? copy : new TargetConfig(generation, getConfig().copyForTarget())).config;
+    }
+
+    private static class TargetConfig {
+        private final long generation;
+        private final ExporterConfig config;
+
+        TargetConfig(long generation, ExporterConfig config) {
+            this.generation = generation;
+            this.config = config;
+        }
+    }
+
     public static String getVersionString() {
         try (InputStream in = LiveConfiguration.class.getClassLoader().getResourceAsStream(VERSION_PROPERTY_FILE)) {
             Properties properties = new Properties();
@@ -73,6 +109,20 @@ public class LiveConfiguration {
 
     public static void loadFromString(String yamlString) {
         config = ExporterConfig.loadConfig(yamlString);
+        applyRuntimeSettings();
+    }
+
+    // Applies the current settings for recording REST exchanges, hedging requests, limiting concurrent scrapes,
+    // splitting large queries and pushing metrics.
+    private static void applyRuntimeSettings() {
+        WlsRestExchanges.configure(config.getMessagesConfiguration());
+        RequestHedger.configure(config.getHedgingConfiguration());
+        ConcurrencyLimiter.configure(config.getConcurrencyConfiguration());
+        QueryPlanner.configure(config.getQuerySplittingConfiguration());
+        RemoteWriter.configure(config.getRemoteWriteConfiguration());
+        OtlpExporter.configure(config.getOtlpConfiguration());
+        configGeneration.incrementAndGet();
+        targetConfigs.clear();
     }
 
     /**
@@ -106,6 +156,111 @@ public class LiveConfiguration {
         return getConfig().getEffectiveQueries();
     }
 
+    /**
+     * Returns the top-level selectors for the queries in the specified group.
+     * @param group the name of a query group, or null to select all queries
+     * @return an array of hierarchical mbean queries
+     */
+    static MBeanSelector[] getQueries(String group) {
+        return getConfig().getEffectiveQueries(group);
+    }
+
+    /**
+     * Returns the top-level selectors for the queries in the specified group, to be sent to the specified server.
+     * @param group the name of a query group, or null to select all queries
+     * @param target the server to be scraped, or null if the exporter scrapes only one
+     * @return an array of hierarchical mbean queries
+     */
+    static MBeanSelector[] getQueries(String group, String target) {
+        return getConfig(target).getEffectiveQueries(group);
+    }
+
+    /**
+     * Returns true if any query belongs to the specified group.
+     * @param group the name of a query group
+     */
+    static boolean hasQueryGroup(String group) {
+        return getConfig() != null && getConfig().hasQueryGroup(group);
+    }
+
+    /**
+     * Returns the limit on the bytes to read in the replies to all queries made during a single scrape.
+     * @return a limit object which can create the limits for the individual queries
+     */
+    static ResponseLimit createScrapeLimit() {
+        return ResponseLimit.forScrape(Optional.ofNullable(getConfig().getMaxScrapeBytes()).orElse(ResponseLimit.UNLIMITED));
+    }
+
+    /**
+     * Creates the deadline for a scrape starting now.
+     * @param timeoutHeader the scrape timeout sent by the client, in seconds, or null if none was sent
+     * @return a deadline object for the scrape
+     */
+    static ScrapeDeadline createScrapeDeadline(String timeoutHeader) {
+        return ScrapeDeadline.create(timeoutHeader, getConfig().getScrapeTimeoutSeconds(), getConfig().getScrapeTimeoutOffsetMillis());
+    }
+
+    /**
+     * Returns the limit on the bytes to read in the reply to the specified query.
+     * @param scrapeLimit the limit for the scrape which includes the query
+     * @param selector the query to be sent
+     * @return a limit object for the query
+     */
+    static ResponseLimit createQueryLimit(ResponseLimit scrapeLimit, MBeanSelector selector) {
+        return scrapeLimit.forQuery(Optional.ofNullable(getConfig().getMaxResponseBytes(selector)).orElse(ResponseLimit.UNLIMITED));
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the reply to the specified query.
+     * @param selector the query to be sent
+     * @return the configured timeout, or the default if none is configured
+     */
+    static int getQueryTimeoutMillis(MBeanSelector selector) {
+        return Optional.ofNullable(getConfig().getQueryTimeoutMillis(selector)).orElse(WebClientCommon.DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Returns the maximum number of servers to select in a single domain runtime query, if the servers are to be paged.
+     * @return a number of servers, or null if each query should select all servers at once
+     */
+    static Integer getServersPerRequest() {
+        return Optional.ofNullable(getConfig().getDomainRuntimeConfiguration())
+              .map(DomainRuntimeConfiguration::getServersPerRequest)
+              .orElse(null);
+    }
+
+    /**
+     * Returns the configuration for federating other exporters, if any.
+     * @return a configuration object, or null if no exporters are to be federated
+     */
+    static FederationConfiguration getFederationConfiguration() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getFederationConfiguration).orElse(null);
+    }
+
+    /**
+     * Returns the configuration for pushing metrics to a remote-write endpoint, if any.
+     * @return a configuration object, or null if metrics are not to be pushed
+     */
+    static RemoteWriteConfiguration getRemoteWriteConfiguration() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getRemoteWriteConfiguration).orElse(null);
+    }
+
+    /**
+     * Returns the configuration for exporting metrics to an OpenTelemetry collector, if any.
+     * @return a configuration object, or null if metrics are not to be exported over OTLP
+     */
+    static OtlpConfiguration getOtlpConfiguration() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getOtlpConfiguration).orElse(null);
+    }
+
+    /**
+     * Returns the configuration for streaming changed samples to subscribers, if any.
+     * @return a configuration object, or null if subscriptions are not permitted
+     */
+    static SubscriptionConfiguration getSubscriptionConfiguration() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getSubscriptionConfiguration).orElse(null);
+    }
+
     /**
      * Returns the accumulatedLoggedErrors
      * @return a string containing errors or the empty string;
@@ -114,6 +269,22 @@ public class LiveConfiguration {
         return errorLog.getErrors();
     }
 
+    /**
+     * Records an error which occurred outside of a scrape, so that it is reported with the other errors.
+     * @param throwable the error
+     */
+    static void logError(Throwable throwable) {
+        errorLog.log(throwable);
+    }
+
+    /**
+     * Returns the number of errors logged, by type.
+     * @return a map of exception names to counts
+     */
+    static Map<String, Long> getErrorCounts() {
+        return errorLog.getErrorCounts();
+    }
+
     public static void initialize(InputStream configurationFile) {
         if (timestamp != null) return;
 
@@ -124,6 +295,7 @@ public class LiveConfiguration {
 
     private static void initialize(ExporterConfig config) {
         LiveConfiguration.config = config;
+        applyRuntimeSettings();
         installUpdater(LiveConfiguration.config.getQuerySyncConfiguration());
         timestamp = 0L;
     }
@@ -151,7 +323,65 @@ public class LiveConfiguration {
      * @return a map of metric names to values
      */
     static Map<String, Object> scrapeMetrics(MBeanSelector selector, String jsonResponse) {
-        return getConfig().scrapeMetrics(selector, toJsonObject(jsonResponse));
+        return scrapeMetrics(selector, toJsonObject(jsonResponse));
+    }
+
+    /**
+     * Converts a parsed JSON response from the Management RESTful service to Prometheus metrics.
+     * @param selector an MBean selector describing the metrics to extract
+     * @param jsonResponse an object describing the current values of the desired MBean fields
+     * @return a map of metric names to values
+     */
+    static Map<String, Object> scrapeMetrics(MBeanSelector selector, JsonObject jsonResponse) {
+        return getConfig().scrapeMetrics(selector, jsonResponse);
+    }
+
+    /**
+     * Converts a parsed JSON response from the specified server to Prometheus metrics.
+     * @param target the server which was scraped, or null if the exporter scrapes only one
+     * @param selector an MBean selector describing the metrics to extract
+     * @param discovery the selectors which asked for all their fields when the request was built
+     * @param jsonResponse an object describing the current values of the desired MBean fields
+     * @return a map of metric names to values
+     */
+    static Map<String, Object> scrapeMetrics(String target, MBeanSelector selector, FieldDiscovery discovery,
+                                             JsonObject jsonResponse) {
+        return getConfig(target).scrapeMetrics(selector, discovery, jsonResponse);
+    }
+
+    /**
+     * Reads the MBeans described by a selector directly from an MBean server, and converts them to Prometheus metrics.
+     * @param target the server which is being scraped, or null if the exporter scrapes only one
+     * @param selector an MBean selector describing the metrics to extract
+     * @param connection a connection to the MBean server
+     * @return a map of metric names to values
+     * @throws IOException if unable to communicate with the MBean server
+     */
+    static Map<String, Object> scrapeMetrics(String target, MBeanSelector selector, MBeanServerConnection connection)
+          throws IOException {
+        return getConfig(target).scrapeMetrics(selector, connection);
+    }
+
+    /**
+     * Returns the source from which the metrics are to be read.
+     */
+    static MetricsSourceType getMetricsSource() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getMetricsSource).orElse(MetricsSourceType.REST);
+    }
+
+    /**
+     * Returns the names of the metrics which the configuration declares to be counters.
+     */
+    static Set<String> getCounterNames() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getCounterNames).orElse(Collections.emptySet());
+    }
+
+    /**
+     * Returns the settings for reading metrics through a remote JMX connector.
+     * @return a configuration object, or null if none is configured
+     */
+    static JmxConfiguration getJmxConfiguration() {
+        return Optional.ofNullable(getConfig()).map(ExporterConfig::getJmxConfiguration).orElse(null);
     }
 
     private static JsonObject toJsonObject(String response) {
@@ -186,6 +416,7 @@ public class LiveConfiguration {
     static void replaceConfiguration(ExporterConfig uploadedConfig) {
         if (uploadedConfig == null) throw new RuntimeException("No configuration specified");
         getConfig().replace(uploadedConfig);
+        applyRuntimeSettings();
         shareConfiguration();
     }
 
@@ -209,6 +440,7 @@ public class LiveConfiguration {
     private static synchronized void installNewConfiguration(ConfigurationUpdate update) {
         if (update.getTimestamp() > timestamp) {
             getConfig().replace(toConfiguration(update.getConfiguration()));
+            applyRuntimeSettings();
             timestamp = update.getTimestamp();
         }
     }
@@ -0,0 +1,52 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+
+import com.oracle.wls.exporter.domain.MBeanSelector;
+
+/**
+ * Locates the MBean server of the JVM in which the exporter runs. Within WebLogic Server, this is the runtime
+ * MBean server, which holds the runtime and configuration MBeans of the server; elsewhere, as in unit tests,
+ * it is the platform MBean server.
+ */
+class LocalMBeanServer implements MetricsSource {
+
+  static final LocalMBeanServer INSTANCE = new LocalMBeanServer();
+
+  /** The JNDI name under which WebLogic Server makes its runtime MBean server available to applications. **/
+  static final String RUNTIME_MBEAN_SERVER_NAME = "java:comp/env/jmx/runtime";
+
+  private static MBeanServer mbeanServer;
+
+  private LocalMBeanServer() {
+  }
+
+  /**
+   * Returns the MBean server from which to read metrics.
+   */
+  static synchronized MBeanServer get() {
+    if (mbeanServer == null) mbeanServer = lookUpMBeanServer();
+    return mbeanServer;
+  }
+
+  @Override
+  public Map<String, Object> getMetrics(String target, MBeanSelector selector) throws IOException {
+    return LiveConfiguration.scrapeMetrics(target, selector, get());
+  }
+
+  private static MBeanServer lookUpMBeanServer() {
+    try {
+      return (MBeanServer) new InitialContext().lookup(RUNTIME_MBEAN_SERVER_NAME);
+    } catch (NamingException | ClassCastException e) {
+      return ManagementFactory.getPlatformMBeanServer();
+    }
+  }
+}
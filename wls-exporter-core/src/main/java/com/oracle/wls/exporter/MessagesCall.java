@@ -1,4 +1,4 @@
-// Copyright (c) 2022, Oracle and/or its affiliates.
+// Copyright (c) 2022, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter;
@@ -15,8 +15,7 @@ public class MessagesCall extends AuthenticatedCall {
   @Override
   protected void invoke(WebClient webClient, InvocationContext context) throws IOException {
     try (PrintStream out = context.getResponseStream()) {
-      for (String message : WlsRestExchanges.getExchanges())
-        out.println(message);
+      WlsRestExchanges.printExchanges(out);
     }
   }
 }
@@ -0,0 +1,25 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.oracle.wls.exporter.domain.MBeanSelector;
+
+/**
+ * A source which reads the MBeans selected by a query directly from an MBean server, rather than through
+ * the WebLogic REST API. As the reply is never sent as JSON, no response limits or query splitting apply.
+ */
+public interface MetricsSource {
+
+  /**
+   * Reads the MBeans described by a selector and converts them to Prometheus metrics.
+   * @param target the server being scraped, or null if the exporter scrapes only one
+   * @param selector an MBean selector describing the metrics to extract
+   * @return a map of metric names to values
+   * @throws IOException if the MBean server cannot be read
+   */
+  Map<String, Object> getMetrics(String target, MBeanSelector selector) throws IOException;
+}
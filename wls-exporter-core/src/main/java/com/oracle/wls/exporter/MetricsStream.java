@@ -7,21 +7,31 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import javax.management.MBeanServerConnection;
 
+import com.oracle.wls.exporter.domain.FilterStrategy;
 import com.sun.management.OperatingSystemMXBean;
 
 /**
  * A PrintStream that computes metrics for the performance of the exporter itself. It does so by tracking the
- * time from its creation until it is instructed to print those metrics.
+ * time from its creation until it is instructed to print those metrics. All metrics are written in the format
+ * requested by the client.
  *
  * @author Russell Gold
  */
 class MetricsStream extends PrintStream {
-    private static final String PROMETHEUS_LINE_SEPARATOR = "\n"; // This is not dependent on the platform running the exporter.
     private static final double NANOSEC_PER_SECONDS = 1000000000;
     static final String CPU_USAGE_METRIC = "wls_scrape_cpu_seconds";
+    static final String QUERY_SUCCESS_METRIC = "wls_scrape_query_success";
+    static final String QUERY_FILTER_STRATEGY_METRIC = "wls_scrape_query_filter_strategy";
     static final String NUM_MBEANS_SCRAPED_METRIC = "wls_scrape_mbeans_count_total";
     static final String SCRAPE_DURATION_SECONDS_METRIC = "wls_scrape_duration_seconds";
     static final String FREE_MEMORY_METRIC = "exporter_free_memory_bytes";
@@ -29,11 +39,45 @@ class MetricsStream extends PrintStream {
     static final String MAXIMUM_EXCHANGE_SIZE = "exporter_messages_maximum_exchange_bytes";
     static final String RECENT_MESSAGES_DIAGNOSTIC_SIZE = "exporter_messages_recent_bytes";
     static final String RECENT_RETRIES = "exporter_recent_retries";
+    static final String RESPONSE_LIMIT_EXCEEDED = "exporter_response_limit_exceeded_total";
+    static final String QUERIES_SKIPPED = "exporter_queries_skipped_total";
+    static final String QUERY_CACHE_HITS = "exporter_query_cache_hits_total";
+    static final String SPLIT_QUERIES = "exporter_split_queries_total";
+    static final String JMX_CONNECTIONS = "exporter_jmx_connections_total";
+    static final String ERRORS_LOGGED = "exporter_errors_total";
+    static final String HEDGED_REQUESTS = "exporter_hedged_requests_total";
+    static final String HEDGED_REQUESTS_WON = "exporter_hedged_requests_won_total";
+    static final String CONCURRENCY_LIMIT = "exporter_concurrency_limit";
+    static final String CONCURRENCY_IN_FLIGHT = "exporter_concurrency_in_flight";
+    static final String CONCURRENCY_QUEUE_LENGTH = "exporter_concurrency_queue_length";
+    static final String SCRAPES_SHED = "exporter_scrapes_shed_total";
+    static final String SNAPSHOTS_SERVED = "exporter_snapshots_served_total";
+    static final String REMOTE_WRITE_SAMPLES_SENT = "exporter_remote_write_samples_sent_total";
+    static final String REMOTE_WRITE_SAMPLES_DROPPED = "exporter_remote_write_samples_dropped_total";
+    static final String REMOTE_WRITE_RETRIES = "exporter_remote_write_retries_total";
+    static final String REMOTE_WRITE_QUEUE_LENGTH = "exporter_remote_write_queue_length";
+    static final String OTLP_DATA_POINTS_SENT = "exporter_otlp_data_points_sent_total";
+    static final String OTLP_DATA_POINTS_UNCHANGED = "exporter_otlp_data_points_unchanged_total";
+    static final String OTLP_DATA_POINTS_DROPPED = "exporter_otlp_data_points_dropped_total";
+    static final String OTLP_BYTES_SENT = "exporter_otlp_bytes_sent_total";
+    static final String SUBSCRIBERS = "exporter_subscribers";
+    static final String SUBSCRIPTION_EVENTS_SENT = "exporter_subscription_events_sent_total";
+    static final String SUBSCRIPTION_EVENTS_DROPPED = "exporter_subscription_events_dropped_total";
+
+    private static final Set<String> PLATFORM_COUNTERS = new HashSet<>(Arrays.asList(
+          RESPONSE_LIMIT_EXCEEDED, QUERIES_SKIPPED, QUERY_CACHE_HITS, SPLIT_QUERIES, JMX_CONNECTIONS, ERRORS_LOGGED,
+          HEDGED_REQUESTS, HEDGED_REQUESTS_WON, SCRAPES_SHED, SNAPSHOTS_SERVED, REMOTE_WRITE_SAMPLES_SENT,
+          REMOTE_WRITE_SAMPLES_DROPPED, REMOTE_WRITE_RETRIES, OTLP_DATA_POINTS_SENT, OTLP_DATA_POINTS_UNCHANGED,
+          OTLP_DATA_POINTS_DROPPED, OTLP_BYTES_SENT, SUBSCRIPTION_EVENTS_SENT, SUBSCRIPTION_EVENTS_DROPPED));
 
     private final PerformanceProbe performanceProbe;
     private final long startTime;
     private final long startCpu;
     private final String instance;
+    private final Map<String, Boolean> querySuccesses = new LinkedHashMap<>();
+    private final Map<String, FilterStrategy> filterStrategies = new LinkedHashMap<>();
+    private final ExpositionWriter writer;
+    private boolean finished;
 
     private int scrapeCount;
 
@@ -44,7 +88,20 @@ class MetricsStream extends PrintStream {
      * @throws IOException if some error occurs while creating the performance probe
      */
     MetricsStream(String instance, OutputStream outputStream) throws IOException {
-        this(instance, outputStream, new PlatformPerformanceProbe());
+        this(instance, outputStream, ExpositionFormat.TEXT, Collections.emptySet());
+    }
+
+    /**
+     * Constructs a metrics stream object which writes in the specified format.
+     * @param instance the instance from which metrics are being collected
+     * @param outputStream the parent output stream
+     * @param format the format in which to write the metrics
+     * @param counterNames the names of the scraped metrics which are to be typed as counters
+     * @throws IOException if some error occurs while creating the performance probe
+     */
+    MetricsStream(String instance, OutputStream outputStream, ExpositionFormat format, Set<String> counterNames)
+          throws IOException {
+        this(instance, outputStream, new PlatformPerformanceProbe(), format, counterNames);
     }
 
     /**
@@ -54,7 +111,24 @@ class MetricsStream extends PrintStream {
      * @param performanceProbe an object which can return performance data
      */
     MetricsStream(String instance, OutputStream outputStream, PerformanceProbe performanceProbe) {
+        this(instance, outputStream, performanceProbe, ExpositionFormat.TEXT, Collections.emptySet());
+    }
+
+    /**
+     * A constructor for unit testing, allowing the specification of a test version of the performance probe
+     * and of the format in which to write.
+     * @param instance the instance from which metrics are being collected
+     * @param outputStream the parent output stream
+     * @param performanceProbe an object which can return performance data
+     * @param format the format in which to write the metrics
+     * @param counterNames the names of the scraped metrics which are to be typed as counters
+     */
+    MetricsStream(String instance, OutputStream outputStream, PerformanceProbe performanceProbe,
+                  ExpositionFormat format, Set<String> counterNames) {
         super(outputStream);
+        final Set<String> allCounters = new HashSet<>(counterNames);
+        allCounters.addAll(PLATFORM_COUNTERS);
+        this.writer = ExpositionWriter.create(format, this, allCounters);
         this.instance = instance;
         this.performanceProbe = performanceProbe;
         startTime = performanceProbe.getCurrentTime();
@@ -67,29 +141,136 @@ class MetricsStream extends PrintStream {
      * @param value the metric value
      */
     void printMetric(String name, Object value) {
-        print(name + " " + value + PROMETHEUS_LINE_SEPARATOR);
+        writer.writeSample(name, value);
         scrapeCount++;
     }
 
+    /**
+     * Prints a comment, if the format permits comments.
+     * @param comment the text of the comment, including its comment markers
+     */
+    void printComment(String comment) {
+        writer.writeComment(comment);
+    }
+
+    /**
+     * Completes the output in the chosen format, and closes the stream.
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            writer.finish();
+        }
+        super.close();
+    }
+
     /**
      * Prints the summary performance metrics
      */
     void printPlatformMetrics() {
+        printPlatformMetrics(null);
+    }
+
+    /**
+     * Prints the summary performance metrics, including those of the concurrency limit for the specified server.
+     * @param target the server which was scraped, or null if the exporter scrapes only one
+     */
+    void printPlatformMetrics(String target) {
         printPlatformMetric(NUM_MBEANS_SCRAPED_METRIC, scrapeCount);
         printPlatformMetric(SCRAPE_DURATION_SECONDS_METRIC, toSecondsString(getElapsedTime()));
         printPlatformMetric(CPU_USAGE_METRIC, toSecondsString(getCpuUsed()));
+        querySuccesses.forEach(this::printQuerySuccess);
+        filterStrategies.forEach(this::printFilterStrategy);
         printPlatformMetric(FREE_MEMORY_METRIC, Runtime.getRuntime().freeMemory());
         printPlatformMetric(MESSAGES_DIAGNOSTIC_SIZE, WlsRestExchanges.getMessageAllocation());
         printPlatformMetric(MAXIMUM_EXCHANGE_SIZE, WlsRestExchanges.getMaximumExchangeLength());
         printPlatformMetric(RECENT_MESSAGES_DIAGNOSTIC_SIZE, WlsRestExchanges.getTotalExchangeLengthOverPastTenMinutes());
         printPlatformMetric(RECENT_RETRIES, AuthenticatedCall.getRecentRetries());
+        printPlatformMetric(RESPONSE_LIMIT_EXCEEDED, ResponseLimit.getNumLimitsExceeded());
+        printPlatformMetric(QUERIES_SKIPPED, ScrapeDeadline.getNumQueriesSkipped());
+        printPlatformMetric(QUERY_CACHE_HITS, QueryResultCache.getNumCacheHits());
+        printPlatformMetric(SPLIT_QUERIES, QueryPlanner.getNumSplitQueries());
+        printPlatformMetric(JMX_CONNECTIONS, JmxMetricsSource.getNumConnections());
+        printPlatformMetric(HEDGED_REQUESTS, RequestHedger.getNumHedgedRequests());
+        printPlatformMetric(HEDGED_REQUESTS_WON, RequestHedger.getNumHedgesWon());
+        Optional.ofNullable(ConcurrencyLimiter.getCurrent(target)).ifPresent(this::printConcurrencyMetrics);
+        if (LiveConfiguration.getRemoteWriteConfiguration() != null) printRemoteWriteMetrics();
+        if (LiveConfiguration.getOtlpConfiguration() != null) printOtlpMetrics();
+        if (LiveConfiguration.getSubscriptionConfiguration() != null) printSubscriptionMetrics();
+        LiveConfiguration.getErrorCounts().forEach(this::printErrorCount);
         printMetric(getExporterVersionName(), 1);
     }
 
+    private void printConcurrencyMetrics(ConcurrencyLimiter limiter) {
+        printPlatformMetric(CONCURRENCY_LIMIT, limiter.getLimit());
+        printPlatformMetric(CONCURRENCY_IN_FLIGHT, limiter.getInFlight());
+        printPlatformMetric(CONCURRENCY_QUEUE_LENGTH, limiter.getQueueLength());
+        printPlatformMetric(SCRAPES_SHED, ConcurrencyLimiter.getNumShed());
+        printPlatformMetric(SNAPSHOTS_SERVED, ConcurrencyLimiter.getNumSnapshotsServed());
+    }
+
+    private void printRemoteWriteMetrics() {
+        printPlatformMetric(REMOTE_WRITE_SAMPLES_SENT, RemoteWriter.getNumSamplesSent());
+        printPlatformMetric(REMOTE_WRITE_SAMPLES_DROPPED, RemoteWriter.getNumSamplesDropped());
+        printPlatformMetric(REMOTE_WRITE_RETRIES, RemoteWriter.getNumRetries());
+        printPlatformMetric(REMOTE_WRITE_QUEUE_LENGTH, RemoteWriter.getQueueLength());
+    }
+
+    private void printOtlpMetrics() {
+        printPlatformMetric(OTLP_DATA_POINTS_SENT, OtlpExporter.getNumDataPointsSent());
+        printPlatformMetric(OTLP_DATA_POINTS_UNCHANGED, OtlpExporter.getNumDataPointsUnchanged());
+        printPlatformMetric(OTLP_DATA_POINTS_DROPPED, OtlpExporter.getNumDataPointsDropped());
+        printPlatformMetric(OTLP_BYTES_SENT, OtlpExporter.getNumBytesSent());
+    }
+
+    private void printSubscriptionMetrics() {
+        printPlatformMetric(SUBSCRIBERS, MetricsSubscriptions.getNumSubscribers());
+        printPlatformMetric(SUBSCRIPTION_EVENTS_SENT, MetricsSubscriptions.getNumEventsSent());
+        printPlatformMetric(SUBSCRIPTION_EVENTS_DROPPED, MetricsSubscriptions.getNumEventsDropped());
+    }
+
     private void printPlatformMetric(String metricName, Object value) {
         printMetric(metricName + getPlatformQualifier(), value);
     }
 
+    /**
+     * Records whether a query produced its metrics, to be reported with the platform metrics. A name already
+     * used by an earlier query in the same scrape is made unique by adding a number.
+     * @param queryName the name of the query
+     * @param success true if the reply to the query was received and processed
+     * @return the name under which the result was recorded
+     */
+    String recordQueryResult(String queryName, boolean success) {
+        String name = queryName;
+        for (int i = 2; querySuccesses.containsKey(name); i++)
+            name = queryName + "#" + i;
+        querySuccesses.put(name, success);
+        return name;
+    }
+
+    /**
+     * Records the filter strategy in use by a query, to be reported with the platform metrics.
+     * @param queryName the name under which the query's result was recorded
+     * @param strategy the way in which the query selects MBeans by name
+     */
+    void recordFilterStrategy(String queryName, FilterStrategy strategy) {
+        filterStrategies.put(queryName, strategy);
+    }
+
+    private void printFilterStrategy(String queryName, FilterStrategy strategy) {
+        printMetric(QUERY_FILTER_STRATEGY_METRIC
+              + String.format("{instance=\"%s\",query=\"%s\",strategy=\"%s\"}", instance, queryName, strategy), 1);
+    }
+
+    private void printQuerySuccess(String queryName, Boolean success) {
+        printMetric(QUERY_SUCCESS_METRIC + String.format("{instance=\"%s\",query=\"%s\"}", instance, queryName), success ? 1 : 0);
+    }
+
+    private void printErrorCount(String errorType, Long count) {
+        printMetric(ERRORS_LOGGED + String.format("{instance=\"%s\",type=\"%s\"}", instance, errorType), count);
+    }
+
     /**
      * Returns the qualifiers to add to the platform metrics, specifying the configured server
      * @return a metrics qualifier string
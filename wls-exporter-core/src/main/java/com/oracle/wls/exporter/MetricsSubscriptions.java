@@ -0,0 +1,415 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.oracle.wls.exporter.domain.SubscriptionConfiguration;
+
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * Streams changed samples to subscribers, such as tools which watch a few values and would otherwise scrape the
+ * server every few seconds. A single loop runs the queries for all subscribers presenting the same credentials
+ * and naming the same query group, and passes each of them only those samples which have changed since the previous
+ * run and which belong to the metrics it selected. A subscriber which names a group runs only the queries in it. A new subscriber first receives the latest sample of each selected series. Each subscriber
+ * has a bounded queue; one which does not keep up loses its oldest waiting samples, which are counted as dropped,
+ * so that a slow consumer neither delays the others nor holds an unbounded amount of memory.
+ */
+public class MetricsSubscriptions {
+
+  private static final long TICK_SECONDS = 1;
+  private static final String WILDCARD = "*";
+  private static final String[] EXPORTER_METRIC_PREFIXES = {"wls_scrape_", "exporter_"};
+
+  private static final AtomicInteger numSubscribers = new AtomicInteger();
+  private static final AtomicLong numEventsSent = new AtomicLong();
+  private static final AtomicLong numEventsDropped = new AtomicLong();
+
+  private final WebClientFactory webClientFactory;
+  private final String instanceName;
+  private final Supplier<UrlBuilder> urlBuilders;
+  private final Map<String, Feed> feeds = new HashMap<>();
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Creates an object to manage subscriptions.
+   * @param webClientFactory the factory for the clients with which to query the REST API
+   * @param instanceName an identifier for the server, included in the exporter's own metrics
+   * @param urlBuilders a source of objects which create the URLs with which to reach the REST API
+   */
+  public MetricsSubscriptions(WebClientFactory webClientFactory, String instanceName, Supplier<UrlBuilder> urlBuilders) {
+    this.webClientFactory = webClientFactory;
+    this.instanceName = instanceName;
+    this.urlBuilders = urlBuilders;
+  }
+
+  /**
+   * Starts checking, once a second, whether it is time to run the queries for each group of subscribers.
+   * Calls after the first have no effect.
+   */
+  public synchronized void start() {
+    if (scheduler != null) return;
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(MetricsSubscriptions::createThread);
+    scheduler.scheduleWithFixedDelay(this::collectIfDue, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "wls-exporter-subscriptions");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * Registers a subscriber to the samples produced by all the queries.
+   * @param authenticationHeader the credentials presented by the subscriber
+   * @param metricNames the names of the metrics to receive, as for {@link #subscribe(String, String, Collection)}
+   * @return the new subscription
+   * @throws SubscriptionRejectedException if subscriptions are not configured, too many subscribers are connected,
+   *                                       or the queries could not be run
+   */
+  public Subscription subscribe(String authenticationHeader, Collection<String> metricNames)
+        throws SubscriptionRejectedException {
+    return subscribe(authenticationHeader, null, metricNames);
+  }
+
+  /**
+   * Registers a subscriber. If no other subscriber has presented the same credentials and named the same group,
+   * the queries are run at once, so that credentials which the REST API rejects, or a group which is not defined,
+   * are reported to the subscriber.
+   * @param authenticationHeader the credentials presented by the subscriber
+   * @param group the group of queries to run, or null to run all of them
+   * @param metricNames the names of the metrics to receive, any of which may end with '*' to select all metrics whose
+   *                    names begin with the rest of it. If empty, all metrics other than the exporter's own,
+   *                    which change on every run, are received.
+   * @return the new subscription
+   * @throws SubscriptionRejectedException if subscriptions are not configured, too many subscribers are connected,
+   *                                       or the queries could not be run
+   */
+  public Subscription subscribe(String authenticationHeader, String group, Collection<String> metricNames)
+        throws SubscriptionRejectedException {
+    final SubscriptionConfiguration configuration = LiveConfiguration.getSubscriptionConfiguration();
+    if (configuration == null) throw new SubscriptionRejectedException(HTTP_NOT_FOUND, "Subscriptions are not configured");
+
+    final String key = getFeedKey(authenticationHeader, group);
+    final Predicate<String> metricFilter = createMetricFilter(metricNames);
+    synchronized (this) {
+      verifyRoomForSubscriber(configuration);
+      final Feed feed = feeds.get(key);
+      if (feed != null) return feed.addSubscriber(metricFilter, configuration.getQueueCapacity());
+    }
+
+    final Feed feed = new Feed(key, authenticationHeader, group);
+    feed.collect();  // outside the lock, as the queries may be slow
+    synchronized (this) {
+      verifyRoomForSubscriber(configuration);
+      return feeds.computeIfAbsent(key, k -> feed).addSubscriber(metricFilter, configuration.getQueueCapacity());
+    }
+  }
+
+  private static String getFeedKey(String authenticationHeader, String group) {
+    final String credentialsKey = SessionCookieStore.toKey(String.valueOf(authenticationHeader));
+    return group == null ? credentialsKey : credentialsKey + '/' + group;
+  }
+
+  // Must be called while holding the lock, so that no other subscriber can be registered before this one.
+  private void verifyRoomForSubscriber(SubscriptionConfiguration configuration) throws SubscriptionRejectedException {
+    if (countSubscribers() >= configuration.getMaxSubscribers())
+      throw new SubscriptionRejectedException(HTTP_UNAVAILABLE, "Too many subscribers are connected");
+  }
+
+  private int countSubscribers() {
+    return feeds.values().stream().mapToInt(Feed::getNumSubscribers).sum();
+  }
+
+  private synchronized List<Feed> getFeeds() {
+    return new ArrayList<>(feeds.values());
+  }
+
+  private static Predicate<String> createMetricFilter(Collection<String> metricNames) {
+    if (metricNames.isEmpty()) return name -> !isExporterMetric(name);
+
+    return name -> metricNames.stream().anyMatch(selected -> matches(name, selected));
+  }
+
+  private static boolean isExporterMetric(String name) {
+    return Arrays.stream(EXPORTER_METRIC_PREFIXES).anyMatch(name::startsWith);
+  }
+
+  private static boolean matches(String name, String selected) {
+    if (selected.endsWith(WILDCARD))
+      return name.startsWith(selected.substring(0, selected.length() - WILDCARD.length()));
+    else
+      return name.equals(selected);
+  }
+
+  private void collectIfDue() {
+    try {
+      collect(false);
+    } catch (RuntimeException e) {
+      LiveConfiguration.logError(e);  // a failure must not cancel the schedule
+    }
+  }
+
+  /**
+   * Runs the queries for each group of subscribers, and passes the changed samples to them. If subscriptions are
+   * no longer configured, ends all subscriptions.
+   * @param ignoreInterval true to run the queries even if the configured interval has not passed since the last run
+   */
+  void collect(boolean ignoreInterval) {
+    final SubscriptionConfiguration configuration = LiveConfiguration.getSubscriptionConfiguration();
+    for (Feed feed : getFeeds()) {
+      if (configuration == null)
+        feed.endAll("Subscriptions are no longer configured");
+      else if (ignoreInterval || feed.isDue(configuration))
+        feed.collectForSubscribers();
+    }
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * Returns the number of subscribers currently connected.
+   */
+  static int getNumSubscribers() {
+    return numSubscribers.get();
+  }
+
+  /**
+   * Returns the number of samples sent to subscribers.
+   */
+  static long getNumEventsSent() {
+    return numEventsSent.get();
+  }
+
+  /**
+   * Returns the number of samples dropped because a subscriber did not keep up.
+   */
+  static long getNumEventsDropped() {
+    return numEventsDropped.get();
+  }
+
+  /**
+   * Resets the counts. Intended for unit testing.
+   */
+  static void clear() {
+    numSubscribers.set(0);
+    numEventsSent.set(0);
+    numEventsDropped.set(0);
+  }
+
+  // The subscribers which present the same credentials and name the same group, and the samples most recently
+  // obtained for them.
+  private class Feed {
+    private final String key;
+    private final String authenticationHeader;
+    private final String group;
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private Map<String, ScrapedSample> latest = new LinkedHashMap<>();
+    private long lastCollectionMillis;
+
+    Feed(String key, String authenticationHeader, String group) {
+      this.key = key;
+      this.authenticationHeader = authenticationHeader;
+      this.group = group;
+    }
+
+    int getNumSubscribers() {
+      return subscribers.size();
+    }
+
+    boolean isDue(SubscriptionConfiguration configuration) {
+      return currentTimeMillis() - lastCollectionMillis >= TimeUnit.SECONDS.toMillis(configuration.getIntervalSeconds());
+    }
+
+    // Adds a subscriber, which first receives the latest value of each selected series. Must be called while holding
+    // the lock of the enclosing object, so that the feed cannot be removed before the subscriber is added to it.
+    Subscription addSubscriber(Predicate<String> metricFilter, int queueCapacity) {
+      final Subscription subscription = new Subscription(metricFilter, queueCapacity, this::removeSubscriber);
+      subscription.offerAll(latest.values());
+      subscribers.add(subscription);
+      return subscription;
+    }
+
+    // Removes the feed only if no subscriber was added to it since the check, which the shared lock ensures.
+    private void removeSubscriber(Subscription subscription) {
+      synchronized (MetricsSubscriptions.this) {
+        subscribers.remove(subscription);
+        if (subscribers.isEmpty()) feeds.remove(key, this);
+      }
+    }
+
+    void collectForSubscribers() {
+      try {
+        collect();
+      } catch (SubscriptionRejectedException e) {
+        if (e.getStatus() == HTTP_UNAUTHORIZED || e.getStatus() == HTTP_FORBIDDEN)
+          endAll(e.getMessage());
+        else
+          subscribers.forEach(subscription -> subscription.reportFailure(e.getMessage()));
+      }
+    }
+
+    synchronized void collect() throws SubscriptionRejectedException {
+      lastCollectionMillis = currentTimeMillis();
+      final PushInvocationContext context = runQueries();
+      if (context.getStatus() >= HTTP_BAD_REQUEST)
+        throw new SubscriptionRejectedException(context.getStatus(), getFailureMessage(context),
+              context.getAuthenticationChallenge());
+
+      publish(ScrapedSample.parse(context.getResponse()));
+    }
+
+    // Records the samples and passes those which changed to the subscribers, holding the lock of the enclosing
+    // object so that a subscriber being added receives either the previous samples and the changes, or these.
+    private void publish(List<ScrapedSample> samples) {
+      synchronized (MetricsSubscriptions.this) {
+        final Map<String, ScrapedSample> current = new LinkedHashMap<>();
+        final List<ScrapedSample> changed = new ArrayList<>();
+        for (ScrapedSample sample : samples) {
+          final ScrapedSample previous = latest.get(sample.getSeries());
+          if (previous == null || Double.compare(previous.getValue(), sample.getValue()) != 0) changed.add(sample);
+          current.put(sample.getSeries(), sample);
+        }
+        latest = current;
+        subscribers.forEach(subscription -> subscription.offerAll(changed));
+      }
+    }
+
+    private PushInvocationContext runQueries() throws SubscriptionRejectedException {
+      try {
+        return ScrapedSample.runQueries(webClientFactory, instanceName, urlBuilders.get(), authenticationHeader, group);
+      } catch (IOException e) {
+        throw new SubscriptionRejectedException(HTTP_INTERNAL_ERROR, e.toString());
+      }
+    }
+
+    private String getFailureMessage(PushInvocationContext context) {
+      return context.getErrorMessage() != null ? context.getErrorMessage() : "Unable to reach the REST API";
+    }
+
+    void endAll(String reason) {
+      subscribers.forEach(subscription -> subscription.end(reason));
+    }
+  }
+
+  /**
+   * The samples waiting to be sent to a single subscriber.
+   */
+  public static class Subscription implements AutoCloseable {
+    private final Predicate<String> metricFilter;
+    private final BlockingQueue<String> samples;
+    private final Consumer<Subscription> onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicReference<String> failure = new AtomicReference<>();
+    private volatile String endReason;
+
+    private Subscription(Predicate<String> metricFilter, int queueCapacity,
+                         Consumer<Subscription> onClose) {
+      this.metricFilter = metricFilter;
+      this.samples = new ArrayBlockingQueue<>(queueCapacity);
+      this.onClose = onClose;
+      numSubscribers.incrementAndGet();
+    }
+
+    private void offerAll(Collection<ScrapedSample> changed) {
+      for (ScrapedSample sample : changed)
+        if (metricFilter.test(sample.getMetricName())) offer(sample.toText());
+    }
+
+    // Makes room, if necessary, by discarding the oldest waiting samples.
+    private void offer(String sample) {
+      while (!samples.offer(sample))
+        if (samples.poll() != null) numEventsDropped.incrementAndGet();
+    }
+
+    private void reportFailure(String message) {
+      failure.set(message);
+    }
+
+    private void end(String reason) {
+      endReason = reason;
+      close();
+    }
+
+    /**
+     * Waits for changed samples.
+     * @param timeout the longest time to wait
+     * @param unit the unit of the timeout
+     * @return the waiting samples, each a line of the text format, or an empty list if none arrived in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<String> awaitSamples(long timeout, TimeUnit unit) throws InterruptedException {
+      final String first = samples.poll(timeout, unit);
+      if (first == null) return Collections.emptyList();
+
+      final List<String> result = new ArrayList<>();
+      result.add(first);
+      samples.drainTo(result);
+      numEventsSent.addAndGet(result.size());
+      return result;
+    }
+
+    /**
+     * Returns the reason the most recent run of the queries failed, if it did, and forgets it.
+     * @return a message, or null if there has been no failure since the last call
+     */
+    public String takeFailure() {
+      return failure.getAndSet(null);
+    }
+
+    /**
+     * Returns true if this subscription has ended, either because the subscriber closed it, or because
+     * samples can no longer be obtained for it.
+     */
+    public boolean isClosed() {
+      return closed.get();
+    }
+
+    /**
+     * Returns the reason this subscription was ended by the exporter, if it was.
+     * @return a message, or null
+     */
+    public String getEndReason() {
+      return endReason;
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        numSubscribers.decrementAndGet();
+        onClose.accept(this);
+      }
+    }
+  }
+}
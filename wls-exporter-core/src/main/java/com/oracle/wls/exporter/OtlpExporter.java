@@ -0,0 +1,356 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import com.oracle.wls.exporter.domain.AggregationTemporality;
+import com.oracle.wls.exporter.domain.OtlpConfiguration;
+
+import static com.oracle.wls.exporter.WebAppConstants.GZIP_ENCODING;
+
+/**
+ * Exports metrics to an OpenTelemetry collector over OTLP/HTTP. When OTLP export is configured, the queries are run
+ * on a schedule through the same flow as a scrape. Counters are sent as monotonic sums and all other metrics
+ * as gauges, in gzip-compressed protobuf requests of bounded size. With delta temporality, each sum reports
+ * the change since the previous export, so the first value seen for a counter serves only as the baseline
+ * for the next. Unless configured otherwise, a series whose value has not changed since it was last sent
+ * is omitted, which greatly reduces the traffic from a stable domain.
+ */
+public class OtlpExporter {
+
+  static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+  static final String SERVICE_NAME = "wls-exporter";
+  static final String SERVICE_NAME_ATTRIBUTE = "service.name";
+  static final String SERVICE_INSTANCE_ATTRIBUTE = "service.instance.id";
+  static final String SCOPE_NAME = "com.oracle.wls.exporter";
+
+  private static final long TICK_SECONDS = 1;
+
+  // Field numbers from the OTLP metrics protocol definitions.
+  private static final int REQUEST_RESOURCE_METRICS = 1;
+  private static final int RESOURCE_METRICS_RESOURCE = 1;
+  private static final int RESOURCE_METRICS_SCOPE_METRICS = 2;
+  private static final int RESOURCE_ATTRIBUTES = 1;
+  private static final int SCOPE_METRICS_SCOPE = 1;
+  private static final int SCOPE_METRICS_METRICS = 2;
+  private static final int SCOPE_NAME_FIELD = 1;
+  private static final int METRIC_NAME = 1;
+  private static final int METRIC_GAUGE = 5;
+  private static final int METRIC_SUM = 7;
+  private static final int DATA_POINTS = 1;
+  private static final int SUM_TEMPORALITY = 2;
+  private static final int SUM_IS_MONOTONIC = 3;
+  private static final int POINT_START_TIME = 2;
+  private static final int POINT_TIME = 3;
+  private static final int POINT_AS_DOUBLE = 4;
+  private static final int POINT_ATTRIBUTES = 7;
+  private static final int KEY_VALUE_KEY = 1;
+  private static final int KEY_VALUE_VALUE = 2;
+  private static final int ANY_VALUE_STRING = 1;
+
+  private static final AtomicLong numDataPointsSent = new AtomicLong();
+  private static final AtomicLong numDataPointsUnchanged = new AtomicLong();
+  private static final AtomicLong numDataPointsDropped = new AtomicLong();
+  private static final AtomicLong numBytesSent = new AtomicLong();
+  private static OtlpExporter started;
+  private static ScheduledExecutorService scheduler;
+
+  private final WebClientFactory webClientFactory;
+  private final String instanceName;
+  private final Supplier<UrlBuilder> urlBuilders;
+  private Map<String, SeriesState> lastValues = new HashMap<>();
+  private long lastExportMillis;
+
+  OtlpExporter(WebClientFactory webClientFactory, String instanceName, Supplier<UrlBuilder> urlBuilders) {
+    this.webClientFactory = webClientFactory;
+    this.instanceName = instanceName;
+    this.urlBuilders = urlBuilders;
+  }
+
+  /**
+   * Enables exporting metrics. While the configuration, which may be changed at any time, includes an OTLP section,
+   * a thread checks once a second whether it is time to export. Calls after the first have no effect
+   * until {@link #stop()} is called.
+   * @param webClientFactory the factory for the clients with which to query the REST API
+   * @param instanceName an identifier for the server, sent as the service instance of the metrics
+   * @param urlBuilders a source of objects which create the URLs with which to reach the REST API
+   */
+  public static synchronized void start(WebClientFactory webClientFactory, String instanceName,
+                                        Supplier<UrlBuilder> urlBuilders) {
+    if (started != null) return;
+
+    started = new OtlpExporter(webClientFactory, instanceName, urlBuilders);
+    configure(LiveConfiguration.getOtlpConfiguration());
+  }
+
+  /**
+   * Starts or stops the exporting thread to match the configuration. Has no effect unless exporting has been started.
+   * The values last sent are kept while the thread is stopped, so that the deltas sent after it restarts
+   * cover the whole time since.
+   * @param configuration the OTLP settings, or null if metrics are not to be exported
+   */
+  static synchronized void configure(OtlpConfiguration configuration) {
+    if (started == null) return;
+
+    if (configuration != null && scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(OtlpExporter::createThread);
+      scheduler.scheduleWithFixedDelay(started::exportIfDue, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+    } else if (configuration == null && scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Stops exporting metrics, ends the exporting thread and discards the values last sent. Must be called when
+   * a web application is undeployed, so that the thread does not outlive it.
+   */
+  public static synchronized void stop() {
+    if (scheduler != null) scheduler.shutdownNow();
+    scheduler = null;
+    started = null;
+  }
+
+  /**
+   * Returns true if a thread is checking whether it is time to export metrics.
+   */
+  static synchronized boolean isScheduled() {
+    return scheduler != null;
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "wls-exporter-otlp");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private void exportIfDue() {
+    try {
+      final OtlpConfiguration configuration = LiveConfiguration.getOtlpConfiguration();
+      if (configuration != null && isDue(configuration)) export(configuration);
+    } catch (RuntimeException e) {
+      LiveConfiguration.logError(e);  // a failure must not cancel the schedule
+    }
+  }
+
+  private boolean isDue(OtlpConfiguration configuration) {
+    return currentTimeMillis() - lastExportMillis >= TimeUnit.SECONDS.toMillis(configuration.getIntervalSeconds());
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * Runs the queries and sends the data points which have changed.
+   * @param configuration the OTLP settings
+   */
+  synchronized void export(OtlpConfiguration configuration) {
+    lastExportMillis = currentTimeMillis();
+    final long timeNanos = TimeUnit.MILLISECONDS.toNanos(lastExportMillis);
+    final List<DataPoint> points = selectDataPoints(configuration, ScrapedSample.collect(
+          webClientFactory, instanceName, urlBuilders.get(), configuration.getAuthenticationHeader()), timeNanos);
+
+    for (int i = 0; i < points.size(); i += configuration.getMaxDataPointsPerRequest())
+      send(configuration, points.subList(i, Math.min(points.size(), i + configuration.getMaxDataPointsPerRequest())));
+  }
+
+  // Converts the samples to data points, omitting those which need not be sent. The state of a series changes only
+  // when its data point is accepted by the collector, so that a failed request neither loses the increments of
+  // its counters nor causes its series to be taken as unchanged. Series which no longer appear are forgotten.
+  private List<DataPoint> selectDataPoints(OtlpConfiguration configuration, List<ScrapedSample> samples, long timeNanos) {
+    final boolean delta = configuration.getTemporality() == AggregationTemporality.DELTA;
+    final Map<String, SeriesState> currentValues = new HashMap<>();
+    final List<DataPoint> result = new ArrayList<>();
+    for (ScrapedSample sample : samples) {
+      final SeriesState previous = lastValues.get(sample.getSeries());
+      if (previous == null) {
+        final SeriesState state = new SeriesState(sample.getValue(), timeNanos, timeNanos);
+        if (sample.isCounter() && delta)
+          currentValues.put(sample.getSeries(), state);
+        else
+          result.add(new DataPoint(sample, sample.getValue(), timeNanos, timeNanos, state));
+      } else if (configuration.isOnlyChangedSeries() && sample.getValue() == previous.value) {
+        currentValues.put(sample.getSeries(), previous);
+        numDataPointsUnchanged.incrementAndGet();
+      } else {
+        final boolean reset = sample.isCounter() && sample.getValue() < previous.value;
+        final long startTimeNanos = reset ? previous.timeNanos : previous.startTimeNanos;
+        final SeriesState state = new SeriesState(sample.getValue(), timeNanos, startTimeNanos);
+        currentValues.put(sample.getSeries(), previous);
+        if (sample.isCounter() && delta)
+          result.add(new DataPoint(sample, reset ? sample.getValue() : sample.getValue() - previous.value,
+                previous.timeNanos, timeNanos, state));
+        else
+          result.add(new DataPoint(sample, sample.getValue(), startTimeNanos, timeNanos, state));
+      }
+    }
+    lastValues = currentValues;
+    return result;
+  }
+
+  private void send(OtlpConfiguration configuration, List<DataPoint> batch) {
+    final byte[] body = gzip(createRequest(batch, configuration.getTemporality()).toByteArray());
+    final int status = PushConnection.post(configuration.getUrl(), configuration.getTimeoutMillis(),
+          PROTOBUF_CONTENT_TYPE, GZIP_ENCODING, new String[0], body);
+    if (PushConnection.isSuccess(status)) {
+      batch.forEach(point -> lastValues.put(point.series, point.state));
+      numDataPointsSent.addAndGet(batch.size());
+      numBytesSent.addAndGet(body.length);
+    } else {
+      numDataPointsDropped.addAndGet(batch.size());
+    }
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return baos.toByteArray();
+  }
+
+  /**
+   * Creates an ExportMetricsServiceRequest message, as defined by the OTLP protocol.
+   * @param batch the data points to include
+   * @param temporality the temporality of the sums
+   */
+  private ProtobufMessage createRequest(List<DataPoint> batch, AggregationTemporality temporality) {
+    final ProtobufMessage scopeMetrics = new ProtobufMessage()
+          .addMessage(SCOPE_METRICS_SCOPE, new ProtobufMessage().addString(SCOPE_NAME_FIELD, SCOPE_NAME));
+    groupByMetric(batch).forEach((name, points) -> scopeMetrics.addMessage(SCOPE_METRICS_METRICS,
+          createMetric(name, points, temporality)));
+
+    final ProtobufMessage resourceMetrics = new ProtobufMessage()
+          .addMessage(RESOURCE_METRICS_RESOURCE, createResource())
+          .addMessage(RESOURCE_METRICS_SCOPE_METRICS, scopeMetrics);
+    return new ProtobufMessage().addMessage(REQUEST_RESOURCE_METRICS, resourceMetrics);
+  }
+
+  private ProtobufMessage createResource() {
+    return new ProtobufMessage()
+          .addMessage(RESOURCE_ATTRIBUTES, createAttribute(SERVICE_NAME_ATTRIBUTE, SERVICE_NAME))
+          .addMessage(RESOURCE_ATTRIBUTES, createAttribute(SERVICE_INSTANCE_ATTRIBUTE, instanceName));
+  }
+
+  private static Map<String, List<DataPoint>> groupByMetric(List<DataPoint> batch) {
+    final Map<String, List<DataPoint>> result = new LinkedHashMap<>();
+    batch.forEach(point -> result.computeIfAbsent(point.metricName, n -> new ArrayList<>()).add(point));
+    return result;
+  }
+
+  private static ProtobufMessage createMetric(String name, List<DataPoint> points, AggregationTemporality temporality) {
+    final boolean counter = points.get(0).counter;
+    final ProtobufMessage data = new ProtobufMessage();
+    points.forEach(point -> data.addMessage(DATA_POINTS, point.toMessage()));
+    if (counter) data.addVarint(SUM_TEMPORALITY, temporality.getOtlpValue()).addVarint(SUM_IS_MONOTONIC, 1);
+
+    return new ProtobufMessage().addString(METRIC_NAME, name).addMessage(counter ? METRIC_SUM : METRIC_GAUGE, data);
+  }
+
+  private static ProtobufMessage createAttribute(String key, String value) {
+    return new ProtobufMessage()
+          .addString(KEY_VALUE_KEY, key)
+          .addMessage(KEY_VALUE_VALUE, new ProtobufMessage().addString(ANY_VALUE_STRING, value));
+  }
+
+  /**
+   * Returns the number of data points accepted by the collector.
+   */
+  static long getNumDataPointsSent() {
+    return numDataPointsSent.get();
+  }
+
+  /**
+   * Returns the number of data points omitted because their series had not changed since the previous export.
+   */
+  static long getNumDataPointsUnchanged() {
+    return numDataPointsUnchanged.get();
+  }
+
+  /**
+   * Returns the number of data points lost because the collector rejected them or could not be reached.
+   */
+  static long getNumDataPointsDropped() {
+    return numDataPointsDropped.get();
+  }
+
+  /**
+   * Returns the number of compressed bytes accepted by the collector.
+   */
+  static long getNumBytesSent() {
+    return numBytesSent.get();
+  }
+
+  /**
+   * Stops exporting and resets the counts. Intended for unit testing.
+   */
+  static synchronized void clear() {
+    stop();
+    numDataPointsSent.set(0);
+    numDataPointsUnchanged.set(0);
+    numDataPointsDropped.set(0);
+    numBytesSent.set(0);
+  }
+
+  // The value of a series when it was last sent, or first seen, and the start of the interval its next sum covers.
+  private static class SeriesState {
+    private final double value;
+    private final long timeNanos;
+    private final long startTimeNanos;
+
+    SeriesState(double value, long timeNanos, long startTimeNanos) {
+      this.value = value;
+      this.timeNanos = timeNanos;
+      this.startTimeNanos = startTimeNanos;
+    }
+  }
+
+  private static class DataPoint {
+    private final String series;
+    private final SeriesState state;
+    private final String metricName;
+    private final List<String[]> labels;
+    private final boolean counter;
+    private final double value;
+    private final long startTimeNanos;
+    private final long timeNanos;
+
+    DataPoint(ScrapedSample sample, double value, long startTimeNanos, long timeNanos, SeriesState state) {
+      this.series = sample.getSeries();
+      this.state = state;
+      this.metricName = sample.getMetricName();
+      this.labels = sample.getLabels();
+      this.counter = sample.isCounter();
+      this.value = value;
+      this.startTimeNanos = startTimeNanos;
+      this.timeNanos = timeNanos;
+    }
+
+    // Gauges have no start time.
+    ProtobufMessage toMessage() {
+      final ProtobufMessage point = new ProtobufMessage();
+      if (counter) point.addFixed64(POINT_START_TIME, startTimeNanos);
+      point.addFixed64(POINT_TIME, timeNanos).addDouble(POINT_AS_DOUBLE, value);
+      labels.forEach(label -> point.addMessage(POINT_ATTRIBUTES, createAttribute(label[0], label[1])));
+      return point;
+    }
+  }
+}
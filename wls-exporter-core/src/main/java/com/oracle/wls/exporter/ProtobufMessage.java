@@ -0,0 +1,111 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A protocol buffers message, encoded as its fields are added. Only the field types needed to describe metrics
+ * are supported, which avoids depending on the protobuf runtime and on generated classes.
+ */
+class ProtobufMessage {
+
+  private static final int VARINT = 0;
+  private static final int FIXED64 = 1;
+  private static final int LENGTH_DELIMITED = 2;
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+  /**
+   * Adds a varint field, such as an int32, int64, bool or enum.
+   * @param field the field number
+   * @param value the value of the field
+   * @return this message
+   */
+  ProtobufMessage addVarint(int field, long value) {
+    writeTag(field, VARINT);
+    writeVarint(bytes, value);
+    return this;
+  }
+
+  /**
+   * Adds a double field.
+   * @param field the field number
+   * @param value the value of the field
+   * @return this message
+   */
+  ProtobufMessage addDouble(int field, double value) {
+    return addFixed64(field, Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Adds a fixed64 or sfixed64 field, such as a timestamp in nanoseconds.
+   * @param field the field number
+   * @param value the value of the field
+   * @return this message
+   */
+  ProtobufMessage addFixed64(int field, long value) {
+    writeTag(field, FIXED64);
+    for (int i = 0; i < Long.BYTES; i++)
+      bytes.write((int) (value >>> (8 * i)));
+    return this;
+  }
+
+  /**
+   * Adds a string field, encoded as UTF-8.
+   * @param field the field number
+   * @param value the value of the field
+   * @return this message
+   */
+  ProtobufMessage addString(int field, String value) {
+    return addBytes(field, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Adds an embedded message.
+   * @param field the field number
+   * @param message the message to embed
+   * @return this message
+   */
+  ProtobufMessage addMessage(int field, ProtobufMessage message) {
+    return addBytes(field, message.toByteArray());
+  }
+
+  private ProtobufMessage addBytes(int field, byte[] value) {
+    writeTag(field, LENGTH_DELIMITED);
+    writeVarint(bytes, value.length);
+    bytes.write(value, 0, value.length);
+    return this;
+  }
+
+  private void writeTag(int field, int wireType) {
+    writeVarint(bytes, ((long) field << 3) | wireType);
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /**
+   * Returns the encoded message.
+   */
+  byte[] toByteArray() {
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns the encoded message, preceded by its length, as written in a stream of delimited messages.
+   */
+  byte[] toDelimitedByteArray() {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    writeVarint(result, bytes.size());
+    result.write(bytes.toByteArray(), 0, bytes.size());
+    return result.toByteArray();
+  }
+}
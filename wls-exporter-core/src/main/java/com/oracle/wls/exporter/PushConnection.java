@@ -0,0 +1,75 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_ENCODING_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_TYPE_HEADER;
+
+/**
+ * Posts pushed metrics to the system which receives them, such as a remote-write endpoint or an OpenTelemetry collector.
+ */
+class PushConnection {
+
+  static final String USER_AGENT = "wls-exporter";
+
+  private PushConnection() {
+  }
+
+  /**
+   * Posts a request body.
+   * @param url the URL to which to post
+   * @param timeoutMillis the time to wait to connect, and for the reply, in milliseconds
+   * @param contentType the type of the body
+   * @param contentEncoding the compression applied to the body
+   * @param headers additional headers, as alternating names and values
+   * @param body the body to send
+   * @return the HTTP status of the reply, or -1 if the receiver could not be reached
+   */
+  static int post(String url, int timeoutMillis, String contentType, String contentEncoding,
+                  String[] headers, byte[] body) {
+    try {
+      final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setConnectTimeout(timeoutMillis);
+      connection.setReadTimeout(timeoutMillis);
+      connection.setRequestProperty(CONTENT_TYPE_HEADER, contentType);
+      connection.setRequestProperty(CONTENT_ENCODING_HEADER, contentEncoding);
+      connection.setRequestProperty("User-Agent", USER_AGENT);
+      for (int i = 0; i + 1 < headers.length; i += 2)
+        connection.setRequestProperty(headers[i], headers[i + 1]);
+      try (OutputStream out = connection.getOutputStream()) {
+        out.write(body);
+      }
+      discardReply(connection);
+      return connection.getResponseCode();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  // Reads whatever the receiver sent, so that the connection may be reused.
+  private static void discardReply(HttpURLConnection connection) throws IOException {
+    try (InputStream in = connection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST
+          ? connection.getErrorStream() : connection.getInputStream()) {
+      final byte[] buffer = new byte[1024];
+      while (in != null && in.read(buffer) >= 0) {
+        // the reply contains nothing of use
+      }
+    }
+  }
+
+  /**
+   * Returns true if the specified status indicates that the request was accepted.
+   */
+  static boolean isSuccess(int status) {
+    return status / 100 == 2;
+  }
+}
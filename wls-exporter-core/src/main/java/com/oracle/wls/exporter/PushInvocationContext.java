@@ -0,0 +1,136 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.oracle.wls.exporter.WebAppConstants.GROUP_PARAMETER;
+import static java.net.HttpURLConnection.HTTP_MOVED_TEMP;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * The context of a scrape run on a schedule in order to push its metrics, rather than requested by a client.
+ * The metrics are captured in memory, in the classic text format.
+ */
+class PushInvocationContext implements InvocationContext {
+
+  private final String instanceName;
+  private final UrlBuilder urlBuilder;
+  private final String authenticationHeader;
+  private final String group;
+  private final ByteArrayOutputStream response = new ByteArrayOutputStream();
+  private final PrintStream responseStream = new PrintStream(response, true);
+  private int status = HTTP_OK;
+  private String errorMessage;
+  private String authenticationChallenge;
+
+  PushInvocationContext(String instanceName, UrlBuilder urlBuilder, String authenticationHeader, String group) {
+    this.instanceName = instanceName;
+    this.urlBuilder = urlBuilder;
+    this.authenticationHeader = authenticationHeader;
+    this.group = group;
+  }
+
+  /**
+   * Returns the status with which the scrape completed.
+   */
+  int getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns the message describing the failure of the scrape, if any.
+   */
+  String getErrorMessage() {
+    return errorMessage;
+  }
+
+  /**
+   * Returns the challenge with which the REST API asked for credentials, if it did.
+   */
+  String getAuthenticationChallenge() {
+    return authenticationChallenge;
+  }
+
+  /**
+   * Returns the metrics produced by the scrape.
+   */
+  String getResponse() {
+    return new String(response.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public UrlBuilder createUrlBuilder() {
+    return urlBuilder;
+  }
+
+  @Override
+  public String getApplicationContext() {
+    return "/";
+  }
+
+  @Override
+  public String getAuthenticationHeader() {
+    return authenticationHeader;
+  }
+
+  @Override
+  public String getContentType() {
+    return null;
+  }
+
+  @Override
+  public String getRequestHeader(String name) {
+    return null;
+  }
+
+  @Override
+  public String getRequestParameter(String name) {
+    return GROUP_PARAMETER.equals(name) ? group : null;
+  }
+
+  @Override
+  public String getInstanceName() {
+    return instanceName;
+  }
+
+  @Override
+  public InputStream getRequestStream() {
+    return new ByteArrayInputStream(new byte[0]);
+  }
+
+  @Override
+  public PrintStream getResponseStream() {
+    return responseStream;
+  }
+
+  @Override
+  public void sendError(int status, String msg) {
+    this.status = status;
+    this.errorMessage = msg;
+  }
+
+  @Override
+  public void sendRedirect(String location) {
+    this.status = HTTP_MOVED_TEMP;
+  }
+
+  @Override
+  public void setResponseHeader(String name, String value) {
+    if (WebAppConstants.AUTHENTICATION_CHALLENGE_HEADER.equals(name)) authenticationChallenge = value;
+  }
+
+  @Override
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  @Override
+  public void close() {
+  }
+}
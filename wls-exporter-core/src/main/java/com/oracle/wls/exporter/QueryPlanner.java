@@ -0,0 +1,267 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.wls.exporter.domain.MBeanSelector;
+import com.oracle.wls.exporter.domain.QuerySplittingConfiguration;
+
+/**
+ * Decides whether to send a query whole or split into pieces, and sends the pieces at the same time. If splitting
+ * is configured, the size and duration of the reply to each query are recorded, and a query whose reply is larger
+ * or slower than the configured thresholds is split, the next time it is sent, into one piece for each of its
+ * MBean collections. The metrics from the pieces are combined to produce those of the whole query. A split query
+ * is sent whole again only once its pieces together become much smaller and faster than the thresholds,
+ * so that a query near a threshold is not repeatedly split and rejoined.
+ */
+class QueryPlanner {
+
+  /** The fraction of each threshold below which the replies to the pieces of a split query must fall to rejoin it. */
+  static final double REJOIN_RATIO = 0.5;
+
+  private static final RequestThreadPool THREAD_POOL = RequestThreadPool.create("wls-exporter-query-");
+
+  private static final Map<MBeanSelector, ReplyStatistics> statistics = Collections.synchronizedMap(new WeakHashMap<>());
+  private static final AtomicLong numSplitQueries = new AtomicLong();
+
+  private static QuerySplittingConfiguration configuration;
+
+  /**
+   * A REST request for one piece of a split query.
+   * @param <T> the type of the reply
+   */
+  interface Request<T> {
+    T send(MBeanSelector piece) throws IOException;
+  }
+
+  private QueryPlanner() {
+  }
+
+  /**
+   * Applies the specified query splitting settings.
+   * @param querySplittingConfiguration the settings to use, or null to send every query whole
+   */
+  static synchronized void configure(QuerySplittingConfiguration querySplittingConfiguration) {
+    configuration = querySplittingConfiguration;
+  }
+
+  private static synchronized QuerySplittingConfiguration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Returns the number of queries which have been sent as pieces since the exporter started.
+   */
+  static long getNumSplitQueries() {
+    return numSplitQueries.get();
+  }
+
+  /**
+   * Returns the pieces to send in place of the specified query.
+   * @param selector the query to be sent
+   * @return a list of queries, empty if the query should be sent whole
+   */
+  static List<MBeanSelector> getPieces(MBeanSelector selector) {
+    final QuerySplittingConfiguration splitting = getConfiguration();
+    if (splitting == null) return Collections.emptyList();
+
+    final List<MBeanSelector> pieces = selector.getSplitQueries();
+    final ReplyStatistics replies = statistics.get(selector);
+    return replies != null && replies.shouldSplit(splitting) ? pieces : Collections.emptyList();
+  }
+
+  /**
+   * Records the size and duration of the reply to a query.
+   * @param selector the query which was sent
+   * @param split true if the query was sent as pieces
+   * @param numBytes the number of bytes in the reply, or the total in the replies to the pieces
+   * @param latencyMillis the time in milliseconds taken by the reply, or the total taken by the replies to the pieces
+   */
+  static void recordReply(MBeanSelector selector, boolean split, long numBytes, long latencyMillis) {
+    statistics.computeIfAbsent(selector, s -> new ReplyStatistics()).record(split, numBytes, latencyMillis);
+  }
+
+  /**
+   * Sends the pieces of a split query, as many at once as the configuration permits. The calling thread sends
+   * pieces along with the pooled threads, and sends all of them itself if no pooled thread is available.
+   * Each pooled thread needs a permit from the concurrency limiter for the target, so that the pieces count
+   * against the number of requests which the server is asked to handle at once.
+   * @param pieces the pieces of the query
+   * @param target the server to be queried, or null if the exporter scrapes only one
+   * @param request the request to send for each piece
+   * @param <T> the type of the reply
+   * @return the replies to the pieces, in the same order as the pieces, and their total duration
+   * @throws IOException if any piece fails, in which case the failure of the first such piece is thrown
+   */
+  static <T> Replies<T> sendPieces(List<MBeanSelector> pieces, String target, Request<T> request) throws IOException {
+    numSplitQueries.incrementAndGet();
+    final PieceSender<T> sender = new PieceSender<>(pieces, request);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int i = 1; i < Math.min(getMaxParallelRequests(), pieces.size()); i++) {
+      final Future<?> future = submit(sender, target);
+      if (future == null) break;
+      futures.add(future);
+    }
+
+    sender.run();
+    awaitCompletion(futures);
+    return sender.getReplies();
+  }
+
+  // Returns null if no permit or no pooled thread is available, in which case the remaining pieces are sent
+  // on the threads already running.
+  private static Future<?> submit(PieceSender<?> sender, String target) {
+    final ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.tryAcquire(target);
+    if (permit == null) return null;
+
+    try {
+      return THREAD_POOL.getExecutor().submit(() -> {
+        try {
+          sender.run();
+        } finally {
+          permit.onIgnore();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      permit.onIgnore();
+      return null;
+    }
+  }
+
+  private static int getMaxParallelRequests() {
+    final QuerySplittingConfiguration splitting = getConfiguration();
+    return splitting == null ? 1 : splitting.getMaxParallelRequests();
+  }
+
+  private static void awaitCompletion(List<Future<?>> futures) throws InterruptedIOException {
+    try {
+      for (Future<?> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      futures.forEach(f -> f.cancel(true));
+      throw new InterruptedIOException("Interrupted while awaiting REST replies");
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());  // the sender records its failures rather than throwing them
+    }
+  }
+
+  /**
+   * Discards all recorded replies. Intended for unit testing.
+   */
+  static void clear() {
+    statistics.clear();
+    numSplitQueries.set(0);
+  }
+
+  /**
+   * The replies to the pieces of a split query.
+   * @param <T> the type of the replies
+   */
+  static class Replies<T> {
+    private final List<T> replies;
+    private final long totalLatencyMillis;
+
+    private Replies(List<T> replies, long totalLatencyMillis) {
+      this.replies = replies;
+      this.totalLatencyMillis = totalLatencyMillis;
+    }
+
+    List<T> getReplies() {
+      return replies;
+    }
+
+    long getTotalLatencyMillis() {
+      return totalLatencyMillis;
+    }
+  }
+
+  // Sends the pieces not yet claimed by another thread, recording the reply or failure of each.
+  private static class PieceSender<T> implements Runnable {
+    private final List<MBeanSelector> pieces;
+    private final Request<T> request;
+    private final AtomicInteger nextPiece = new AtomicInteger();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final Object[] replies;
+    private final Throwable[] failures;
+
+    PieceSender(List<MBeanSelector> pieces, Request<T> request) {
+      this.pieces = pieces;
+      this.request = request;
+      this.replies = new Object[pieces.size()];
+      this.failures = new Throwable[pieces.size()];
+    }
+
+    @Override
+    public void run() {
+      for (int i = nextPiece.getAndIncrement(); i < pieces.size(); i = nextPiece.getAndIncrement())
+        sendPiece(i);
+    }
+
+    private void sendPiece(int index) {
+      final long start = System.nanoTime();
+      try {
+        replies[index] = request.send(pieces.get(index));
+        totalLatencyMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      } catch (Throwable e) {
+        failures[index] = e;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    Replies<T> getReplies() throws IOException {
+      final List<T> result = new ArrayList<>();
+      for (int i = 0; i < pieces.size(); i++) {
+        if (failures[i] != null) throw unwrap(failures[i]);
+        result.add((T) replies[i]);
+      }
+      return new Replies<>(result, totalLatencyMillis.get());
+    }
+  }
+
+  private static IOException unwrap(Throwable cause) {
+    if (cause instanceof IOException)
+      return (IOException) cause;
+    else if (cause instanceof RuntimeException)
+      throw (RuntimeException) cause;
+    else if (cause instanceof Error)
+      throw (Error) cause;
+    else
+      return new IOException(cause);
+  }
+
+  // The size and duration of the latest reply to a query, and whether it was split.
+  private static class ReplyStatistics {
+    private boolean split;
+    private long numBytes;
+    private long latencyMillis;
+
+    synchronized void record(boolean split, long numBytes, long latencyMillis) {
+      this.split = split;
+      this.numBytes = numBytes;
+      this.latencyMillis = latencyMillis;
+    }
+
+    synchronized boolean shouldSplit(QuerySplittingConfiguration splitting) {
+      if (split)
+        return numBytes >= REJOIN_RATIO * splitting.getMinResponseBytes()
+              || latencyMillis >= REJOIN_RATIO * splitting.getMinLatencyMillis();
+      else
+        return numBytes >= splitting.getMinResponseBytes() || latencyMillis >= splitting.getMinLatencyMillis();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.wls.exporter.domain.MBeanSelector;
+
+/**
+ * The metrics most recently obtained by queries which specify how long their results may be reused.
+ * Such queries typically select values which change rarely, such as configuration; rather than being sent
+ * on every scrape, they are answered from this cache until their results expire. As with snapshots, a cached
+ * result is only reused for a client presenting the same credentials as the one for which it was obtained.
+ * Results are held for each selector object, so those of queries which are no longer configured are discarded.
+ */
+class QueryResultCache {
+
+  private static final Map<MBeanSelector, CachedResult> results = Collections.synchronizedMap(new WeakHashMap<>());
+  private static final AtomicLong numCacheHits = new AtomicLong();
+
+  private QueryResultCache() {
+  }
+
+  /**
+   * Returns the cached metrics for the specified query, if they have not expired.
+   * @param selector the query to be sent
+   * @param credentials the authentication header of the scrape
+   * @return a map of metric names to values, or null if the query must be sent
+   */
+  static Map<String, Object> get(MBeanSelector selector, String credentials) {
+    final CachedResult result = results.get(selector);
+    if (result == null || result.isExpired() || !result.credentialsKey.equals(toKey(credentials))) return null;
+
+    numCacheHits.incrementAndGet();
+    return result.metrics;
+  }
+
+  /**
+   * Records the metrics obtained by a query, if the query may be reused.
+   * @param selector the query which was sent
+   * @param credentials the authentication header of the scrape
+   * @param metrics a map of metric names to values
+   */
+  static void put(MBeanSelector selector, String credentials, Map<String, Object> metrics) {
+    final Integer cacheSeconds = selector.getCacheSeconds();
+    if (cacheSeconds == null) return;
+
+    results.put(selector, new CachedResult(toKey(credentials), metrics, TimeUnit.SECONDS.toMillis(cacheSeconds)));
+  }
+
+  // The credentials are hashed, so that they are not held in memory.
+  private static String toKey(String credentials) {
+    return SessionCookieStore.toKey(String.valueOf(credentials));
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * Returns the number of queries which have been answered from the cache.
+   */
+  static long getNumCacheHits() {
+    return numCacheHits.get();
+  }
+
+  /**
+   * Discards all cached results. Intended for unit testing.
+   */
+  static void clear() {
+    results.clear();
+    numCacheHits.set(0);
+  }
+
+  private static class CachedResult {
+    private final String credentialsKey;
+    private final Map<String, Object> metrics;
+    private final long expirationMillis;
+
+    CachedResult(String credentialsKey, Map<String, Object> metrics, long lifetimeMillis) {
+      this.credentialsKey = credentialsKey;
+      this.metrics = Collections.unmodifiableMap(new HashMap<>(metrics));
+      this.expirationMillis = currentTimeMillis() + lifetimeMillis;
+    }
+
+    boolean isExpired() {
+      return currentTimeMillis() >= expirationMillis;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.oracle.wls.exporter.domain.RemoteWriteConfiguration;
+
+/**
+ * Pushes metrics to a Prometheus remote-write endpoint, for servers which cannot conveniently be scraped. When remote
+ * write is configured, the queries are run on a schedule through the same flow as a scrape, and the resulting
+ * samples are added to a bounded queue. The queue is then emptied in batches, each sent as a snappy-compressed
+ * protobuf WriteRequest. A batch which fails with a server error is retried after increasing delays; one which is
+ * rejected, or still fails after the last retry, is dropped. Samples which do not fit in the queue are dropped
+ * as well, and all dropped samples are counted.
+ */
+public class RemoteWriter {
+
+  static final String REMOTE_WRITE_VERSION_HEADER = "X-Prometheus-Remote-Write-Version";
+  static final String REMOTE_WRITE_VERSION = "0.1.0";
+  static final String PROTOBUF_CONTENT_TYPE = "application/x-protobuf";
+  static final String SNAPPY_ENCODING = "snappy";
+  static final String METRIC_NAME_LABEL = "__name__";
+
+  private static final long TICK_SECONDS = 1;
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final AtomicLong numSamplesSent = new AtomicLong();
+  private static final AtomicLong numSamplesDropped = new AtomicLong();
+  private static final AtomicLong numRetries = new AtomicLong();
+  private static RemoteWriter started;
+  private static ScheduledExecutorService scheduler;
+  private static BlockingQueue<TimeSeries> queue;
+
+  private final WebClientFactory webClientFactory;
+  private final String instanceName;
+  private final Supplier<UrlBuilder> urlBuilders;
+  private long lastPushMillis;
+
+  RemoteWriter(WebClientFactory webClientFactory, String instanceName, Supplier<UrlBuilder> urlBuilders) {
+    this.webClientFactory = webClientFactory;
+    this.instanceName = instanceName;
+    this.urlBuilders = urlBuilders;
+  }
+
+  /**
+   * Enables pushing metrics. While the configuration, which may be changed at any time, includes a remote-write
+   * section, a thread checks once a second whether it is time to push. Calls after the first have no effect
+   * until {@link #stop()} is called.
+   * @param webClientFactory the factory for the clients with which to query the REST API
+   * @param instanceName an identifier for the server, included in the exporter's own metrics
+   * @param urlBuilders a source of objects which create the URLs with which to reach the REST API
+   */
+  public static synchronized void start(WebClientFactory webClientFactory, String instanceName,
+                                        Supplier<UrlBuilder> urlBuilders) {
+    if (started != null) return;
+
+    started = new RemoteWriter(webClientFactory, instanceName, urlBuilders);
+    configure(LiveConfiguration.getRemoteWriteConfiguration());
+  }
+
+  /**
+   * Starts or stops the pushing thread to match the configuration. Has no effect unless pushing has been started.
+   * @param configuration the remote-write settings, or null if metrics are not to be pushed
+   */
+  static synchronized void configure(RemoteWriteConfiguration configuration) {
+    if (started == null) return;
+
+    if (configuration != null && scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(RemoteWriter::createThread);
+      scheduler.scheduleWithFixedDelay(started::pushIfDue, TICK_SECONDS, TICK_SECONDS, TimeUnit.SECONDS);
+    } else if (configuration == null && scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Stops pushing metrics, ends the pushing thread and discards the queue. Must be called when a web application
+   * is undeployed, so that the thread does not outlive it.
+   */
+  public static synchronized void stop() {
+    if (scheduler != null) scheduler.shutdownNow();
+    scheduler = null;
+    started = null;
+    queue = null;
+  }
+
+  /**
+   * Returns true if a thread is checking whether it is time to push metrics.
+   */
+  static synchronized boolean isScheduled() {
+    return scheduler != null;
+  }
+
+  private static Thread createThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "wls-exporter-remote-write");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private void pushIfDue() {
+    try {
+      final RemoteWriteConfiguration configuration = LiveConfiguration.getRemoteWriteConfiguration();
+      if (configuration != null && isDue(configuration)) push(configuration);
+    } catch (RuntimeException e) {
+      LiveConfiguration.logError(e);  // a failure must not cancel the schedule
+    }
+  }
+
+  private boolean isDue(RemoteWriteConfiguration configuration) {
+    return currentTimeMillis() - lastPushMillis >= TimeUnit.SECONDS.toMillis(configuration.getIntervalSeconds());
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * Runs the queries, queues their samples, and sends as many batches as the endpoint will accept.
+   * @param configuration the remote-write settings
+   */
+  void push(RemoteWriteConfiguration configuration) {
+    lastPushMillis = currentTimeMillis();
+    enqueue(configuration, scrape(configuration));
+    sendQueuedSamples(configuration);
+  }
+
+  private List<TimeSeries> scrape(RemoteWriteConfiguration configuration) {
+    final long timestampMillis = currentTimeMillis();
+    final List<TimeSeries> result = new ArrayList<>();
+    ScrapedSample.collect(webClientFactory, instanceName, urlBuilders.get(), configuration.getAuthenticationHeader())
+          .forEach(sample -> result.add(new TimeSeries(sample, timestampMillis)));
+    return result;
+  }
+
+  private static void enqueue(RemoteWriteConfiguration configuration, List<TimeSeries> samples) {
+    final BlockingQueue<TimeSeries> samplesQueue = getQueue(configuration.getQueueCapacity());
+    for (TimeSeries sample : samples)
+      if (!samplesQueue.offer(sample)) numSamplesDropped.incrementAndGet();
+  }
+
+  // Replaces the queue if its capacity has been reconfigured, keeping as many of the waiting samples as will fit.
+  private static synchronized BlockingQueue<TimeSeries> getQueue(int capacity) {
+    if (queue == null || queue.size() + queue.remainingCapacity() != capacity) {
+      final BlockingQueue<TimeSeries> newQueue = new ArrayBlockingQueue<>(capacity);
+      if (queue != null) {
+        queue.drainTo(newQueue, capacity);
+        numSamplesDropped.addAndGet(queue.size());
+      }
+      queue = newQueue;
+    }
+    return queue;
+  }
+
+  private void sendQueuedSamples(RemoteWriteConfiguration configuration) {
+    final BlockingQueue<TimeSeries> samplesQueue = getQueue(configuration.getQueueCapacity());
+    while (!samplesQueue.isEmpty()) {
+      final List<TimeSeries> batch = new ArrayList<>();
+      samplesQueue.drainTo(batch, configuration.getMaxSamplesPerSend());
+      if (sendWithRetries(configuration, batch))
+        numSamplesSent.addAndGet(batch.size());
+      else {
+        numSamplesDropped.addAndGet(batch.size());
+        return;  // leave the rest of the queue for the next push, in case the endpoint is down
+      }
+    }
+  }
+
+  // Returns true if the batch was accepted.
+  private boolean sendWithRetries(RemoteWriteConfiguration configuration, List<TimeSeries> batch) {
+    final byte[] body = SnappyCompressor.compress(createWriteRequest(batch).toByteArray());
+    long backoffMillis = configuration.getMinBackoffMillis();
+    for (int attempt = 0; ; attempt++) {
+      final int status = PushConnection.post(configuration.getUrl(), configuration.getTimeoutMillis(),
+            PROTOBUF_CONTENT_TYPE, SNAPPY_ENCODING, new String[] {REMOTE_WRITE_VERSION_HEADER, REMOTE_WRITE_VERSION}, body);
+      if (PushConnection.isSuccess(status)) return true;
+      if (!isRetriable(status) || attempt >= configuration.getMaxRetries()) return false;
+
+      numRetries.incrementAndGet();
+      if (!sleep(backoffMillis)) return false;
+      backoffMillis = Math.min(2 * backoffMillis, configuration.getMaxBackoffMillis());
+    }
+  }
+
+  // Retries after a connection failure, a server error or a request to slow down. Other client errors mean
+  // that the endpoint will never accept the batch.
+  private static boolean isRetriable(int status) {
+    return status < 0 || status / 100 == 5 || status == TOO_MANY_REQUESTS;
+  }
+
+  private static boolean sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Creates a WriteRequest message, as defined by the Prometheus remote-write protocol.
+   * @param batch the time series to include
+   */
+  static ProtobufMessage createWriteRequest(List<TimeSeries> batch) {
+    final ProtobufMessage request = new ProtobufMessage();
+    batch.forEach(series -> request.addMessage(1, series.toMessage()));
+    return request;
+  }
+
+  /**
+   * Returns the number of samples accepted by the remote-write endpoint.
+   */
+  static long getNumSamplesSent() {
+    return numSamplesSent.get();
+  }
+
+  /**
+   * Returns the number of samples dropped because the queue was full, or the endpoint rejected them or was unreachable.
+   */
+  static long getNumSamplesDropped() {
+    return numSamplesDropped.get();
+  }
+
+  /**
+   * Returns the number of requests to the remote-write endpoint which have been retried.
+   */
+  static long getNumRetries() {
+    return numRetries.get();
+  }
+
+  /**
+   * Returns the number of samples waiting to be sent.
+   */
+  static synchronized int getQueueLength() {
+    return queue == null ? 0 : queue.size();
+  }
+
+  /**
+   * Stops pushing, discards the queue and resets the counts. Intended for unit testing.
+   */
+  static synchronized void clear() {
+    stop();
+    numSamplesSent.set(0);
+    numSamplesDropped.set(0);
+    numRetries.set(0);
+  }
+
+  /**
+   * A single sample, with the labels which identify its series, including the metric name, sorted by name.
+   */
+  static class TimeSeries {
+    private static final int LABELS = 1;
+    private static final int SAMPLES = 2;
+    private static final int LABEL_NAME = 1;
+    private static final int LABEL_VALUE = 2;
+    private static final int SAMPLE_VALUE = 1;
+    private static final int SAMPLE_TIMESTAMP = 2;
+
+    private final List<String[]> labels;
+    private final double value;
+    private final long timestampMillis;
+
+    TimeSeries(ScrapedSample sample, long timestampMillis) {
+      this.labels = sample.getLabels();
+      this.labels.add(new String[] {METRIC_NAME_LABEL, sample.getMetricName()});
+      this.labels.sort(Comparator.comparing(label -> label[0]));
+      this.value = sample.getValue();
+      this.timestampMillis = timestampMillis;
+    }
+
+    ProtobufMessage toMessage() {
+      final ProtobufMessage series = new ProtobufMessage();
+      for (String[] label : labels)
+        series.addMessage(LABELS, new ProtobufMessage().addString(LABEL_NAME, label[0]).addString(LABEL_VALUE, label[1]));
+      series.addMessage(SAMPLES, new ProtobufMessage().addDouble(SAMPLE_VALUE, value).addVarint(SAMPLE_TIMESTAMP, timestampMillis));
+      return series;
+    }
+  }
+}
@@ -0,0 +1,309 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.oracle.wls.exporter.domain.HedgingConfiguration;
+
+/**
+ * Sends REST queries which may be hedged. If hedging is configured, the time taken by each query is recorded,
+ * and should a query take longer than the configured percentile of its recent times, the same query is sent
+ * to an alternate host, and whichever reply arrives first is used. To avoid multiplying the load on WebLogic,
+ * hedging is limited by a budget: each query earns a fraction of a hedge, and a hedge may only be sent when
+ * a whole one has been earned.
+ */
+class RequestHedger {
+
+  /** The number of recent response times kept for each query. */
+  static final int MAX_SAMPLES = 100;
+
+  /** The number of response times needed before a query may be hedged. */
+  static final int MIN_SAMPLES = 20;
+
+  /** The most hedges which may be saved up while queries are fast. */
+  static final double MAX_HEDGE_TOKENS = 10;
+
+  private static final double PERCENT = 100.0;
+
+  private static final RequestThreadPool THREAD_POOL = RequestThreadPool.create("wls-exporter-hedge-");
+
+  private static final Map<Object, LatencySamples> samples = Collections.synchronizedMap(new WeakHashMap<>());
+  private static final AtomicLong numHedgedRequests = new AtomicLong();
+  private static final AtomicLong numHedgesWon = new AtomicLong();
+
+  private static HedgingConfiguration configuration;
+  private static double hedgeTokens;
+
+  /**
+   * A REST request which may be sent more than once.
+   * @param <T> the type of the reply
+   */
+  interface Request<T> {
+    T send() throws IOException;
+
+    /**
+     * Called in place of {@link #send()} if a request supplied as a hedge will not be sent after all.
+     */
+    default void discard() {
+    }
+  }
+
+  private RequestHedger() {
+  }
+
+  /**
+   * Applies the specified hedging settings.
+   * @param hedgingConfiguration the settings to use, or null to disable hedging
+   */
+  static synchronized void configure(HedgingConfiguration hedgingConfiguration) {
+    configuration = hedgingConfiguration;
+  }
+
+  private static synchronized HedgingConfiguration getConfiguration() {
+    return configuration != null && configuration.isEnabled() ? configuration : null;
+  }
+
+  /**
+   * Returns the number of hedged requests sent since the exporter started.
+   */
+  static long getNumHedgedRequests() {
+    return numHedgedRequests.get();
+  }
+
+  /**
+   * Returns the number of hedged requests whose replies arrived before those of the original requests.
+   */
+  static long getNumHedgesWon() {
+    return numHedgesWon.get();
+  }
+
+  /**
+   * Returns true if the specified query may be hedged, in which case the request should not use
+   * any client which will be needed after the reply has been received.
+   * @param query an object identifying the query
+   */
+  static boolean mayHedge(Object query) {
+    final HedgingConfiguration hedging = getConfiguration();
+    return hedging != null && getHedgeDelay(query, hedging) >= 0;
+  }
+
+  /**
+   * Sends a request, hedging it if it is slow, and hedging is configured and permitted.
+   * @param query an object identifying the query, whose response times determine when to hedge
+   * @param primary the request to send
+   * @param alternate a supplier of a request which sends the same query elsewhere, or null if there is nowhere
+   *                  else to send it, in which case the request is sent once, on the calling thread. The supplier
+   *                  may itself return null if the hedge may not be sent.
+   * @param <T> the type of the reply
+   * @return the first reply received
+   * @throws IOException if the request fails and the hedge, if any, also fails
+   */
+  static <T> T send(Object query, Request<T> primary, Supplier<Request<T>> alternate) throws IOException {
+    final HedgingConfiguration hedging = getConfiguration();
+    if (hedging == null) return primary.send();
+
+    earnHedge(hedging);
+    final long delay = alternate == null ? -1 : getHedgeDelay(query, hedging);
+    if (delay < 0) return timed(query, primary).call();
+
+    return sendHedged(query, primary, alternate, delay);
+  }
+
+  private static <T> T sendHedged(Object query, Request<T> primary, Supplier<Request<T>> alternate, long delay)
+        throws IOException {
+    final CompletionService<T> completionService = new ExecutorCompletionService<>(THREAD_POOL.getExecutor());
+    final Future<T> primaryFuture;
+    try {
+      primaryFuture = completionService.submit(timed(query, primary));
+    } catch (RejectedExecutionException e) {
+      return timed(query, primary).call();
+    }
+
+    try {
+      final Future<T> early = completionService.poll(delay, TimeUnit.MILLISECONDS);
+      if (early != null) return getReply(early);
+
+      final Future<T> hedgeFuture = submitHedge(completionService, query, alternate);
+      if (hedgeFuture == null) return getReply(primaryFuture);
+
+      return getFirstReply(completionService, primaryFuture, hedgeFuture);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      primaryFuture.cancel(true);
+      throw new InterruptedIOException("Interrupted while awaiting REST reply");
+    }
+  }
+
+  private static <T> Future<T> submitHedge(CompletionService<T> completionService, Object query,
+                                           Supplier<Request<T>> alternate) {
+    if (!spendHedge()) return null;
+
+    final Request<T> hedge = alternate.get();
+    if (hedge == null) {
+      refundHedge();
+      return null;
+    }
+
+    try {
+      final Future<T> future = completionService.submit(timed(query, hedge));
+      numHedgedRequests.incrementAndGet();
+      return future;
+    } catch (RejectedExecutionException e) {
+      hedge.discard();
+      refundHedge();
+      return null;
+    }
+  }
+
+  // Returns the first successful reply, or if both requests fail, rethrows the failure of the primary request.
+  private static <T> T getFirstReply(CompletionService<T> completionService, Future<T> primaryFuture,
+                                     Future<T> hedgeFuture) throws IOException, InterruptedException {
+    final Future<T> first = completionService.take();
+    final Future<T> second = first == primaryFuture ? hedgeFuture : primaryFuture;
+    try {
+      return acceptReply(first, hedgeFuture, second);
+    } catch (IOException | RuntimeException firstFailure) {
+      completionService.take();
+      try {
+        return acceptReply(second, hedgeFuture, null);
+      } catch (IOException | RuntimeException secondFailure) {
+        if (first == primaryFuture) throw firstFailure;
+        throw secondFailure;
+      }
+    }
+  }
+
+  private static <T> T acceptReply(Future<T> future, Future<T> hedgeFuture, Future<T> loser) throws IOException {
+    final T reply = getReply(future);
+    if (loser != null) loser.cancel(true);
+    if (future == hedgeFuture) numHedgesWon.incrementAndGet();
+    return reply;
+  }
+
+  private static <T> T getReply(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while awaiting REST reply");
+    } catch (ExecutionException e) {
+      throw unwrap(e.getCause());
+    }
+  }
+
+  private static IOException unwrap(Throwable cause) {
+    if (cause instanceof IOException)
+      return (IOException) cause;
+    else if (cause instanceof RuntimeException)
+      throw (RuntimeException) cause;
+    else if (cause instanceof Error)
+      throw (Error) cause;
+    else
+      return new IOException(cause);
+  }
+
+  private static <T> TimedRequest<T> timed(Object query, Request<T> request) {
+    return new TimedRequest<>(query, request);
+  }
+
+  private static class TimedRequest<T> implements Callable<T> {
+    private final Object query;
+    private final Request<T> request;
+
+    TimedRequest(Object query, Request<T> request) {
+      this.query = query;
+      this.request = request;
+    }
+
+    @Override
+    public T call() throws IOException {
+      final long start = System.nanoTime();
+      final T reply = request.send();
+      recordLatency(query, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      return reply;
+    }
+  }
+
+  /**
+   * Records the time taken by a successful query.
+   * @param query an object identifying the query
+   * @param latencyMillis the time taken in milliseconds
+   */
+  static void recordLatency(Object query, long latencyMillis) {
+    samples.computeIfAbsent(query, q -> new LatencySamples()).add(latencyMillis);
+  }
+
+  // Returns the time to wait before hedging the query, or -1 if too few of its times are known.
+  private static long getHedgeDelay(Object query, HedgingConfiguration hedging) {
+    final LatencySamples latencies = samples.get(query);
+    if (latencies == null) return -1;
+
+    final long percentile = latencies.getPercentile(hedging.getLatencyPercentile());
+    return percentile < 0 ? -1 : Math.max(hedging.getMinDelayMillis(), percentile);
+  }
+
+  private static synchronized void earnHedge(HedgingConfiguration hedging) {
+    hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + hedging.getMaxHedgePercent() / PERCENT);
+  }
+
+  private static synchronized boolean spendHedge() {
+    if (hedgeTokens < 1) return false;
+
+    hedgeTokens--;
+    return true;
+  }
+
+  private static synchronized void refundHedge() {
+    hedgeTokens++;
+  }
+
+  /**
+   * Discards all recorded times and saved hedges. Intended for unit testing.
+   */
+  static synchronized void clear() {
+    samples.clear();
+    hedgeTokens = 0;
+    numHedgedRequests.set(0);
+    numHedgesWon.set(0);
+  }
+
+  // The most recent response times of a query, held in a ring buffer.
+  private static class LatencySamples {
+    private final long[] latencies = new long[MAX_SAMPLES];
+    private int nextIndex;
+    private int numSamples;
+
+    synchronized void add(long latencyMillis) {
+      latencies[nextIndex] = latencyMillis;
+      nextIndex = (nextIndex + 1) % MAX_SAMPLES;
+      numSamples = Math.min(numSamples + 1, MAX_SAMPLES);
+    }
+
+    // Returns the specified percentile of the recorded times, or -1 if there are too few of them.
+    synchronized long getPercentile(int percentile) {
+      if (numSamples < MIN_SAMPLES) return -1;
+
+      final long[] sorted = Arrays.copyOf(latencies, numSamples);
+      Arrays.sort(sorted);
+      final int index = (int) Math.ceil(percentile / PERCENT * numSamples) - 1;
+      return sorted[Math.max(0, Math.min(index, numSamples - 1))];
+    }
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of daemon threads on which the exporter sends requests at the same time. A pool starts threads only
+ * as they are needed, up to a fixed limit, and lets idle ones end. It holds no queue: a task which no thread
+ * is free to run is rejected at once, so that the caller can do the work itself rather than wait behind other
+ * requests. Every pool created is recorded, so that all their threads can be ended when the web application
+ * is undeployed; a pool used after that starts new threads.
+ */
+public class RequestThreadPool {
+
+  /** The most threads which a single pool may run at once. */
+  static final int MAX_THREADS = 32;
+
+  private static final long THREAD_KEEP_ALIVE_SECONDS = 60;
+
+  private static final List<RequestThreadPool> pools = new CopyOnWriteArrayList<>();
+
+  private final String threadNamePrefix;
+  private ThreadPoolExecutor executor;
+
+  private RequestThreadPool(String threadNamePrefix) {
+    this.threadNamePrefix = threadNamePrefix;
+  }
+
+  /**
+   * Creates a pool whose threads are named with the specified prefix followed by a number.
+   * @param threadNamePrefix the start of each thread name, such as "wls-exporter-query-"
+   */
+  static RequestThreadPool create(String threadNamePrefix) {
+    final RequestThreadPool pool = new RequestThreadPool(threadNamePrefix);
+    pools.add(pool);
+    return pool;
+  }
+
+  /**
+   * Returns the executor which runs tasks on the threads of this pool.
+   */
+  synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null)
+      executor = new ThreadPoolExecutor(0, MAX_THREADS, THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), createThreadFactory(threadNamePrefix));
+    return executor;
+  }
+
+  private synchronized void shutdown() {
+    if (executor != null) executor.shutdownNow();
+    executor = null;
+  }
+
+  /**
+   * Ends the threads of every pool, interrupting any tasks they are running. Must be called when a web application
+   * is undeployed, so that the threads do not outlive it.
+   */
+  public static void shutdownAll() {
+    pools.forEach(RequestThreadPool::shutdown);
+  }
+
+  private static ThreadFactory createThreadFactory(String threadNamePrefix) {
+    final AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, threadNamePrefix + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
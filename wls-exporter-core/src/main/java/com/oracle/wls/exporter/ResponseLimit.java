@@ -0,0 +1,130 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A limit on the number of bytes which may be read from replies to REST queries. A limit created for a single query
+ * may also charge the bytes it reads against a limit for the entire scrape, so that a reply is abandoned as soon
+ * as either limit is crossed.
+ */
+public class ResponseLimit {
+
+  /** The value used to indicate that no limit applies. */
+  public static final long UNLIMITED = Long.MAX_VALUE;
+
+  /** A limit which is never exceeded. */
+  static final ResponseLimit NONE = new ResponseLimit(UNLIMITED, null);
+
+  private static final AtomicLong numLimitsExceeded = new AtomicLong();
+
+  private final long maxBytes;
+  private final ResponseLimit scrapeLimit;
+  private final boolean forScrape;
+  private final AtomicLong bytesRead = new AtomicLong();
+
+  private ResponseLimit(long maxBytes, ResponseLimit scrapeLimit) {
+    this(maxBytes, scrapeLimit, false);
+  }
+
+  private ResponseLimit(long maxBytes, ResponseLimit scrapeLimit, boolean forScrape) {
+    this.maxBytes = maxBytes;
+    this.scrapeLimit = scrapeLimit;
+    this.forScrape = forScrape;
+  }
+
+  /**
+   * Creates a limit on the total number of bytes to be read during a single scrape.
+   * @param maxScrapeBytes the maximum number of bytes to read
+   */
+  static ResponseLimit forScrape(long maxScrapeBytes) {
+    return new ResponseLimit(maxScrapeBytes, null, true);
+  }
+
+  /**
+   * Creates a limit for the reply to a single query, whose bytes are also charged against this limit.
+   * @param maxResponseBytes the maximum number of bytes to read in the reply
+   */
+  ResponseLimit forQuery(long maxResponseBytes) {
+    return new ResponseLimit(maxResponseBytes, this);
+  }
+
+  /**
+   * Returns the maximum number of bytes permitted by this limit.
+   */
+  long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Returns the number of bytes read so far under this limit.
+   */
+  long getBytesRead() {
+    return bytesRead.get();
+  }
+
+  /**
+   * Returns true if no further bytes may be read under this limit.
+   */
+  boolean isExhausted() {
+    return bytesRead.get() >= maxBytes;
+  }
+
+  /**
+   * Returns the number of replies which have been abandoned because they crossed a limit.
+   */
+  public static long getNumLimitsExceeded() {
+    return numLimitsExceeded.get();
+  }
+
+  /**
+   * Wraps the specified input stream so that reading from it will throw a {@link ResponseTooLargeException}
+   * once this limit is crossed.
+   * @param inputStream the stream to limit
+   * @return a stream which counts the bytes read
+   */
+  InputStream limit(InputStream inputStream) {
+    return maxBytes == UNLIMITED && scrapeLimit == null ? inputStream : new LimitedInputStream(inputStream);
+  }
+
+  private void charge(long numBytes) {
+    if (scrapeLimit != null) scrapeLimit.charge(numBytes);
+    if (bytesRead.addAndGet(numBytes) > maxBytes) {
+      numLimitsExceeded.incrementAndGet();
+      throw new ResponseTooLargeException(maxBytes, forScrape);
+    }
+  }
+
+  private class LimitedInputStream extends FilterInputStream {
+
+    LimitedInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int result = super.read();
+      if (result >= 0) charge(1);
+      return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int numBytes = super.read(b, off, len);
+      if (numBytes > 0) charge(numBytes);
+      return numBytes;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final long numBytes = super.skip(n);
+      if (numBytes > 0) charge(numBytes);
+      return numBytes;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+/**
+ * An exception thrown when a reply from the server exceeds a configured size limit. The reply is abandoned
+ * when this happens, rather than read to its end.
+ */
+public class ResponseTooLargeException extends WebClientException {
+
+  private final long limit;
+  private final boolean scrapeLimit;
+
+  ResponseTooLargeException(long limit, boolean scrapeLimit) {
+    super(scrapeLimit ? "Responses exceeded the scrape limit of %d bytes" : "Response exceeded the limit of %d bytes",
+          limit);
+    this.limit = limit;
+    this.scrapeLimit = scrapeLimit;
+  }
+
+  /**
+   * Returns the number of bytes which the reply, or the replies to the scrape, exceeded.
+   */
+  public long getLimit() {
+    return limit;
+  }
+
+  /**
+   * Returns true if the limit crossed was that on all the replies to a scrape, rather than that on a single reply.
+   */
+  public boolean isScrapeLimit() {
+    return scrapeLimit;
+  }
+}
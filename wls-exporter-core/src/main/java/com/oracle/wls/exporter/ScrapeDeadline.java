@@ -0,0 +1,163 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The time by which a scrape must be answered. Prometheus tells the exporter how long it will wait for a reply;
+ * by finishing a little before then, the exporter can return the metrics it has already collected, rather
+ * than having the whole scrape discarded. Each REST query is given at most the time remaining, and queries
+ * which cannot be started in time are skipped. Since a socket timeout bounds only each read, a reply which arrives
+ * slowly is also checked against the deadline as it is read, and abandoned once the deadline passes.
+ */
+public class ScrapeDeadline {
+
+  /** A deadline which never expires. */
+  static final ScrapeDeadline NONE = new ScrapeDeadline(Long.MAX_VALUE);
+
+  private static final AtomicLong numQueriesSkipped = new AtomicLong();
+
+  private final long expirationMillis;
+
+  private ScrapeDeadline(long expirationMillis) {
+    this.expirationMillis = expirationMillis;
+  }
+
+  /**
+   * Creates a deadline for a scrape starting now.
+   * @param timeoutHeader the value of the scrape timeout header sent by the client, in seconds, or null if none was sent
+   * @param configuredTimeoutSeconds the timeout to use if the client sent none, or null if there is no such timeout
+   * @param offsetMillis the time to reserve for sending the reply. It is not reserved if it would leave no time
+   *                     for the queries.
+   * @return a deadline, which may be {@link #NONE}
+   */
+  static ScrapeDeadline create(String timeoutHeader, Integer configuredTimeoutSeconds, long offsetMillis) {
+    final long timeoutMillis = getTimeoutMillis(timeoutHeader, configuredTimeoutSeconds);
+    if (timeoutMillis <= 0) return NONE;
+
+    final long budgetMillis = timeoutMillis > offsetMillis ? timeoutMillis - offsetMillis : timeoutMillis;
+    return new ScrapeDeadline(currentTimeMillis() + budgetMillis);
+  }
+
+  /**
+   * Creates a deadline the specified time from now.
+   * @param timeoutMillis the time in milliseconds until the deadline
+   */
+  static ScrapeDeadline afterMillis(long timeoutMillis) {
+    return new ScrapeDeadline(currentTimeMillis() + timeoutMillis);
+  }
+
+  // Returns the timeout from the header if it is valid, else the configured timeout, else zero.
+  private static long getTimeoutMillis(String timeoutHeader, Integer configuredTimeoutSeconds) {
+    final long headerMillis = parseSeconds(timeoutHeader);
+    if (headerMillis > 0)
+      return headerMillis;
+    else if (configuredTimeoutSeconds != null)
+      return TimeUnit.SECONDS.toMillis(configuredTimeoutSeconds);
+    else
+      return 0;
+  }
+
+  private static long parseSeconds(String seconds) {
+    if (seconds == null) return 0;
+
+    try {
+      return (long) (Double.parseDouble(seconds.trim()) * 1000);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * Returns the number of queries which have been skipped because their scrapes ran out of time.
+   */
+  static long getNumQueriesSkipped() {
+    return numQueriesSkipped.get();
+  }
+
+  /**
+   * Records that a query was skipped because its scrape ran out of time.
+   */
+  static void recordSkippedQuery() {
+    numQueriesSkipped.incrementAndGet();
+  }
+
+  /**
+   * Returns true if this deadline limits the time available.
+   */
+  boolean isLimited() {
+    return this != NONE;
+  }
+
+  /**
+   * Returns true if no time remains before this deadline.
+   */
+  boolean isExpired() {
+    return getRemainingMillis() <= 0;
+  }
+
+  /**
+   * Returns the time in milliseconds remaining before this deadline.
+   */
+  long getRemainingMillis() {
+    return isLimited() ? expirationMillis - currentTimeMillis() : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the timeout to apply to a request, given the remaining time.
+   * @param defaultTimeoutMillis the timeout which would otherwise apply
+   * @return the smaller of the default timeout and the remaining time
+   */
+  int getTimeoutMillis(int defaultTimeoutMillis) {
+    return (int) Math.max(1, Math.min(defaultTimeoutMillis, getRemainingMillis()));
+  }
+
+  /**
+   * Wraps the specified input stream so that reading from it will throw a {@link ScrapeDeadlineExceededException}
+   * once this deadline has passed.
+   * @param inputStream the stream to limit
+   * @return a stream which checks the time before each read
+   */
+  InputStream limit(InputStream inputStream) {
+    return isLimited() ? new DeadlineInputStream(inputStream) : inputStream;
+  }
+
+  private class DeadlineInputStream extends FilterInputStream {
+
+    DeadlineInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      checkDeadline();
+      return super.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      checkDeadline();
+      return super.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      checkDeadline();
+      return super.skip(n);
+    }
+
+    private void checkDeadline() {
+      if (isExpired()) throw new ScrapeDeadlineExceededException();
+    }
+  }
+}
@@ -0,0 +1,15 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+/**
+ * An exception thrown when the deadline of a scrape passes while a reply is still being read. The reply is abandoned
+ * when this happens, rather than read to its end.
+ */
+public class ScrapeDeadlineExceededException extends WebClientException {
+
+  ScrapeDeadlineExceededException() {
+    super("The scrape deadline was reached while reading the reply");
+  }
+}
@@ -0,0 +1,126 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
+
+/**
+ * The metrics produced by the most recent completed scrape, which may be sent in place of a scrape
+ * that cannot run. A snapshot is only sent to a client presenting the same credentials as the one
+ * for which it was taken, so that the limit on concurrent scrapes cannot be used to bypass authentication.
+ * A separate snapshot is kept for each query group, and for each server scraped by an exporter which scrapes several.
+ */
+class ScrapeSnapshot {
+
+  private static final Map<String, ScrapeSnapshot> latest = new HashMap<>();
+
+  private final String credentialsKey;
+  private final byte[] content;
+  private final OffsetDateTime time;
+
+  private ScrapeSnapshot(String credentialsKey, byte[] content) {
+    this.credentialsKey = credentialsKey;
+    this.content = content;
+    this.time = SystemClock.now();
+  }
+
+  /**
+   * Returns a stream which copies everything written to it into a new snapshot. The snapshot replaces
+   * the latest one only when {@link Recorder#complete()} is called.
+   * @param credentials the authentication header of the scrape being recorded
+   * @param target the server being scraped, or null if the exporter scrapes only one
+   * @param group the query group being scraped, or null if all queries are being scraped
+   * @param out the stream to which the scrape is written
+   */
+  static Recorder record(String credentials, String target, String group, OutputStream out) {
+    return new Recorder(credentials, toSnapshotKey(target, group), out);
+  }
+
+  /**
+   * Returns the latest snapshot, preceded by a comment giving its time, if it was taken for the specified credentials.
+   * @param credentials the authentication header of the scrape to be answered
+   * @param target the server to be scraped, or null if the exporter scrapes only one
+   * @param group the query group to be scraped, or null if all queries are to be scraped
+   * @return the text of the snapshot, or null if there is none which may be sent
+   */
+  static byte[] getLatest(String credentials, String target, String group) {
+    final ScrapeSnapshot snapshot = getLatest(toSnapshotKey(target, group));
+    if (snapshot == null || !snapshot.credentialsKey.equals(toKey(credentials))) return null;
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] header = snapshot.getHeader().getBytes(StandardCharsets.UTF_8);
+    out.write(header, 0, header.length);
+    out.write(snapshot.content, 0, snapshot.content.length);
+    return out.toByteArray();
+  }
+
+  private static String toSnapshotKey(String target, String group) {
+    return target == null ? String.valueOf(group) : target + '/' + group;
+  }
+
+  // The credentials are hashed, so that they are not held in memory.
+  private static String toKey(String credentials) {
+    return SessionCookieStore.toKey(String.valueOf(credentials));
+  }
+
+  private String getHeader() {
+    return "# These metrics were collected at " + ISO_LOCAL_TIME.format(time)
+          + ", as the exporter is at its limit of concurrent scrapes.\n";
+  }
+
+  private static synchronized ScrapeSnapshot getLatest(String snapshotKey) {
+    return latest.get(snapshotKey);
+  }
+
+  private static synchronized void setLatest(String snapshotKey, ScrapeSnapshot snapshot) {
+    latest.put(snapshotKey, snapshot);
+  }
+
+  /**
+   * Discards the latest snapshot. Intended for unit testing.
+   */
+  static synchronized void clear() {
+    latest.clear();
+  }
+
+  static class Recorder extends FilterOutputStream {
+    private final String credentialsKey;
+    private final String snapshotKey;
+    private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+    private Recorder(String credentials, String snapshotKey, OutputStream out) {
+      super(out);
+      this.credentialsKey = toKey(credentials);
+      this.snapshotKey = snapshotKey;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      copy.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      copy.write(b, off, len);
+    }
+
+    /**
+     * Makes the recorded output the latest snapshot.
+     */
+    void complete() {
+      setLatest(snapshotKey, new ScrapeSnapshot(credentialsKey, copy.toByteArray()));
+    }
+  }
+}
@@ -0,0 +1,145 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A sample obtained by running the queries on a schedule, rather than at the request of a client, so that it may be
+ * pushed to another system. The queries are run through the same flow as a scrape, and the samples are parsed from
+ * the resulting text, whose type comments distinguish counters from gauges.
+ */
+class ScrapedSample {
+
+  private static final String TYPE_COMMENT = "# TYPE ";
+  private static final String COUNTER_TYPE = "counter";
+
+  private final String series;
+  private final String metricName;
+  private final String valueText;
+  private final double value;
+  private final boolean counter;
+
+  private ScrapedSample(String series, String valueText, boolean counter) {
+    this.series = series;
+    this.metricName = ExpositionWriter.getMetricName(series);
+    this.valueText = valueText;
+    this.value = Double.parseDouble(valueText);
+    this.counter = counter;
+  }
+
+  /**
+   * Runs the queries and returns the samples produced.
+   * @param webClientFactory the factory for the clients with which to query the REST API
+   * @param instanceName an identifier for the server, included in the exporter's own metrics
+   * @param urlBuilder an object which creates the URLs with which to reach the REST API
+   * @param authenticationHeader the credentials with which to run the queries, or null
+   * @return a list of samples, empty if the queries could not be run, in which case the failure is logged
+   */
+  static List<ScrapedSample> collect(WebClientFactory webClientFactory, String instanceName,
+                                     UrlBuilder urlBuilder, String authenticationHeader) {
+    final PushInvocationContext context;
+    try {
+      context = runQueries(webClientFactory, instanceName, urlBuilder, authenticationHeader, null);
+    } catch (IOException e) {
+      LiveConfiguration.logError(e);
+      return Collections.emptyList();
+    }
+
+    if (context.getStatus() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+      LiveConfiguration.logError(new WebClientException("Unable to run the queries to push: " + context.getErrorMessage()));
+      return Collections.emptyList();
+    }
+    return parse(context.getResponse());
+  }
+
+  /**
+   * Runs the queries, capturing their metrics, or the reason they could not be obtained, in the returned context.
+   * @param webClientFactory the factory for the clients with which to query the REST API
+   * @param instanceName an identifier for the server, included in the exporter's own metrics
+   * @param urlBuilder an object which creates the URLs with which to reach the REST API
+   * @param authenticationHeader the credentials with which to run the queries, or null
+   * @param group the group of queries to run, or null to run all of them
+   * @throws IOException if the metrics could not be written
+   */
+  static PushInvocationContext runQueries(WebClientFactory webClientFactory, String instanceName, UrlBuilder urlBuilder,
+                                          String authenticationHeader, String group) throws IOException {
+    final PushInvocationContext context
+          = new PushInvocationContext(instanceName, urlBuilder, authenticationHeader, group);
+    new ExporterCall(webClientFactory, context).doWithAuthentication();
+    return context;
+  }
+
+  /**
+   * Converts metrics in the classic text format to samples.
+   * @param metrics the text of the metrics
+   * @return a list of samples, omitting any whose value is not numeric
+   */
+  static List<ScrapedSample> parse(String metrics) {
+    final List<ScrapedSample> result = new ArrayList<>();
+    final Set<String> counterNames = new HashSet<>();
+    for (String line : metrics.split("\n")) {
+      final int valueStart = line.lastIndexOf(' ');
+      if (line.startsWith(TYPE_COMMENT)) recordType(line.substring(TYPE_COMMENT.length()), counterNames);
+      if (line.isEmpty() || line.startsWith("#") || valueStart < 0) continue;
+
+      try {
+        final String series = line.substring(0, valueStart).trim();
+        result.add(new ScrapedSample(series, line.substring(valueStart + 1),
+              counterNames.contains(ExpositionWriter.getMetricName(series))));
+      } catch (NumberFormatException ignored) {
+        // string-valued metrics cannot be pushed
+      }
+    }
+    return result;
+  }
+
+  private static void recordType(String typeDeclaration, Set<String> counterNames) {
+    final String[] parts = typeDeclaration.trim().split(" ");
+    if (parts.length == 2 && parts[1].equals(COUNTER_TYPE)) counterNames.add(parts[0]);
+  }
+
+  /**
+   * Returns the name and labels which identify the series of this sample, as they appear in the text format.
+   */
+  String getSeries() {
+    return series;
+  }
+
+  String getMetricName() {
+    return metricName;
+  }
+
+  /**
+   * Returns the labels of this sample, excluding the metric name.
+   * @return a list of two-element arrays, each holding a name and its value
+   */
+  List<String[]> getLabels() {
+    return ExpositionWriter.parseQualifiers(series.substring(metricName.length()));
+  }
+
+  double getValue() {
+    return value;
+  }
+
+  /**
+   * Returns true if this sample is the value of a counter, rather than of a gauge.
+   */
+  boolean isCounter() {
+    return counter;
+  }
+
+  /**
+   * Returns this sample as a line of the text format, without the line separator.
+   */
+  String toText() {
+    return series + ' ' + valueText;
+  }
+}
@@ -0,0 +1,193 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe store of the cookies returned by the REST API, grouped by the credentials with which they
+ * were obtained. The credentials themselves are not retained; the cookies are keyed by a hash of them.
+ * A cookie expires if it has not been sent for the configured lifetime. Expired cookies are removed
+ * periodically by whichever request happens to find that a sweep is due, so that no request needs to wait
+ * for another.
+ */
+class SessionCookieStore {
+
+  /** The name of the cookie which WebLogic uses to identify an authenticated session. */
+  static final String SESSION_COOKIE_NAME = "JSESSIONID";
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private final Map<String, Map<String, Cookie>> cookies = new ConcurrentHashMap<>();
+  private final long lifetimeMillis;
+  private final AtomicLong nextSweepTime = new AtomicLong();
+
+  SessionCookieStore(long lifetimeSeconds) {
+    this.lifetimeMillis = lifetimeSeconds * MILLIS_PER_SECOND;
+  }
+
+  /**
+   * Records a cookie to be sent on later requests with the specified credentials.
+   * @param credentials the authentication header used for the request which returned the cookie
+   * @param setCookieHeader the value of the Set-Cookie header
+   */
+  void addCookie(String credentials, String setCookieHeader) {
+    final Cookie cookie = new Cookie(setCookieHeader, currentTimeMillis());
+    cookies.computeIfAbsent(toKey(credentials), k -> new ConcurrentHashMap<>()).put(cookie.getCookieName(), cookie);
+  }
+
+  /**
+   * Returns the unexpired cookies to send on a request with the specified credentials. Returning a cookie
+   * counts as a use, and restarts its lifetime.
+   * @param credentials the authentication header to be sent, or null
+   * @return a list of cookie values
+   */
+  List<String> getCookies(String credentials) {
+    if (credentials == null) return Collections.emptyList();
+
+    final long now = currentTimeMillis();
+    sweepIfDue(now);
+    final List<String> result = new ArrayList<>();
+    for (Cookie cookie : getCookieMap(credentials).values())
+      if (cookie.markUsedIfUnexpired(now)) result.add(cookie.getValue());
+    return result;
+  }
+
+  private Map<String, Cookie> getCookieMap(String credentials) {
+    final Map<String, Cookie> result = cookies.get(toKey(credentials));
+    return result == null ? Collections.emptyMap() : result;
+  }
+
+  /**
+   * Returns true if an unexpired WebLogic session cookie is held for the specified credentials.
+   * @param credentials the authentication header to be sent, or null
+   */
+  boolean hasSession(String credentials) {
+    if (credentials == null) return false;
+
+    final Cookie sessionCookie = getCookieMap(credentials).get(SESSION_COOKIE_NAME);
+    return sessionCookie != null && !sessionCookie.isExpiredAt(currentTimeMillis());
+  }
+
+  /**
+   * Returns true if an unexpired WebLogic session cookie is held for the specified credentials, and the server
+   * has accepted the credentials themselves within the specified time. The session may be kept alive by use
+   * long after that, so this allows a caller to limit how long it relies on the session alone.
+   * @param credentials the authentication header to be sent, or null
+   * @param maxAgeSeconds the longest time since the credentials were last accepted
+   */
+  boolean hasSessionVerifiedWithin(String credentials, long maxAgeSeconds) {
+    if (!hasSession(credentials)) return false;
+
+    final Cookie sessionCookie = getCookieMap(credentials).get(SESSION_COOKIE_NAME);
+    return sessionCookie != null && currentTimeMillis() - sessionCookie.verifiedTime <= maxAgeSeconds * MILLIS_PER_SECOND;
+  }
+
+  /**
+   * Records that the server has just accepted the specified credentials, which are held with a session cookie.
+   * A session cookie is verified when it is received; this records that it remains valid.
+   * @param credentials the authentication header which the server accepted
+   */
+  void markSessionVerified(String credentials) {
+    if (credentials == null) return;
+
+    final Cookie sessionCookie = getCookieMap(credentials).get(SESSION_COOKIE_NAME);
+    if (sessionCookie != null) sessionCookie.verifiedTime = currentTimeMillis();
+  }
+
+  private void sweepIfDue(long now) {
+    final long sweepTime = nextSweepTime.get();
+    if (now >= sweepTime && nextSweepTime.compareAndSet(sweepTime, now + lifetimeMillis))
+      removeExpiredCookies(now);
+  }
+
+  /**
+   * Removes all expired cookies, and the entries for any credentials which no longer have cookies.
+   * @param now the current time in milliseconds
+   */
+  void removeExpiredCookies(long now) {
+    for (Map<String, Cookie> cookieMap : cookies.values())
+      cookieMap.values().removeIf(c -> c.isExpiredAt(now));
+    cookies.values().removeIf(Map::isEmpty);
+  }
+
+  /**
+   * Returns the number of credentials for which cookies are held.
+   */
+  int getNumSessions() {
+    return cookies.size();
+  }
+
+  /**
+   * Removes all cookies.
+   */
+  void clear() {
+    cookies.clear();
+    nextSweepTime.set(0);
+  }
+
+  static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  // Hashes the credentials so that they are not held in memory.
+  static String toKey(String credentials) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(digest.digest(credentials.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private class Cookie {
+    private final String value;
+    private volatile long lastUsed;
+    private volatile long verifiedTime;
+
+    Cookie(String cookieHeader, long now) {
+      this.value = trimParameters(cookieHeader);
+      this.lastUsed = now;
+      this.verifiedTime = now;
+    }
+
+    String getValue() {
+      return value;
+    }
+
+    String getCookieName() {
+      if (!value.contains("="))
+        return value;
+      else
+        return value.substring(0, value.indexOf('='));
+    }
+
+    boolean isExpiredAt(long now) {
+      return now > lastUsed + lifetimeMillis;
+    }
+
+    boolean markUsedIfUnexpired(long now) {
+      if (isExpiredAt(now)) return false;
+
+      lastUsed = now;
+      return true;
+    }
+
+    private String trimParameters(String cookieHeader) {
+      if (!cookieHeader.contains(";"))
+        return cookieHeader;
+      else
+        return cookieHeader.substring(0, cookieHeader.indexOf(';'));
+    }
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Compresses data in the Snappy block format, as required by the Prometheus remote-write protocol. The input
+ * is compressed in fragments of 64KB, each searched for repeated sequences of four or more bytes through a hash
+ * table of recent positions. This is simpler and a little less thorough than the reference implementation,
+ * but its output is valid Snappy which any decoder accepts.
+ */
+class SnappyCompressor {
+
+  private static final int FRAGMENT_SIZE = 1 << 16;
+  private static final int HASH_TABLE_BITS = 14;
+  private static final int MIN_MATCH = 4;
+  private static final int MAX_COPY_LENGTH = 64;
+  private static final int LITERAL = 0;
+  private static final int COPY_2_BYTE_OFFSET = 2;
+
+  private SnappyCompressor() {
+  }
+
+  /**
+   * Returns the compressed form of the specified data.
+   * @param input the data to compress
+   */
+  static byte[] compress(byte[] input) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+    writeVarint(out, input.length);
+    final int[] table = new int[1 << HASH_TABLE_BITS];
+    for (int start = 0; start < input.length; start += FRAGMENT_SIZE)
+      compressFragment(input, start, Math.min(input.length, start + FRAGMENT_SIZE), table, out);
+    return out.toByteArray();
+  }
+
+  // Positions are recorded in the table relative to the fragment, plus one, so that zero means no position.
+  private static void compressFragment(byte[] input, int start, int end, int[] table, ByteArrayOutputStream out) {
+    Arrays.fill(table, 0);
+    int literalStart = start;
+    int i = start;
+    while (i + MIN_MATCH <= end) {
+      final int hash = hash(input, i);
+      final int candidate = start + table[hash] - 1;
+      table[hash] = i - start + 1;
+      if (candidate < start || !matches(input, candidate, i)) {
+        i++;
+        continue;
+      }
+
+      int length = MIN_MATCH;
+      while (i + length < end && input[candidate + length] == input[i + length]) length++;
+      writeLiteral(input, literalStart, i, out);
+      writeCopy(i - candidate, length, out);
+      i += length;
+      literalStart = i;
+    }
+    writeLiteral(input, literalStart, end, out);
+  }
+
+  private static int hash(byte[] input, int i) {
+    return (readInt(input, i) * 0x1e35a7bd) >>> (32 - HASH_TABLE_BITS);
+  }
+
+  private static int readInt(byte[] input, int i) {
+    return (input[i] & 0xFF) | (input[i + 1] & 0xFF) << 8 | (input[i + 2] & 0xFF) << 16 | (input[i + 3] & 0xFF) << 24;
+  }
+
+  private static boolean matches(byte[] input, int candidate, int i) {
+    return readInt(input, candidate) == readInt(input, i);
+  }
+
+  private static void writeLiteral(byte[] input, int start, int end, ByteArrayOutputStream out) {
+    final int length = end - start;
+    if (length == 0) return;
+
+    final int n = length - 1;
+    if (n < 60) {
+      out.write(n << 2 | LITERAL);
+    } else {
+      final int numLengthBytes = n < 1 << 8 ? 1 : n < 1 << 16 ? 2 : n < 1 << 24 ? 3 : 4;
+      out.write((59 + numLengthBytes) << 2 | LITERAL);
+      for (int i = 0; i < numLengthBytes; i++)
+        out.write(n >>> (8 * i));
+    }
+    out.write(input, start, length);
+  }
+
+  // Offsets within a fragment are always less than 64KB, so two-byte offsets always suffice.
+  private static void writeCopy(int offset, int length, ByteArrayOutputStream out) {
+    while (length > 0) {
+      final int copyLength = Math.min(length, MAX_COPY_LENGTH);
+      out.write((copyLength - 1) << 2 | COPY_2_BYTE_OFFSET);
+      out.write(offset);
+      out.write(offset >>> 8);
+      length -= copyLength;
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, int value) {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+}
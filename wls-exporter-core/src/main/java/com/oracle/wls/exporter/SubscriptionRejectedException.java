@@ -0,0 +1,37 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+/**
+ * An exception indicating that a client may not subscribe to changed samples.
+ */
+public class SubscriptionRejectedException extends Exception {
+  private final int status;
+  private final String challenge;
+
+  SubscriptionRejectedException(int status, String message) {
+    this(status, message, null);
+  }
+
+  SubscriptionRejectedException(int status, String message, String challenge) {
+    super(message);
+    this.status = status;
+    this.challenge = challenge;
+  }
+
+  /**
+   * Returns the HTTP status with which to reply to the client.
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns the challenge with which to ask the client for credentials, or null if the rejection is not
+   * due to missing credentials.
+   */
+  public String getChallenge() {
+    return challenge;
+  }
+}
@@ -5,12 +5,11 @@ package com.oracle.wls.exporter;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import com.oracle.wls.exporter.domain.Protocol;
@@ -18,12 +17,13 @@ import com.oracle.wls.exporter.domain.Protocol;
 /**
  * A class which can build a URL to access the WebLogic REST API. More than one port may be specified
  * with the #withPort method. If so, a failure on the first port will cause the exporter to retry with the next
- * one, and so on. Once a connection has succeeded with a port, that port will be preferred in any future list
- * until it fails.
+ * one, and so on. The health of each host and port is tracked across builders: hosts which have succeeded
+ * are preferred, the faster first, while hosts which have recently failed are tried only after all others,
+ * until their backoff period has passed. See {@link HostHealth}.
  */
 public class UrlBuilder {
 
-  private static class WebHost implements Comparable<WebHost> {
+  private static class WebHost {
     private final String hostName;
     private final int port;
 
@@ -37,13 +37,8 @@ public class UrlBuilder {
       return hostName + ':' + port;
     }
 
-    @Override
-    public int compareTo(WebHost o) {
-      if (hostName.equals(o.hostName)) {
-        return Integer.compare(port, o.port);
-      } else {
-        return hostName.compareTo(o.hostName);
-      }
+    private HostHealth getHealth() {
+      return HEALTH.computeIfAbsent(toString(), k -> new HostHealth());
     }
 
     private String format(Protocol protocol, String urlPattern) {
@@ -51,15 +46,18 @@ public class UrlBuilder {
     }
   }
 
-  private static final Set<WebHost> successes = new ConcurrentSkipListSet<>();
+  private static final Map<String, HostHealth> HEALTH = new ConcurrentHashMap<>();
 
   private final Protocol protocol;
   private final List<Integer> ports = new ArrayList<>();
   private final List<String> hostNames = new ArrayList<>();
   private final List<WebHost> failedHosts = new ArrayList<>();
 
-  private Queue<WebHost> hosts;
+  private List<WebHost> hosts;
+  private int candidateIndex;
   private WebHost lastCandidate;
+  private long candidateStartTime;
+  private int numCandidateUrls;
 
   private UrlBuilder(boolean secure) {
     protocol = Protocol.getProtocol(secure);
@@ -104,38 +102,77 @@ public class UrlBuilder {
     return selectHost().format(protocol, urlPattern);
   }
 
+  // Selects the host for a hedged request: the next candidate host whose circuit is closed, if any.
+  public Optional<AlternateHost> selectAlternateHost(String urlPattern) {
+    if (hosts == null) hosts = initializeHosts();
+
+    final long now = currentTimeMillis();
+    for (int i = candidateIndex + 1; i < hosts.size(); i++)
+      if (hosts.get(i).getHealth().getState(now) == HostHealth.State.CLOSED)
+        return Optional.of(new AlternateHost(i, hosts.get(i).format(protocol, urlPattern)));
+    return Optional.empty();
+  }
+
   public static void clearHistory() {
-    successes.clear();
+    HEALTH.clear();
   }
 
   private WebHost selectHost() {
     if (hosts == null) hosts = initializeHosts();
-    if (hosts.isEmpty()) throw new WebClientException("No connection port is defined");
+    if (candidateIndex >= hosts.size()) throw new WebClientException("No connection port is defined");
+
+    final WebHost candidate = hosts.get(candidateIndex);
+    if (candidate != lastCandidate) startUsing(candidate);
+    numCandidateUrls++;
+    return candidate;
+  }
 
-    return lastCandidate = hosts.peek();
+  private void startUsing(WebHost candidate) {
+    lastCandidate = candidate;
+    candidateStartTime = currentTimeMillis();
+    numCandidateUrls = 0;
+    candidate.getHealth().recordAttempt(candidateStartTime);
   }
 
-  private Queue<WebHost> initializeHosts() {
-    final PriorityQueue<WebHost> webHosts = new PriorityQueue<>(new PreferSuccesses());
+  private List<WebHost> initializeHosts() {
+    final List<WebHost> webHosts = new ArrayList<>();
     for (String hostName : hostNames) {
       for (int port : ports) {
         webHosts.add(new WebHost(hostName, port));
       }
     }
+    webHosts.sort(new PreferHealthy(currentTimeMillis()));
     return webHosts;
   }
 
-  // Informs the builder that the last URL it supplied worked
+  // Informs the builder that the URLs it supplied worked. The average time per URL is recorded as the latency.
   public void reportSuccess() {
-    Optional.ofNullable(lastCandidate).ifPresent(successes::add);
+    Optional.ofNullable(lastCandidate).ifPresent(this::recordSuccess);
+  }
+
+  private void recordSuccess(WebHost host) {
+    final long elapsed = currentTimeMillis() - candidateStartTime;
+    host.getHealth().recordSuccess(elapsed / Math.max(1, numCandidateUrls));
   }
 
-  // Informs the builder that the last URL it supplied failed.
+  // Informs the builder that the last URL it supplied failed. The next URL will use the next candidate host.
   public void reportFailure(WebClientException connectionException) {
-    successes.clear();
-    failedHosts.add(lastCandidate);
-    hosts.remove();
-    if (hosts.isEmpty()) throw connectionException;
+    Optional.ofNullable(lastCandidate).ifPresent(this::recordFailure);
+    candidateIndex++;
+    if (hosts == null || candidateIndex >= hosts.size()) throw connectionException;
+  }
+
+  private void recordFailure(WebHost host) {
+    failedHosts.add(host);
+    host.getHealth().recordFailure(currentTimeMillis());
+  }
+
+  // Informs the builder that the last URL it supplied failed, while a hedged request to the specified alternate host
+  // succeeded in its place. Later URLs will use the alternate host.
+  public void reportFailureAnsweredBy(AlternateHost alternate) {
+    Optional.ofNullable(lastCandidate).ifPresent(this::recordFailure);
+    lastCandidate = null;
+    candidateIndex = alternate.index;
   }
 
   // Returns a collection of failed hosts.
@@ -147,21 +184,70 @@ public class UrlBuilder {
     return host.format(protocol, "%s://%s:%d");
   }
 
-  private static final int SELECT_FIRST = -1;
+  private static long currentTimeMillis() {
+    return SystemClock.now().toInstant().toEpochMilli();
+  }
+
+  /**
+   * A host other than the current candidate, to which a hedged request may be sent. As such a request does not
+   * change the candidate, its outcome must be reported here to be recorded in the health of the host.
+   */
+  public class AlternateHost {
+    private final int index;
+    private final String url;
+
+    private AlternateHost(int index, String url) {
+      this.index = index;
+      this.url = url;
+    }
+
+    public String getUrl() {
+      return url;
+    }
+
+    // Records that a request to this host succeeded, taking the specified time.
+    public void reportSuccess(long latencyMillis) {
+      hosts.get(index).getHealth().recordSuccess(latencyMillis);
+    }
+
+    // Records that a request to this host could not connect.
+    public void reportFailure() {
+      hosts.get(index).getHealth().recordFailure(currentTimeMillis());
+    }
+  }
+
   private static final int NO_PREFERENCE = 0;
-  private static final int SELECT_LAST = 1;
 
-  private class PreferSuccesses implements Comparator<WebHost> {
+  // Orders the hosts by the state of their circuit breakers, then by latency, and finally in the configured order.
+  // The health of each host is read only once, so that concurrent updates cannot make the ordering inconsistent.
+  private class PreferHealthy implements Comparator<WebHost> {
+    private final long now;
+    private final Map<WebHost, HostHealth.State> states = new IdentityHashMap<>();
+    private final Map<WebHost, Long> latencies = new IdentityHashMap<>();
+
+    PreferHealthy(long now) {
+      this.now = now;
+    }
 
     @Override
     public int compare(WebHost first, WebHost second) {
-      if (wasSuccessful(first) == wasSuccessful(second)) {
-        return hostsFirst(first, second);
-      } else if (wasSuccessful(first)) {
-        return SELECT_FIRST;
-      } else {
-        return SELECT_LAST;
-      }
+      int result = Integer.compare(getState(first).ordinal(), getState(second).ordinal());
+      if (result == NO_PREFERENCE) result = compareLatencies(first, second);
+      return result == NO_PREFERENCE ? hostsFirst(first, second) : result;
+    }
+
+    private HostHealth.State getState(WebHost host) {
+      return states.computeIfAbsent(host, h -> h.getHealth().getState(now));
+    }
+
+    // A host which has succeeded is preferred to one which has not yet been tried.
+    private int compareLatencies(WebHost first, WebHost second) {
+      return Long.compare(toSortableLatency(first), toSortableLatency(second));
+    }
+
+    private long toSortableLatency(WebHost host) {
+      final long latency = latencies.computeIfAbsent(host, h -> h.getHealth().getLatencyMillis());
+      return latency == HostHealth.UNKNOWN_LATENCY ? Long.MAX_VALUE : latency;
     }
 
     private int hostsFirst(WebHost first, WebHost second) {
@@ -173,8 +259,4 @@ public class UrlBuilder {
       return Integer.compare(ports.indexOf(first.port), ports.indexOf(second.port));
     }
   }
-
-  private static boolean wasSuccessful(WebHost host) {
-    return successes.contains(host);
-  }
 }
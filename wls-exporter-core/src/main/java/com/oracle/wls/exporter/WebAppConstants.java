@@ -23,6 +23,7 @@ public interface WebAppConstants {
     String METRICS_PAGE = "metrics";
     String CONFIGURATION_PAGE = "configure";
     String MESSAGES_PAGE = "messages";
+    String FEDERATION_PAGE = "federate";
     String LOG_PAGE = "log";
 
     /** The header sent by a web server to require authentication. **/
@@ -40,6 +41,27 @@ public interface WebAppConstants {
     /** The header used by a web client to specify the content type of its data. **/
     String CONTENT_TYPE_HEADER = "Content-Type";
 
+    /** The header used by a web client to list the compression schemes it can handle. **/
+    String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+
+    /** The header used by a web server to specify the compression applied to its reply. **/
+    String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+    /** The header used by a web client to list the content types it can handle. **/
+    String ACCEPT_HEADER = "Accept";
+
+    /** The header used by Prometheus to tell the exporter how long it will wait for a scrape. **/
+    String SCRAPE_TIMEOUT_HEADER = "X-Prometheus-Scrape-Timeout-Seconds";
+
+    /** The compression scheme requested from the REST API. **/
+    String GZIP_ENCODING = "gzip";
+
+    // The request parameter which limits a scrape to the queries in a single group
+    String GROUP_PARAMETER = "group";
+
+    // The request parameter which selects the server to scrape, when an exporter may scrape several
+    String TARGET_PARAMETER = "target";
+
     // The field which defines the configuration update action
     String EFFECT_OPTION = "effect";
 
@@ -6,6 +6,8 @@ package com.oracle.wls.exporter;
 import java.io.IOException;
 import java.util.function.Consumer;
 
+import com.google.gson.JsonObject;
+
 /**
  * An interface for an object responsible for sending requests from exporter web application to
  * web servers.
@@ -37,6 +39,14 @@ public interface WebClient {
    */
   String doPostRequest(String postBody) throws IOException;
 
+  /**
+   * Sends a POST query to the server and parses the reply as JSON while it is being read, without first
+   * converting it to a string.
+   * @param postBody query data
+   * @return the parsed body of the response, or null if the response was empty
+   */
+  JsonObject doPostRequestForJson(String postBody) throws IOException;
+
   /**
    * Converts the specified object to JSON and uses a PUT request to send it to the server.
    * @param putBody query data
@@ -58,11 +68,39 @@ public interface WebClient {
    */
   void setAuthentication(String authentication);
 
+  /**
+   * Sets the limit on the size of replies to subsequent requests. A reply which crosses the limit will be abandoned
+   * and a {@link ResponseTooLargeException} thrown.
+   * @param responseLimit the limit to apply
+   */
+  void setResponseLimit(ResponseLimit responseLimit);
+
+  /**
+   * Sets the time to wait when connecting to the server or awaiting its reply to subsequent requests.
+   * @param timeoutMillis the timeout in milliseconds
+   */
+  void setTimeout(int timeoutMillis);
+
+  /**
+   * Sets the time by which the replies to subsequent requests must have been read. A reply still being read
+   * at that time will be abandoned and a {@link ScrapeDeadlineExceededException} thrown.
+   * @param deadline the deadline of the scrape sending the requests
+   */
+  void setDeadline(ScrapeDeadline deadline);
+
   /**
    * Returns the user credentials defined for this web client.
    */
   String getAuthentication();
 
+  /**
+   * Specifies whether the user credentials should be withheld until the server asks for them. This is done when
+   * a session cookie already identifies the user, and avoids the cost of authenticating again. If the server
+   * rejects the session, the request is repeated with the credentials.
+   * @param deferred true if the credentials should be withheld
+   */
+  void setAuthenticationDeferred(boolean deferred);
+
   /**
    * Set a flag to indicate that a retry of the request will be needed. Typically this means that the previous
    * request did not reach a server, and new port should be tried.
@@ -53,7 +53,7 @@ public class WebClient8Impl extends WebClientCommon {
 
   @Override
   HttpClientExec createClientExec() {
-    return new Java8HttpClientExec();
+    return new Java8HttpClientExec(getTimeoutMillis());
   }
 
   @Override
@@ -160,9 +160,20 @@ public class WebClient8Impl extends WebClientCommon {
     public void close() {
       // no-op
     }
+
+    @Override
+    public void abandon() {
+      connection.disconnect();
+    }
   }
 
   static class Java8HttpClientExec implements HttpClientExec {
+    private final int timeoutMillis;
+
+    Java8HttpClientExec(int timeoutMillis) {
+      this.timeoutMillis = timeoutMillis;
+    }
+
     @Override
     public WebResponse send(WebRequest request) throws IOException {
       HttpURLConnection connection = openConnection(request.getURI().toURL());
@@ -180,6 +191,8 @@ public class WebClient8Impl extends WebClientCommon {
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setInstanceFollowRedirects( true );
         connection.setUseCaches( false );
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
         return connection;
       } catch (WebClientException e) {
         if (e.getCause() instanceof IOException)
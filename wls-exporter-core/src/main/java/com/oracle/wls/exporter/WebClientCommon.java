@@ -7,20 +7,32 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import static com.oracle.wls.exporter.WebAppConstants.ACCEPT_ENCODING_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.AUTHENTICATION_CHALLENGE_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.AUTHENTICATION_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_ENCODING_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.CONTENT_TYPE_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.GZIP_ENCODING;
 import static com.oracle.wls.exporter.WebAppConstants.SET_COOKIE_HEADER;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
@@ -33,10 +45,17 @@ import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
  */
 public abstract class WebClientCommon implements WebClient {
 
+    /** The time to wait for the server, unless a shorter time remains before the scrape deadline. */
+    static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+
     private String authentication;
     private boolean retryNeeded;
     private String contentType;
     private String url;
+    private ResponseLimit responseLimit = ResponseLimit.NONE;
+    private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private ScrapeDeadline deadline = ScrapeDeadline.NONE;
+    private boolean authenticationDeferred;
     private final List<Consumer<String>> setCookieHandlers = new ArrayList<>();
 
     interface WebRequest {
@@ -48,12 +67,27 @@ public abstract class WebClientCommon implements WebClient {
         InputStream getContents();
         int getResponseCode();
         Stream<String> getHeadersAsStream(String headerName);
+
+        /**
+         * Stops reading a reply which is not to be read to its end, closing the underlying connection if necessary.
+         */
+        default void abandon() throws IOException {
+            close();
+        }
     }
 
     interface HttpClientExec extends Closeable {
         WebResponse send(WebRequest request) throws IOException;
     }
 
+    interface ResponseReader<T> {
+        T read(ResponseImpl response) throws IOException;
+    }
+
+    interface BodyReader<T> {
+        T read() throws IOException;
+    }
+
     /**
      * Creates an instance for communications with a specific URL.
      * @param url a URL for requests
@@ -110,27 +144,44 @@ public abstract class WebClientCommon implements WebClient {
 
     @Override
     public String doGetRequest() throws IOException {
-        defineSessionHeaders();
-        return sendRequest(createGetRequest(url)).getBody();
+        return sendAuthenticatedRequest(() -> createGetRequest(url), ResponseImpl::getBody);
     }
 
     @Override
     public String doPostRequest(String postBody) throws IOException {
         if (contentType == null) contentType = APPLICATION_JSON;
-        defineSessionHeaders();
-        return sendRequest(createPostRequest(url, postBody)).getBody();
+        return sendAuthenticatedRequest(() -> createPostRequest(url, postBody), ResponseImpl::getBody);
+    }
+
+    @Override
+    public JsonObject doPostRequestForJson(String postBody) throws IOException {
+        if (contentType == null) contentType = APPLICATION_JSON;
+        return sendAuthenticatedRequest(() -> createPostRequest(url, postBody), ResponseImpl::getBodyAsJson);
     }
 
     @Override
     public <T> String doPutRequest(T putBody) throws IOException {
-        defineSessionHeaders();
-        return sendRequest(createPutRequest(url, putBody)).getBody();
+        return sendAuthenticatedRequest(() -> createPutRequest(url, putBody), ResponseImpl::getBody);
     }
 
-    // Sends the specified request to the server
-    private ResponseImpl sendRequest(WebRequest request) throws IOException {
+    // Sends the request, withholding deferred credentials until the server asks for them.
+    private <T> T sendAuthenticatedRequest(Supplier<WebRequest> requestSupplier, ResponseReader<T> reader) throws IOException {
+        try {
+            defineSessionHeaders();
+            return sendRequest(requestSupplier.get(), reader);
+        } catch (AuthenticationChallengeException e) {
+            if (!authenticationDeferred || authentication == null) throw e;
+
+            authenticationDeferred = false;
+            defineSessionHeaders();
+            return sendRequest(requestSupplier.get(), reader);
+        }
+    }
+
+    // Sends the specified request to the server, and reads the reply before the connection is released
+    private <T> T sendRequest(WebRequest request, ResponseReader<T> reader) throws IOException {
         try (HttpClientExec clientExec = createClientExec()) {
-            return new ResponseImpl(clientExec.send(request));
+            return reader.read(new ResponseImpl(clientExec.send(request)));
         } catch (UnknownHostException | ConnectException e) {
             throw new RestPortConnectionException(request.getURI().toString());
         } catch (GeneralSecurityException e) {
@@ -140,8 +191,9 @@ public abstract class WebClientCommon implements WebClient {
 
     final void defineSessionHeaders() {
         clearSessionHeaders();
-        if (getAuthentication() != null) putSessionHeader(AUTHENTICATION_HEADER, getAuthentication());
+        if (getAuthentication() != null && !authenticationDeferred) putSessionHeader(AUTHENTICATION_HEADER, getAuthentication());
         if (getContentType() != null) putSessionHeader(CONTENT_TYPE_HEADER, getContentType());
+        putSessionHeader(ACCEPT_ENCODING_HEADER, GZIP_ENCODING);
     }
 
     static class EmptyInputStream extends InputStream {
@@ -160,6 +212,40 @@ public abstract class WebClientCommon implements WebClient {
         this.authentication = authentication;
     }
 
+    @Override
+    public void setAuthenticationDeferred(boolean deferred) {
+        this.authenticationDeferred = deferred;
+    }
+
+    /**
+     * Returns true if the credentials are currently being withheld until the server asks for them.
+     */
+    boolean isAuthenticationDeferred() {
+        return authenticationDeferred;
+    }
+
+    @Override
+    public void setResponseLimit(ResponseLimit responseLimit) {
+        this.responseLimit = responseLimit;
+    }
+
+    @Override
+    public void setTimeout(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void setDeadline(ScrapeDeadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait when connecting to the server or awaiting its reply.
+     */
+    int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
     /**
      * Returns the authentication header to be sent on every request.
      * @return an authentication string
@@ -205,16 +291,11 @@ public abstract class WebClientCommon implements WebClient {
 
     class ResponseImpl implements WebClient.Response {
         private final WebResponse response;
-        private final String body;
 
-        ResponseImpl(WebResponse response) throws IOException {
+        ResponseImpl(WebResponse response) {
             this.response = response;
             processStatusCode();
             reportSetCookieHeaders();
-
-            try (final InputStream contents = response.getContents()) {
-                body = asString(contents);
-            }
         }
 
         private void processStatusCode() {
@@ -240,8 +321,8 @@ public abstract class WebClientCommon implements WebClient {
         }
 
         private ServerErrorException createServerErrorException() {
-            try {
-                return new ServerErrorException(response.getResponseCode(), url, asString(response.getContents()));
+            try (final InputStream contents = getDecodedContents()) {
+                return new ServerErrorException(response.getResponseCode(), url, asString(contents));
             } catch (IOException e) {
                 return new ServerErrorException(response.getResponseCode());
             }
@@ -255,6 +336,18 @@ public abstract class WebClientCommon implements WebClient {
             return response.getHeadersAsStream(AUTHENTICATION_CHALLENGE_HEADER).filter(Objects::nonNull).findFirst().orElse(null);
         }
 
+        // Returns the response contents, undoing any compression applied by the server.
+        private InputStream getDecodedContents() throws IOException {
+            final InputStream contents = response.getContents();
+            return isGzipEncoded() ? new GZIPInputStream(contents) : contents;
+        }
+
+        private boolean isGzipEncoded() {
+            return response.getHeadersAsStream(CONTENT_ENCODING_HEADER)
+                  .filter(Objects::nonNull)
+                  .anyMatch(GZIP_ENCODING::equalsIgnoreCase);
+        }
+
         private String asString(InputStream inputStream) throws IOException {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             byte[] buffer = new byte[4096];
@@ -267,8 +360,36 @@ public abstract class WebClientCommon implements WebClient {
         }
 
         @Override
-        public String getBody() {
-            return body;
+        public String getBody() throws IOException {
+            try (final InputStream contents = getLimitedContents()) {
+                return abandonIfUnfinished(() -> asString(contents));
+            }
+        }
+
+        /**
+         * Parses the body of the response directly from the response stream.
+         * @return the parsed JSON object, or null if the body was empty
+         * @throws IOException if unable to read the response
+         */
+        JsonObject getBodyAsJson() throws IOException {
+            try (final Reader reader = new InputStreamReader(getLimitedContents(), StandardCharsets.UTF_8)) {
+                final JsonElement body = abandonIfUnfinished(() -> JsonParser.parseReader(reader));
+                return body.isJsonNull() ? null : body.getAsJsonObject();
+            }
+        }
+
+        private InputStream getLimitedContents() throws IOException {
+            return deadline.limit(responseLimit.limit(getDecodedContents()));
+        }
+
+        // Closing the contents normally would read the rest of the reply, so the connection is closed first instead.
+        private <T> T abandonIfUnfinished(BodyReader<T> bodyReader) throws IOException {
+            try {
+                return bodyReader.read();
+            } catch (ResponseTooLargeException | ScrapeDeadlineExceededException e) {
+                response.abandon();
+                throw e;
+            }
         }
 
     }
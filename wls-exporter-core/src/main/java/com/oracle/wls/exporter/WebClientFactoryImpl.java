@@ -6,9 +6,13 @@ package com.oracle.wls.exporter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
- * The production implementation of the web client factory interface.
+ * The production implementation of the web client factory interface. By default, the client class is selected
+ * at run time, by reflection, according to whether the Apache HTTP client is available. An application which
+ * knows which client it needs, such as one compiled to a native image, may instead supply the client constructor,
+ * in which case no reflection is used.
  *
  * @author Russell Gold
  */
@@ -18,11 +22,28 @@ public class WebClientFactoryImpl implements WebClientFactory {
   static final String JDK_BASED_CLIENT = "com.oracle.wls.exporter.WebClient8Impl";
   static final String[] CLIENT_CLASS_NAMES = {APACHE_BASED_CLIENT, JDK_BASED_CLIENT};
 
-  static Constructor<? extends WebClient> clientConstructor;
   static Function<String,Class<? extends WebClient>> loadClientClass = WebClientFactoryImpl::getClientClass;
 
-  static {
-    clientConstructor = getClientConstructor();
+  private final Supplier<WebClient> clientSupplier;
+
+  /**
+   * Creates a factory for the client class selected by reflection.
+   */
+  public WebClientFactoryImpl() {
+    this(WebClientFactoryImpl::createSelectedClient);
+  }
+
+  /**
+   * Creates a factory for clients created by the specified supplier, such as {@code WebClientImpl::new}.
+   * @param clientSupplier the source of new clients
+   */
+  public WebClientFactoryImpl(Supplier<WebClient> clientSupplier) {
+    this.clientSupplier = clientSupplier;
+  }
+
+  // The client constructor is only looked up if it is needed.
+  private static class SelectedClient {
+    private static final Constructor<? extends WebClient> CONSTRUCTOR = getClientConstructor();
   }
 
   static Constructor<? extends WebClient> getClientConstructor() {
@@ -60,14 +81,18 @@ public class WebClientFactoryImpl implements WebClientFactory {
     }
   }
 
-  @Override
-  public WebClient createClient() {
+  private static WebClient createSelectedClient() {
     try {
-      return clientConstructor.newInstance();
+      return SelectedClient.CONSTRUCTOR.newInstance();
     } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
       throw new IllegalStateException("Unable to instantiate client class", e);
     }
   }
 
+  @Override
+  public WebClient createClient() {
+    return clientSupplier.get();
+  }
+
 
 }
@@ -46,10 +46,6 @@ import org.apache.http.ssl.TrustStrategy;
  * @author Russell Gold
  */
 public class WebClientImpl extends WebClientCommon {
-    // Create default connect, socket, and request timeout.
-    // Previously, these timeouts were unlimited. Consider making configurable later, if needed.
-    private static final int TIMEOUT = 5000; // 5 seconds
-
     private final List<BasicHeader> addedHeaders = new ArrayList<>();
     private final List<BasicHeader> sessionHeaders = new ArrayList<>();
 
@@ -142,9 +138,9 @@ public class WebClientImpl extends WebClientCommon {
         private final CloseableHttpClient client;
         public ApacheHttpClient() throws GeneralSecurityException {
             RequestConfig config = RequestConfig.custom()
-                .setConnectTimeout(TIMEOUT)
-                .setSocketTimeout(TIMEOUT)
-                .setConnectionRequestTimeout(TIMEOUT)
+                .setConnectTimeout(getTimeoutMillis())
+                .setSocketTimeout(getTimeoutMillis())
+                .setConnectionRequestTimeout(getTimeoutMillis())
                 .build();
             SelfSignedCertificateAcceptor acceptor = new SelfSignedCertificateAcceptor();
             client = HttpClientBuilder.create()
@@ -3,46 +3,81 @@
 
 package com.oracle.wls.exporter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.oracle.wls.exporter.domain.MessagesConfiguration;
 
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_TIME;
 
 /**
- * A diagnostic class that records requests sent to WLS and the replies received.
+ * A diagnostic class that records requests sent to WLS and the replies received. The most recent exchanges
+ * are held in a fixed-size ring buffer. Their sizes are computed when they are recorded, and their text
+ * is only formatted when it is displayed.
  */
 public class WlsRestExchanges {
 
   public static final int MAX_EXCHANGES = 5;
-  private static final String TEMPLATE = "At %s, REQUEST to %s:%n%s%nREPLY:%n%s%n";
+  private static final String HEADER_TEMPLATE = "At %s, REQUEST to %s:%n%s%nREPLY:%n";
+  private static final String TRUNCATION_MARKER = "... (truncated)";
+  private static final TypeAdapter<JsonElement> JSON_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+  private static final Exchange[] exchanges = new Exchange[MAX_EXCHANGES];
+  private static int nextIndex;
+  private static int numExchanges;
+
+  private static boolean enabled = true;
+  private static int maxReplyLength = MessagesConfiguration.UNLIMITED;
+  private static boolean compress;
 
-  private static final Queue<Exchange> exchanges = new ConcurrentLinkedDeque<>();
   static final int TEN_MINUTES = 10;
 
   private static class Exchange {
     private final OffsetDateTime time;
-    private final String url;
-    private final String request;
-    private final String response;
+    private final String header;
+    private final RecordedReply reply;
+    private final int contentLength;
 
-    Exchange(String url, String request, String response) {
+    Exchange(String url, String request, RecordedReply reply) {
       this.time = SystemClock.now();
-      this.url = url;
-      this.request = request;
-      this.response = response;
+      this.header = String.format(HEADER_TEMPLATE, ISO_LOCAL_TIME.format(time), url, request);
+      this.reply = reply;
+      this.contentLength = toBytes(header).length + reply.getLength() + toBytes(System.lineSeparator()).length;
     }
 
-    private String getContent() {
-      return String.format(TEMPLATE, ISO_LOCAL_TIME.format(time), url, request, response);
+    private void writeTo(Appendable out) throws IOException {
+      out.append(header);
+      reply.writeTo(out);
+      out.append(System.lineSeparator());
     }
 
-    private int getContentLength() {
-      return getContent().getBytes(Charset.defaultCharset()).length;
+    private String getContent() {
+      try {
+        StringBuilder sb = new StringBuilder();
+        writeTo(sb);
+        return sb.toString();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
     }
 
     private boolean isWithinTenMinutes() {
@@ -50,14 +85,116 @@ public class WlsRestExchanges {
     }
   }
 
+  private static byte[] toBytes(String s) {
+    return s.getBytes(Charset.defaultCharset());
+  }
+
+  /**
+   * A reply, as recorded for later display.
+   */
+  private interface RecordedReply {
+
+    /**
+     * Returns the number of bytes held for this reply.
+     */
+    int getLength();
+
+    /**
+     * Writes the text of the reply to the specified destination.
+     * @param out the destination for the reply
+     */
+    void writeTo(Appendable out) throws IOException;
+  }
+
+  private static class PlainReply implements RecordedReply {
+    private final String text;
+
+    PlainReply(String text) {
+      this.text = text;
+    }
+
+    @Override
+    public int getLength() {
+      return toBytes(text).length;
+    }
+
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+      out.append(text);
+    }
+  }
+
+  private static class CompressedReply implements RecordedReply {
+    private final byte[] compressed;
+
+    CompressedReply(String text) {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+        gzip.write(text.getBytes(StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      compressed = baos.toByteArray();
+    }
+
+    @Override
+    public int getLength() {
+      return compressed.length;
+    }
+
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+      try (Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8)) {
+        final char[] buffer = new char[4096];
+        int numChars;
+        while ((numChars = reader.read(buffer)) >= 0)
+          out.append(new String(buffer, 0, numChars));
+      }
+    }
+  }
+
   private WlsRestExchanges() {
   }
 
+  /**
+   * Applies the specified settings to exchanges recorded in the future.
+   * @param configuration the settings to use, or null to use the defaults
+   */
+  public static synchronized void configure(MessagesConfiguration configuration) {
+    enabled = Optional.ofNullable(configuration).map(MessagesConfiguration::isEnabled).orElse(true);
+    maxReplyLength = Optional.ofNullable(configuration).map(MessagesConfiguration::getMaxReplyLength).orElse(MessagesConfiguration.UNLIMITED);
+    compress = Optional.ofNullable(configuration).map(MessagesConfiguration::isCompress).orElse(false);
+    if (!enabled) clear();
+  }
+
   /**
    * Returns a list of the most recent exchanges.
    */
   public static List<String> getExchanges() {
-      return exchanges.stream().map(Exchange::getContent).collect(Collectors.toList());
+    final List<String> result = new ArrayList<>();
+    for (Exchange exchange : getRecordedExchanges())
+      result.add(exchange.getContent());
+    return result;
+  }
+
+  /**
+   * Writes the most recent exchanges to the specified destination, formatting each one only as it is written.
+   * @param out the destination for the exchanges
+   * @throws IOException if unable to write to the destination
+   */
+  public static void printExchanges(Appendable out) throws IOException {
+    for (Exchange exchange : getRecordedExchanges()) {
+      exchange.writeTo(out);
+      out.append(System.lineSeparator());
+    }
+  }
+
+  // Returns the recorded exchanges, oldest first.
+  private static synchronized Exchange[] getRecordedExchanges() {
+    final Exchange[] result = new Exchange[numExchanges];
+    for (int i = 0; i < numExchanges; i++)
+      result[i] = exchanges[(nextIndex - numExchanges + i + MAX_EXCHANGES) % MAX_EXCHANGES];
+    return result;
   }
 
   /**
@@ -67,26 +204,135 @@ public class WlsRestExchanges {
    * @param response the returned JSON string
    */
   public static void addExchange(String url, String request, String response) {
-      exchanges.add(new Exchange(url, request, response));
-      if (exchanges.size() > MAX_EXCHANGES) exchanges.remove();
+    if (isEnabled()) addExchange(new Exchange(url, request, recordReply(truncate(String.valueOf(response)))));
+  }
+
+  /**
+   * Adds an exchange whose reply was parsed as it was received. The reply is only rendered as far as
+   * the configured maximum reply length.
+   * @param url the URL of the WLS instance
+   * @param request the request JSON string
+   * @param response the parsed JSON reply. May be null.
+   */
+  public static void addExchange(String url, String request, JsonElement response) {
+    if (isEnabled()) addExchange(new Exchange(url, request, recordReply(render(response))));
+  }
+
+  private static synchronized boolean isEnabled() {
+    return enabled;
+  }
+
+  private static RecordedReply recordReply(String text) {
+    return isCompressing() ? new CompressedReply(text) : new PlainReply(text);
+  }
+
+  private static synchronized boolean isCompressing() {
+    return compress;
+  }
+
+  private static synchronized int getMaxReplyLength() {
+    return maxReplyLength;
+  }
+
+  private static String truncate(String text) {
+    final int maxLength = getMaxReplyLength();
+    return text.length() <= maxLength ? text : text.substring(0, maxLength) + TRUNCATION_MARKER;
+  }
+
+  private static String render(JsonElement response) {
+    final BoundedWriter writer = new BoundedWriter(getMaxReplyLength());
+    try {
+      final JsonWriter jsonWriter = new JsonWriter(writer);
+      jsonWriter.setLenient(true);
+      JSON_ADAPTER.write(jsonWriter, response == null ? JsonNull.INSTANCE : response);
+      jsonWriter.flush();
+    } catch (ReplyTruncatedException e) {
+      writer.appendTruncationMarker();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  private static synchronized void addExchange(Exchange exchange) {
+    exchanges[nextIndex] = exchange;
+    nextIndex = (nextIndex + 1) % MAX_EXCHANGES;
+    numExchanges = Math.min(numExchanges + 1, MAX_EXCHANGES);
   }
 
   /**
    * Clears the set of recorded exchanges. Intended for unit testing.
    */
-  public static void clear() {
-      exchanges.clear();
+  public static synchronized void clear() {
+    for (int i = 0; i < MAX_EXCHANGES; i++)
+      exchanges[i] = null;
+    nextIndex = 0;
+    numExchanges = 0;
   }
 
   public static int getMessageAllocation() {
-    return exchanges.stream().map(Exchange::getContentLength).reduce(Integer::sum).orElse(0);
+    int total = 0;
+    for (Exchange exchange : getRecordedExchanges())
+      total += exchange.contentLength;
+    return total;
   }
 
   public static int getMaximumExchangeLength() {
-    return exchanges.stream().map(Exchange::getContentLength).reduce(Math::max).orElse(0);
+    int maximum = 0;
+    for (Exchange exchange : getRecordedExchanges())
+      maximum = Math.max(maximum, exchange.contentLength);
+    return maximum;
   }
 
   public static int getTotalExchangeLengthOverPastTenMinutes() {
-    return exchanges.stream().filter(Exchange::isWithinTenMinutes).map(Exchange::getContentLength).reduce(Integer::sum).orElse(0);
+    int total = 0;
+    for (Exchange exchange : getRecordedExchanges())
+      if (exchange.isWithinTenMinutes()) total += exchange.contentLength;
+    return total;
+  }
+
+  /**
+   * Thrown to stop rendering a reply once the maximum reply length has been reached.
+   */
+  private static class ReplyTruncatedException extends RuntimeException {
+  }
+
+  /**
+   * A writer which accepts only a limited number of characters, and throws an exception when that limit is exceeded.
+   */
+  private static class BoundedWriter extends Writer {
+    private final StringBuilder sb = new StringBuilder();
+    private final int maxLength;
+
+    BoundedWriter(int maxLength) {
+      this.maxLength = maxLength;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      final int numChars = Math.min(len, maxLength - sb.length());
+      sb.append(cbuf, off, numChars);
+      if (numChars < len) throw new ReplyTruncatedException();
+    }
+
+    // Adds the marker which shows that the reply was truncated, bypassing the limit.
+    void appendTruncationMarker() {
+      sb.append(TRUNCATION_MARKER);
+    }
+
+    @Override
+    public void flush() {
+      // no-op
+    }
+
+    @Override
+    public void close() {
+      // no-op
+    }
+
+    @Override
+    public String toString() {
+      return sb.toString();
+    }
   }
 }
@@ -0,0 +1,66 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+/**
+ * Chooses the filter strategy for a query which selects MBeans by name. Filtering on the server needs an extra
+ * request for the names of the MBeans, but keeps the replies small; filtering on the client needs only one request,
+ * but its replies include every MBean. The choice is made from the number of MBeans found and the size of the
+ * replies: when the whole collection is small, it is cheaper to fetch it all and filter it while scraping.
+ */
+class AdaptiveFilter {
+
+    /** The most MBeans which may be found by a query filtered on the client. */
+    static final int MAX_CLIENT_SIDE_ITEMS = 100;
+
+    /** The largest estimated reply to a query filtered on the client. */
+    static final long MAX_CLIENT_SIDE_BYTES = 64 * 1024L;
+
+    private FilterStrategy strategy = FilterStrategy.SERVER;
+    private int numItems = -1;
+    private int numSelected;
+
+    /**
+     * The numbers of MBeans found and selected in a reply.
+     */
+    static class ItemCounts {
+        private int numItems;
+        private int numSelected;
+
+        void add(boolean selected) {
+            numItems++;
+            if (selected) numSelected++;
+        }
+    }
+
+    synchronized FilterStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Records the MBeans found by a query, either in the reply to a request for names, or while filtering on the client.
+     * @param counts the numbers of MBeans found and selected
+     */
+    synchronized void recordItems(ItemCounts counts) {
+        numItems = counts.numItems;
+        numSelected = counts.numSelected;
+    }
+
+    /**
+     * Records the size of the reply to a query, and chooses the strategy for the next one.
+     * @param numBytes the number of bytes in the reply
+     */
+    synchronized void recordResponse(long numBytes) {
+        if (numItems < 0) return;
+
+        final long unfilteredBytes = strategy == FilterStrategy.CLIENT ? numBytes : estimateUnfilteredBytes(numBytes);
+        strategy = numItems <= MAX_CLIENT_SIDE_ITEMS && unfilteredBytes <= MAX_CLIENT_SIDE_BYTES
+              ? FilterStrategy.CLIENT : FilterStrategy.SERVER;
+    }
+
+    // Assumes that the MBeans not selected are about the same size as those which were.
+    private long estimateUnfilteredBytes(long filteredBytes) {
+        return filteredBytes * numItems / Math.max(1, numSelected);
+    }
+}
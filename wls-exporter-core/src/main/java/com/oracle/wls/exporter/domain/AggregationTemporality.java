@@ -0,0 +1,48 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The ways in which the values of counters may be reported to an OpenTelemetry collector.
+ */
+public enum AggregationTemporality {
+    /** Each value is the change since the previous export. **/
+    DELTA("delta", 1),
+    /** Each value is the total since the counter started, as it is in Prometheus. **/
+    CUMULATIVE("cumulative", 2);
+
+    private final String configName;
+    private final int otlpValue;
+
+    AggregationTemporality(String configName, int otlpValue) {
+        this.configName = configName;
+        this.otlpValue = otlpValue;
+    }
+
+    static AggregationTemporality fromConfig(Object value) {
+        return Arrays.stream(values())
+              .filter(type -> type.configName.equals(String.valueOf(value)))
+              .findFirst()
+              .orElseThrow(() -> MapUtils.createBadTypeException(OtlpConfiguration.TEMPORALITY_KEY, value, getConfigNames()));
+    }
+
+    private static String getConfigNames() {
+        return "one of " + Arrays.stream(values()).map(AggregationTemporality::toString).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns the value which represents this temporality in the OTLP protocol.
+     */
+    public int getOtlpValue() {
+        return otlpValue;
+    }
+
+    @Override
+    public String toString() {
+        return configName;
+    }
+}
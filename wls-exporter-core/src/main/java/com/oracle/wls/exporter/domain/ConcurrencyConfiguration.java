@@ -0,0 +1,133 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration for the limit on concurrent scrapes. The limit adapts between its minimum and maximum
+ * according to the response times of the REST API. Scrapes beyond the limit wait in a queue; those which
+ * cannot be queued are either rejected or answered with the metrics from the last completed scrape.
+ */
+public class ConcurrencyConfiguration {
+    private static final String INITIAL_LIMIT_KEY = "initialLimit";
+    private static final String MIN_LIMIT_KEY = "minLimit";
+    private static final String MAX_LIMIT_KEY = "maxLimit";
+    private static final String MAX_QUEUE_LENGTH_KEY = "maxQueueLength";
+    private static final String QUEUE_TIMEOUT_MILLIS_KEY = "queueTimeoutMillis";
+    private static final String WHEN_OVERLOADED_KEY = "whenOverloaded";
+
+    static final int DEFAULT_INITIAL_LIMIT = 4;
+    static final int DEFAULT_MIN_LIMIT = 1;
+    static final int DEFAULT_MAX_LIMIT = 20;
+    static final int DEFAULT_MAX_QUEUE_LENGTH = 10;
+    static final int DEFAULT_QUEUE_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * The ways in which a scrape may be handled when it can be neither run nor queued.
+     */
+    public enum OverloadAction {
+        /** Reject the scrape as unavailable. */
+        SHED,
+        /** Reply with the metrics from the last completed scrape, if any; otherwise reject the scrape. */
+        SNAPSHOT;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private int maxQueueLength = DEFAULT_MAX_QUEUE_LENGTH;
+    private int queueTimeoutMillis = DEFAULT_QUEUE_TIMEOUT_MILLIS;
+    private OverloadAction whenOverloaded = OverloadAction.SHED;
+
+    ConcurrencyConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(INITIAL_LIMIT_KEY)) initialLimit = getPositiveValue(map, INITIAL_LIMIT_KEY);
+        if (map.containsKey(MIN_LIMIT_KEY)) minLimit = getPositiveValue(map, MIN_LIMIT_KEY);
+        if (map.containsKey(MAX_LIMIT_KEY)) maxLimit = getPositiveValue(map, MAX_LIMIT_KEY);
+        if (map.containsKey(MAX_QUEUE_LENGTH_KEY)) maxQueueLength = MapUtils.getIntegerValue(map, MAX_QUEUE_LENGTH_KEY);
+        if (map.containsKey(QUEUE_TIMEOUT_MILLIS_KEY)) queueTimeoutMillis = MapUtils.getIntegerValue(map, QUEUE_TIMEOUT_MILLIS_KEY);
+        if (map.containsKey(WHEN_OVERLOADED_KEY)) whenOverloaded = getOverloadAction(map);
+
+        if (minLimit > initialLimit || initialLimit > maxLimit)
+            throw new ConfigurationException(
+                  String.format("Concurrency limits must satisfy %s <= %s <= %s", MIN_LIMIT_KEY, INITIAL_LIMIT_KEY, MAX_LIMIT_KEY));
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    private OverloadAction getOverloadAction(Map<String, Object> map) {
+        final String value = MapUtils.getStringValue(map, WHEN_OVERLOADED_KEY);
+        try {
+            return OverloadAction.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw MapUtils.createBadTypeException(WHEN_OVERLOADED_KEY, value, "'shed' or 'snapshot'");
+        }
+    }
+
+    /**
+     * Returns the number of concurrent scrapes permitted before any response times are known.
+     */
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    /**
+     * Returns the smallest number of concurrent scrapes to which the limit may fall.
+     */
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    /**
+     * Returns the largest number of concurrent scrapes to which the limit may rise.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Returns the number of scrapes which may wait for others to complete.
+     */
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    /**
+     * Returns the longest time in milliseconds for which a scrape may wait in the queue.
+     */
+    public int getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+    /**
+     * Returns the way to handle a scrape which can be neither run nor queued.
+     */
+    public OverloadAction getOverloadAction() {
+        return whenOverloaded;
+    }
+
+    @Override
+    public String toString() {
+        return "concurrency:\n" +
+               "  " + INITIAL_LIMIT_KEY + ": " + initialLimit + '\n' +
+               "  " + MIN_LIMIT_KEY + ": " + minLimit + '\n' +
+               "  " + MAX_LIMIT_KEY + ": " + maxLimit + '\n' +
+               "  " + MAX_QUEUE_LENGTH_KEY + ": " + maxQueueLength + '\n' +
+               "  " + QUEUE_TIMEOUT_MILLIS_KEY + ": " + queueTimeoutMillis + '\n' +
+               "  " + WHEN_OVERLOADED_KEY + ": " + whenOverloaded + '\n';
+    }
+}
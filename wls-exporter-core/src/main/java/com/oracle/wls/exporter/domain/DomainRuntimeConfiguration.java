@@ -0,0 +1,45 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Map;
+
+/**
+ * Configuration for collecting the metrics of every server in the domain through the admin server. Each runtime
+ * query is sent to the domain runtime search and selects its MBeans from all running servers, whose metrics
+ * are labeled with the name of the server. A large domain may be queried a page of servers at a time.
+ */
+public class DomainRuntimeConfiguration {
+    private static final String SERVERS_PER_REQUEST_KEY = "serversPerRequest";
+
+    private Integer serversPerRequest;
+
+    DomainRuntimeConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(SERVERS_PER_REQUEST_KEY)) serversPerRequest = getPositiveValue(map, SERVERS_PER_REQUEST_KEY);
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns the maximum number of servers to select in a single request, if the servers are to be paged.
+     * @return a number of servers, or null if each query should select all servers at once
+     */
+    public Integer getServersPerRequest() {
+        return serversPerRequest;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("domainRuntime:\n");
+        if (serversPerRequest != null) sb.append("  " + SERVERS_PER_REQUEST_KEY + ": ").append(serversPerRequest).append('\n');
+        return sb.toString();
+    }
+}
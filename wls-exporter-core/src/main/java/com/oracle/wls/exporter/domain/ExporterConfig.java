@@ -1,17 +1,23 @@
-// Copyright (c) 2017, 2023, Oracle and/or its affiliates.
+// Copyright (c) 2017, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.domain;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
+import javax.management.MBeanServerConnection;
 
 import com.google.gson.JsonObject;
 import org.yaml.snakeyaml.LoaderOptions;
@@ -32,20 +38,54 @@ public class ExporterConfig implements MetricsProcessor {
     public static final String DOMAIN_NAME_PROPERTY = "DOMAIN";
 
     private static final String QUERY_SYNC = "query_sync";
+    static final String MESSAGES = "messages";
+    static final String HEDGING = "hedging";
+    static final String CONCURRENCY = "concurrency";
+    static final String QUERY_SPLITTING = "querySplitting";
+    static final String DOMAIN_RUNTIME = "domainRuntime";
+    static final String FEDERATION = "federation";
+    static final String REMOTE_WRITE = "remoteWrite";
+    static final String OTLP = "otlp";
+    static final String SUBSCRIPTIONS = "subscriptions";
+    static final String METRICS_SOURCE = "metricsSource";
+    static final String JMX = "jmx";
     static final String SNAKE_CASE = "metricsNameSnakeCase";
     static final String DOMAIN_QUALIFIER = "domainQualifier";
     static final String REST_PORT = "restPort";
+    static final String MAX_RESPONSE_BYTES = "maxResponseBytes";
+    static final String MAX_SCRAPE_BYTES = "maxScrapeBytes";
+    static final String QUERY_TIMEOUT_MILLIS = "queryTimeoutMillis";
+    static final String SCRAPE_TIMEOUT_SECONDS = "scrapeTimeoutSeconds";
+    static final String SCRAPE_TIMEOUT_OFFSET_MILLIS = "scrapeTimeoutOffsetMillis";
     private static final String QUERIES_TAG = "queries";
 
     private static final MBeanSelector[] NO_QUERIES = {};
     private static final String DOMAIN_NAME_QUALIFIER = "domain=\"%s\"";
 
+    static final int DEFAULT_SCRAPE_TIMEOUT_OFFSET_MILLIS = 500;
+
     private static boolean defaultSnakeCaseSetting;
 
     private MBeanSelector[] queries = {};
     private Integer restPort;
+    private Long maxResponseBytes;
+    private Long maxScrapeBytes;
+    private Integer queryTimeoutMillis;
+    private Integer scrapeTimeoutSeconds;
+    private Integer scrapeTimeoutOffsetMillis;
     private boolean metricsNameSnakeCase = defaultSnakeCaseSetting;
     private QuerySyncConfiguration querySyncConfiguration;
+    private MessagesConfiguration messagesConfiguration;
+    private HedgingConfiguration hedgingConfiguration;
+    private ConcurrencyConfiguration concurrencyConfiguration;
+    private QuerySplittingConfiguration querySplittingConfiguration;
+    private DomainRuntimeConfiguration domainRuntimeConfiguration;
+    private FederationConfiguration federationConfiguration;
+    private RemoteWriteConfiguration remoteWriteConfiguration;
+    private OtlpConfiguration otlpConfiguration;
+    private SubscriptionConfiguration subscriptionConfiguration;
+    private MetricsSourceType metricsSource = MetricsSourceType.REST;
+    private JmxConfiguration jmxConfiguration;
     private boolean useDomainQualifier;
     private String domainName = System.getProperty(DOMAIN_NAME_PROPERTY);
 
@@ -115,13 +155,67 @@ public class ExporterConfig implements MetricsProcessor {
      * @return a map of metric names to values
      */
     public Map<String, Object> scrapeMetrics(MBeanSelector selector, JsonObject response) {
+        return scrapeMetrics(selector, selector.getFieldDiscovery(), response);
+    }
+
+    /**
+     * Creates a set of metrics from a Json object, received in reply to a request built with the specified
+     * field discovery.
+     *
+     * @param selector the description of the metrics to scrape.
+     * @param discovery the selectors which asked for all their fields when the request was built
+     * @param response  a parsed JSON REST response
+     * @return a map of metric names to values
+     */
+    public Map<String, Object> scrapeMetrics(MBeanSelector selector, FieldDiscovery discovery, JsonObject response) {
+        return scrapeMetrics(selector, discovery, new JsonScrapeSource(response));
+    }
+
+    /**
+     * Scrapes metrics directly from the MBeans in an MBean server.
+     * @param selector the description of the metrics to scrape
+     * @param connection a connection to the MBean server
+     * @return a map of metric names to values
+     * @throws IOException if unable to communicate with the MBean server
+     */
+    public Map<String, Object> scrapeMetrics(MBeanSelector selector, MBeanServerConnection connection) throws IOException {
+        try {
+            final FieldDiscovery discovery = selector.getFieldDiscovery();
+            return scrapeMetrics(selector, discovery, MBeanScrapeSource.forQuery(connection, selector, discovery));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, Object> scrapeMetrics(MBeanSelector selector, FieldDiscovery discovery, ScrapeSource source) {
         MetricsScraper scraper = new MetricsScraper(getGlobalQualifiers());
         scraper.setMetricNameSnakeCase(metricsNameSnakeCase);
-        Map<String, Object> metrics = scraper.scrape(selector, response);
+        Map<String, Object> metrics = scraper.scrape(selector, discovery, source);
         selector.postProcessMetrics(metrics, this);
         return metrics;
     }
 
+    /**
+     * Returns the names of the metrics which the queries declare to be counters. All others are gauges.
+     * @return a set of metric names, without qualifiers
+     */
+    public Set<String> getCounterNames() {
+        final Set<String> names = new HashSet<>();
+        for (MBeanSelector query : getQueries())
+            addCounterNames(names, query);
+        return names;
+    }
+
+    private void addCounterNames(Set<String> names, MBeanSelector selector) {
+        for (String counter : selector.getCounters())
+            names.add(getCorrectCase(Optional.ofNullable(selector.getPrefix()).orElse("")) + getCorrectCase(counter));
+        selector.getNestedSelectors().values().forEach(nested -> addCounterNames(names, nested));
+    }
+
+    private String getCorrectCase(String name) {
+        return metricsNameSnakeCase ? SnakeCaseUtil.convert(name) : name;
+    }
+
     private String getGlobalQualifiers() {
         return Optional.ofNullable(domainName).map(n->String.format(DOMAIN_NAME_QUALIFIER, n)).orElse("");
     }
@@ -136,9 +230,39 @@ public class ExporterConfig implements MetricsProcessor {
      * @return an array of mbean selectors.
      */
     public MBeanSelector[] getEffectiveQueries() {
+        return getEffectiveQueries(null);
+    }
+
+    /**
+     * Returns the queries needed to create the metrics for the specified query group.
+     * @param group the name of a query group, or null to select all queries
+     * @return an array of mbean selectors.
+     */
+    public MBeanSelector[] getEffectiveQueries(String group) {
         if (queries == null) return NO_QUERIES;
 
-        return withPossibleDomainNameQuery(Arrays.stream(queries)).toArray(MBeanSelector[]::new);
+        return withPossibleDomainNameQuery(Arrays.stream(queries).filter(q -> isInGroup(q, group)).map(this::toEffectiveQuery))
+              .toArray(MBeanSelector[]::new);
+    }
+
+    // When collecting through the domain runtime, each runtime query is sent for all servers at once.
+    private MBeanSelector toEffectiveQuery(MBeanSelector query) {
+        if (domainRuntimeConfiguration == null || query.getQueryType() != QueryType.RUNTIME)
+            return query;
+        else
+            return query.getDomainRuntimeQuery();
+    }
+
+    private boolean isInGroup(MBeanSelector query, String group) {
+        return group == null || group.equals(query.getGroup());
+    }
+
+    /**
+     * Returns true if at least one query belongs to the specified group.
+     * @param group the name of a query group
+     */
+    public boolean hasQueryGroup(String group) {
+        return Arrays.stream(getQueries()).anyMatch(q -> group.equals(q.getGroup()));
     }
 
     /**
@@ -166,12 +290,129 @@ public class ExporterConfig implements MetricsProcessor {
         return querySyncConfiguration;
     }
 
+    /**
+     * Returns the configuration for recording REST exchanges, if specified.
+     * @return a configuration object, or null
+     */
+    public MessagesConfiguration getMessagesConfiguration() {
+        return messagesConfiguration;
+    }
+
+    /**
+     * Returns the configuration for hedging REST requests, if specified.
+     * @return a configuration object, or null
+     */
+    public HedgingConfiguration getHedgingConfiguration() {
+        return hedgingConfiguration;
+    }
+
+    /**
+     * Returns the configuration for limiting concurrent scrapes, if specified.
+     * @return a configuration object, or null
+     */
+    public ConcurrencyConfiguration getConcurrencyConfiguration() {
+        return concurrencyConfiguration;
+    }
+
+    /**
+     * Returns the configuration for splitting large queries, if specified.
+     * @return a configuration object, or null
+     */
+    public QuerySplittingConfiguration getQuerySplittingConfiguration() {
+        return querySplittingConfiguration;
+    }
+
+    /**
+     * Returns the configuration for collecting metrics from all servers through the domain runtime, if specified.
+     * @return a configuration object, or null
+     */
+    public DomainRuntimeConfiguration getDomainRuntimeConfiguration() {
+        return domainRuntimeConfiguration;
+    }
+
+    /**
+     * Returns the configuration for federating other exporters, if specified.
+     * @return a configuration object, or null
+     */
+    public FederationConfiguration getFederationConfiguration() {
+        return federationConfiguration;
+    }
+
+    /**
+     * Returns the configuration for pushing metrics to a remote-write endpoint, if specified.
+     * @return a configuration object, or null
+     */
+    public RemoteWriteConfiguration getRemoteWriteConfiguration() {
+        return remoteWriteConfiguration;
+    }
+
+    /**
+     * Returns the configuration for exporting metrics to an OpenTelemetry collector, if specified.
+     * @return a configuration object, or null
+     */
+    public OtlpConfiguration getOtlpConfiguration() {
+        return otlpConfiguration;
+    }
+
+    /**
+     * Returns the configuration for streaming changed samples to subscribers, if specified.
+     * @return a configuration object, or null
+     */
+    public SubscriptionConfiguration getSubscriptionConfiguration() {
+        return subscriptionConfiguration;
+    }
+
+    /**
+     * Returns the configuration for reading metrics through a remote JMX connector, if specified.
+     * @return a configuration object, or null
+     */
+    public JmxConfiguration getJmxConfiguration() {
+        return jmxConfiguration;
+    }
+
+    /**
+     * Returns the source from which the metrics are to be read.
+     */
+    public MetricsSourceType getMetricsSource() {
+        return metricsSource;
+    }
+
     private ExporterConfig(Map<String, Object> yaml) {
         if (yaml.containsKey(DOMAIN_QUALIFIER)) setDomainQualifier(yaml);
         if (yaml.containsKey(SNAKE_CASE)) setMetricsNameSnakeCase(yaml);
         if (yaml.containsKey(REST_PORT)) restPort = MapUtils.getIntegerValue(yaml, REST_PORT);
+        if (yaml.containsKey(MAX_RESPONSE_BYTES)) maxResponseBytes = MapUtils.getLongValue(yaml, MAX_RESPONSE_BYTES);
+        if (yaml.containsKey(MAX_SCRAPE_BYTES)) maxScrapeBytes = MapUtils.getLongValue(yaml, MAX_SCRAPE_BYTES);
+        if (yaml.containsKey(QUERY_TIMEOUT_MILLIS)) queryTimeoutMillis = getPositiveValue(yaml, QUERY_TIMEOUT_MILLIS);
+        if (yaml.containsKey(SCRAPE_TIMEOUT_SECONDS)) scrapeTimeoutSeconds = getPositiveValue(yaml, SCRAPE_TIMEOUT_SECONDS);
+        if (yaml.containsKey(SCRAPE_TIMEOUT_OFFSET_MILLIS))
+            scrapeTimeoutOffsetMillis = MapUtils.getIntegerValue(yaml, SCRAPE_TIMEOUT_OFFSET_MILLIS);
+        if (yaml.containsKey(METRICS_SOURCE)) metricsSource = MetricsSourceType.fromConfig(yaml.get(METRICS_SOURCE));
         if (yaml.containsKey(QUERY_SYNC)) querySyncConfiguration = loadQuerySync(yaml.get(QUERY_SYNC));
+        if (yaml.containsKey(MESSAGES)) messagesConfiguration = loadMessages(yaml.get(MESSAGES));
+        if (yaml.containsKey(HEDGING)) hedgingConfiguration = loadHedging(yaml.get(HEDGING));
+        if (yaml.containsKey(CONCURRENCY)) concurrencyConfiguration = loadConcurrency(yaml.get(CONCURRENCY));
+        if (yaml.containsKey(QUERY_SPLITTING)) querySplittingConfiguration = loadQuerySplitting(yaml.get(QUERY_SPLITTING));
+        if (yaml.containsKey(DOMAIN_RUNTIME)) domainRuntimeConfiguration = loadDomainRuntime(yaml.get(DOMAIN_RUNTIME));
+        if (yaml.containsKey(FEDERATION)) federationConfiguration = loadFederation(yaml.get(FEDERATION));
+        if (yaml.containsKey(REMOTE_WRITE)) remoteWriteConfiguration = loadRemoteWrite(yaml.get(REMOTE_WRITE));
+        if (yaml.containsKey(OTLP)) otlpConfiguration = loadOtlp(yaml.get(OTLP));
+        if (yaml.containsKey(SUBSCRIPTIONS)) subscriptionConfiguration = loadSubscriptions(yaml.get(SUBSCRIPTIONS));
+        if (yaml.containsKey(JMX)) jmxConfiguration = loadJmx(yaml.get(JMX));
         if (yaml.containsKey(QUERIES_TAG)) appendQueries(asList(yaml.get(QUERIES_TAG)));
+        if (metricsSource == MetricsSourceType.JMX && jmxConfiguration == null)
+            throw new ConfigurationException("Reading metrics through JMX requires a " + JMX + " section");
+        if (metricsSource == MetricsSourceType.MBEAN_SERVER && domainRuntimeConfiguration != null)
+            throw new ConfigurationException("The " + DOMAIN_RUNTIME + " section cannot be used with "
+                  + METRICS_SOURCE + " " + MetricsSourceType.MBEAN_SERVER
+                  + ", as the domain runtime MBeans are not in the server's runtime MBean server");
+    }
+
+    private int getPositiveValue(Map<String, Object> yaml, String key) {
+        final int value = MapUtils.getIntegerValue(yaml, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
     }
 
     private Object asList(Object value) {
@@ -201,6 +442,111 @@ public class ExporterConfig implements MetricsProcessor {
         return new QuerySyncConfiguration((Map<String, Object>) o);
     }
 
+    @SuppressWarnings("unchecked")
+    private MessagesConfiguration loadMessages(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(MESSAGES, o, "a structure");
+
+        return new MessagesConfiguration((Map<String, Object>) o);
+    }
+
+    @SuppressWarnings("unchecked")
+    private HedgingConfiguration loadHedging(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(HEDGING, o, "a structure");
+
+        return new HedgingConfiguration((Map<String, Object>) o);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrencyConfiguration loadConcurrency(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(CONCURRENCY, o, "a structure");
+
+        return new ConcurrencyConfiguration((Map<String, Object>) o);
+    }
+
+    @SuppressWarnings("unchecked")
+    private QuerySplittingConfiguration loadQuerySplitting(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(QUERY_SPLITTING, o, "a structure");
+
+        return new QuerySplittingConfiguration((Map<String, Object>) o);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DomainRuntimeConfiguration loadDomainRuntime(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(DOMAIN_RUNTIME, o, "a structure");
+
+        return new DomainRuntimeConfiguration((Map<String, Object>) o);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FederationConfiguration loadFederation(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(FEDERATION, o, "a structure");
+
+        try {
+            return new FederationConfiguration((Map<String, Object>) o);
+        } catch (ConfigurationException e) {
+            e.addContext(FEDERATION);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private RemoteWriteConfiguration loadRemoteWrite(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(REMOTE_WRITE, o, "a structure");
+
+        try {
+            return new RemoteWriteConfiguration((Map<String, Object>) o);
+        } catch (ConfigurationException e) {
+            e.addContext(REMOTE_WRITE);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private OtlpConfiguration loadOtlp(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(OTLP, o, "a structure");
+
+        try {
+            return new OtlpConfiguration((Map<String, Object>) o);
+        } catch (ConfigurationException e) {
+            e.addContext(OTLP);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SubscriptionConfiguration loadSubscriptions(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(SUBSCRIPTIONS, o, "a structure");
+
+        try {
+            return new SubscriptionConfiguration((Map<String, Object>) o);
+        } catch (ConfigurationException e) {
+            e.addContext(SUBSCRIPTIONS);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JmxConfiguration loadJmx(Object o) {
+        if (o != null && !(o instanceof Map))
+            throw MapUtils.createBadTypeException(JMX, o, "a structure");
+
+        try {
+            return new JmxConfiguration((Map<String, Object>) o);
+        } catch (ConfigurationException e) {
+            e.addContext(JMX);
+            throw e;
+        }
+    }
+
     private void appendQueries(Object queriesYaml) {
         for (Map<String,Object> selectorSpec : getAsListOfMaps(queriesYaml)) {
             appendQuery(MBeanSelector.create(selectorSpec).withForbiddenFields(FORBIDDEN_FIELDS));
@@ -224,6 +570,8 @@ public class ExporterConfig implements MetricsProcessor {
     }
 
     private boolean isMergeableTopLevelQuery(MBeanSelector first, MBeanSelector second) {
+        if (!Objects.equals(first.getGroup(), second.getGroup())) return false;
+        if (!Objects.equals(first.getCacheSeconds(), second.getCacheSeconds())) return false;
         if (!first.getNestedSelectors().keySet().equals(second.getNestedSelectors().keySet())) return false;
 
         for (String key : first.getNestedSelectors().keySet())
@@ -270,6 +618,50 @@ public class ExporterConfig implements MetricsProcessor {
         return restPort;
     }
 
+    /**
+     * Returns the maximum number of bytes to read in the reply to the specified query. A limit defined
+     * on the query itself takes precedence over the one defined for all queries.
+     * @param selector the query to be sent
+     * @return a number of bytes, or null if no limit is defined
+     */
+    public Long getMaxResponseBytes(MBeanSelector selector) {
+        return Optional.ofNullable(selector.getMaxResponseBytes()).orElse(maxResponseBytes);
+    }
+
+    /**
+     * Returns the maximum number of bytes to read in the replies to all queries made during a single scrape.
+     * @return a number of bytes, or null if no limit is defined
+     */
+    public Long getMaxScrapeBytes() {
+        return maxScrapeBytes;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the reply to the specified query. A timeout defined
+     * on the query itself takes precedence over the one defined for all queries.
+     * @param selector the query to be sent
+     * @return a number of milliseconds, or null if no timeout is defined
+     */
+    public Integer getQueryTimeoutMillis(MBeanSelector selector) {
+        return Optional.ofNullable(selector.getQueryTimeoutMillis()).orElse(queryTimeoutMillis);
+    }
+
+    /**
+     * Returns the time in seconds within which a scrape should complete, if the client does not specify it.
+     * @return a number of seconds, or null if no time is defined
+     */
+    public Integer getScrapeTimeoutSeconds() {
+        return scrapeTimeoutSeconds;
+    }
+
+    /**
+     * Returns the time in milliseconds before the scrape timeout by which the exporter should stop sending queries,
+     * so that it has time to send its reply.
+     */
+    public int getScrapeTimeoutOffsetMillis() {
+        return Optional.ofNullable(scrapeTimeoutOffsetMillis).orElse(DEFAULT_SCRAPE_TIMEOUT_OFFSET_MILLIS);
+    }
+
     /**
      * Returns true if attribute names should be converted to snake case as metric names
      * @return true if the conversion should be done
@@ -308,9 +700,37 @@ public class ExporterConfig implements MetricsProcessor {
         this.metricsNameSnakeCase = config2.metricsNameSnakeCase;
         this.useDomainQualifier = config2.useDomainQualifier;
         this.restPort = config2.restPort;
+        this.maxResponseBytes = config2.maxResponseBytes;
+        this.maxScrapeBytes = config2.maxScrapeBytes;
+        this.queryTimeoutMillis = config2.queryTimeoutMillis;
+        this.scrapeTimeoutSeconds = config2.scrapeTimeoutSeconds;
+        this.scrapeTimeoutOffsetMillis = config2.scrapeTimeoutOffsetMillis;
+        this.messagesConfiguration = config2.messagesConfiguration;
+        this.hedgingConfiguration = config2.hedgingConfiguration;
+        this.concurrencyConfiguration = config2.concurrencyConfiguration;
+        this.querySplittingConfiguration = config2.querySplittingConfiguration;
+        this.domainRuntimeConfiguration = config2.domainRuntimeConfiguration;
+        this.federationConfiguration = config2.federationConfiguration;
+        this.remoteWriteConfiguration = config2.remoteWriteConfiguration;
+        this.otlpConfiguration = config2.otlpConfiguration;
+        this.subscriptionConfiguration = config2.subscriptionConfiguration;
+        this.metricsSource = config2.metricsSource;
+        this.jmxConfiguration = config2.jmxConfiguration;
         MBeanSelector[] newQueries = config2.getQueries();
         this.queries = Arrays.copyOf(newQueries, newQueries.length);
-        resetDomainName();
+        if (!useDomainQualifier) resetDomainName();  // the domain cannot change, so a name already found is kept
+    }
+
+    /**
+     * Returns a copy of this configuration whose queries keep their own state, for use in scraping a different server.
+     * @return a new configuration object
+     */
+    public ExporterConfig copyForTarget() {
+        final ExporterConfig copy = createEmptyConfig();
+        copy.replace(this);
+        copy.queries = Arrays.stream(getQueries()).map(MBeanSelector::copy).toArray(MBeanSelector[]::new);
+        copy.domainName = domainName;
+        return copy;
     }
 
     public void resetDomainName() {
@@ -323,9 +743,36 @@ public class ExporterConfig implements MetricsProcessor {
 
         if (querySyncConfiguration != null)
             sb.append(querySyncConfiguration);
+        if (messagesConfiguration != null)
+            sb.append(messagesConfiguration);
+        if (hedgingConfiguration != null)
+            sb.append(hedgingConfiguration);
+        if (concurrencyConfiguration != null)
+            sb.append(concurrencyConfiguration);
+        if (querySplittingConfiguration != null)
+            sb.append(querySplittingConfiguration);
+        if (domainRuntimeConfiguration != null)
+            sb.append(domainRuntimeConfiguration);
+        if (federationConfiguration != null)
+            sb.append(federationConfiguration);
+        if (remoteWriteConfiguration != null)
+            sb.append(remoteWriteConfiguration);
+        if (otlpConfiguration != null)
+            sb.append(otlpConfiguration);
+        if (subscriptionConfiguration != null)
+            sb.append(subscriptionConfiguration);
+        if (jmxConfiguration != null)
+            sb.append(jmxConfiguration);
+        if (metricsSource != MetricsSourceType.REST) sb.append(METRICS_SOURCE + ": ").append(metricsSource).append("\n");
         if (metricsNameSnakeCase) sb.append("metricsNameSnakeCase: true\n");
         if (useDomainQualifier) sb.append(DOMAIN_QUALIFIER + ": true\n");
         if (restPort != null) sb.append(REST_PORT + ": ").append(restPort).append("\n");
+        if (maxResponseBytes != null) sb.append(MAX_RESPONSE_BYTES + ": ").append(maxResponseBytes).append("\n");
+        if (maxScrapeBytes != null) sb.append(MAX_SCRAPE_BYTES + ": ").append(maxScrapeBytes).append("\n");
+        if (queryTimeoutMillis != null) sb.append(QUERY_TIMEOUT_MILLIS + ": ").append(queryTimeoutMillis).append("\n");
+        if (scrapeTimeoutSeconds != null) sb.append(SCRAPE_TIMEOUT_SECONDS + ": ").append(scrapeTimeoutSeconds).append("\n");
+        if (scrapeTimeoutOffsetMillis != null)
+            sb.append(SCRAPE_TIMEOUT_OFFSET_MILLIS + ": ").append(scrapeTimeoutOffsetMillis).append("\n");
         sb.append("queries:\n");
 
         for (MBeanSelector query : getQueries())
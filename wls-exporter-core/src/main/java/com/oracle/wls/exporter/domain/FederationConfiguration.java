@@ -0,0 +1,96 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration for federating other exporters. The metrics page of each listed exporter is fetched,
+ * several at once, and their metrics are combined, each labeled with the host and port of the exporter from which
+ * it came. No two exporters may therefore share a host and port.
+ */
+public class FederationConfiguration {
+    private static final String EXPORTERS_KEY = "exporters";
+    private static final String MAX_PARALLEL_REQUESTS_KEY = "maxParallelRequests";
+    private static final String TIMEOUT_MILLIS_KEY = "timeoutMillis";
+
+    static final int DEFAULT_MAX_PARALLEL_REQUESTS = 8;
+    static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    private final List<String> exporters;
+    private int maxParallelRequests = DEFAULT_MAX_PARALLEL_REQUESTS;
+    private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    FederationConfiguration(Map<String, Object> map) {
+        if (map == null || !map.containsKey(EXPORTERS_KEY))
+            throw new ConfigurationException("Federation requires a list of " + EXPORTERS_KEY);
+
+        exporters = Collections.unmodifiableList(Arrays.asList(MapUtils.getStringArray(map, EXPORTERS_KEY)));
+        exporters.forEach(this::validateUrl);
+        validateDistinctAuthorities();
+        if (map.containsKey(MAX_PARALLEL_REQUESTS_KEY)) maxParallelRequests = getPositiveValue(map, MAX_PARALLEL_REQUESTS_KEY);
+        if (map.containsKey(TIMEOUT_MILLIS_KEY)) timeoutMillis = getPositiveValue(map, TIMEOUT_MILLIS_KEY);
+    }
+
+    private void validateUrl(String url) {
+        try {
+            final URI uri = new URI(url);
+            if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getAuthority() == null)
+                throw MapUtils.createBadTypeException(EXPORTERS_KEY, url, "a list of http or https URLs");
+        } catch (URISyntaxException e) {
+            throw MapUtils.createBadTypeException(EXPORTERS_KEY, url, "a list of http or https URLs");
+        }
+    }
+
+    private void validateDistinctAuthorities() {
+        final Set<String> authorities = new HashSet<>();
+        for (String url : exporters)
+            if (!authorities.add(URI.create(url).getAuthority()))
+                throw new ConfigurationException("Federated exporters must each have a different host and port, "
+                      + "by which their metrics are labeled, but " + url + " shares those of another");
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns the URLs of the metrics pages of the exporters to federate.
+     */
+    public List<String> getExporters() {
+        return exporters;
+    }
+
+    /**
+     * Returns the maximum number of exporters whose metrics may be fetched at once.
+     */
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the metrics of a single exporter.
+     */
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "federation:\n" +
+               "  " + EXPORTERS_KEY + ": [" + String.join(", ", exporters) + "]\n" +
+               "  " + MAX_PARALLEL_REQUESTS_KEY + ": " + maxParallelRequests + '\n' +
+               "  " + TIMEOUT_MILLIS_KEY + ": " + timeoutMillis + '\n';
+    }
+}
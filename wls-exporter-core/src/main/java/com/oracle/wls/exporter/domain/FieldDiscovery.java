@@ -0,0 +1,36 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The selectors of a query whose MBeans are to be read with all their fields, so that their numeric fields may be
+ * found. It is recorded once, when the request is built, and the reply is then read in accordance with it, so that
+ * a reply which was not asked for all fields is never taken to show which fields are numeric, even if the selector
+ * has started discovery again in the meantime.
+ */
+public class FieldDiscovery {
+
+    private final Set<MBeanSelector> selectors = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    FieldDiscovery(MBeanSelector query) {
+        addDiscoveringSelectors(query);
+    }
+
+    private void addDiscoveringSelectors(MBeanSelector selector) {
+        if (selector.useAllValues() && selector.isDiscoveringFields()) selectors.add(selector);
+        selector.getNestedSelectors().values().forEach(this::addDiscoveringSelectors);
+    }
+
+    /**
+     * Returns true if the specified selector's MBeans are to be read with all their fields.
+     * @param selector a selector in the query
+     */
+    boolean includes(MBeanSelector selector) {
+        return selectors.contains(selector);
+    }
+}
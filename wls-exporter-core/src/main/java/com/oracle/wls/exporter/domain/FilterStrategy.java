@@ -0,0 +1,21 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Locale;
+
+/**
+ * The ways in which a query may select the MBeans whose names match its included and excluded key values.
+ */
+public enum FilterStrategy {
+    /** Obtain the names of the MBeans with one request, and then request only the selected MBeans. */
+    SERVER,
+    /** Request all the MBeans, and discard those which are not selected while scraping the reply. */
+    CLIENT;
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
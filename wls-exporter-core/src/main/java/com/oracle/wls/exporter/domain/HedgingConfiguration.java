@@ -0,0 +1,79 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Map;
+
+/**
+ * Configuration for hedged REST requests. When a query has not been answered within a recent percentile
+ * of its own response times, the same query may be sent to another candidate host, and the first answer used.
+ */
+public class HedgingConfiguration {
+    private static final String ENABLED_KEY = "enabled";
+    private static final String LATENCY_PERCENTILE_KEY = "latencyPercentile";
+    private static final String MIN_DELAY_MILLIS_KEY = "minDelayMillis";
+    private static final String MAX_HEDGE_PERCENT_KEY = "maxHedgePercent";
+
+    static final int DEFAULT_LATENCY_PERCENTILE = 95;
+    static final int DEFAULT_MIN_DELAY_MILLIS = 50;
+    static final int DEFAULT_MAX_HEDGE_PERCENT = 10;
+
+    private boolean enabled = true;
+    private int latencyPercentile = DEFAULT_LATENCY_PERCENTILE;
+    private int minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+    private int maxHedgePercent = DEFAULT_MAX_HEDGE_PERCENT;
+
+    HedgingConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(ENABLED_KEY)) enabled = MapUtils.getBooleanValue(map, ENABLED_KEY);
+        if (map.containsKey(LATENCY_PERCENTILE_KEY)) latencyPercentile = getPercentage(map, LATENCY_PERCENTILE_KEY);
+        if (map.containsKey(MIN_DELAY_MILLIS_KEY)) minDelayMillis = MapUtils.getIntegerValue(map, MIN_DELAY_MILLIS_KEY);
+        if (map.containsKey(MAX_HEDGE_PERCENT_KEY)) maxHedgePercent = getPercentage(map, MAX_HEDGE_PERCENT_KEY);
+    }
+
+    private int getPercentage(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 0 || value > 100)
+            throw MapUtils.createBadTypeException(key, value, "a percentage from 0 to 100");
+        return value;
+    }
+
+    /**
+     * Returns true if requests may be hedged.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the percentile of a query's recent response times after which it will be hedged.
+     */
+    public int getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    /**
+     * Returns the minimum time in milliseconds to wait for a reply before hedging a query.
+     */
+    public int getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    /**
+     * Returns the maximum number of hedged requests, as a percentage of all queries sent.
+     */
+    public int getMaxHedgePercent() {
+        return maxHedgePercent;
+    }
+
+    @Override
+    public String toString() {
+        return "hedging:\n" +
+               "  " + ENABLED_KEY + ": " + enabled + '\n' +
+               "  " + LATENCY_PERCENTILE_KEY + ": " + latencyPercentile + '\n' +
+               "  " + MIN_DELAY_MILLIS_KEY + ": " + minDelayMillis + '\n' +
+               "  " + MAX_HEDGE_PERCENT_KEY + ": " + maxHedgePercent + '\n';
+    }
+}
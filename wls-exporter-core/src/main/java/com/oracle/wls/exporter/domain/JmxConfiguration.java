@@ -0,0 +1,58 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.net.MalformedURLException;
+import java.util.Map;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * Configuration for reading metrics through a remote JMX connector rather than the REST API. The service URL
+ * may name the host and port of the server being scraped as {host} and {port}, so that an exporter which
+ * scrapes several servers connects to each of them.
+ */
+public class JmxConfiguration {
+    private static final String URL_KEY = "url";
+    private static final String HOST_PLACEHOLDER = "{host}";
+    private static final String PORT_PLACEHOLDER = "{port}";
+
+    private final String url;
+
+    JmxConfiguration(Map<String, Object> map) {
+        if (map == null || !map.containsKey(URL_KEY))
+            throw new ConfigurationException("A JMX connector requires a service " + URL_KEY);
+
+        url = MapUtils.getStringValue(map, URL_KEY);
+        validateUrl();
+    }
+
+    private void validateUrl() {
+        try {
+            new JMXServiceURL(url.replace(HOST_PLACEHOLDER, "localhost").replace(PORT_PLACEHOLDER, "1"));
+        } catch (MalformedURLException e) {
+            throw MapUtils.createBadTypeException(URL_KEY, url, "a JMX service URL");
+        }
+    }
+
+    /**
+     * Returns the JMX service URL, as configured.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns a pattern from which to create the service URL, with the protocol, host name and port of the server
+     * being scraped as its arguments, as for the REST URL patterns.
+     */
+    public String getUrlPattern() {
+        return url.replace("%", "%%").replace(HOST_PLACEHOLDER, "%2$s").replace(PORT_PLACEHOLDER, "%3$d");
+    }
+
+    @Override
+    public String toString() {
+        return "jmx:\n" +
+               "  " + URL_KEY + ": " + url + '\n';
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * MBeans as described by an object in a reply from the WebLogic REST API.
+ */
+class JsonScrapeSource implements ScrapeSource {
+    private static final String ITEMS = "items";
+
+    private final JsonObject object;
+
+    JsonScrapeSource(JsonObject object) {
+        this.object = object;
+    }
+
+    @Override
+    public ScrapeSource getChild(String name) {
+        final JsonElement value = object.get(name);
+        return value instanceof JsonObject ? new JsonScrapeSource((JsonObject) value) : null;
+    }
+
+    @Override
+    public List<ScrapeSource> getItems() {
+        final JsonArray items = object.getAsJsonArray(ITEMS);
+        if (items == null) return null;
+
+        final List<ScrapeSource> result = new ArrayList<>();
+        for (JsonElement item : items)
+            result.add(new JsonScrapeSource(item.getAsJsonObject()));
+        return result;
+    }
+
+    @Override
+    public Collection<String> getFieldNames() {
+        return object.keySet();
+    }
+
+    @Override
+    public Object getValue(String name) {
+        final JsonElement value = object.get(name);
+        if (value == null || !value.isJsonPrimitive()) return null;
+
+        final JsonPrimitive primitive = value.getAsJsonPrimitive();
+        if (primitive.isNumber())
+            return primitive.getAsNumber();
+        else if (primitive.isBoolean())
+            return primitive.getAsBoolean();
+        else
+            return primitive.getAsString();
+    }
+}
@@ -0,0 +1,172 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+
+/**
+ * MBeans read directly from an MBean server, such as the runtime MBean server of the WebLogic Server instance
+ * in which the exporter runs. WebLogic MBeans refer to one another by their object names, and their attributes
+ * have the names of the corresponding REST fields, except that they begin with a capital letter. Only the fields
+ * needed by a selector are read, all of those of an MBean with a single request, and only when first needed.
+ */
+class MBeanScrapeSource implements ScrapeSource {
+
+    /** The MBean which refers to the runtime and configuration MBeans of a server. **/
+    static final String RUNTIME_SERVICE
+          = "com.bea:Name=RuntimeService,Type=weblogic.management.mbeanservers.runtime.RuntimeServiceMBean";
+    /** The MBean which refers to the runtime MBeans of all the running servers in a domain. **/
+    static final String DOMAIN_RUNTIME_SERVICE
+          = "com.bea:Name=DomainRuntimeService,Type=weblogic.management.mbeanservers.domainruntime.DomainRuntimeServiceMBean";
+
+    private final MBeanServerConnection connection;
+    private final MBeanSelector selector;
+    private final FieldDiscovery discovery;
+    private final ObjectName objectName;
+    private final ObjectName[] items;
+    private Map<String, Object> fields;
+
+    private MBeanScrapeSource(MBeanServerConnection connection, MBeanSelector selector, FieldDiscovery discovery,
+                              ObjectName objectName, ObjectName[] items) {
+        this.connection = connection;
+        this.selector = selector;
+        this.discovery = discovery;
+        this.objectName = objectName;
+        this.items = items;
+    }
+
+    /**
+     * Returns the MBean selected by the top level of a query.
+     * @param connection a connection to the MBean server
+     * @param selector the query
+     * @param discovery the selectors of the query whose MBeans are to be read with all their fields
+     * @throws IOException if the MBean cannot be found
+     */
+    static ScrapeSource forQuery(MBeanServerConnection connection, MBeanSelector selector, FieldDiscovery discovery)
+          throws IOException {
+        try {
+            return new MBeanScrapeSource(connection, selector, discovery,
+                  getTopLevelMBean(connection, selector.getQueryType()), null);
+        } catch (JMException e) {
+            throw new IOException("Unable to find the MBeans for " + selector.getQueryName() + " in the MBean server", e);
+        }
+    }
+
+    private static ObjectName getTopLevelMBean(MBeanServerConnection connection, QueryType queryType)
+          throws JMException, IOException {
+        switch (queryType) {
+            case CONFIGURATION:
+                return (ObjectName) connection.getAttribute(new ObjectName(RUNTIME_SERVICE), "DomainConfiguration");
+            case DOMAIN_RUNTIME:
+                return getRegisteredMBean(connection, new ObjectName(DOMAIN_RUNTIME_SERVICE));
+            default:
+                return (ObjectName) connection.getAttribute(new ObjectName(RUNTIME_SERVICE), "ServerRuntime");
+        }
+    }
+
+    // The domain runtime service is found only in the domain runtime MBean server of the admin server.
+    private static ObjectName getRegisteredMBean(MBeanServerConnection connection, ObjectName name)
+          throws JMException, IOException {
+        if (!connection.isRegistered(name)) throw new InstanceNotFoundException(name.toString());
+        return name;
+    }
+
+    @Override
+    public ScrapeSource getChild(String name) {
+        final MBeanSelector nestedSelector = selector.getNestedSelectors().get(name);
+        final Object value = getFields().get(name);
+        if (nestedSelector == null)
+            return null;
+        else if (value instanceof ObjectName)
+            return new MBeanScrapeSource(connection, nestedSelector, discovery, (ObjectName) value, null);
+        else if (value instanceof ObjectName[])
+            return new MBeanScrapeSource(connection, nestedSelector, discovery, null, (ObjectName[]) value);
+        else
+            return null;
+    }
+
+    @Override
+    public List<ScrapeSource> getItems() {
+        if (items == null) return null;
+
+        final List<ScrapeSource> result = new ArrayList<>();
+        for (ObjectName item : items)
+            result.add(new MBeanScrapeSource(connection, selector, discovery, item, null));
+        return result;
+    }
+
+    @Override
+    public Collection<String> getFieldNames() {
+        return getFields().keySet();
+    }
+
+    @Override
+    public Object getValue(String name) {
+        final Object value = getFields().get(name);
+        return value instanceof Number || value instanceof String || value instanceof Boolean ? value : null;
+    }
+
+    private Map<String, Object> getFields() {
+        if (fields == null) fields = readFields();
+        return fields;
+    }
+
+    // An MBean which has been unregistered since it was found, or whose attributes cannot be read, has no fields.
+    private Map<String, Object> readFields() {
+        if (objectName == null) return Collections.emptyMap();
+
+        try {
+            final List<String> fieldsToRead = selector.getFieldsToRead(discovery);
+            final List<String> names = fieldsToRead != null ? fieldsToRead : getAllFieldNames();
+            final Map<String, Object> result = new LinkedHashMap<>();
+            for (Attribute attribute : connection.getAttributes(objectName, toAttributeNames(names)).asList())
+                result.put(toFieldName(attribute.getName()), attribute.getValue());
+            return result;
+        } catch (JMException e) {
+            return Collections.emptyMap();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> getAllFieldNames() throws JMException, IOException {
+        final List<String> result = new ArrayList<>();
+        for (MBeanAttributeInfo attribute : connection.getMBeanInfo(objectName).getAttributes())
+            if (attribute.isReadable()) result.add(toFieldName(attribute.getName()));
+        return result;
+    }
+
+    private String[] toAttributeNames(List<String> fieldNames) {
+        return fieldNames.stream().map(MBeanScrapeSource::toAttributeName).toArray(String[]::new);
+    }
+
+    static String toAttributeName(String fieldName) {
+        return fieldName.isEmpty() ? fieldName : Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+
+    // As with JavaBeans properties, a name which begins with an acronym, such as JVMRuntime, keeps its capital.
+    static String toFieldName(String attributeName) {
+        if (attributeName.isEmpty() || startsWithAcronym(attributeName))
+            return attributeName;
+        else
+            return Character.toLowerCase(attributeName.charAt(0)) + attributeName.substring(1);
+    }
+
+    private static boolean startsWithAcronym(String name) {
+        return name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1));
+    }
+}
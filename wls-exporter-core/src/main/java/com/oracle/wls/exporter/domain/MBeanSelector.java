@@ -1,4 +1,4 @@
-// Copyright (c) 2017, 2023, Oracle and/or its affiliates.
+// Copyright (c) 2017, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.domain;
@@ -10,7 +10,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -44,13 +46,27 @@ public class MBeanSelector {
     static final String EXCLUDED_KEYS_KEY = "excludedKeyValues";
     static final String VALUES_KEY = "values";
     static final String STRING_VALUES_KEY = "stringValues";
+    static final String COUNTERS_KEY = "counters";
+    static final String MAX_RESPONSE_BYTES_KEY = "maxResponseBytes";
+    static final String QUERY_TIMEOUT_MILLIS_KEY = "queryTimeoutMillis";
+    static final String GROUP_KEY = "group";
+    static final String CACHE_SECONDS_KEY = "cacheSeconds";
 
     /** The name of the field on which all runtime mbeans are filtered. **/
     static final String FILTER_KEY = "name";
     static final String TYPE_FIELD_NAME = "type";
     static final MBeanSelector DOMAIN_NAME_SELECTOR = createDomainNameSelector();
+
+    /** The collection of the runtime mbeans of the running servers, within the domain runtime. **/
+    static final String SERVER_RUNTIMES = "serverRuntimes";
+    /** The qualifier which identifies the server of each metric collected through the domain runtime. **/
+    static final String SERVER_KEY_NAME = "server";
+
+    /** A request for the names of the running servers, sent to the domain runtime. **/
+    public static final String SERVER_NAMES_REQUEST = createServerNamesRequest();
     static final String NESTING = "  ";
     static final long KEY_UPDATE_INTERVAL_SECONDS = 60;
+    static final long FIELD_DISCOVERY_INTERVAL_SECONDS = 600;
 
     private String type;
     private String prefix;
@@ -63,10 +79,23 @@ public class MBeanSelector {
     private final Set<String> filter = new HashSet<>();
     private List<String> values = new ArrayList<>();
     private Map<String, List<String>> stringValues;
+    private final List<String> counters = new ArrayList<>();
+    private Long maxResponseBytes;
+    private Integer queryTimeoutMillis;
+    private String group;
+    private Integer cacheSeconds;
     private Map<String, MBeanSelector> nestedSelectors = new LinkedHashMap<>();
     private QueryType queryType = QueryType.RUNTIME;
     private long lastKeyTime = 0;
+    private List<String> numericFields;
+    private long lastFieldDiscoveryTime = 0;
     private String[] forbiddenFields;
+    private final AdaptiveFilter adaptiveFilter = new AdaptiveFilter();
+    private List<MBeanSelector> splitQueries;
+    private MBeanSelector domainRuntimeQuery;
+    private List<List<String>> serverPageNames;
+    private List<MBeanSelector> serverPages;
+    private Set<String> pageKeys;
 
     private static MBeanSelector createDomainNameSelector() {
         Map<String,Object> yaml = new HashMap<>();
@@ -76,6 +105,14 @@ public class MBeanSelector {
         return selector;
     }
 
+    private static String createServerNamesRequest() {
+        final JsonQuerySpec servers = new JsonQuerySpec();
+        servers.addFields(FILTER_KEY);
+        final JsonQuerySpec spec = new JsonQuerySpec().asTopLevel();
+        spec.addChild(SERVER_RUNTIMES, servers);
+        return spec.toJson(new Gson());
+    }
+
     private MBeanSelector(Map<String, Object> map) {
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             switch (entry.getKey()) {
@@ -97,12 +134,27 @@ public class MBeanSelector {
                 case STRING_VALUES_KEY:
                     addStringValues(entry.getValue());
                     break;
+                case COUNTERS_KEY:
+                    counters.addAll(getStringValues(MapUtils.getStringArray(map, COUNTERS_KEY)));
+                    break;
                 case INCLUDED_KEYS_KEY:
                     setIncludedKeys(entry.getValue().toString());
                     break;
                 case EXCLUDED_KEYS_KEY:
                     setExcludedKeys(entry.getValue().toString());
                     break;
+                case MAX_RESPONSE_BYTES_KEY:
+                    maxResponseBytes = MapUtils.getLongValue(map, MAX_RESPONSE_BYTES_KEY);
+                    break;
+                case GROUP_KEY:
+                    group = entry.getValue().toString();
+                    break;
+                case QUERY_TIMEOUT_MILLIS_KEY:
+                    queryTimeoutMillis = MapUtils.getIntegerValue(map, QUERY_TIMEOUT_MILLIS_KEY);
+                    break;
+                case CACHE_SECONDS_KEY:
+                    setCacheSeconds(MapUtils.getIntegerValue(map, CACHE_SECONDS_KEY));
+                    break;
                 default:
                     addNestedSelector(entry.getKey(), entry.getValue());
                     break;
@@ -119,6 +171,12 @@ public class MBeanSelector {
         }
     }
 
+    private void setCacheSeconds(int cacheSeconds) {
+        if (cacheSeconds < 1)
+            throw MapUtils.createBadTypeException(CACHE_SECONDS_KEY, cacheSeconds, "a positive integer");
+        this.cacheSeconds = cacheSeconds;
+    }
+
     private void setIncludedKeys(String includedKeys) {
         this.includedKeys = includedKeys;
         includedPattern = Pattern.compile(this.includedKeys);
@@ -168,14 +226,19 @@ public class MBeanSelector {
      * @param indent a string of spaces to indicate the current nesting
      */
     void appendAsNestedQuery(StringBuilder sb, String indent) {
+        appendScalar(sb, indent, GROUP_KEY, group);
         appendScalar(sb, indent, TYPE_KEY, type);
         appendScalar(sb, indent, PREFIX_KEY, prefix);
         appendScalar(sb, indent, QUERY_KEY, key);
         appendScalar(sb, indent, INCLUDED_KEYS_KEY, includedKeys);
         appendScalar(sb, indent, EXCLUDED_KEYS_KEY, excludedKeys);
         appendScalar(sb, indent, KEY_NAME, keyName);
+        if (maxResponseBytes != null) appendScalar(sb, indent, MAX_RESPONSE_BYTES_KEY, maxResponseBytes.toString());
+        if (queryTimeoutMillis != null) appendScalar(sb, indent, QUERY_TIMEOUT_MILLIS_KEY, queryTimeoutMillis.toString());
+        if (cacheSeconds != null) appendScalar(sb, indent, CACHE_SECONDS_KEY, cacheSeconds.toString());
         appendStringList(sb, indent, VALUES_KEY, values);
         appendStringValues(sb, indent, stringValues);
+        appendStringList(sb, indent, COUNTERS_KEY, counters);
 
         for (String qualifier : getNestedSelectors().keySet()) {
             sb.append(indent).append(qualifier).append(":\n");
@@ -324,6 +387,13 @@ public class MBeanSelector {
         return new ArrayList<>(values);
     }
 
+    /**
+     * Returns the names of the values at this level which only ever increase, and so are to be typed as counters.
+     */
+    List<String> getCounters() {
+        return counters;
+    }
+
     /**
      * Returns a map of nested mbean selectors
      * @return the nested selectors
@@ -345,22 +415,52 @@ public class MBeanSelector {
      * @return a JSON string
      */
     public String getRequest() {
-        return toQuerySpec().toJson(new Gson());
+        return getRequest(getFieldDiscovery());
+    }
+
+    /**
+     * Returns a JSON string query to be sent to the REST service, asking for all the fields of the selectors
+     * which are discovering their numeric fields.
+     * @param discovery the selectors which were discovering their fields when the request was built
+     * @return a JSON string
+     */
+    public String getRequest(FieldDiscovery discovery) {
+        return toQuerySpec(discovery).toJson(new Gson());
+    }
+
+    /**
+     * Records which of the selectors of this query are now discovering their numeric fields. The result should
+     * be used both to build a request and to read its reply.
+     */
+    public FieldDiscovery getFieldDiscovery() {
+        return new FieldDiscovery(this);
     }
 
     JsonQuerySpec toQuerySpec() {
+        return toQuerySpec(getFieldDiscovery());
+    }
+
+    private JsonQuerySpec toQuerySpec(FieldDiscovery discovery) {
+        return toQuerySpec(discovery, usesClientSideFiltering());
+    }
+
+    // When filtering on the client, all MBeans are requested, along with the names needed to select them.
+    private JsonQuerySpec toQuerySpec(FieldDiscovery discovery, boolean clientSideFiltering) {
         JsonQuerySpec spec = new JsonQuerySpec();
-        if (useAllValues()) {
+        if (discovery.includes(this)) {
             getActiveForbiddenFields().forEach(spec::excludeField);
         } else {
-            selectQueryFields(spec, getQueryValues());
+            selectQueryFields(spec, useAllValues() ? getNumericFields() : getQueryValues());
+            if (clientSideFiltering && currentSelectorHasFilter() && !FILTER_KEY.equals(key)) spec.addFields(FILTER_KEY);
         }
-        if (currentSelectorHasFilter() && !filter.isEmpty())
+        if (pageKeys != null)
+            spec.setFilter(pageKeys);
+        else if (!clientSideFiltering && currentSelectorHasFilter() && !filter.isEmpty())
             spec.setFilter(filter);
 
         for (Map.Entry<String, MBeanSelector> entry : nestedSelectors.entrySet())
-            if (entry.getValue().isEnabled())
-                spec.addChild(entry.getKey(), entry.getValue().toQuerySpec());
+            if (clientSideFiltering || entry.getValue().isEnabled())
+                spec.addChild(entry.getKey(), entry.getValue().toQuerySpec(discovery, clientSideFiltering));
 
         return spec;
     }
@@ -384,6 +484,52 @@ public class MBeanSelector {
         return prefix != null && values.isEmpty();
     }
 
+    /**
+     * Returns true if the next reply for this selector should include all fields, so that its numeric fields
+     * may be found. Only the numeric fields of a selector which uses all values can become metrics, unless its query
+     * accepts strings, so once they are known, only they need be requested. They are found again periodically,
+     * in case the MBeans have changed.
+     */
+    boolean isDiscoveringFields() {
+        return acceptsStrings() || getNumericFields() == null || fieldDiscoveryIsObsolete();
+    }
+
+    private synchronized String[] getNumericFields() {
+        return numericFields == null ? null : numericFields.toArray(new String[0]);
+    }
+
+    private synchronized boolean fieldDiscoveryIsObsolete() {
+        return (systemClock.millis() - lastFieldDiscoveryTime) / 1000 >= FIELD_DISCOVERY_INTERVAL_SECONDS;
+    }
+
+    /**
+     * Records the fields which produced metrics in a reply which included all fields.
+     * @param fields the names of the fields
+     */
+    synchronized void learnNumericFields(Set<String> fields) {
+        numericFields = new ArrayList<>(fields);
+        lastFieldDiscoveryTime = systemClock.millis();
+    }
+
+    /**
+     * Returns the names of the fields to read from each MBean selected by this selector, when the MBeans are read
+     * directly rather than through the REST API. These include the fields which refer to the MBeans
+     * selected by the nested selectors.
+     * @param discovery the selectors which were discovering their fields when the query was started
+     * @return a list of field names, or null if all fields should be read
+     */
+    List<String> getFieldsToRead(FieldDiscovery discovery) {
+        if (discovery.includes(this)) return null;
+
+        final Set<String> result = new LinkedHashSet<>();
+        if (key != null) result.add(key);
+        if (type != null) result.add(TYPE_FIELD_NAME);
+        if (currentSelectorHasFilter()) result.add(FILTER_KEY);
+        result.addAll(Arrays.asList(useAllValues() ? getNumericFields() : getQueryValues()));
+        result.addAll(nestedSelectors.keySet());
+        return new ArrayList<>(result);
+    }
+
     private void selectQueryFields(JsonQuerySpec spec, String[] fields) {
         if (key != null) spec.addFields(key);
         if (type != null) spec.addFields(TYPE_FIELD_NAME);
@@ -416,7 +562,54 @@ public class MBeanSelector {
      * Returns true if this selector or one of its children needs an updated set of keys.
      */
     public boolean needsNewKeys() {
-        return hasFilter() && (hasNoKeys() || keysAreObsolete());
+        return hasFilter() && !usesClientSideFiltering() && (hasNoKeys() || keysAreObsolete());
+    }
+
+    /**
+     * Returns the way in which this query selects MBeans by name, if it does so.
+     * @return the strategy currently in use, or null if this query has no filters
+     */
+    public FilterStrategy getFilterStrategy() {
+        return hasFilter() ? adaptiveFilter.getStrategy() : null;
+    }
+
+    private boolean usesClientSideFiltering() {
+        return getFilterStrategy() == FilterStrategy.CLIENT;
+    }
+
+    /**
+     * Records the size of the reply to this query, so that the filter strategy may adapt to it.
+     * @param numBytes the number of bytes in the reply
+     */
+    public void recordResponseSize(long numBytes) {
+        if (hasFilter()) adaptiveFilter.recordResponse(numBytes);
+    }
+
+    /**
+     * Records the MBeans found while scraping the reply to this query, if it was filtered on the client.
+     * @param counts the numbers of MBeans found and selected
+     */
+    void recordScrapedItems(AdaptiveFilter.ItemCounts counts) {
+        if (usesClientSideFiltering()) adaptiveFilter.recordItems(counts);
+    }
+
+    /**
+     * Returns true if the specified MBean is selected by this selector's filters. An MBean without a name
+     * is presumed to have been selected by the server.
+     * @param item the MBean's fields, from a reply
+     */
+    boolean isSelectedItem(ScrapeSource item) {
+        final Object keyValue = item.getValue(FILTER_KEY);
+        if (keyValue == null) return true;
+
+        return isSelectedKey(keyValue.toString());
+    }
+
+    /**
+     * Returns true if this selector selects MBeans by name.
+     */
+    boolean hasNameFilter() {
+        return currentSelectorHasFilter();
     }
 
     private boolean hasNoKeys() {
@@ -444,6 +637,12 @@ public class MBeanSelector {
     }
 
     public void offerKeys(JsonObject keyResponse) {
+        final AdaptiveFilter.ItemCounts counts = new AdaptiveFilter.ItemCounts();
+        offerKeys(keyResponse, counts);
+        adaptiveFilter.recordItems(counts);
+    }
+
+    private void offerKeys(JsonObject keyResponse, AdaptiveFilter.ItemCounts counts) {
         this.lastKeyTime = systemClock.millis();
 
         for (String subElementKey : keyResponse.keySet()) {
@@ -452,7 +651,7 @@ public class MBeanSelector {
                 getItemsAsStream(keyResponse, subElementKey)
                       .filter(JsonElement::isJsonObject)
                       .map(JsonElement::getAsJsonObject)
-                      .forEach(mBeanSelector::acceptItem);
+                      .forEach(item -> mBeanSelector.acceptItem(item, counts));
             }
         }
     }
@@ -474,15 +673,17 @@ public class MBeanSelector {
     }
 
 
-    private void acceptItem(JsonObject entry) {
+    private void acceptItem(JsonObject entry, AdaptiveFilter.ItemCounts counts) {
         final JsonElement keyElement = entry.get(FILTER_KEY);
         if (keyElement == null)
-            offerKeys(entry);
+            offerKeys(entry, counts);
         else if (keyElement.isJsonPrimitive() && keyElement.getAsJsonPrimitive().isString()) {
             final String offeredKey = keyElement.getAsJsonPrimitive().getAsString();
-            if (isSelectedKey(offeredKey)) {
+            final boolean selected = isSelectedKey(offeredKey);
+            if (currentSelectorHasFilter()) counts.add(selected);
+            if (selected) {
                 filter.add(offeredKey);
-                offerKeys(entry);
+                offerKeys(entry, counts);
             }
         }
     }
@@ -513,6 +714,7 @@ public class MBeanSelector {
         copyScalars(first);
         combineValues(first, second);
         combineStringValues(first, second);
+        combineCounters(second);
         combineNestedSelectors(first, second);
     }
 
@@ -526,6 +728,11 @@ public class MBeanSelector {
         this.prefix = first.prefix;
         this.key = first.key;
         this.keyName = first.keyName;
+        this.maxResponseBytes = first.maxResponseBytes;
+        this.queryTimeoutMillis = first.queryTimeoutMillis;
+        this.group = first.group;
+        this.cacheSeconds = first.cacheSeconds;
+        this.counters.addAll(first.counters);
         Optional.ofNullable(first.includedKeys).ifPresent(this::setIncludedKeys);
         Optional.ofNullable(first.excludedKeys).ifPresent(this::setExcludedKeys);
     }
@@ -543,6 +750,10 @@ public class MBeanSelector {
         if (!mergedStringValues.isEmpty()) stringValues = mergedStringValues;
     }
 
+    private void combineCounters(MBeanSelector second) {
+        second.counters.stream().filter(name -> !counters.contains(name)).forEach(counters::add);
+    }
+
     private void combineNestedSelectors(MBeanSelector first, MBeanSelector second) {
         nestedSelectors = new LinkedHashMap<>();
         nestedSelectors.putAll(first.nestedSelectors);
@@ -554,6 +765,147 @@ public class MBeanSelector {
         }
     }
 
+    /**
+     * Returns the pieces into which this query may be split, so that they can be sent at the same time. Each piece
+     * selects one of the MBean collections at the first level of this query which selects more than one, together
+     * with the MBeans which contain that collection. Only the first piece selects the values of those containing
+     * MBeans, so that the pieces together produce the same metrics as this query.
+     * @return a list of queries, empty if this query cannot be split
+     */
+    public synchronized List<MBeanSelector> getSplitQueries() {
+        if (splitQueries == null) splitQueries = createSplitQueries();
+        return splitQueries;
+    }
+
+    private List<MBeanSelector> createSplitQueries() {
+        final MBeanSelector branchingSelector = getBranchingSelector();
+        if (branchingSelector == null) return Collections.emptyList();
+
+        final List<MBeanSelector> result = new ArrayList<>();
+        for (String collection : branchingSelector.nestedSelectors.keySet())
+            result.add(createSplitQuery(branchingSelector, collection, result.isEmpty()));
+        return Collections.unmodifiableList(result);
+    }
+
+    // Follows the single collections selected below this selector to the first which selects several, if any.
+    // The pieces cannot share the keys found for a filter, so no selector above that point may filter its MBeans.
+    private MBeanSelector getBranchingSelector() {
+        MBeanSelector selector = this;
+        while (!selector.currentSelectorHasFilter() && selector.nestedSelectors.size() == 1)
+            selector = selector.nestedSelectors.values().iterator().next();
+
+        return selector.currentSelectorHasFilter() || selector.nestedSelectors.size() < 2 ? null : selector;
+    }
+
+    // Copies the selectors from this one down to the branching selector, below which only the specified
+    // collection is selected, sharing the original selectors for it.
+    private MBeanSelector createSplitQuery(MBeanSelector branchingSelector, String collection, boolean includeValues) {
+        final MBeanSelector copy = new MBeanSelector(this, includeValues);
+        if (this == branchingSelector) {
+            copy.nestedSelectors.put(collection, nestedSelectors.get(collection));
+        } else {
+            final Map.Entry<String, MBeanSelector> child = nestedSelectors.entrySet().iterator().next();
+            copy.nestedSelectors.put(child.getKey(),
+                  child.getValue().createSplitQuery(branchingSelector, collection, includeValues));
+        }
+        return copy;
+    }
+
+    private MBeanSelector(MBeanSelector original, boolean includeValues) {
+        copyScalars(original);
+        queryType = original.queryType;
+        forbiddenFields = original.forbiddenFields;
+        if (includeValues) {
+            values = original.getValuesAsList();
+            stringValues = original.stringValues;
+        } else {
+            prefix = null;
+        }
+    }
+
+    /**
+     * Returns a copy of this selector and its nested selectors, which shares none of the state learned from replies,
+     * such as the keys selected by filters, so that it may be used to query a different server.
+     */
+    MBeanSelector copy() {
+        final MBeanSelector copy = new MBeanSelector(this, true);
+        nestedSelectors.forEach((collection, selector) -> copy.nestedSelectors.put(collection, selector.copy()));
+        return copy;
+    }
+
+    /**
+     * Returns a query which selects the same MBeans as this runtime query from every running server in the domain,
+     * labeling their metrics with the name of the server. It is sent to the domain runtime of the admin server.
+     * The same query is returned on each call, so that it keeps the state learned from its replies.
+     */
+    public synchronized MBeanSelector getDomainRuntimeQuery() {
+        if (domainRuntimeQuery == null) domainRuntimeQuery = createDomainRuntimeQuery();
+        return domainRuntimeQuery;
+    }
+
+    private MBeanSelector createDomainRuntimeQuery() {
+        final MBeanSelector servers = copy();
+        servers.key = FILTER_KEY;
+        servers.keyName = SERVER_KEY_NAME;
+
+        final MBeanSelector query = new MBeanSelector(Collections.emptyMap());
+        query.queryType = QueryType.DOMAIN_RUNTIME;
+        query.group = group;
+        query.cacheSeconds = cacheSeconds;
+        query.maxResponseBytes = maxResponseBytes;
+        query.queryTimeoutMillis = queryTimeoutMillis;
+        query.nestedSelectors.put(SERVER_RUNTIMES, servers);
+        return query;
+    }
+
+    /**
+     * Returns the pages into which this domain runtime query should be divided, each selecting the MBeans
+     * of no more than the specified number of servers. The pages are kept as long as the running servers
+     * are unchanged, so that each keeps the state learned from its replies.
+     * @param serverNamesResponse the reply to {@link #SERVER_NAMES_REQUEST}
+     * @param serversPerRequest the maximum number of servers to select in a single request
+     * @return a list of queries, empty if all the servers may be selected at once
+     */
+    public synchronized List<MBeanSelector> getServerPages(JsonObject serverNamesResponse, int serversPerRequest) {
+        final List<List<String>> pageNames = toPages(getServerNames(serverNamesResponse), serversPerRequest);
+        if (pageNames.size() < 2) return Collections.emptyList();
+
+        if (!pageNames.equals(serverPageNames)) {
+            serverPageNames = pageNames;
+            serverPages = Collections.unmodifiableList(pageNames.stream().map(this::createServerPage).collect(Collectors.toList()));
+        }
+        return serverPages;
+    }
+
+    private List<String> getServerNames(JsonObject serverNamesResponse) {
+        if (serverNamesResponse == null) return Collections.emptyList();
+
+        return getItemsAsStream(serverNamesResponse, SERVER_RUNTIMES)
+              .filter(JsonElement::isJsonObject)
+              .map(item -> item.getAsJsonObject().get(FILTER_KEY))
+              .filter(name -> name != null && name.isJsonPrimitive())
+              .map(JsonElement::getAsString)
+              .sorted()
+              .collect(Collectors.toList());
+    }
+
+    private List<List<String>> toPages(List<String> serverNames, int serversPerRequest) {
+        final List<List<String>> result = new ArrayList<>();
+        for (int i = 0; i < serverNames.size(); i += serversPerRequest)
+            result.add(serverNames.subList(i, Math.min(i + serversPerRequest, serverNames.size())));
+        return result;
+    }
+
+    // Copies this query, limiting its servers to those named.
+    private MBeanSelector createServerPage(List<String> serverNames) {
+        final MBeanSelector servers = nestedSelectors.get(SERVER_RUNTIMES).copy();
+        servers.pageKeys = new HashSet<>(serverNames);
+
+        final MBeanSelector page = new MBeanSelector(this, true);
+        page.nestedSelectors.put(SERVER_RUNTIMES, servers);
+        return page;
+    }
+
     boolean mayMergeWith(MBeanSelector other) {
         if (!Objects.equals(keyName, other.keyName)) return false;
         if (!Objects.equals(key, other.key)) return false;
@@ -569,6 +921,54 @@ public class MBeanSelector {
         return nestedSelectors.get(selectorKey).mayMergeWith(other.nestedSelectors.get(selectorKey));
     }
 
+    /**
+     * Returns the maximum number of bytes to read in the reply to this query, if defined.
+     * @return a number of bytes, or null
+     */
+    Long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the reply to this query, if defined.
+     * @return a number of milliseconds, or null
+     */
+    Integer getQueryTimeoutMillis() {
+        return queryTimeoutMillis;
+    }
+
+    /**
+     * Returns the name of the group to which this query belongs, if any. A scrape may be limited to the queries
+     * in a single group, so that queries which need to be run at different intervals may be scraped separately.
+     * @return a group name, or null
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Returns the number of seconds for which the metrics obtained by this query may be reused, if defined.
+     * Such a query is only sent again once its previous results have expired.
+     * @return a number of seconds, or null if the query is to be sent on every scrape
+     */
+    public Integer getCacheSeconds() {
+        return cacheSeconds;
+    }
+
+    /**
+     * Returns a name for this query, made from its top-level MBean collections, for use in metrics about the query.
+     * A query with no collections is named for its query type, and a domain runtime query for the collections
+     * it selects from each server.
+     */
+    public String getQueryName() {
+        if (queryType == QueryType.DOMAIN_RUNTIME)
+            return nestedSelectors.get(SERVER_RUNTIMES).getQueryName();
+        else if (nestedSelectors.isEmpty())
+            return queryType.name().toLowerCase(Locale.ROOT);
+        else
+            return String.join(",", nestedSelectors.keySet());
+    }
+
     public String getUrl(Protocol protocol, String hostName, int port) {
         return protocol.format(queryType.getUrlPattern(), hostName, port);
     }
@@ -612,6 +1012,7 @@ public class MBeanSelector {
     }
 
     public boolean isRequestForPrivilegedProperty() {
+        if (queryType == QueryType.DOMAIN_RUNTIME) return nestedSelectors.get(SERVER_RUNTIMES).isRequestForPrivilegedProperty();
         if (queryType != QueryType.RUNTIME) return false;
         
         return Optional.ofNullable(nestedSelectors.get("JDBCServiceRuntime"))
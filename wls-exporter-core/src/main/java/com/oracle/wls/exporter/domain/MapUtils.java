@@ -37,6 +37,25 @@ public class MapUtils {
         }
     }
 
+    /**
+     * Attempts to retrieve the specified value as a long. It can recognize the value
+     * either as a Number object or a string to be parsed.
+     * @param map a map containing the value
+     * @param key the map key at which the value is found
+     * @return a long value derived from the item in the map
+     */
+    static Long getLongValue(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value instanceof Number)
+            return ((Number) value).longValue();
+
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw createBadTypeException(key, value, "an integer");
+        }
+    }
+
     /**
      * Attempts to retrieve the specified value as a boolean. It can recognize the value
      * either as a Boolean object or a string.
@@ -0,0 +1,67 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Map;
+
+/**
+ * Configuration for the recording of REST exchanges displayed by the messages page.
+ */
+public class MessagesConfiguration {
+    private static final String ENABLED_KEY = "enabled";
+    private static final String MAX_REPLY_LENGTH_KEY = "maxReplyLength";
+    private static final String COMPRESS_KEY = "compress";
+
+    /** The value used to indicate that replies are recorded in full. */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private boolean enabled = true;
+    private int maxReplyLength = UNLIMITED;
+    private boolean compress;
+
+    MessagesConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(ENABLED_KEY)) enabled = MapUtils.getBooleanValue(map, ENABLED_KEY);
+        if (map.containsKey(MAX_REPLY_LENGTH_KEY)) maxReplyLength = getPositiveValue(map, MAX_REPLY_LENGTH_KEY);
+        if (map.containsKey(COMPRESS_KEY)) compress = MapUtils.getBooleanValue(map, COMPRESS_KEY);
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns true if exchanges should be recorded.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the maximum number of characters of each reply to record. Longer replies are truncated.
+     */
+    public int getMaxReplyLength() {
+        return maxReplyLength;
+    }
+
+    /**
+     * Returns true if recorded replies should be held in compressed form.
+     */
+    public boolean isCompress() {
+        return compress;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("messages:\n");
+        sb.append("  " + ENABLED_KEY + ": ").append(enabled).append('\n');
+        if (maxReplyLength != UNLIMITED) sb.append("  " + MAX_REPLY_LENGTH_KEY + ": ").append(maxReplyLength).append('\n');
+        sb.append("  " + COMPRESS_KEY + ": ").append(compress).append('\n');
+        return sb.toString();
+    }
+}
@@ -1,21 +1,22 @@
-// Copyright (c) 2017, 2023, Oracle and/or its affiliates.
+// Copyright (c) 2017, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.domain;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
 
 import static com.oracle.wls.exporter.domain.MapUtils.isNullOrEmptyString;
 
 /**
- * A class which can scrape metrics from a JSON REST response.
+ * A class which can scrape metrics from a JSON REST response, or directly from MBeans.
  *
  * @author Russell Gold
  */
@@ -23,6 +24,9 @@ class MetricsScraper {
     private static final char QUOTE = '"';
     private final String globalQualifiers;
     private Map<String, Object> metrics = new HashMap<>();
+    private AdaptiveFilter.ItemCounts itemCounts = new AdaptiveFilter.ItemCounts();
+    private Map<MBeanSelector, Set<String>> discoveredFields = new IdentityHashMap<>();
+    private FieldDiscovery discovery;
     private boolean metricNameSnakeCase;
 
     MetricsScraper(String globalQualifiers) {
@@ -43,51 +47,77 @@ class MetricsScraper {
      * @param response a parsed JSON REST response
      */
     Map<String, Object> scrape(MBeanSelector selector, JsonObject response) {
+        return scrape(selector, selector.getFieldDiscovery(), new JsonScrapeSource(response));
+    }
+
+    /**
+     * Scrapes metrics from MBeans, in accordance with the rules defined in the selector.
+     * @param selector an mbean selector, configured with the metrics we want to find
+     * @param discovery the selectors which asked for all their fields when the request was built
+     * @param source the MBeans selected by the top level of the selector
+     */
+    Map<String, Object> scrape(MBeanSelector selector, FieldDiscovery discovery, ScrapeSource source) {
+        this.discovery = discovery;
         metrics = new HashMap<>();
-        createDelegate(selector, response).scrapeItem();
+        itemCounts = new AdaptiveFilter.ItemCounts();
+        discoveredFields = new IdentityHashMap<>();
+        new ScrapeDelegate(selector, source, globalQualifiers).scrapeItem();
+        selector.recordScrapedItems(itemCounts);
+        discoveredFields.forEach(MBeanSelector::learnNumericFields);
         return metrics;
     }
 
     ScrapeDelegate createDelegate(MBeanSelector selector, JsonObject response) {
-        return new ScrapeDelegate(selector, response, globalQualifiers);
+        discovery = selector.getFieldDiscovery();
+        return new ScrapeDelegate(selector, new JsonScrapeSource(response), globalQualifiers);
     }
 
     class ScrapeDelegate {
         private final MBeanSelector selector;
-        private final JsonObject object;
+        private final ScrapeSource source;
         private final String qualifiers;
 
-        ScrapeDelegate(MBeanSelector selector, JsonObject object, String qualifiers) {
+        ScrapeDelegate(MBeanSelector selector, ScrapeSource source, String qualifiers) {
             this.selector = selector;
-            this.object = object;
+            this.source = source;
             this.qualifiers = qualifiers;
         }
 
         void scrapeSubObjects(String qualifiers) {
             for (String selectorKey : selector.getNestedSelectors().keySet()) {
-                final JsonElement value = object.get(selectorKey);
-                if (value instanceof JsonObject) {
+                final ScrapeSource child = source.getChild(selectorKey);
+                if (child != null) {
                     final MBeanSelector nestedSelector = selector.getNestedSelectors().get(selectorKey);
-                    createForSubObjects(nestedSelector, (JsonObject) value, qualifiers).scrapeItemOrList();
+                    createForSubObjects(nestedSelector, child, qualifiers).scrapeItemOrList();
                 }
             }
         }
 
-        private ScrapeDelegate createForSubObjects(MBeanSelector selector, JsonObject value, String qualifiers) {
-            return new ScrapeDelegate(selector, value, qualifiers);
+        private ScrapeDelegate createForSubObjects(MBeanSelector selector, ScrapeSource child, String qualifiers) {
+            return new ScrapeDelegate(selector, child, qualifiers);
         }
 
         private void scrapeItemOrList() {
-            JsonArray items = object.getAsJsonArray("items");
+            final List<ScrapeSource> items = source.getItems();
             if (items == null)
                 scrapeItem();
             else
-                for (JsonElement jsonElement : items)
-                    createForItem(jsonElement.getAsJsonObject()).scrapeItem();
+                for (ScrapeSource item : items)
+                    if (isSelected(item))
+                        createForItem(item).scrapeItem();
+        }
+
+        // Applies the selector's filters, in case the items were not filtered by the server.
+        private boolean isSelected(ScrapeSource item) {
+            if (!selector.hasNameFilter()) return true;
+
+            final boolean selected = selector.isSelectedItem(item);
+            itemCounts.add(selected);
+            return selected;
         }
 
-        private ScrapeDelegate createForItem(JsonObject asJsonObject) {
-            return new ScrapeDelegate(selector, asJsonObject, qualifiers);
+        private ScrapeDelegate createForItem(ScrapeSource item) {
+            return new ScrapeDelegate(selector, item, qualifiers);
         }
 
         private String[] getValueNames() {
@@ -95,12 +125,13 @@ class MetricsScraper {
         }
 
         private String[] getKeysAsArray() {
-            return object.keySet().toArray(new String[0]);
+            return source.getFieldNames().toArray(new String[0]);
         }
 
         private void scrapeItem() {
             if (excludeByType()) return;
             final String itemQualifiers = getItemQualifiers();
+            if (isDiscoveringFields()) getDiscoveredFields();
 
             for (String valueName : getValueNames()) {
                 scrapeValue(itemQualifiers, valueName);
@@ -109,6 +140,15 @@ class MetricsScraper {
             scrapeSubObjects(itemQualifiers);
         }
 
+        // Fields are only discovered in a reply which includes all of them.
+        private boolean isDiscoveringFields() {
+            return discovery.includes(selector) && !selector.acceptsStrings();
+        }
+
+        private Set<String> getDiscoveredFields() {
+            return discoveredFields.computeIfAbsent(selector, s -> new TreeSet<>());
+        }
+
         private void scrapeValue(String itemQualifiers, String valueName) {
             if (valueName.equals(selector.getKey())) return;
 
@@ -116,16 +156,17 @@ class MetricsScraper {
         }
 
         private boolean excludeByType() {
-            final JsonElement typeField = object.get("type");
+            final Object typeField = source.getValue("type");
             final String typeFilter = selector.getType();
-            return typeFilter != null && typeField != null && !typeFilter.equals(typeField.getAsString());
+            return typeFilter != null && typeField != null && !typeFilter.equals(typeField.toString());
         }
 
         private String getItemQualifiers() {
             String result = qualifiers;
-            if (object.has(selector.getKey())) {
+            final Object keyValue = selector.getKey() == null ? null : source.getValue(selector.getKey());
+            if (keyValue != null) {
                 if (!isNullOrEmptyString(result)) result += ',';
-                result += selector.getKeyName() + uniqueSuffix() +'=' + asQuotedString(object.get(selector.getKey()));
+                result += selector.getKeyName() + uniqueSuffix() +'=' + asQuotedString(keyValue);
             }
             return result;
         }
@@ -134,43 +175,44 @@ class MetricsScraper {
             return qualifiers.startsWith(selector.getKeyName() + '=') ? '2' : "";
         }
 
-        private String asQuotedString(JsonElement jsonElement) {
-            return QUOTE + jsonElement.getAsString() + QUOTE;
+        private String asQuotedString(Object value) {
+            return QUOTE + value.toString() + QUOTE;
         }
 
 
         class ScrapedMetric {
             private final String itemQualifiers;
             private final String valueName;
-            private final JsonPrimitive jsonPrimitive;
+            private final Object value;
 
             ScrapedMetric(String itemQualifiers, String valueName) {
                 this.itemQualifiers = itemQualifiers;
                 this.valueName = valueName;
-
-                this.jsonPrimitive = Optional.ofNullable(object.get(valueName))
-                      .filter(JsonElement::isJsonPrimitive)
-                      .map(JsonElement::getAsJsonPrimitive)
-                      .orElse(null);
+                this.value = source.getValue(valueName);
             }
 
             void add() {
-                Optional.ofNullable(jsonPrimitive).map(this::toMetricValue).ifPresent(v -> metrics.put(getMetricName(), v));
+                Optional.ofNullable(value).map(this::toMetricValue).ifPresent(this::add);
+            }
+
+            private void add(Object value) {
+                metrics.put(getMetricName(), value);
+                if (isDiscoveringFields()) getDiscoveredFields().add(valueName);
             }
 
-            private Object toMetricValue(JsonPrimitive jsonPrimitive) {
-                if (jsonPrimitive.isNumber())
-                    return jsonPrimitive.getAsNumber();
+            private Object toMetricValue(Object value) {
+                if (value instanceof Number)
+                    return value;
                 else if (isStringMetric())
-                    return selector.getStringMetricValue(valueName, jsonPrimitive.getAsString());
-                else if (selector.acceptsStrings() && jsonPrimitive.isString())
-                    return jsonPrimitive.getAsString();
+                    return selector.getStringMetricValue(valueName, (String) value);
+                else if (selector.acceptsStrings() && value instanceof String)
+                    return value;
                 else
                     return null;
             }
 
             private boolean isStringMetric() {
-                return selector.isStringMetric(valueName) && jsonPrimitive.isString();
+                return selector.isStringMetric(valueName) && value instanceof String;
             }
 
             private String getMetricName() {
@@ -188,7 +230,7 @@ class MetricsScraper {
 
             private String augmented(String itemQualifiers) {
                 if (isStringMetric())
-                    return itemQualifiers + ",value=\"" + jsonPrimitive.getAsString() + '"';
+                    return itemQualifiers + ",value=\"" + value + '"';
                 else
                     return itemQualifiers;
             }
@@ -0,0 +1,41 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The sources from which the exporter may read the MBeans selected by its queries.
+ */
+public enum MetricsSourceType {
+    /** The WebLogic REST API of the server being scraped. **/
+    REST("rest"),
+    /** The MBean server of the JVM in which the exporter runs. Only useful when the exporter runs within WebLogic. **/
+    MBEAN_SERVER("mbeanServer"),
+    /** A remote JMX connector to the MBean server of the server being scraped. **/
+    JMX("jmx");
+
+    private final String configName;
+
+    MetricsSourceType(String configName) {
+        this.configName = configName;
+    }
+
+    static MetricsSourceType fromConfig(Object value) {
+        return Arrays.stream(values())
+              .filter(type -> type.configName.equals(String.valueOf(value)))
+              .findFirst()
+              .orElseThrow(() -> MapUtils.createBadTypeException(ExporterConfig.METRICS_SOURCE, value, getConfigNames()));
+    }
+
+    private static String getConfigNames() {
+        return "one of " + Arrays.stream(values()).map(MetricsSourceType::toString).collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public String toString() {
+        return configName;
+    }
+}
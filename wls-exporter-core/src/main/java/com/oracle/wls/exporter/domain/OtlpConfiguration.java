@@ -0,0 +1,136 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Configuration for exporting metrics to an OpenTelemetry collector over OTLP/HTTP. The queries are run
+ * on a schedule, and their counters are sent as sums and everything else as gauges, by default omitting
+ * any series whose value has not changed since the previous export.
+ */
+public class OtlpConfiguration {
+    private static final String URL_KEY = "url";
+    private static final String INTERVAL_SECONDS_KEY = "intervalSeconds";
+    static final String TEMPORALITY_KEY = "temporality";
+    private static final String ONLY_CHANGED_SERIES_KEY = "onlyChangedSeries";
+    private static final String MAX_DATA_POINTS_PER_REQUEST_KEY = "maxDataPointsPerRequest";
+    private static final String TIMEOUT_MILLIS_KEY = "timeoutMillis";
+    private static final String USERNAME_KEY = "username";
+    private static final String PASSWORD_KEY = "password";
+
+    static final int DEFAULT_INTERVAL_SECONDS = 60;
+    static final int DEFAULT_MAX_DATA_POINTS_PER_REQUEST = 2000;
+    static final int DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final String url;
+    private int intervalSeconds = DEFAULT_INTERVAL_SECONDS;
+    private AggregationTemporality temporality = AggregationTemporality.DELTA;
+    private boolean onlyChangedSeries = true;
+    private int maxDataPointsPerRequest = DEFAULT_MAX_DATA_POINTS_PER_REQUEST;
+    private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private String username;
+    private String password;
+
+    OtlpConfiguration(Map<String, Object> map) {
+        if (map == null || !map.containsKey(URL_KEY))
+            throw new ConfigurationException("OTLP export requires a " + URL_KEY);
+
+        url = MapUtils.getStringValue(map, URL_KEY);
+        validateUrl();
+        if (map.containsKey(INTERVAL_SECONDS_KEY)) intervalSeconds = getPositiveValue(map, INTERVAL_SECONDS_KEY);
+        if (map.containsKey(TEMPORALITY_KEY)) temporality = AggregationTemporality.fromConfig(map.get(TEMPORALITY_KEY));
+        if (map.containsKey(ONLY_CHANGED_SERIES_KEY)) onlyChangedSeries = MapUtils.getBooleanValue(map, ONLY_CHANGED_SERIES_KEY);
+        if (map.containsKey(MAX_DATA_POINTS_PER_REQUEST_KEY))
+            maxDataPointsPerRequest = getPositiveValue(map, MAX_DATA_POINTS_PER_REQUEST_KEY);
+        if (map.containsKey(TIMEOUT_MILLIS_KEY)) timeoutMillis = getPositiveValue(map, TIMEOUT_MILLIS_KEY);
+        if (map.containsKey(USERNAME_KEY)) username = MapUtils.getStringValue(map, USERNAME_KEY);
+        if (map.containsKey(PASSWORD_KEY)) password = MapUtils.getStringValue(map, PASSWORD_KEY);
+    }
+
+    private void validateUrl() {
+        try {
+            final URI uri = new URI(url);
+            if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getAuthority() == null)
+                throw MapUtils.createBadTypeException(URL_KEY, url, "an http or https URL");
+        } catch (URISyntaxException e) {
+            throw MapUtils.createBadTypeException(URL_KEY, url, "an http or https URL");
+        }
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns the URL to which metrics are posted, typically ending in {@code /v1/metrics}.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the time in seconds between exports.
+     */
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Returns the way in which the values of counters are reported.
+     */
+    public AggregationTemporality getTemporality() {
+        return temporality;
+    }
+
+    /**
+     * Returns true if series whose values have not changed since the previous export are to be omitted.
+     */
+    public boolean isOnlyChangedSeries() {
+        return onlyChangedSeries;
+    }
+
+    /**
+     * Returns the maximum number of data points to send in a single request.
+     */
+    public int getMaxDataPointsPerRequest() {
+        return maxDataPointsPerRequest;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait to connect to the collector, and for its reply.
+     */
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Returns the authentication header with which to run the queries, or null if no credentials are configured.
+     */
+    public String getAuthenticationHeader() {
+        if (username == null) return null;
+
+        final String credentials = username + ':' + (password == null ? "" : password);
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return "otlp:\n" +
+               "  " + URL_KEY + ": " + url + '\n' +
+               "  " + INTERVAL_SECONDS_KEY + ": " + intervalSeconds + '\n' +
+               "  " + TEMPORALITY_KEY + ": " + temporality + '\n' +
+               "  " + ONLY_CHANGED_SERIES_KEY + ": " + onlyChangedSeries + '\n' +
+               "  " + MAX_DATA_POINTS_PER_REQUEST_KEY + ": " + maxDataPointsPerRequest + '\n' +
+               "  " + TIMEOUT_MILLIS_KEY + ": " + timeoutMillis + '\n' +
+               (username == null ? "" : "  " + USERNAME_KEY + ": " + username + '\n');
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Map;
+
+/**
+ * Configuration for splitting large queries. A query whose reply is large or slow may be split into pieces,
+ * each selecting one of its nested MBean collections, which are sent in parallel and whose metrics are combined.
+ */
+public class QuerySplittingConfiguration {
+    private static final String MIN_RESPONSE_BYTES_KEY = "minResponseBytes";
+    private static final String MIN_LATENCY_MILLIS_KEY = "minLatencyMillis";
+    private static final String MAX_PARALLEL_REQUESTS_KEY = "maxParallelRequests";
+
+    static final long DEFAULT_MIN_RESPONSE_BYTES = 1024 * 1024L;
+    static final int DEFAULT_MIN_LATENCY_MILLIS = 2000;
+    static final int DEFAULT_MAX_PARALLEL_REQUESTS = 4;
+
+    private long minResponseBytes = DEFAULT_MIN_RESPONSE_BYTES;
+    private int minLatencyMillis = DEFAULT_MIN_LATENCY_MILLIS;
+    private int maxParallelRequests = DEFAULT_MAX_PARALLEL_REQUESTS;
+
+    QuerySplittingConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(MIN_RESPONSE_BYTES_KEY)) minResponseBytes = MapUtils.getLongValue(map, MIN_RESPONSE_BYTES_KEY);
+        if (map.containsKey(MIN_LATENCY_MILLIS_KEY)) minLatencyMillis = MapUtils.getIntegerValue(map, MIN_LATENCY_MILLIS_KEY);
+        if (map.containsKey(MAX_PARALLEL_REQUESTS_KEY)) maxParallelRequests = getPositiveValue(map, MAX_PARALLEL_REQUESTS_KEY);
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns the size in bytes of a reply at which its query should be split.
+     */
+    public long getMinResponseBytes() {
+        return minResponseBytes;
+    }
+
+    /**
+     * Returns the time in milliseconds taken by a reply at which its query should be split.
+     */
+    public int getMinLatencyMillis() {
+        return minLatencyMillis;
+    }
+
+    /**
+     * Returns the maximum number of pieces of a single query which may be sent at once.
+     */
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "querySplitting:\n" +
+               "  " + MIN_RESPONSE_BYTES_KEY + ": " + minResponseBytes + '\n' +
+               "  " + MIN_LATENCY_MILLIS_KEY + ": " + minLatencyMillis + '\n' +
+               "  " + MAX_PARALLEL_REQUESTS_KEY + ": " + maxParallelRequests + '\n';
+    }
+}
@@ -0,0 +1,170 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Configuration for pushing metrics to a Prometheus remote-write endpoint. The queries are run on a schedule,
+ * and their samples are queued and sent in batches, with failed sends retried after increasing delays.
+ */
+public class RemoteWriteConfiguration {
+    private static final String URL_KEY = "url";
+    private static final String INTERVAL_SECONDS_KEY = "intervalSeconds";
+    private static final String MAX_SAMPLES_PER_SEND_KEY = "maxSamplesPerSend";
+    private static final String QUEUE_CAPACITY_KEY = "queueCapacity";
+    private static final String MAX_RETRIES_KEY = "maxRetries";
+    private static final String MIN_BACKOFF_MILLIS_KEY = "minBackoffMillis";
+    private static final String MAX_BACKOFF_MILLIS_KEY = "maxBackoffMillis";
+    private static final String TIMEOUT_MILLIS_KEY = "timeoutMillis";
+    private static final String USERNAME_KEY = "username";
+    private static final String PASSWORD_KEY = "password";
+
+    static final int DEFAULT_INTERVAL_SECONDS = 60;
+    static final int DEFAULT_MAX_SAMPLES_PER_SEND = 2000;
+    static final int DEFAULT_QUEUE_CAPACITY = 50000;
+    static final int DEFAULT_MAX_RETRIES = 5;
+    static final int DEFAULT_MIN_BACKOFF_MILLIS = 100;
+    static final int DEFAULT_MAX_BACKOFF_MILLIS = 10000;
+    static final int DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final String url;
+    private int intervalSeconds = DEFAULT_INTERVAL_SECONDS;
+    private int maxSamplesPerSend = DEFAULT_MAX_SAMPLES_PER_SEND;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private int minBackoffMillis = DEFAULT_MIN_BACKOFF_MILLIS;
+    private int maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private String username;
+    private String password;
+
+    RemoteWriteConfiguration(Map<String, Object> map) {
+        if (map == null || !map.containsKey(URL_KEY))
+            throw new ConfigurationException("Remote write requires a " + URL_KEY);
+
+        url = MapUtils.getStringValue(map, URL_KEY);
+        validateUrl();
+        if (map.containsKey(INTERVAL_SECONDS_KEY)) intervalSeconds = getPositiveValue(map, INTERVAL_SECONDS_KEY);
+        if (map.containsKey(MAX_SAMPLES_PER_SEND_KEY)) maxSamplesPerSend = getPositiveValue(map, MAX_SAMPLES_PER_SEND_KEY);
+        if (map.containsKey(QUEUE_CAPACITY_KEY)) queueCapacity = getPositiveValue(map, QUEUE_CAPACITY_KEY);
+        if (map.containsKey(MAX_RETRIES_KEY)) maxRetries = getNonNegativeValue(map, MAX_RETRIES_KEY);
+        if (map.containsKey(MIN_BACKOFF_MILLIS_KEY)) minBackoffMillis = getPositiveValue(map, MIN_BACKOFF_MILLIS_KEY);
+        if (map.containsKey(MAX_BACKOFF_MILLIS_KEY)) maxBackoffMillis = getPositiveValue(map, MAX_BACKOFF_MILLIS_KEY);
+        if (map.containsKey(TIMEOUT_MILLIS_KEY)) timeoutMillis = getPositiveValue(map, TIMEOUT_MILLIS_KEY);
+        if (map.containsKey(USERNAME_KEY)) username = MapUtils.getStringValue(map, USERNAME_KEY);
+        if (map.containsKey(PASSWORD_KEY)) password = MapUtils.getStringValue(map, PASSWORD_KEY);
+        if (maxBackoffMillis < minBackoffMillis)
+            throw MapUtils.createBadTypeException(MAX_BACKOFF_MILLIS_KEY, maxBackoffMillis, "no less than " + MIN_BACKOFF_MILLIS_KEY);
+    }
+
+    private void validateUrl() {
+        try {
+            final URI uri = new URI(url);
+            if (!"http".equals(uri.getScheme()) && !"https".equals(uri.getScheme()) || uri.getAuthority() == null)
+                throw MapUtils.createBadTypeException(URL_KEY, url, "an http or https URL");
+        } catch (URISyntaxException e) {
+            throw MapUtils.createBadTypeException(URL_KEY, url, "an http or https URL");
+        }
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    private int getNonNegativeValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 0)
+            throw MapUtils.createBadTypeException(key, value, "a non-negative integer");
+        return value;
+    }
+
+    /**
+     * Returns the URL of the remote-write endpoint.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the time in seconds between runs of the queries.
+     */
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Returns the maximum number of samples to send in a single request.
+     */
+    public int getMaxSamplesPerSend() {
+        return maxSamplesPerSend;
+    }
+
+    /**
+     * Returns the maximum number of samples which may wait to be sent. Samples which do not fit are dropped.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the number of times to retry a request which failed, before dropping its samples.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait before the first retry of a request. Each later retry waits twice
+     * as long as the one before, up to the maximum backoff.
+     */
+    public int getMinBackoffMillis() {
+        return minBackoffMillis;
+    }
+
+    /**
+     * Returns the longest time in milliseconds to wait before retrying a request.
+     */
+    public int getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the endpoint to accept a request.
+     */
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Returns the authentication header with which to run the queries, or null if no credentials are configured.
+     */
+    public String getAuthenticationHeader() {
+        if (username == null) return null;
+
+        final String credentials = username + ':' + (password == null ? "" : password);
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return "remoteWrite:\n" +
+               "  " + URL_KEY + ": " + url + '\n' +
+               "  " + INTERVAL_SECONDS_KEY + ": " + intervalSeconds + '\n' +
+               "  " + MAX_SAMPLES_PER_SEND_KEY + ": " + maxSamplesPerSend + '\n' +
+               "  " + QUEUE_CAPACITY_KEY + ": " + queueCapacity + '\n' +
+               "  " + MAX_RETRIES_KEY + ": " + maxRetries + '\n' +
+               "  " + MIN_BACKOFF_MILLIS_KEY + ": " + minBackoffMillis + '\n' +
+               "  " + MAX_BACKOFF_MILLIS_KEY + ": " + maxBackoffMillis + '\n' +
+               "  " + TIMEOUT_MILLIS_KEY + ": " + timeoutMillis + '\n' +
+               (username == null ? "" : "  " + USERNAME_KEY + ": " + username + '\n');
+    }
+}
@@ -0,0 +1,39 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An MBean, or a collection of MBeans, from which metrics may be scraped. Its fields are named
+ * as they are in the WebLogic REST API, whether it was read from a REST reply or from an MBean server.
+ */
+interface ScrapeSource {
+
+    /**
+     * Returns the MBean or collection of MBeans held in the named field.
+     * @param name the name of a field which refers to other MBeans
+     * @return a source, or null if the field does not refer to MBeans
+     */
+    ScrapeSource getChild(String name);
+
+    /**
+     * Returns the MBeans in this collection.
+     * @return a list of sources, or null if this source is a single MBean
+     */
+    List<ScrapeSource> getItems();
+
+    /**
+     * Returns the names of all the fields of this MBean which have been read.
+     */
+    Collection<String> getFieldNames();
+
+    /**
+     * Returns the value of the named field.
+     * @param name the name of a field
+     * @return a number, string or boolean, or null if the field has no such value
+     */
+    Object getValue(String name);
+}
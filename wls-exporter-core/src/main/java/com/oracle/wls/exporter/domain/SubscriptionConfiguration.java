@@ -0,0 +1,69 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.Map;
+
+/**
+ * Configuration for the subscriptions through which clients of the sidecar receive a stream of changed samples.
+ * The queries are run on a schedule for all subscribers presenting the same credentials, and each subscriber
+ * has a bounded queue of samples not yet sent to it.
+ */
+public class SubscriptionConfiguration {
+    private static final String INTERVAL_SECONDS_KEY = "intervalSeconds";
+    private static final String QUEUE_CAPACITY_KEY = "queueCapacity";
+    private static final String MAX_SUBSCRIBERS_KEY = "maxSubscribers";
+
+    static final int DEFAULT_INTERVAL_SECONDS = 5;
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    static final int DEFAULT_MAX_SUBSCRIBERS = 100;
+
+    private int intervalSeconds = DEFAULT_INTERVAL_SECONDS;
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private int maxSubscribers = DEFAULT_MAX_SUBSCRIBERS;
+
+    SubscriptionConfiguration(Map<String, Object> map) {
+        if (map == null) return;
+
+        if (map.containsKey(INTERVAL_SECONDS_KEY)) intervalSeconds = getPositiveValue(map, INTERVAL_SECONDS_KEY);
+        if (map.containsKey(QUEUE_CAPACITY_KEY)) queueCapacity = getPositiveValue(map, QUEUE_CAPACITY_KEY);
+        if (map.containsKey(MAX_SUBSCRIBERS_KEY)) maxSubscribers = getPositiveValue(map, MAX_SUBSCRIBERS_KEY);
+    }
+
+    private int getPositiveValue(Map<String, Object> map, String key) {
+        final int value = MapUtils.getIntegerValue(map, key);
+        if (value < 1)
+            throw MapUtils.createBadTypeException(key, value, "a positive integer");
+        return value;
+    }
+
+    /**
+     * Returns the time in seconds between runs of the queries while there are subscribers.
+     */
+    public int getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Returns the maximum number of samples waiting to be sent to a single subscriber.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the maximum number of subscribers connected at once.
+     */
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    @Override
+    public String toString() {
+        return "subscriptions:\n" +
+               "  " + INTERVAL_SECONDS_KEY + ": " + intervalSeconds + '\n' +
+               "  " + QUEUE_CAPACITY_KEY + ": " + queueCapacity + '\n' +
+               "  " + MAX_SUBSCRIBERS_KEY + ": " + maxSubscribers + '\n';
+    }
+}
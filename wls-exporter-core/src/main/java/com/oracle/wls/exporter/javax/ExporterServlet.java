@@ -11,6 +11,11 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.oracle.wls.exporter.ExporterCall;
+import com.oracle.wls.exporter.LiveConfiguration;
+import com.oracle.wls.exporter.OtlpExporter;
+import com.oracle.wls.exporter.RemoteWriter;
+import com.oracle.wls.exporter.RequestThreadPool;
+import com.oracle.wls.exporter.UrlBuilder;
 import com.oracle.wls.exporter.WebAppConstants;
 import com.oracle.wls.exporter.WebClientFactory;
 import com.oracle.wls.exporter.WebClientFactoryImpl;
@@ -37,6 +42,24 @@ public class ExporterServlet extends HttpServlet {
     @Override
     public void init(ServletConfig servletConfig) {
         ServletUtils.initializeConfiguration(servletConfig);
+        RemoteWriter.start(webClientFactory, ServletInvocationContext.getLocalHostName(), this::createPushUrlBuilder);
+        OtlpExporter.start(webClientFactory, ServletInvocationContext.getLocalHostName(), this::createPushUrlBuilder);
+    }
+
+    // The exporter's threads would otherwise outlive the application, keeping its classes loaded,
+    // and those which push metrics would keep pushing after a redeployment.
+    @Override
+    public void destroy() {
+        RemoteWriter.stop();
+        OtlpExporter.stop();
+        RequestThreadPool.shutdownAll();
+    }
+
+    // Metrics are pushed without a request from which to learn the server's port, so it must be configured.
+    private UrlBuilder createPushUrlBuilder() {
+        return UrlBuilder.create(false)
+              .withHostName(ServletInvocationContext.getLocalHostName())
+              .withPort(LiveConfiguration.getConfiguredRestPort());
     }
 
     @Override
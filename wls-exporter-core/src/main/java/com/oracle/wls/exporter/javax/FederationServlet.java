@@ -0,0 +1,45 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.javax;
+
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.oracle.wls.exporter.FederationCall;
+import com.oracle.wls.exporter.WebClientFactory;
+import com.oracle.wls.exporter.WebClientFactoryImpl;
+
+import static com.oracle.wls.exporter.WebAppConstants.FEDERATION_PAGE;
+
+/**
+ * A page combining the metrics of the exporters configured for federation.
+ */
+@WebServlet("/" + FEDERATION_PAGE)
+public class FederationServlet extends HttpServlet {
+
+    private final WebClientFactory webClientFactory;
+
+    @SuppressWarnings("unused")
+    public FederationServlet() {
+        this(new WebClientFactoryImpl());
+    }
+
+    public FederationServlet(WebClientFactory webClientFactory) {
+        this.webClientFactory = webClientFactory;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        try {
+            ServletUtils.setServer(req);
+            new FederationCall(webClientFactory, new ServletInvocationContext(req, resp)).invoke();
+        } catch (IOException e) {
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+}
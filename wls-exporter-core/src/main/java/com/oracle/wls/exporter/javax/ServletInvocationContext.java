@@ -69,6 +69,16 @@ public class ServletInvocationContext implements InvocationContext {
       return request.getContentType();
   }
 
+  @Override
+  public String getRequestHeader(String name) {
+      return request.getHeader(name);
+  }
+
+  @Override
+  public String getRequestParameter(String name) {
+      return request.getParameter(name);
+  }
+
   @Override
   public String getInstanceName() {
       return request.getServerName() + ":" + request.getServerPort();
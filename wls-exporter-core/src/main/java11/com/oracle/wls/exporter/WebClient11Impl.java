@@ -12,6 +12,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -52,6 +53,7 @@ public class WebClient11Impl extends WebClientCommon {
           .version(HttpClient.Version.HTTP_2)
           .followRedirects(HttpClient.Redirect.NORMAL)
           .proxy(ProxySelector.getDefault())
+          .connectTimeout(Duration.ofMillis(getTimeoutMillis()))
           .build();
 
     @Override
@@ -82,7 +84,8 @@ public class WebClient11Impl extends WebClientCommon {
     private final HttpRequest request;
 
     Java11WebRequest(Function<HttpRequest.Builder, HttpRequest.Builder> requestType) {
-      final HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(getUrl()));
+      final HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(getUrl()))
+            .timeout(Duration.ofMillis(getTimeoutMillis()));
       defaultHeaders.forEach(h -> builder.header(h.name, h.value));
       sessionHeaders.forEach(h -> builder.header(h.name, h.value));
       request = requestType.apply(builder).build();
@@ -17,8 +17,10 @@ import static com.oracle.wls.exporter.InvocationContextStub.CREDENTIALS;
 import static com.oracle.wls.exporter.WebAppConstants.COOKIE_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.SET_COOKIE_HEADER;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
 
 class AuthenticatedCallTest {
 
@@ -88,6 +90,19 @@ class AuthenticatedCallTest {
     callStub.doWithAuthentication();
   }
 
+  @Test
+  void whenResponseFromRestApiContainsSetCookieHeaders_ignoreForDifferentTarget() throws IOException {
+    invocationContext.withTarget("host1:7001");
+    configureResponseWithSetCookieHeaders();
+    callStub.doWithAuthentication();
+
+    final AuthenticatedCallStub otherTargetCall
+          = new AuthenticatedCallStub(webClientFactory, InvocationContextStub.create().withTarget("host2:7001"));
+
+    assertThat(otherTargetCall.getCookies(CREDENTIALS), empty());
+    assertThat(callStub.getCookies(CREDENTIALS), containsInAnyOrder("cookie1=value1", "cookie2=value2"));
+  }
+
   @Test
   void whenResponseFromRestApiContainsSetCookieHeaders_ignoreForDifferentCredentials() throws IOException {
     configureResponseWithSetCookieHeaders();
@@ -128,6 +143,87 @@ class AuthenticatedCallTest {
     assertThat(cookieHeaders, empty());
   }
 
+  @Test
+  void whenSessionCookieHeld_deferAuthentication() throws IOException {
+    callStub.handleNewCookie("JSESSIONID=abcde; path=/");
+    webClientFactory.forJson("{}").addResponse();
+
+    callStub.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(true));
+  }
+
+  @Test
+  void whenNoSessionCookieHeld_dontDeferAuthentication() throws IOException {
+    callStub.handleNewCookie("cookie1=value1; http-only");
+    webClientFactory.forJson("{}").addResponse();
+
+    callStub.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(false));
+  }
+
+  @Test
+  void whenSessionCookieHeldForOtherCredentials_dontDeferAuthentication() throws IOException {
+    callStub.handleNewCookie("JSESSIONID=abcde; path=/");
+    invocationContext.setAuthenticationHeader("other credentials");
+    webClientFactory.forJson("{}").addResponse();
+
+    callStub.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(false));
+  }
+
+  @Test
+  void whenSessionCookieExpired_dontDeferAuthentication() throws IOException {
+    callStub.handleNewCookie("JSESSIONID=abcde; path=/");
+    webClientFactory.forJson("{}").addResponse();
+
+    SystemClockTestSupport.increment(AuthenticatedCall.COOKIE_LIFETIME_SECONDS + 1);
+    callStub.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(false));
+  }
+
+  @Test
+  void whenSessionInUseLongerThanCredentialCheckInterval_sendCredentialsWithoutCookies() throws IOException {
+    callStub.handleNewCookie("JSESSIONID=abcde; path=/");
+    webClientFactory.forJson("{}").addResponse();
+
+    SystemClockTestSupport.increment(AuthenticatedCall.CREDENTIAL_CHECK_SECONDS + 1);
+    callStub.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(false));
+    assertThat(webClientFactory.getSentHeaders(COOKIE_HEADER), empty());
+  }
+
+  @Test
+  void afterCredentialsCheckedAgain_deferAuthenticationWithNewSession() throws IOException {
+    callStub.handleNewCookie("JSESSIONID=abcde; path=/");
+    SystemClockTestSupport.increment(AuthenticatedCall.CREDENTIAL_CHECK_SECONDS + 1);
+    webClientFactory.forJson("{}").withResponseHeader(SET_COOKIE_HEADER, "JSESSIONID=fghij; path=/").addResponse();
+    callStub.doWithAuthentication();
+
+    final AuthenticatedCallStub nextCall = new AuthenticatedCallStub(webClientFactory, invocationContext);
+    webClientFactory.forJson("{}").addResponse();
+    nextCall.doWithAuthentication();
+
+    assertThat(webClientFactory.isAuthenticationDeferred(), is(true));
+    assertThat(nextCall.getCookies(CREDENTIALS), contains("JSESSIONID=fghij"));
+  }
+
+  @Test
+  void whenCookiesUsed_extendTheirLifetime() throws IOException {
+    callStub.handleNewCookie("cookie1=value1; http-only");
+    webClientFactory.forJson("{}").addResponse();
+
+    SystemClockTestSupport.increment(AuthenticatedCall.COOKIE_LIFETIME_SECONDS - 1);
+    callStub.getCookies(CREDENTIALS);
+    SystemClockTestSupport.increment(AuthenticatedCall.COOKIE_LIFETIME_SECONDS - 1);
+
+    assertThat(callStub.getCookies(CREDENTIALS), containsInAnyOrder("cookie1=value1"));
+  }
+
   private String trimParameters(String cookieHeader) {
     if (!cookieHeader.contains(";"))
       return cookieHeader;
@@ -0,0 +1,209 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.wls.exporter.domain.ExporterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+class ConcurrencyLimiterTest {
+
+  private static final long PROMPT_MILLIS = 10;
+  private static final long SLOW_MILLIS = 100;
+
+  @AfterEach
+  void tearDown() {
+    ConcurrencyLimiter.configure(null);
+  }
+
+  private void configureLimiter(String settings) {
+    ConcurrencyLimiter.configure(ExporterConfig.loadConfig("concurrency:\n" + settings + "queries:\n")
+          .getConcurrencyConfiguration());
+  }
+
+  private ConcurrencyLimiter getLimiter() {
+    return ConcurrencyLimiter.getCurrent();
+  }
+
+  @Test
+  void whenNotConfigured_alwaysGrantPermits() {
+    for (int i = 0; i < 100; i++)
+      assertThat(ConcurrencyLimiter.acquire(), notNullValue());
+  }
+
+  @Test
+  void whenConfigured_startAtInitialLimit() {
+    configureLimiter("  initialLimit: 3\n");
+
+    assertThat(getLimiter().getLimit(), equalTo(3));
+  }
+
+  @Test
+  void whenAtLimitAndQueueFull_refusePermit() {
+    configureLimiter("  initialLimit: 2\n  maxQueueLength: 0\n");
+
+    ConcurrencyLimiter.acquire();
+    ConcurrencyLimiter.acquire();
+
+    assertThat(ConcurrencyLimiter.acquire(), nullValue());
+    assertThat(getLimiter().getInFlight(), equalTo(2));
+  }
+
+  @Test
+  void whenBelowLimit_grantPermitForFurtherRequestAtOnce() {
+    configureLimiter("  initialLimit: 2\n");
+    ConcurrencyLimiter.acquire();
+
+    assertThat(ConcurrencyLimiter.tryAcquire(null), notNullValue());
+    assertThat(getLimiter().getInFlight(), equalTo(2));
+  }
+
+  @Test
+  void whenAtLimit_refusePermitForFurtherRequest() {
+    configureLimiter("  initialLimit: 1\n");
+    ConcurrencyLimiter.acquire();
+
+    assertThat(ConcurrencyLimiter.tryAcquire(null), nullValue());
+    assertThat(getLimiter().getQueueLength(), equalTo(0));
+  }
+
+  @Test
+  void whenFurtherRequestEnds_releaseItsPermit() {
+    configureLimiter("  initialLimit: 2\n  maxQueueLength: 0\n");
+    ConcurrencyLimiter.acquire();
+
+    ConcurrencyLimiter.tryAcquire(null).onIgnore();
+
+    assertThat(ConcurrencyLimiter.acquire(), notNullValue());
+  }
+
+  @Test
+  void whenScrapingSeveralTargets_limitEachSeparately() {
+    configureLimiter("  initialLimit: 1\n  maxQueueLength: 0\n");
+
+    ConcurrencyLimiter.acquire("host1:7001");
+
+    assertThat(ConcurrencyLimiter.acquire("host1:7001"), nullValue());
+    assertThat(ConcurrencyLimiter.acquire("host2:7001"), notNullValue());
+    assertThat(getLimiter().getInFlight(), equalTo(0));
+  }
+
+  @Test
+  void whenReconfigured_discardTargetLimiters() {
+    configureLimiter("  initialLimit: 1\n  maxQueueLength: 0\n");
+    ConcurrencyLimiter.acquire("host1:7001");
+
+    configureLimiter("  initialLimit: 1\n  maxQueueLength: 0\n");
+
+    assertThat(ConcurrencyLimiter.acquire("host1:7001"), notNullValue());
+  }
+
+  @Test
+  void whenQueuedTooLong_refusePermit() {
+    configureLimiter("  initialLimit: 1\n  maxQueueLength: 1\n  queueTimeoutMillis: 20\n");
+    ConcurrencyLimiter.acquire();
+
+    assertThat(ConcurrencyLimiter.acquire(), nullValue());
+    assertThat(getLimiter().getQueueLength(), equalTo(0));
+  }
+
+  @Test
+  void whenPermitReleased_grantItToQueuedScrape() throws Exception {
+    configureLimiter("  initialLimit: 1\n  maxQueueLength: 1\n  queueTimeoutMillis: 5000\n");
+    final ConcurrencyLimiter.Permit first = ConcurrencyLimiter.acquire();
+
+    final CompletableFuture<ConcurrencyLimiter.Permit> queued = CompletableFuture.supplyAsync(ConcurrencyLimiter::acquire);
+    awaitQueueLength(1);
+    first.onIgnore();
+
+    assertThat(queued.get(5, TimeUnit.SECONDS), notNullValue());
+  }
+
+  private void awaitQueueLength(int expected) throws InterruptedException {
+    for (int i = 0; i < 500 && getLimiter().getQueueLength() != expected; i++)
+      Thread.sleep(10);
+  }
+
+  @Test
+  void whenPermitReleasedTwice_releaseOnlyOnce() {
+    configureLimiter("  initialLimit: 2\n");
+    ConcurrencyLimiter.acquire();
+    final ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire();
+
+    permit.onIgnore();
+    permit.onIgnore();
+
+    assertThat(getLimiter().getInFlight(), equalTo(1));
+  }
+
+  @Test
+  void afterPromptReplies_raiseLimitSlowly() {
+    configureLimiter("  initialLimit: 2\n  maxLimit: 3\n");
+
+    ConcurrencyLimiter.acquire().onSuccess(PROMPT_MILLIS);
+    ConcurrencyLimiter.acquire().onSuccess(PROMPT_MILLIS);
+    assertThat(getLimiter().getLimit(), equalTo(2));
+
+    ConcurrencyLimiter.acquire().onSuccess(PROMPT_MILLIS);
+    assertThat(getLimiter().getLimit(), equalTo(3));
+  }
+
+  @Test
+  void limitDoesNotRiseAboveMaximum() {
+    configureLimiter("  initialLimit: 2\n  maxLimit: 2\n");
+
+    for (int i = 0; i < 10; i++)
+      ConcurrencyLimiter.acquire().onSuccess(PROMPT_MILLIS);
+
+    assertThat(getLimiter().getLimit(), equalTo(2));
+  }
+
+  @Test
+  void afterSlowReply_cutLimit() {
+    configureLimiter("  initialLimit: 4\n");
+
+    ConcurrencyLimiter.acquire().onSuccess(PROMPT_MILLIS);
+    ConcurrencyLimiter.acquire().onSuccess(SLOW_MILLIS);
+
+    assertThat(getLimiter().getLimit(), equalTo(3));
+  }
+
+  @Test
+  void afterOverload_cutLimit() {
+    configureLimiter("  initialLimit: 4\n");
+
+    ConcurrencyLimiter.acquire().onOverload();
+
+    assertThat(getLimiter().getLimit(), equalTo(3));
+  }
+
+  @Test
+  void limitDoesNotFallBelowMinimum() {
+    configureLimiter("  initialLimit: 3\n  minLimit: 2\n");
+
+    for (int i = 0; i < 10; i++)
+      ConcurrencyLimiter.acquire().onOverload();
+
+    assertThat(getLimiter().getLimit(), equalTo(2));
+  }
+
+  @Test
+  void whenUnchangedConfigurationApplied_keepLimiter() {
+    final ExporterConfig config = ExporterConfig.loadConfig("concurrency:\n  initialLimit: 2\nqueries:\n");
+    ConcurrencyLimiter.configure(config.getConcurrencyConfiguration());
+    final ConcurrencyLimiter limiter = getLimiter();
+
+    ConcurrencyLimiter.configure(config.getConcurrencyConfiguration());
+
+    assertThat(getLimiter(), equalTo(limiter));
+  }
+}
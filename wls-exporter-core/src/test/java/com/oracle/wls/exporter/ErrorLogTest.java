@@ -1,4 +1,4 @@
-// Copyright (c) 2019, 2022, Oracle and/or its affiliates.
+// Copyright (c) 2019, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter;
@@ -10,15 +10,39 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.meterware.simplestub.Memento;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeDiagnosingMatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static com.oracle.wls.exporter.ErrorLogTest.LogMatcher.containsErrors;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 
 class ErrorLogTest {
+    private static final long TEN_MINUTES_IN_SECONDS = 10 * 60;
     private final ErrorLog errorLog = new ErrorLog();
+    private final List<Memento> mementos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws NoSuchFieldException {
+        mementos.add(SystemClockTestSupport.installClock());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mementos.forEach(Memento::revert);
+    }
 
     @Test
     void afterExceptionReported_isAddedToLog() {
@@ -41,6 +65,73 @@ class ErrorLogTest {
         assertThat(errorLog, containsErrors("IOException: Unable to read value", "  RuntimeException: has impossible format"));
     }
 
+    @Test
+    void afterDifferentExceptionsReported_listEachOnItsOwnLine() {
+        errorLog.log(new IOException("Unable to read value"));
+        errorLog.log(new WebClientException("Unable to reach server"));
+
+        assertThat(errorLog, containsErrors("IOException: Unable to read value", "WebClientException: Unable to reach server"));
+    }
+
+    @Test
+    void afterSameExceptionReportedRepeatedly_logItOnceWithCount() {
+        errorLog.log(new IOException("Unable to read value"));
+        SystemClockTestSupport.increment(TEN_MINUTES_IN_SECONDS);
+        errorLog.log(new IOException("Unable to read value"));
+        errorLog.log(new IOException("Unable to read value"));
+
+        assertThat(errorLog.getErrors(), both(startsWith("IOException: Unable to read value")).and(containsString("occurred 3 times")));
+    }
+
+    @Test
+    void whenExceptionNotRepeatedWithinRetentionTime_removeIt() {
+        errorLog.log(new IOException("Unable to read value"));
+        SystemClockTestSupport.increment(ErrorLog.RETENTION_TIME.getSeconds() + 1);
+        errorLog.log(new WebClientException("Unable to reach server"));
+
+        assertThat(errorLog, containsErrors("WebClientException: Unable to reach server"));
+    }
+
+    @Test
+    void whenManyDifferentExceptionsReported_keepOnlyTheMostRecent() {
+        for (int i = 0; i < ErrorLog.MAX_ENTRIES + 5; i++)
+            errorLog.log(new IOException("Problem " + i));
+
+        assertThat(errorLog.getErrors().split(System.lineSeparator()).length, equalTo(ErrorLog.MAX_ENTRIES));
+        assertThat(errorLog.getErrors(), not(containsString("Problem 4" + System.lineSeparator())));
+    }
+
+    @Test
+    void whenMessageIsVeryLong_truncateIt() {
+        errorLog.log(new IOException(createLongMessage()));
+
+        assertThat(errorLog.getErrors().length(), lessThanOrEqualTo(ErrorLog.MAX_MESSAGE_LENGTH + 3));
+    }
+
+    private String createLongMessage() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < ErrorLog.MAX_MESSAGE_LENGTH; i++) sb.append('x');
+        return sb.toString();
+    }
+
+    @Test
+    void afterExceptionsReported_countThemByType() {
+        errorLog.log(new IOException("Unable to read value"));
+        errorLog.log(new IOException("Unable to write value"));
+        errorLog.log(new WebClientException("Unable to reach server"));
+
+        assertThat(errorLog.getErrorCounts(), allOf(hasEntry("IOException", 2L), hasEntry("WebClientException", 1L)));
+    }
+
+    @Test
+    void afterExceptionRemovedFromLog_retainCount() {
+        errorLog.log(new IOException("Unable to read value"));
+        SystemClockTestSupport.increment(ErrorLog.RETENTION_TIME.getSeconds() + 1);
+
+        assertThat(errorLog.getErrors(), emptyString());
+        assertThat(errorLog.getErrorCounts(), hasEntry("IOException", 1L));
+    }
+
     @SuppressWarnings("unused")
     static class LogMatcher extends TypeSafeDiagnosingMatcher<ErrorLog> {
         private final String[] expectedMessages;
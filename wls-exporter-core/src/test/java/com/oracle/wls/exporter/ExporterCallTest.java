@@ -4,21 +4,44 @@
 package com.oracle.wls.exporter;
 
 import java.io.IOException;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import com.meterware.simplestub.Memento;
+import com.oracle.wls.exporter.domain.MBeanSelector;
+import com.oracle.wls.exporter.domain.SyntheticMBean;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static com.jayway.jsonpath.matchers.JsonPathMatchers.hasJsonPath;
 import static com.oracle.wls.exporter.InvocationContextStub.HOST_NAME;
 import static com.oracle.wls.exporter.InvocationContextStub.PORT;
+import static com.oracle.wls.exporter.WebAppConstants.ACCEPT_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.COOKIE_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.GROUP_PARAMETER;
+import static com.oracle.wls.exporter.WebAppConstants.SCRAPE_TIMEOUT_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.SET_COOKIE_HEADER;
+import static com.oracle.wls.exporter.WebClientCommon.DEFAULT_TIMEOUT_MILLIS;
+import static com.oracle.wls.exporter.domain.SyntheticMBean.RUNTIME_SERVICE;
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 class ExporterCallTest {
   private static final String URL_PATTERN = "http://%s:%d/management/weblogic/latest/serverRuntime/search";
@@ -26,6 +49,8 @@ class ExporterCallTest {
   private static final String ONE_VALUE_CONFIG = "queries:\n- groups:\n    key: name\n    values: testSample1";
   private static final String CONFIG_WITH_FILTER = "queries:" +
         "\n- groups:\n    key: name\n    includedKeyValues: abc.*\n    values: testSample1";
+  private static final String CONFIG_WITH_SMALL_FILTER = "queries:" +
+        "\n- groups:\n    key: name\n    includedKeyValues: alpha|beta\n    values: testSample1";
   private static final String REQUEST_FOR_PRIVILEGED_PROPERTY = "queries:" +
         "\n- JDBCServiceRuntime:\n    JDBCDataSourceRuntimeMBeans:\n      key: name\n      values: properties";
   private static final String REQUEST_INCLUDES_PRIVILEGED_PROPERTY = "queries:" +
@@ -33,6 +58,27 @@ class ExporterCallTest {
   private static final String DUAL_QUERY_CONFIG = ONE_VALUE_CONFIG +
         "\n- clubs:\n    key: name\n    values: testSample2";
 
+  private static final String SHARED_METRIC_QUERY_CONFIG = "queries:" +
+        "\n- groups:\n    key: name\n    values: [testSample1, testSample2]" +
+        "\n- clubs:\n    key: name\n    values: testSample1";
+
+  private static final String GROUPED_QUERY_CONFIG = "queries:" +
+        "\n- group: fast\n  groups:\n    key: name\n    values: testSample1" +
+        "\n- group: slow\n  clubs:\n    key: name\n    values: testSample2";
+
+  private static final String CACHED_QUERY_CONFIG = "queries:" +
+        "\n- cacheSeconds: 60\n  groups:\n    key: name\n    values: testSample1" +
+        "\n- clubs:\n    key: name\n    values: testSample2";
+
+  private static final String SPLIT_QUERY_CONFIG = "querySplitting:\n  minResponseBytes: 100\n  maxParallelRequests: 1" +
+        "\nqueries:" +
+        "\n- groups:\n    key: name\n    values: testSample1" +
+        "\n  clubs:\n    key: name\n    values: testSample2";
+
+  private static final String LIMITED_DUAL_QUERY_CONFIG = "queries:" +
+        "\n- maxResponseBytes: 20\n  groups:\n    key: name\n    values: testSample1" +
+        "\n- clubs:\n    key: name\n    values: testSample2";
+
   private static final String KEY_RESPONSE_JSON = "{\"groups\": {\"items\": [\n" +
               "     {\"name\": \"alpha\"},\n" +
               "     {\"name\": \"beta\" },\n" +
@@ -51,13 +97,41 @@ class ExporterCallTest {
               "     {\"name\": \"gimel\", \"testSample2\": \"third\"}\n" +
               "]}}";
 
+  private static final String NUMERIC_RESPONSE1_JSON = "{\"groups\": {\"items\": [\n" +
+              "     {\"name\": \"alpha\", \"testSample1\": 1},\n" +
+              "     {\"name\": \"beta\", \"testSample1\": 2}\n" +
+              "]}}";
+
+  private static final String NUMERIC_RESPONSE2_JSON = "{\"clubs\": {\"items\": [\n" +
+              "     {\"name\": \"aleph\", \"testSample2\": 17}\n" +
+              "]}}";
+
+  private static final String TWO_METRIC_RESPONSE_JSON = "{\"groups\": {\"items\": [\n" +
+              "     {\"name\": \"alpha\", \"testSample1\": 1, \"testSample2\": 5}\n" +
+              "]}}";
+
+  private static final String SHARED_METRIC_RESPONSE_JSON = "{\"clubs\": {\"items\": [\n" +
+              "     {\"name\": \"aleph\", \"testSample1\": 17}\n" +
+              "]}}";
+
   private final WebClientFactoryStub factory = new WebClientFactoryStub();
   private final InvocationContextStub context = InvocationContextStub.create();
+  private final List<Memento> mementos = new ArrayList<>();
 
   @BeforeEach
-  void setUp() {
+  void setUp() throws NoSuchFieldException {
+    mementos.add(SystemClockTestSupport.installClock());
     LiveConfiguration.setServer(HOST_NAME, PORT);
     AuthenticatedCall.clearCookies();
+    QueryResultCache.clear();
+    QueryPlanner.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    QueryResultCache.clear();
+    QueryPlanner.clear();
+    mementos.forEach(Memento::revert);
   }
 
   @Test
@@ -131,6 +205,41 @@ class ExporterCallTest {
     assertThat(factory.getNumQueriesSent(), equalTo(2));
   }
 
+  @Test
+  void whenFilteredCollectionIsSmall_laterScrapesSendOneRequest() throws IOException {
+    factory.addJsonResponse(KEY_RESPONSE_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(UNFILTERED_NUMERIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(CONFIG_WITH_SMALL_FILTER);
+    handleMetricsCall(context);
+
+    handleMetricsCall(InvocationContextStub.create());
+
+    assertThat(factory.getNumQueriesSent(), equalTo(3));
+  }
+
+  @Test
+  void whenFilteringOnClient_displayOnlySelectedItems() throws IOException {
+    factory.addJsonResponse(KEY_RESPONSE_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(UNFILTERED_NUMERIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(CONFIG_WITH_SMALL_FILTER);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    handleMetricsCall(secondContext);
+
+    assertThat(secondContext.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+    assertThat(secondContext.getResponse(), not(containsString("testSample1{name=\"gamma\"}")));
+    assertThat(secondContext.getResponse(), containsString("query=\"groups\",strategy=\"client\"} 1"));
+  }
+
+  private static final String UNFILTERED_NUMERIC_RESPONSE_JSON = "{\"groups\": {\"items\": [\n" +
+              "     {\"name\": \"alpha\", \"testSample1\": 1},\n" +
+              "     {\"name\": \"beta\", \"testSample1\": 2},\n" +
+              "     {\"name\": \"gamma\", \"testSample1\": 3}\n" +
+              "]}}";
+
   @Test
   void whenBadQueryReceivedAndConfigurationSelectsPrivilegedPropertiesProperty_explainProblem() throws IOException {
     factory.reportBadQuery();
@@ -161,4 +270,667 @@ class ExporterCallTest {
 
     assertThat(factory.getSentHeaders(COOKIE_HEADER), Matchers.hasItem("cookieName=newValue"));
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenReplyExceedsGlobalLimit_explainProblem() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("maxResponseBytes: 20\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("# The reply to this query exceeded the limit of 20 bytes"));
+  }
+
+  @Test
+  void whenReplyExceedsLimit_incrementLimitExceededMetric() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("maxResponseBytes: 20\n" + ONE_VALUE_CONFIG);
+    final long numLimitsExceeded = ResponseLimit.getNumLimitsExceeded();
+
+    handleMetricsCall(context);
+
+    assertThat(ResponseLimit.getNumLimitsExceeded(), equalTo(numLimitsExceeded + 1));
+  }
+
+  @Test
+  void whenReplyExceedsQueryLimit_displayMetricsFromOtherQueries() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(LIMITED_DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("testSample2{name=\"aleph\"} 17"));
+  }
+
+  @Test
+  void whenReplyWithinQueryLimit_displayMetrics() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("maxResponseBytes: 2000\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+  }
+
+  @Test
+  void whenScrapeLimitReached_skipRemainingQueries() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString("maxScrapeBytes: 20\n" + DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+    assertThat(context.getResponse(), containsString("# This query was skipped"));
+  }
+
+  @Test
+  void whenReplyExceedsScrapeLimit_explainProblemAsScrapeLimit() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("maxScrapeBytes: 20\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("# The replies to this scrape reached the limit of 20 bytes"));
+  }
+
+  @Test
+  void whenNoGroupRequested_sendAllQueries() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(GROUPED_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  @Test
+  void whenGroupRequested_sendOnlyQueriesInGroup() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(GROUPED_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestParameter(GROUP_PARAMETER, "slow"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+    assertThat(context.getResponse(), containsString("testSample2{name=\"aleph\"} 17"));
+  }
+
+  @Test
+  void whenUndefinedGroupRequested_reportNotFound() throws IOException {
+    LiveConfiguration.loadFromString(GROUPED_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestParameter(GROUP_PARAMETER, "medium"));
+
+    assertThat(context.getResponseStatus(), equalTo(HTTP_NOT_FOUND));
+    assertThat(factory.getNumQueriesSent(), equalTo(0));
+  }
+
+  @Test
+  void whenSameTargetScrapedAgain_reuseKeys() throws IOException {
+    factory.addJsonResponse(KEY_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(CONFIG_WITH_FILTER);
+    handleMetricsCall(context.withTarget("host1:7001"));
+
+    handleMetricsCall(InvocationContextStub.create().withTarget("host1:7001"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(3));
+  }
+
+  @Test
+  void whenDifferentTargetScraped_requestItsOwnKeys() throws IOException {
+    factory.addJsonResponse(KEY_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(CONFIG_WITH_FILTER);
+    handleMetricsCall(context.withTarget("host1:7001"));
+
+    handleMetricsCall(InvocationContextStub.create().withTarget("host2:7001"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(4));
+  }
+
+  @Test
+  void whenDifferentTargetScraped_dontReuseCachedMetrics() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(CACHED_QUERY_CONFIG);
+    handleMetricsCall(context.withTarget("host1:7001"));
+
+    handleMetricsCall(InvocationContextStub.create().withTarget("host2:7001"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(4));
+  }
+
+  @Test
+  void whenCachedQueryNotExpired_reuseItsMetrics() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(CACHED_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    SystemClockTestSupport.increment(30);
+    handleMetricsCall(secondContext);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(3));
+    assertThat(secondContext.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+    assertThat(secondContext.getResponse(), containsString("testSample2{name=\"aleph\"} 17"));
+  }
+
+  @Test
+  void whenReplyIsSmall_doNotSplitQuery() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(SPLIT_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    handleMetricsCall(InvocationContextStub.create());
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  @Test
+  void whenReplyIsLarge_splitQueryOnNextScrape() throws IOException {
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(SPLIT_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    handleMetricsCall(InvocationContextStub.create());
+
+    factory.getSentQuery();
+    assertThat(factory.getNumQueriesSent(), equalTo(3));
+    assertThat(factory.getSentQuery(), hasJsonPath("$.children.groups"));
+    assertThat(factory.getSentQuery(), not(hasJsonPath("$.children.groups")));
+  }
+
+  @Test
+  void whenQueryIsSplit_displaySameMetrics() throws IOException {
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(SPLIT_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    handleMetricsCall(secondContext);
+
+    assertThat(secondContext.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+    assertThat(secondContext.getResponse(), containsString("testSample2{name=\"aleph\"} 17"));
+    assertThat(secondContext.getResponse(), containsString("exporter_split_queries_total{instance=\"unit test\"} 1"));
+  }
+
+  @Test
+  void whenPieceOfSplitQueryFails_reportQueryFailure() throws IOException {
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.addJsonResponse(COMBINED_NUMERIC_RESPONSE_JSON);
+    factory.reportBadQuery();
+    LiveConfiguration.loadFromString(SPLIT_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    handleMetricsCall(secondContext);
+
+    assertThat(secondContext.getResponse(), containsString("REST service was unable to handle this query"));
+    assertThat(secondContext.getResponse(), not(containsString("testSample1{name=\"beta\"} 2")));
+  }
+
+  private static final String DOMAIN_RUNTIME_CONFIG = "domainRuntime:" +
+        "\nqueries:" +
+        "\n- groups:\n    key: name\n    values: testSample1";
+
+  private static final String PAGED_DOMAIN_RUNTIME_CONFIG = "domainRuntime:\n  serversPerRequest: 1" +
+        "\nqueries:" +
+        "\n- groups:\n    key: name\n    values: testSample1";
+
+  private static final String SERVER_NAMES_RESPONSE_JSON = "{\"serverRuntimes\": {\"items\": [\n" +
+              "     {\"name\": \"ms1\"},\n" +
+              "     {\"name\": \"ms2\"}\n" +
+              "]}}";
+
+  private static final String DOMAIN_RUNTIME_RESPONSE1_JSON = "{\"serverRuntimes\": {\"items\": [\n" +
+              "     {\"name\": \"ms1\", \"groups\": {\"items\": [{\"name\": \"alpha\", \"testSample1\": 1}]}}\n" +
+              "]}}";
+
+  private static final String DOMAIN_RUNTIME_RESPONSE2_JSON = "{\"serverRuntimes\": {\"items\": [\n" +
+              "     {\"name\": \"ms2\", \"groups\": {\"items\": [{\"name\": \"alpha\", \"testSample1\": 2}]}}\n" +
+              "]}}";
+
+  @Test
+  void whenDomainRuntimeConfigured_sendQueryToDomainRuntime() throws IOException {
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString(DOMAIN_RUNTIME_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getClientUrl(), containsString("/domainRuntime/search"));
+    assertThat(factory.getSentQuery(), hasJsonPath("$.children.serverRuntimes.children.groups"));
+  }
+
+  @Test
+  void whenDomainRuntimeConfigured_labelMetricsWithServer() throws IOException {
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString(DOMAIN_RUNTIME_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("testSample1{server=\"ms1\",name=\"alpha\"} 1"));
+  }
+
+  @Test
+  void whenDomainRuntimeIsPaged_requestServerNamesThenEachPage() throws IOException {
+    factory.addJsonResponse(SERVER_NAMES_RESPONSE_JSON);
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE1_JSON);
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(PAGED_DOMAIN_RUNTIME_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getSentQuery(), equalTo(MBeanSelector.SERVER_NAMES_REQUEST));
+    assertThat(factory.getSentQuery(), hasJsonPath("$.children.serverRuntimes.name", contains("ms1")));
+    assertThat(factory.getSentQuery(), hasJsonPath("$.children.serverRuntimes.name", contains("ms2")));
+  }
+
+  @Test
+  void whenDomainRuntimeIsPaged_displayMetricsOfAllPages() throws IOException {
+    factory.addJsonResponse(SERVER_NAMES_RESPONSE_JSON);
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE1_JSON);
+    factory.addJsonResponse(DOMAIN_RUNTIME_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(PAGED_DOMAIN_RUNTIME_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("testSample1{server=\"ms1\",name=\"alpha\"} 1"));
+    assertThat(context.getResponse(), containsString("testSample1{server=\"ms2\",name=\"alpha\"} 2"));
+  }
+
+  private static final String COMBINED_NUMERIC_RESPONSE_JSON = "{\"groups\": {\"items\": [\n" +
+              "     {\"name\": \"alpha\", \"testSample1\": 1},\n" +
+              "     {\"name\": \"beta\", \"testSample1\": 2}\n" +
+              "]},\n" +
+              " \"clubs\": {\"items\": [\n" +
+              "     {\"name\": \"aleph\", \"testSample2\": 17}\n" +
+              "]}}";
+
+  @Test
+  void whenCachedQueryExpired_sendItAgain() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(CACHED_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    SystemClockTestSupport.increment(60);
+    handleMetricsCall(InvocationContextStub.create());
+
+    assertThat(factory.getNumQueriesSent(), equalTo(4));
+  }
+
+  @Test
+  void whenCachedQueryObtainedWithOtherCredentials_sendItAgain() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(CACHED_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    secondContext.setAuthenticationHeader("Basic otherStuff");
+    handleMetricsCall(secondContext);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(4));
+  }
+
+  @Test
+  void whenCachedQueryFails_sendItOnNextScrape() throws IOException {
+    factory.throwWebClientException(new ServerErrorException(500));
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(CACHED_QUERY_CONFIG);
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    handleMetricsCall(secondContext);
+
+    assertThat(secondContext.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+  }
+
+  @Test
+  void whenQueryFails_displayMetricsFromOtherQueries() throws IOException {
+    factory.throwWebClientException(new ServerErrorException(500));
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("testSample2{name=\"aleph\"} 17"));
+  }
+
+  @Test
+  void whenQueryFails_reportFailureAsComment() throws IOException {
+    factory.throwWebClientException(new WebClientException("Unable to read reply"));
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("# This query failed and was abandoned: "));
+  }
+
+  @Test
+  void reportSuccessOfEachQuery() throws IOException {
+    factory.throwWebClientException(new ServerErrorException(500));
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("wls_scrape_query_success{instance=\"unit test\",query=\"groups\"} 0"));
+    assertThat(context.getResponse(), containsString("wls_scrape_query_success{instance=\"unit test\",query=\"clubs\"} 1"));
+  }
+
+  @Test
+  void whenQueryIsSkipped_reportItAsUnsuccessful() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString("maxScrapeBytes: 20\n" + DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("wls_scrape_query_success{instance=\"unit test\",query=\"clubs\"} 0"));
+  }
+
+  @Test
+  void whenQueryFailsWithServerError_reduceConcurrencyLimit() throws IOException {
+    factory.throwWebClientException(new ServerErrorException(503));
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString("concurrency:\n  initialLimit: 10\n" + DUAL_QUERY_CONFIG);
+
+    try {
+      handleMetricsCall(context);
+
+      assertThat(ConcurrencyLimiter.getCurrent().getLimit(), equalTo(9));
+    } finally {
+      ConcurrencyLimiter.configure(null);
+    }
+  }
+
+  @Test
+  void whenQueryTimeoutConfigured_useItForQuery() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("queryTimeoutMillis: 1200\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getClientTimeout(), equalTo(1200));
+  }
+
+  @Test
+  void whenQueryTimeoutExceedsRemainingTime_useRemainingTime() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("queryTimeoutMillis: 30000\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "10"));
+
+    assertThat(factory.getClientTimeout(), equalTo(9500));
+  }
+
+  @Test
+  void whenNoScrapeTimeoutDefined_useDefaultQueryTimeout() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getClientTimeout(), equalTo(DEFAULT_TIMEOUT_MILLIS));
+  }
+
+  @Test
+  void whenScrapeTimeoutHeaderSent_limitQueryTimeoutToRemainingTime() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "2"));
+
+    assertThat(factory.getClientTimeout(), equalTo(1500));
+  }
+
+  @Test
+  void whenScrapeTimeoutConfigured_limitQueryTimeoutToRemainingTime() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("scrapeTimeoutSeconds: 3\nscrapeTimeoutOffsetMillis: 1000\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getClientTimeout(), equalTo(2000));
+  }
+
+  @Test
+  void whenScrapeTimeoutHeaderSent_itOverridesConfiguredTimeout() throws IOException {
+    factory.addJsonResponse(NUMERIC_RESPONSE1_JSON);
+    LiveConfiguration.loadFromString("scrapeTimeoutSeconds: 3\n" + ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "1.5"));
+
+    assertThat(factory.getClientTimeout(), equalTo(1000));
+  }
+
+  @Test
+  void whenScrapeDeadlineReached_skipRemainingQueries() throws IOException {
+    factory.addSlowJsonResponse(NUMERIC_RESPONSE1_JSON, 2);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "2"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+    assertThat(context.getResponse(), containsString("# This query was skipped because the scrape deadline was reached."));
+  }
+
+  @Test
+  void whenScrapeDeadlineReached_returnMetricsAlreadyCollected() throws IOException {
+    factory.addSlowJsonResponse(NUMERIC_RESPONSE1_JSON, 2);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "2"));
+
+    assertThat(context.getResponse(), containsString("testSample1{name=\"beta\"} 2"));
+    assertThat(context.getResponse(), not(containsString("testSample2{")));
+  }
+
+  @Test
+  void whenScrapeDeadlineReached_countSkippedQueries() throws IOException {
+    factory.addSlowJsonResponse(NUMERIC_RESPONSE1_JSON, 2);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+    final long numQueriesSkipped = ScrapeDeadline.getNumQueriesSkipped();
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "2"));
+
+    assertThat(ScrapeDeadline.getNumQueriesSkipped(), equalTo(numQueriesSkipped + 1));
+  }
+
+  @Test
+  void whenScrapeDeadlineNotReached_sendAllQueries() throws IOException {
+    factory.addSlowJsonResponse(NUMERIC_RESPONSE1_JSON, 1);
+    factory.addJsonResponse(NUMERIC_RESPONSE2_JSON);
+    LiveConfiguration.loadFromString(DUAL_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(SCRAPE_TIMEOUT_HEADER, "10"));
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  private static final String MBEAN_SERVER_CONFIG = "metricsSource: mbeanServer\n" + "queries:" +
+        "\n- JVMRuntime:\n    key: name\n    values: heapFreeCurrent";
+  private static final ObjectName SERVER = SyntheticMBean.toObjectName("unitTestServer", "ServerRuntime");
+  private static final ObjectName JVM = SyntheticMBean.toObjectName("unitTestServer", "JVMRuntime");
+
+  private void registerRuntimeMBeans() throws JMException {
+    final MBeanServer mbeanServer = LocalMBeanServer.get();
+    mbeanServer.registerMBean(new SyntheticMBean().with("ServerRuntime", SERVER), new ObjectName(RUNTIME_SERVICE));
+    mbeanServer.registerMBean(new SyntheticMBean().with("JVMRuntime", JVM), SERVER);
+    mbeanServer.registerMBean(new SyntheticMBean().with("Name", "unitTestServer").with("HeapFreeCurrent", 123), JVM);
+  }
+
+  private void unregisterRuntimeMBeans() throws JMException {
+    final MBeanServer mbeanServer = LocalMBeanServer.get();
+    for (ObjectName name : new ObjectName[] {new ObjectName(RUNTIME_SERVICE), SERVER, JVM})
+      if (mbeanServer.isRegistered(name)) mbeanServer.unregisterMBean(name);
+  }
+
+  @Test
+  void whenMetricsSourceIsMBeanServer_displayMetricsFromMBeans() throws Exception {
+    registerRuntimeMBeans();
+    try {
+      LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+
+      handleMetricsCall(context);
+
+      assertThat(context.getResponse(), containsString("heapFreeCurrent{name=\"unitTestServer\"} 123"));
+    } finally {
+      unregisterRuntimeMBeans();
+    }
+  }
+
+  @Test
+  void whenMetricsSourceIsMBeanServer_authenticateWithRestApi() throws Exception {
+    LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(factory.getClientUrl(), equalTo(String.format(URL_PATTERN, HOST_NAME, PORT)));
+    assertThat(factory.getSentQuery(), equalTo(ExporterCall.AUTHENTICATION_REQUEST));
+  }
+
+  @Test
+  void whenMetricsSourceIsMBeanServer_andSessionEstablished_dontAuthenticateAgain() throws Exception {
+    factory.forJson("{}").withResponseHeader(SET_COOKIE_HEADER, "JSESSIONID=abcde").addResponse();
+    LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+    context.setAuthenticationHeader("Basic stuff");
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    secondContext.setAuthenticationHeader("Basic stuff");
+    handleMetricsCall(secondContext);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+  }
+
+  @Test
+  void whenMetricsSourceIsMBeanServer_andCredentialsRevokedDuringSession_rejectThemAfterCheckInterval()
+        throws Exception {
+    factory.forJson("{}").withResponseHeader(SET_COOKIE_HEADER, "JSESSIONID=abcde").addResponse();
+    LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+    context.setAuthenticationHeader("Basic stuff");
+    handleMetricsCall(context);
+
+    final InvocationContextStub secondContext = InvocationContextStub.create();
+    secondContext.setAuthenticationHeader("Basic stuff");
+    SystemClockTestSupport.increment(AuthenticatedCall.CREDENTIAL_CHECK_SECONDS + 1);
+    factory.reportNotAuthorized();
+    handleMetricsCall(secondContext);
+
+    assertThat(secondContext.getResponseStatus(), equalTo(HTTP_FORBIDDEN));
+  }
+
+  @Test
+  void whenMetricsSourceIsMBeanServer_andCredentialsRejected_reportNotAuthorized() throws Exception {
+    factory.reportNotAuthorized();
+    LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponseStatus(), equalTo(HTTP_FORBIDDEN));
+  }
+
+  @Test
+  void whenMBeanServerHasNoWebLogicMBeans_reportQueryFailure() throws Exception {
+    LiveConfiguration.loadFromString(MBEAN_SERVER_CONFIG);
+
+    handleMetricsCall(context);
+
+    assertThat(context.getResponse(), containsString("# This query failed and was abandoned"));
+  }
+
+  @Test
+  void whenMetricsSourceIsJmx_displayMetricsFromRemoteMBeans() throws Exception {
+    final MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+    mbeanServer.registerMBean(new SyntheticMBean().with("ServerRuntime", SERVER), new ObjectName(RUNTIME_SERVICE));
+    mbeanServer.registerMBean(new SyntheticMBean().with("JVMRuntime", JVM), SERVER);
+    mbeanServer.registerMBean(new SyntheticMBean().with("Name", "unitTestServer").with("HeapFreeCurrent", 456), JVM);
+    final JMXConnectorServer connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(
+          new JMXServiceURL("service:jmx:rmi://localhost"), null, mbeanServer);
+    connectorServer.start();
+    try {
+      LiveConfiguration.loadFromString("metricsSource: jmx\njmx:\n  url: " + connectorServer.getAddress() + "\n"
+            + MBEAN_SERVER_CONFIG.substring(MBEAN_SERVER_CONFIG.indexOf("queries:")));
+      context.setAuthenticationHeader("Basic c3lzdGVtOmd1bWJ5MTIzNA==");
+
+      handleMetricsCall(context);
+
+      assertThat(context.getResponse(), containsString("heapFreeCurrent{name=\"unitTestServer\"} 456"));
+      assertThat(factory.getNumQueriesSent(), equalTo(0));
+    } finally {
+      JmxMetricsSource.clear();
+      connectorServer.stop();
+    }
+  }
+
+  @Test
+  void whenProtobufAccepted_sendMetricFamilies() throws Exception {
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(ACCEPT_HEADER,
+          "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited"));
+
+    assertThat(context.getResponseHeader("Content-Type"), equalTo(ExpositionFormat.PROTOBUF.getContentType()));
+    assertThat(ProtobufReader.readDelimited(context.getResponseBytes()).get(0).getString(1),
+          equalTo("wls_scrape_mbeans_count_total"));
+  }
+
+  @Test
+  void whenQueriesProduceSameMetric_sendItAsOneMetricFamily() throws Exception {
+    factory.addJsonResponse(TWO_METRIC_RESPONSE_JSON);
+    factory.addJsonResponse(SHARED_METRIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(SHARED_METRIC_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(ACCEPT_HEADER,
+          "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited"));
+
+    final List<ProtobufReader> families = ProtobufReader.readDelimited(context.getResponseBytes()).stream()
+          .filter(f -> f.getString(1).equals("testSample1"))
+          .collect(Collectors.toList());
+    assertThat(families.size(), equalTo(1));
+    assertThat(families.get(0).getMessages(4).size(), equalTo(2));
+  }
+
+  @Test
+  void whenQueriesProduceSameMetric_writeItsSamplesTogether() throws Exception {
+    factory.addJsonResponse(TWO_METRIC_RESPONSE_JSON);
+    factory.addJsonResponse(SHARED_METRIC_RESPONSE_JSON);
+    LiveConfiguration.loadFromString(SHARED_METRIC_QUERY_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(ACCEPT_HEADER, "application/openmetrics-text; version=1.0.0"));
+
+    assertThat(context.getResponse(), containsString("# TYPE testSample1 gauge\n"
+          + "testSample1{name=\"alpha\"} 1\n"
+          + "testSample1{name=\"aleph\"} 17\n"
+          + "# TYPE testSample2 gauge\n"));
+  }
+
+  @Test
+  void whenOpenMetricsAccepted_endWithEof() throws Exception {
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    handleMetricsCall(context.withRequestHeader(ACCEPT_HEADER, "application/openmetrics-text; version=1.0.0"));
+
+    assertThat(context.getResponseHeader("Content-Type"), equalTo(ExpositionFormat.OPENMETRICS.getContentType()));
+    assertThat(context.getResponse(), endsWith("# EOF\n"));
+  }
+}
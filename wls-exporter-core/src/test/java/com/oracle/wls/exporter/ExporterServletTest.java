@@ -36,6 +36,7 @@ import static com.oracle.wls.exporter.matchers.ResponseHeaderMatcher.containsHea
 import static com.oracle.wls.exporter.javax.HttpServletRequestStub.createGetRequest;
 import static com.oracle.wls.exporter.javax.HttpServletResponseStub.createServletResponse;
 import static javax.servlet.http.HttpServletResponse.SC_FORBIDDEN;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
 import static javax.servlet.http.HttpServletResponse.SC_UNAUTHORIZED;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
@@ -92,6 +93,8 @@ class ExporterServletTest {
         Locale.setDefault(locale);
         InMemoryResources.uninstall();
         ConfigurationUpdaterStub.uninstall();
+        ConcurrencyLimiter.configure(null);
+        ScrapeSnapshot.clear();
     }
 
     @Test
@@ -254,6 +257,74 @@ class ExporterServletTest {
         return response.getHtml();
     }
 
+    private static final String CONCURRENCY_CONFIG = "concurrency:\n  initialLimit: 1\n  maxLimit: 1\n  maxQueueLength: 0\n" + TWO_VALUE_CONFIG;
+    private static final String SNAPSHOT_CONFIG = CONCURRENCY_CONFIG.replace("concurrency:\n", "concurrency:\n  whenOverloaded: snapshot\n");
+
+    @Test
+    void whenAtConcurrencyLimit_rejectScrape() throws Exception {
+        initServlet(CONCURRENCY_CONFIG);
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire();
+
+        servlet.doGet(request, response);
+        permit.onIgnore();
+
+        assertThat(response.getStatus(), equalTo(SC_SERVICE_UNAVAILABLE));
+        assertThat(factory.getNumQueriesSent(), equalTo(0));
+    }
+
+    @Test
+    void whenBelowConcurrencyLimit_runScrape() throws Exception {
+        factory.addJsonResponse(getGroupResponseMap());
+        initServlet(CONCURRENCY_CONFIG);
+
+        servlet.doGet(request, response);
+
+        assertThat(toHtml(response), containsString("groupValue_testSample1{name=\"first\"} 12"));
+    }
+
+    @Test
+    void whenAtConcurrencyLimitWithSnapshot_serveSnapshot() throws Exception {
+        factory.addJsonResponse(getGroupResponseMap());
+        initServlet(SNAPSHOT_CONFIG);
+        servlet.doGet(request, response);
+
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire();
+        final HttpServletResponseStub secondResponse = createServletResponse();
+        servlet.doGet(request, secondResponse);
+        permit.onIgnore();
+
+        assertThat(toHtml(secondResponse), allOf(
+              containsString("# These metrics were collected at"),
+              containsString("groupValue_testSample1{name=\"first\"} 12")));
+    }
+
+    @Test
+    void whenAtConcurrencyLimitWithoutSnapshot_rejectScrape() throws Exception {
+        initServlet(SNAPSHOT_CONFIG);
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire();
+
+        servlet.doGet(request, response);
+        permit.onIgnore();
+
+        assertThat(response.getStatus(), equalTo(SC_SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void whenSnapshotTakenWithOtherCredentials_rejectScrape() throws Exception {
+        factory.addJsonResponse(getGroupResponseMap());
+        initServlet(SNAPSHOT_CONFIG);
+        request.setHeader(AUTHENTICATION_HEADER, "Basic dXNlcjE6cGFzczE=");
+        servlet.doGet(request, response);
+
+        ConcurrencyLimiter.Permit permit = ConcurrencyLimiter.acquire();
+        final HttpServletResponseStub secondResponse = createServletResponse();
+        request.setHeader(AUTHENTICATION_HEADER, "Basic dXNlcjI6cGFzczI=");
+        servlet.doGet(request, secondResponse);
+        permit.onIgnore();
+
+        assertThat(secondResponse.getStatus(), equalTo(SC_SERVICE_UNAVAILABLE));
+    }
+
     private Map<String,Object> getGroupResponseMap() {
         return ImmutableMap.of("groups", new ItemHolder(
                     ImmutableMap.of("name", "first", "testSample1", 12, "testSample2", 12.3, "bogus", "red"),
@@ -321,6 +392,20 @@ class ExporterServletTest {
         assertThat(toHtml(this.response), containsString("wavelength{hue=\"green\"} 540"));
     }
 
+    @Test
+    void whenConnectionFailsDuringScrape_resumeWithFailedQueryOnNextHost() throws Exception {
+        factory.addJsonResponse(getGroupResponseMap());
+        factory.throwConnectionFailure(WLS_HOST, LOCAL_PORT);
+        factory.addJsonResponse(getColorResponseMap());
+        initServlet(MULTI_QUERY_CONFIG);
+
+        servlet.doGet(request, this.response);
+
+        assertThat(toHtml(this.response).split("groupValue_testSample1\\{name=\"first\"} 12").length, equalTo(2));
+        assertThat(toHtml(this.response), containsString("wavelength{hue=\"green\"} 540"));
+        assertThat(factory.getClientUrl(), equalTo(String.format(URL_PATTERN, LOCAL_HOST_NAME, LOCAL_PORT)));
+    }
+
     private Map<String,Object> getColorResponseMap() {
         return ImmutableMap.of("colors", new ItemHolder(
                     ImmutableMap.of("hue", "red", "wavelength", 700),
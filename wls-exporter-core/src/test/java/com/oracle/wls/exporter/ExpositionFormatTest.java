@@ -0,0 +1,56 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class ExpositionFormatTest {
+
+  private static final String PROMETHEUS_PROTOBUF_ACCEPT
+        = "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited;q=0.7,"
+        + "text/plain;version=0.0.4;q=0.3,*/*;q=0.1";
+  private static final String PROMETHEUS_OPENMETRICS_ACCEPT
+        = "application/openmetrics-text;version=1.0.0,application/openmetrics-text;version=0.0.1;q=0.75,"
+        + "text/plain;version=0.0.4;q=0.5,*/*;q=0.1";
+
+  @Test
+  void whenNoAcceptHeader_useTextFormat() {
+    assertThat(ExpositionFormat.negotiate(null), equalTo(ExpositionFormat.TEXT));
+  }
+
+  @Test
+  void whenProtobufPreferred_useProtobufFormat() {
+    assertThat(ExpositionFormat.negotiate(PROMETHEUS_PROTOBUF_ACCEPT), equalTo(ExpositionFormat.PROTOBUF));
+  }
+
+  @Test
+  void whenOpenMetricsPreferred_useOpenMetricsFormat() {
+    assertThat(ExpositionFormat.negotiate(PROMETHEUS_OPENMETRICS_ACCEPT), equalTo(ExpositionFormat.OPENMETRICS));
+  }
+
+  @Test
+  void whenTextPreferred_useTextFormat() {
+    assertThat(ExpositionFormat.negotiate("application/openmetrics-text;q=0.2,text/plain;q=0.9"),
+          equalTo(ExpositionFormat.TEXT));
+  }
+
+  @Test
+  void whenProtobufIsNotDelimitedMetricFamilies_ignoreIt() {
+    assertThat(ExpositionFormat.negotiate("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily,"
+          + "text/plain;q=0.1"), equalTo(ExpositionFormat.TEXT));
+  }
+
+  @Test
+  void whenFormatHasZeroQuality_dontUseIt() {
+    assertThat(ExpositionFormat.negotiate("application/openmetrics-text;q=0"), equalTo(ExpositionFormat.TEXT));
+  }
+
+  @Test
+  void whenNoFormatRecognized_useTextFormat() {
+    assertThat(ExpositionFormat.negotiate("application/json"), equalTo(ExpositionFormat.TEXT));
+  }
+}
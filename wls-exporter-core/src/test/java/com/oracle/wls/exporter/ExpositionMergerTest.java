@@ -0,0 +1,120 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class ExpositionMergerTest {
+
+  private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+  private final ExpositionMerger merger = new ExpositionMerger(new PrintStream(bytes));
+
+  private String getOutput() {
+    merger.finish();
+    return bytes.toString();
+  }
+
+  @Test
+  void whenSampleHasNoLabels_addInstanceLabel() {
+    merger.append("host1:7001", "wls_scrape_cpu_seconds 0.25\n");
+
+    assertThat(getOutput(), equalTo("wls_scrape_cpu_seconds{instance=\"host1:7001\"} 0.25\n"));
+  }
+
+  @Test
+  void whenSampleHasLabels_addInstanceLabelFirst() {
+    merger.append("host1:7001", "groups_value{name=\"alpha\",kind=\"x\"} 3");
+
+    assertThat(getOutput(), equalTo("groups_value{instance=\"host1:7001\",name=\"alpha\",kind=\"x\"} 3\n"));
+  }
+
+  @Test
+  void whenSampleHasInstanceLabel_replaceIt() {
+    merger.append("host1:7001", "wls_scrape_cpu_seconds{instance=\"adminServer\"} 0.25");
+
+    assertThat(getOutput(), equalTo("wls_scrape_cpu_seconds{instance=\"host1:7001\"} 0.25\n"));
+  }
+
+  @Test
+  void whenLabelValueContainsSeparators_preserveIt() {
+    merger.append("host1:7001", "groups_value{name=\"a,b=\\\"c}\"} 3");
+
+    assertThat(getOutput(), equalTo("groups_value{instance=\"host1:7001\",name=\"a,b=\\\"c}\"} 3\n"));
+  }
+
+  @Test
+  void whenSamplesFromDifferentExporters_keepBoth() {
+    merger.append("host1:7001", "exporter_up 1");
+    merger.append("host2:7001", "exporter_up 1");
+
+    assertThat(getOutput(),
+          equalTo("exporter_up{instance=\"host1:7001\"} 1\nexporter_up{instance=\"host2:7001\"} 1\n"));
+  }
+
+  @Test
+  void whenSeriesRepeated_writeItOnce() {
+    merger.append("host1:7001", "exporter_up 1\nexporter_up 1");
+
+    assertThat(getOutput(), equalTo("exporter_up{instance=\"host1:7001\"} 1\n"));
+    assertThat(merger.getNumDuplicates(), equalTo(1L));
+  }
+
+  @Test
+  void whenSeriesRepeatedWithLabelsInDifferentOrder_writeItOnce() {
+    merger.append("host1:7001", "groups_value{name=\"alpha\",kind=\"x\"} 3\ngroups_value{kind=\"x\",name=\"alpha\"} 3");
+
+    assertThat(getOutput(), equalTo("groups_value{instance=\"host1:7001\",name=\"alpha\",kind=\"x\"} 3\n"));
+    assertThat(merger.getNumDuplicates(), equalTo(1L));
+  }
+
+  @Test
+  void whenFamiliesOnSeveralPages_writeEachFamilyTogether() {
+    merger.append("host1:7001", "# TYPE groups_value gauge\ngroups_value 1\n# TYPE clubs_value gauge\nclubs_value 3");
+    merger.append("host2:7001", "# TYPE groups_value gauge\ngroups_value 2\n# TYPE clubs_value gauge\nclubs_value 4");
+
+    assertThat(getOutput(), equalTo("# TYPE groups_value gauge\n"
+          + "groups_value{instance=\"host1:7001\"} 1\ngroups_value{instance=\"host2:7001\"} 2\n"
+          + "# TYPE clubs_value gauge\n"
+          + "clubs_value{instance=\"host1:7001\"} 3\nclubs_value{instance=\"host2:7001\"} 4\n"));
+  }
+
+  @Test
+  void whenSamplesHaveSuffixOfDescribedFamily_writeThemWithFamily() {
+    merger.append("host1:7001", "# TYPE latency summary\nlatency_sum 5\nlatency_count 2");
+    merger.append("host2:7001", "# TYPE latency summary\nlatency_sum 7\nlatency_count 3");
+
+    assertThat(getOutput(), equalTo("# TYPE latency summary\n"
+          + "latency_sum{instance=\"host1:7001\"} 5\nlatency_count{instance=\"host1:7001\"} 2\n"
+          + "latency_sum{instance=\"host2:7001\"} 7\nlatency_count{instance=\"host2:7001\"} 3\n"));
+  }
+
+  @Test
+  void whenDescriptionRepeated_writeItOnce() {
+    merger.append("host1:7001", "# HELP groups_value A value\n# TYPE groups_value gauge\ngroups_value 1");
+    merger.append("host2:7001", "# HELP groups_value A value\n# TYPE groups_value gauge\ngroups_value 2");
+
+    assertThat(getOutput(), equalTo("# HELP groups_value A value\n# TYPE groups_value gauge\n"
+          + "groups_value{instance=\"host1:7001\"} 1\ngroups_value{instance=\"host2:7001\"} 2\n"));
+  }
+
+  @Test
+  void dropOtherComments() {
+    merger.append("host1:7001", "# These metrics were collected at 10:00\nexporter_up 1");
+
+    assertThat(getOutput(), equalTo("exporter_up{instance=\"host1:7001\"} 1\n"));
+  }
+
+  @Test
+  void dropMalformedLines() {
+    merger.append("host1:7001", "<html>\ngroups_value{name=\"alpha\" 1\nexporter_up 1");
+
+    assertThat(getOutput(), equalTo("exporter_up{instance=\"host1:7001\"} 1\n"));
+  }
+}
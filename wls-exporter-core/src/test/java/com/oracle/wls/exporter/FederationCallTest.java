@@ -0,0 +1,155 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+class FederationCallTest {
+
+  private static final String EXPORTER1 = "http://host1:7001/wls-exporter/metrics";
+  private static final String EXPORTER2 = "http://host2:7001/wls-exporter/metrics";
+  private static final String FEDERATION_CONFIG = "federation:\n  exporters: [" + EXPORTER1 + ", " + EXPORTER2 + "]"
+        + "\n  maxParallelRequests: 1\n  timeoutMillis: 1500\nqueries:\n";
+  private static final String SHORT_TIMEOUT_CONFIG = "federation:\n  exporters: [" + EXPORTER1 + "]"
+        + "\n  timeoutMillis: 200\nqueries:\n";
+
+  private final WebClientFactoryStub factory = new WebClientFactoryStub();
+  private final InvocationContextStub context = InvocationContextStub.create();
+
+  @AfterEach
+  void tearDown() {
+    LiveConfiguration.loadFromString("");
+  }
+
+  private void invokeFederation() throws IOException {
+    new FederationCall(factory, context).invoke();
+  }
+
+  @Test
+  void whenFederationNotConfigured_reportNotFound() throws IOException {
+    LiveConfiguration.loadFromString("queries:\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponseStatus(), equalTo(HTTP_NOT_FOUND));
+  }
+
+  @Test
+  void whenFederationConfigured_labelMetricsWithTheirExporter() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    factory.addJsonResponse("groups_value{name=\"alpha\"} 1\n");
+    factory.addJsonResponse("groups_value{name=\"alpha\"} 2\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), containsString(
+          "groups_value{instance=\"host1:7001\",name=\"alpha\"} 1\ngroups_value{instance=\"host2:7001\",name=\"alpha\"} 2\n"));
+  }
+
+  @Test
+  void whenFederationConfigured_forwardClientCredentials() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    context.setAuthenticationHeader("Basic xyz");
+
+    invokeFederation();
+
+    assertThat(factory.getSentAuthentication(), equalTo("Basic xyz"));
+  }
+
+  @Test
+  void whenFederationConfigured_useConfiguredTimeout() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+
+    invokeFederation();
+
+    assertThat(factory.getClientTimeout(), equalTo(1500));
+  }
+
+  @Test
+  void whenExportersReachable_reportThemUp() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    factory.addJsonResponse("exporter_up 1\n");
+    factory.addJsonResponse("exporter_up 1\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), containsString("exporter_federation_up{instance=\"host1:7001\"} 1\n"));
+    assertThat(context.getResponse(), containsString("exporter_federation_up{instance=\"host2:7001\"} 1\n"));
+  }
+
+  @Test
+  void whenExporterUnreachable_reportItDown() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    factory.throwConnectionFailure("host1", 7001);
+    factory.addJsonResponse("exporter_up 1\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), containsString("# Unable to fetch metrics from " + EXPORTER1));
+    assertThat(context.getResponse(), containsString("exporter_federation_up{instance=\"host1:7001\"} 0\n"));
+    assertThat(context.getResponse(), containsString("exporter_up{instance=\"host2:7001\"} 1\n"));
+  }
+
+  @Test
+  void whenExporterOutlastsTimeout_reportItDownWithoutWaiting() throws IOException {
+    LiveConfiguration.loadFromString(SHORT_TIMEOUT_CONFIG);
+    final CountDownLatch release = new CountDownLatch(1);
+    factory.addBlockedJsonResponse("exporter_up 1\n", release);
+
+    try {
+      invokeFederation();
+    } finally {
+      release.countDown();
+    }
+
+    assertThat(context.getResponse(), containsString("# Unable to fetch metrics from " + EXPORTER1));
+    assertThat(context.getResponse(), containsString("exporter_federation_up{instance=\"host1:7001\"} 0\n"));
+    assertThat(context.getResponse(), not(containsString("exporter_up{instance=\"host1:7001\"}")));
+  }
+
+  @Test
+  void whenFederationConfigured_reportDuration() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), containsString("exporter_federation_duration_seconds{instance=\"host2:7001\"}"));
+  }
+
+  @Test
+  void whenFederationConfigured_describeAndGroupFederationMetrics() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    factory.addJsonResponse("exporter_up 1\n");
+    factory.addJsonResponse("exporter_up 1\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), containsString("# TYPE exporter_federation_up gauge\n"
+          + "exporter_federation_up{instance=\"host1:7001\"} 1\nexporter_federation_up{instance=\"host2:7001\"} 1\n"
+          + "# TYPE exporter_federation_duration_seconds gauge\n"));
+    assertThat(context.getResponse(), containsString("# TYPE exporter_federation_duplicate_samples gauge\n"
+          + "exporter_federation_duplicate_samples{instance=\"unit test\"} 0\n"));
+  }
+
+  @Test
+  void whenSeriesRepeated_writeItOnceAndCountDuplicates() throws IOException {
+    LiveConfiguration.loadFromString(FEDERATION_CONFIG);
+    factory.addJsonResponse("exporter_up 1\nexporter_up 1\n");
+
+    invokeFederation();
+
+    assertThat(context.getResponse(), not(containsString("exporter_up{instance=\"host1:7001\"} 1\nexporter_up")));
+    assertThat(context.getResponse(), containsString("exporter_federation_duplicate_samples{instance=\"unit test\"} 1\n"));
+  }
+}
@@ -31,7 +31,10 @@ abstract class InvocationContextStub implements InvocationContext {
   private InputStream requestStream = null;
   private int responseStatus = 0;
   private boolean secure;
+  private String target;
   private final Map<String, List<String>> responseHeaders = new HashMap<>();
+  private final Map<String, String> requestHeaders = new HashMap<>();
+  private final Map<String, String> requestParameters = new HashMap<>();
 
   static InvocationContextStub create() {
     return createStrictStub(InvocationContextStub.class);
@@ -54,6 +57,21 @@ abstract class InvocationContextStub implements InvocationContext {
     return this;
   }
 
+  InvocationContextStub withRequestHeader(String name, String value) {
+    requestHeaders.put(name, value);
+    return this;
+  }
+
+  InvocationContextStub withTarget(String target) {
+    this.target = target;
+    return this;
+  }
+
+  InvocationContextStub withRequestParameter(String name, String value) {
+    requestParameters.put(name, value);
+    return this;
+  }
+
   String getRedirectLocation() {
     return redirectLocation;
   }
@@ -62,6 +80,10 @@ abstract class InvocationContextStub implements InvocationContext {
     return responseStream.toString();
   }
 
+  byte[] getResponseBytes() {
+    return responseStream.toByteArray();
+  }
+
   @SuppressWarnings("SameParameterValue")
   String getResponseHeader(String name) {
     return Optional.ofNullable(responseHeaders.get(name)).map(h-> h.get(0)).orElse(null);
@@ -99,6 +121,21 @@ abstract class InvocationContextStub implements InvocationContext {
     return contentType;
   }
 
+  @Override
+  public String getRequestHeader(String name) {
+    return requestHeaders.get(name);
+  }
+
+  @Override
+  public String getRequestParameter(String name) {
+    return requestParameters.get(name);
+  }
+
+  @Override
+  public String getTarget() {
+    return target;
+  }
+
   @Override
   public String getInstanceName() {
     return "unit test";
@@ -0,0 +1,267 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.remote.JMXAuthenticator;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+import javax.security.auth.Subject;
+
+import com.meterware.simplestub.Memento;
+import com.oracle.wls.exporter.domain.MBeanSelector;
+import com.oracle.wls.exporter.domain.SyntheticMBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.oracle.wls.exporter.domain.SyntheticMBean.RUNTIME_SERVICE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class JmxMetricsSourceTest {
+
+  private static final String CONFIG = "metricsSource: jmx\njmx:\n  url: service:jmx:rmi://localhost\nqueries:" +
+        "\n- JVMRuntime:\n    key: name\n    values: heapFreeCurrent";
+  private static final String USER = "system";
+  private static final String PASSWORD = "gumby1234";
+  private static final ObjectName SERVER = SyntheticMBean.toObjectName("remoteServer", "ServerRuntime");
+  private static final ObjectName JVM = SyntheticMBean.toObjectName("remoteServer", "JVMRuntime");
+
+  private final AtomicInteger numAuthentications = new AtomicInteger();
+  private final List<Memento> mementos = new ArrayList<>();
+  private final AtomicBoolean blockNextRead = new AtomicBoolean();
+  private final CountDownLatch readBlocked = new CountDownLatch(1);
+  private final CountDownLatch releaseRead = new CountDownLatch(1);
+  private String validPassword = PASSWORD;
+  private JMXConnectorServer connectorServer;
+  private String url;
+  private MBeanSelector selector;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    mementos.add(SystemClockTestSupport.installClock());
+    JmxMetricsSource.clear();
+    LiveConfiguration.loadFromString(CONFIG);
+    selector = LiveConfiguration.getQueries(null, null)[0];
+
+    final MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+    mbeanServer.registerMBean(new SyntheticMBean().with("ServerRuntime", SERVER), new ObjectName(RUNTIME_SERVICE));
+    mbeanServer.registerMBean(new SyntheticMBean().with("JVMRuntime", JVM), SERVER);
+    mbeanServer.registerMBean(new BlockingMBean().with("Name", "remoteServer").with("HeapFreeCurrent", 100), JVM);
+
+    final Map<String, Object> environment = new HashMap<>();
+    environment.put(JMXConnectorServer.AUTHENTICATOR, (JMXAuthenticator) this::authenticate);
+    connectorServer = JMXConnectorServerFactory.newJMXConnectorServer(
+          new JMXServiceURL("service:jmx:rmi://localhost"), environment, mbeanServer);
+    connectorServer.start();
+    url = connectorServer.getAddress().toString();
+  }
+
+  private Subject authenticate(Object credentials) {
+    numAuthentications.incrementAndGet();
+    final String[] userAndPassword = (String[]) credentials;
+    if (!USER.equals(userAndPassword[0]) || !validPassword.equals(userAndPassword[1]))
+      throw new SecurityException("Invalid credentials");
+    return new Subject();
+  }
+
+  // An MBean whose attributes may be made to wait, so that a scrape is still using its connector.
+  class BlockingMBean extends SyntheticMBean {
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+      awaitReleaseIfBlocked();
+      return super.getAttribute(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+      awaitReleaseIfBlocked();
+      return super.getAttributes(names);
+    }
+
+    private void awaitReleaseIfBlocked() {
+      if (!blockNextRead.getAndSet(false)) return;
+
+      readBlocked.countDown();
+      try {
+        releaseRead.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    releaseRead.countDown();
+    JmxMetricsSource.clear();
+    connectorServer.stop();
+    mementos.forEach(Memento::revert);
+  }
+
+  private String toCredentials(String user, String password) {
+    return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void readMetricsFromRemoteMBeans() throws Exception {
+    final Map<String, Object> metrics
+          = JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+
+    assertThat(metrics, hasEntry("heapFreeCurrent{name=\"remoteServer\"}", 100));
+  }
+
+  @Test
+  void whenMetricsReadAgainWithSameCredentials_reuseConnector() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+
+    assertThat(numAuthentications.get(), equalTo(1));
+    assertThat(JmxMetricsSource.getNumConnections(), equalTo(1L));
+  }
+
+  @Test
+  void whenMetricsReadWithDifferentCredentials_openNewConnector() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    assertThrows(AuthenticationChallengeException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, "wrong")).getMetrics(null, selector));
+
+    assertThat(numAuthentications.get(), equalTo(2));
+  }
+
+  @Test
+  void whenCredentialsRejected_throwAuthenticationChallenge() {
+    assertThrows(AuthenticationChallengeException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, "wrong")).getMetrics(null, selector));
+  }
+
+  @Test
+  void whenNoCredentialsProvided_throwAuthenticationChallengeWithoutConnecting() {
+    assertThrows(AuthenticationChallengeException.class,
+          () -> JmxMetricsSource.get(url, null).getMetrics(null, selector));
+
+    assertThat(numAuthentications.get(), equalTo(0));
+  }
+
+  @Test
+  void whenConnectorServerUnreachable_throwConnectionException() throws Exception {
+    connectorServer.stop();
+
+    assertThrows(RestPortConnectionException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector));
+  }
+
+  @Test
+  void whenConnectorServerStops_discardConnectorAndReconnectLater() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    connectorServer.stop();
+
+    assertThrows(IOException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector));
+    assertThrows(RestPortConnectionException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector));
+  }
+
+  @Test
+  void whenConnectorUnusedForMaxIdleTime_openNewConnector() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+
+    SystemClockTestSupport.increment(JmxMetricsSource.MAX_IDLE_SECONDS + 1);
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+
+    assertThat(JmxMetricsSource.getNumConnections(), equalTo(2L));
+  }
+
+  @Test
+  void whenConnectorExpiresDuringScrape_keepItOpenUntilScrapeCompletes() throws Exception {
+    final CompletableFuture<Map<String, Object>> slowScrape = startSlowScrape();
+
+    SystemClockTestSupport.increment(JmxMetricsSource.MAX_IDLE_SECONDS + 1);
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+
+    assertThat(connectorServer.getConnectionIds().length, equalTo(2));
+    releaseRead.countDown();
+    assertThat(slowScrape.get(10, TimeUnit.SECONDS), hasEntry("heapFreeCurrent{name=\"remoteServer\"}", 100));
+    assertThat(connectorServer.getConnectionIds().length, equalTo(1));
+  }
+
+  @Test
+  void whenConnectorEvictedDuringScrape_keepItOpenUntilScrapeCompletes() throws Exception {
+    final CompletableFuture<Map<String, Object>> slowScrape = startSlowScrape();
+
+    JmxMetricsSource.clear();
+
+    assertThat(connectorServer.getConnectionIds().length, equalTo(1));
+    releaseRead.countDown();
+    slowScrape.get(10, TimeUnit.SECONDS);
+    assertThat(connectorServer.getConnectionIds().length, equalTo(0));
+  }
+
+  // Starts a scrape which waits, while using its connector, until the read is released.
+  private CompletableFuture<Map<String, Object>> startSlowScrape() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    blockNextRead.set(true);
+    final CompletableFuture<Map<String, Object>> slowScrape = CompletableFuture.supplyAsync(this::readMetrics);
+    assertThat(readBlocked.await(10, TimeUnit.SECONDS), is(true));
+    return slowScrape;
+  }
+
+  private Map<String, Object> readMetrics() {
+    try {
+      return JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  void whenCredentialsRevokedWhileConnectorInUse_rejectThemAfterMaxAge() throws Exception {
+    JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+    validPassword = "newPassword";
+
+    for (long elapsed = 0; elapsed <= JmxMetricsSource.MAX_AGE_SECONDS; elapsed += JmxMetricsSource.MAX_IDLE_SECONDS) {
+      JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector);
+      SystemClockTestSupport.increment(JmxMetricsSource.MAX_IDLE_SECONDS);
+    }
+
+    assertThrows(AuthenticationChallengeException.class,
+          () -> JmxMetricsSource.get(url, toCredentials(USER, PASSWORD)).getMetrics(null, selector));
+  }
+
+  @Test
+  void whenConnectorServerDoesNotAnswer_stopWaitingAfterQueryTimeout() throws Exception {
+    LiveConfiguration.loadFromString("queryTimeoutMillis: 200\n" + CONFIG);
+    try (ServerSocket silentServer = new ServerSocket(0)) {
+      final String silentUrl = "service:jmx:rmi:///jndi/rmi://localhost:" + silentServer.getLocalPort() + "/jmxrmi";
+
+      assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertThrows(RestPortConnectionException.class,
+            () -> JmxMetricsSource.get(silentUrl, toCredentials(USER, PASSWORD)).getMetrics(null, selector)));
+    }
+  }
+}
@@ -7,6 +7,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -18,6 +19,8 @@ import com.google.common.collect.ImmutableMap;
 import com.meterware.simplestub.Memento;
 import com.meterware.simplestub.StaticStubSupport;
 import com.meterware.simplestub.SystemPropertySupport;
+import com.oracle.wls.exporter.domain.ExporterConfig;
+import com.oracle.wls.exporter.domain.FilterStrategy;
 import com.oracle.wls.exporter.javax.HttpServletRequestStub;
 import com.oracle.wls.exporter.javax.ServletUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -27,8 +30,12 @@ import org.junit.jupiter.api.Test;
 import static com.oracle.wls.exporter.MetricsStreamTest.LocaleSupport.setFrenchLocale;
 import static com.oracle.wls.exporter.matchers.PrometheusMetricsMatcher.followsPrometheusRules;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.not;
 
 /**
  * @author Russell Gold
@@ -75,6 +82,7 @@ class MetricsStreamTest {
 
     private String getPrintedMetrics() {
         metrics.printPlatformMetrics();
+        metrics.close();
         return baos.toString();
     }
 
@@ -115,6 +123,112 @@ class MetricsStreamTest {
         return metricLine.substring(metricLine.lastIndexOf(' ') + 1);
     }
 
+    @Test
+    void whenMetricsPrinted_precedeEachFamilyWithGaugeType() {
+        metrics.printMetric("a{name=\"x\"}", 1);
+        metrics.printMetric("a{name=\"y\"}", 2);
+
+        assertThat(getPrintedMetrics(), containsString("# TYPE a gauge\na{name=\"x\"} 1\na{name=\"y\"} 2\n"));
+    }
+
+    @Test
+    void whenMetricDeclaredAsCounter_typeItAsCounter() {
+        initMetricsStream(ExpositionFormat.TEXT, "a");
+        metrics.printMetric("a{name=\"x\"}", 1);
+
+        assertThat(getPrintedMetrics(), containsString("# TYPE a counter\na{name=\"x\"} 1\n"));
+    }
+
+    @Test
+    void typeCumulativePlatformMetricsAsCounters() {
+        assertThat(getPrintedMetrics(), allOf(
+                containsString("# TYPE exporter_split_queries_total counter"),
+                containsString("# TYPE wls_scrape_duration_seconds gauge")));
+    }
+
+    private void initMetricsStream(ExpositionFormat format, String... counterNames) {
+        baos = new ByteArrayOutputStream();
+        metrics = new MetricsStream(INSTANCE, new PrintStream(baos), performanceProbe, format,
+              new HashSet<>(Arrays.asList(counterNames)));
+    }
+
+    @Test
+    void whenOpenMetricsRequested_nameCounterSamplesWithTotalSuffix() {
+        initMetricsStream(ExpositionFormat.OPENMETRICS, "invocationTotalCount");
+        metrics.printMetric("invocationTotalCount{name=\"x\"}", 7);
+
+        assertThat(getPrintedMetrics(),
+                containsString("# TYPE invocationTotalCount counter\ninvocationTotalCount_total{name=\"x\"} 7\n"));
+    }
+
+    @Test
+    void whenOpenMetricsRequested_nameCounterFamilyWithoutTotalSuffix() {
+        initMetricsStream(ExpositionFormat.OPENMETRICS);
+
+        assertThat(getPrintedMetrics(), allOf(
+                containsString("# TYPE exporter_split_queries counter\n"),
+                containsString("exporter_split_queries_total{instance=")));
+    }
+
+    @Test
+    void whenOpenMetricsRequested_omitCommentsAndEndWithEof() {
+        initMetricsStream(ExpositionFormat.OPENMETRICS);
+        metrics.printComment("# This query failed");
+        metrics.printPlatformMetrics();
+        metrics.close();
+
+        assertThat(baos.toString(), allOf(not(containsString("# This query failed")), endsWith("# EOF\n")));
+    }
+
+    @Test
+    void whenTextRequested_printComments() {
+        metrics.printComment("# This query failed");
+        metrics.close();
+
+        assertThat(baos.toString(), containsString("# This query failed"));
+    }
+
+    @Test
+    void whenProtobufRequested_writeDelimitedMetricFamilies() {
+        initMetricsStream(ExpositionFormat.PROTOBUF, "b");
+        metrics.printMetric("a{name=\"x\",server=\"s1\"}", 1);
+        metrics.printMetric("a{name=\"y\",server=\"s1\"}", 2.5);
+        metrics.printMetric("b", 3);
+        metrics.close();
+
+        final List<ProtobufReader> families = ProtobufReader.readDelimited(baos.toByteArray());
+        assertThat(families.size(), equalTo(2));
+        assertThat(families.get(0).getString(1), equalTo("a"));
+        assertThat(families.get(0).getVarint(3), equalTo(1L));
+        assertThat(families.get(0).getMessages(4).size(), equalTo(2));
+        assertThat(families.get(1).getString(1), equalTo("b"));
+        assertThat(families.get(1).getVarint(3), equalTo(0L));
+    }
+
+    @Test
+    void whenProtobufRequested_encodeLabelsAndValues() {
+        initMetricsStream(ExpositionFormat.PROTOBUF);
+        metrics.printMetric("a{name=\"x\",server=\"s1\"}", 2.5);
+        metrics.close();
+
+        final ProtobufReader metric = ProtobufReader.readDelimited(baos.toByteArray()).get(0).getMessage(4);
+        final List<ProtobufReader> labels = metric.getMessages(1);
+        assertThat(labels.get(0).getString(1), equalTo("name"));
+        assertThat(labels.get(0).getString(2), equalTo("x"));
+        assertThat(labels.get(1).getString(1), equalTo("server"));
+        assertThat(labels.get(1).getString(2), equalTo("s1"));
+        assertThat(metric.getMessage(2).getDouble(1), equalTo(2.5));
+    }
+
+    @Test
+    void whenProtobufRequested_omitNonNumericSamples() {
+        initMetricsStream(ExpositionFormat.PROTOBUF);
+        metrics.printMetric("a", "running");
+        metrics.close();
+
+        assertThat(baos.toByteArray().length, equalTo(0));
+    }
+
     @Test
     void afterMetricsScraped_reportScrapedCount() {
         metrics.printMetric("a", 12);
@@ -150,9 +264,93 @@ class MetricsStreamTest {
                 containsString(getQualifiedPlatformMetricName("wls_scrape_cpu_seconds") + " 3.20"));
     }
 
+    @Test
+    void whenErrorsLogged_reportCountsByType() throws NoSuchFieldException {
+        final ErrorLog errorLog = new ErrorLog();
+        mementos.add(StaticStubSupport.install(LiveConfiguration.class, "errorLog", errorLog));
+        errorLog.log(new WebClientException("Unable to reach server"));
+        errorLog.log(new WebClientException("Unable to reach server"));
+
+        assertThat(getPrintedMetrics(),
+                containsString("exporter_errors_total{instance=\"" + INSTANCE + "\",type=\"WebClientException\"} 2"));
+    }
+
+    @Test
+    void reportHedgedRequestCounts() {
+        assertThat(getPrintedMetrics(), allOf(
+                containsString(getQualifiedPlatformMetricName("exporter_hedged_requests_total") + " "),
+                containsString(getQualifiedPlatformMetricName("exporter_hedged_requests_won_total") + " ")));
+    }
+
+    @Test
+    void reportSkippedQueryCount() {
+        assertThat(getPrintedMetrics(),
+                containsString(getQualifiedPlatformMetricName("exporter_queries_skipped_total") + " "));
+    }
+
+    @Test
+    void reportQueryCacheHitCount() {
+        assertThat(getPrintedMetrics(),
+                containsString(getQualifiedPlatformMetricName("exporter_query_cache_hits_total") + " "));
+    }
+
+    @Test
+    void reportSplitQueryCount() {
+        assertThat(getPrintedMetrics(),
+                containsString(getQualifiedPlatformMetricName("exporter_split_queries_total") + " "));
+    }
+
+    @Test
+    void reportQuerySuccessForEachQuery() {
+        metrics.recordQueryResult("groups", true);
+        metrics.recordQueryResult("clubs", false);
+
+        assertThat(getPrintedMetrics(), allOf(
+                containsString("wls_scrape_query_success{instance=\"" + INSTANCE + "\",query=\"groups\"} 1"),
+                containsString("wls_scrape_query_success{instance=\"" + INSTANCE + "\",query=\"clubs\"} 0")));
+    }
+
+    @Test
+    void reportFilterStrategyForFilteredQueries() {
+        metrics.recordFilterStrategy("groups", FilterStrategy.CLIENT);
+
+        assertThat(getPrintedMetrics(),
+                containsString("wls_scrape_query_filter_strategy{instance=\"" + INSTANCE + "\",query=\"groups\",strategy=\"client\"} 1"));
+    }
+
+    @Test
+    void whenQueryNamesRepeated_makeThemUnique() {
+        metrics.recordQueryResult("groups", true);
+        metrics.recordQueryResult("groups", false);
+
+        assertThat(getPrintedMetrics(), allOf(
+                containsString("wls_scrape_query_success{instance=\"" + INSTANCE + "\",query=\"groups\"} 1"),
+                containsString("wls_scrape_query_success{instance=\"" + INSTANCE + "\",query=\"groups#2\"} 0")));
+    }
+
+    @Test
+    void whenConcurrencyNotLimited_dontReportLimit() {
+        assertThat(getPrintedMetrics(), not(containsString("exporter_concurrency_limit")));
+    }
+
+    @Test
+    void whenConcurrencyLimited_reportLimitAndQueueLength() {
+        ConcurrencyLimiter.configure(ExporterConfig.loadConfig("concurrency:\n  initialLimit: 3\nqueries:\n")
+              .getConcurrencyConfiguration());
+        try {
+            assertThat(getPrintedMetrics(), allOf(
+                    containsString(getQualifiedPlatformMetricName("exporter_concurrency_limit") + " 3"),
+                    containsString(getQualifiedPlatformMetricName("exporter_concurrency_queue_length") + " 0"),
+                    containsString(getQualifiedPlatformMetricName("exporter_scrapes_shed_total") + " ")));
+        } finally {
+            ConcurrencyLimiter.configure(null);
+        }
+    }
+
     @Test
     void includeVersionStringInMetrics() {
         metrics.printPlatformMetrics();
+        metrics.close();
 
         assertThat(baos.toString(), containsString(LiveConfiguration.getVersionString()));
      }
@@ -170,6 +368,7 @@ class MetricsStreamTest {
         mementos.add(setFrenchLocale());
 
         metrics.printMetric("scraped value", 3.14);
+        metrics.close();
 
         assertThat(baos.toString(), containsString("."));
     }
@@ -179,6 +378,7 @@ class MetricsStreamTest {
         mementos.add(setFrenchLocale());
 
         metrics.printPlatformMetrics();
+        metrics.close();
 
         assertThat(baos.toString(), containsString("."));
     }
@@ -0,0 +1,399 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.meterware.simplestub.Memento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricsSubscriptionsTest {
+
+  private static final String QUERY_CONFIG = "queries:\n- groups:\n    key: name\n"
+        + "    values: [testSample1, testSample2]\n";
+  private static final String GROUPED_QUERY_CONFIG = "queries:"
+        + "\n- group: fast\n  groups:\n    key: name\n    values: [testSample1, testSample2]"
+        + "\n- group: slow\n  clubs:\n    key: name\n    values: testSample3\n";
+  private static final String CREDENTIALS = "Basic dXNlcjpwYXNz";
+  private static final String OTHER_CREDENTIALS = "Basic b3RoZXI6cGFzcw==";
+
+  private final WebClientFactoryStub factory = new WebClientFactoryStub();
+  private final MetricsSubscriptions subscriptions
+        = new MetricsSubscriptions(factory, "myServer", () -> UrlBuilder.create(false).withHostName("myhost").withPort(7001));
+  private final List<Memento> mementos = new ArrayList<>();
+  private final List<MetricsSubscriptions.Subscription> opened = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    mementos.add(SystemClockTestSupport.installClock());
+    AuthenticatedCall.clearCookies();
+    QueryResultCache.clear();
+    MetricsSubscriptions.clear();
+    configure("");
+  }
+
+  @AfterEach
+  void tearDown() {
+    opened.forEach(MetricsSubscriptions.Subscription::close);
+    MetricsSubscriptions.clear();
+    LiveConfiguration.loadFromString("");
+    mementos.forEach(Memento::revert);
+  }
+
+  private void configure(String subscriptionSettings) {
+    LiveConfiguration.loadFromString("subscriptions:\n" + subscriptionSettings + QUERY_CONFIG);
+  }
+
+  private void addResponse(int sample1, int sample2) {
+    factory.addJsonResponse("{\"groups\": {\"items\": [\n"
+          + "  {\"name\": \"alpha\", \"testSample1\": " + sample1 + ", \"testSample2\": " + sample2 + "}\n"
+          + "]}}");
+  }
+
+  private MetricsSubscriptions.Subscription subscribe(String... metricNames) throws SubscriptionRejectedException {
+    return subscribeAs(CREDENTIALS, metricNames);
+  }
+
+  private MetricsSubscriptions.Subscription subscribeAs(String credentials, String... metricNames)
+        throws SubscriptionRejectedException {
+    final MetricsSubscriptions.Subscription subscription
+          = subscriptions.subscribe(credentials, Arrays.asList(metricNames));
+    opened.add(subscription);
+    return subscription;
+  }
+
+  private List<String> receive(MetricsSubscriptions.Subscription subscription) throws InterruptedException {
+    return subscription.awaitSamples(0, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void whenSubscriptionsNotConfigured_rejectSubscriber() {
+    LiveConfiguration.loadFromString(QUERY_CONFIG);
+
+    final SubscriptionRejectedException exception = assertThrows(SubscriptionRejectedException.class, this::subscribe);
+
+    assertThat(exception.getStatus(), equalTo(HTTP_NOT_FOUND));
+  }
+
+  @Test
+  void whenSubscribed_receiveLatestValuesOfSelectedMetrics() throws Exception {
+    addResponse(1, 2);
+
+    final MetricsSubscriptions.Subscription subscription = subscribe("testSample1");
+
+    assertThat(receive(subscription), contains("testSample1{name=\"alpha\"} 1"));
+  }
+
+  @Test
+  void whenNoMetricsSelected_receiveAllMetrics() throws Exception {
+    addResponse(1, 2);
+
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+
+    assertThat(receive(subscription), contains("testSample1{name=\"alpha\"} 1", "testSample2{name=\"alpha\"} 2"));
+  }
+
+  @Test
+  void whenSelectedNameEndsWithWildcard_receiveMetricsWithPrefix() throws Exception {
+    addResponse(1, 2);
+
+    final MetricsSubscriptions.Subscription subscription = subscribe("testSample*");
+
+    assertThat(receive(subscription), contains("testSample1{name=\"alpha\"} 1", "testSample2{name=\"alpha\"} 2"));
+  }
+
+  @Test
+  void afterCollection_receiveOnlyChangedSamples() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+    receive(subscription);
+
+    addResponse(1, 3);
+    subscriptions.collect(true);
+
+    assertThat(receive(subscription), contains("testSample2{name=\"alpha\"} 3"));
+  }
+
+  @Test
+  void whenNothingChanged_receiveNothing() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+    receive(subscription);
+
+    addResponse(1, 2);
+    subscriptions.collect(true);
+
+    assertThat(receive(subscription), empty());
+  }
+
+  @Test
+  void whenIntervalHasNotPassed_dontRunQueries() throws Exception {
+    configure("  intervalSeconds: 10\n");
+    addResponse(1, 2);
+    subscribe();
+
+    SystemClockTestSupport.increment(5);
+    subscriptions.collect(false);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+  }
+
+  @Test
+  void whenIntervalHasPassed_runQueries() throws Exception {
+    configure("  intervalSeconds: 10\n");
+    addResponse(1, 2);
+    subscribe();
+
+    SystemClockTestSupport.increment(10);
+    addResponse(1, 3);
+    subscriptions.collect(false);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  @Test
+  void subscribersWithSameCredentials_shareQueries() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription first = subscribe("testSample1");
+    final MetricsSubscriptions.Subscription second = subscribe("testSample2");
+
+    addResponse(5, 6);
+    subscriptions.collect(true);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+    assertThat(receive(first), contains("testSample1{name=\"alpha\"} 1", "testSample1{name=\"alpha\"} 5"));
+    assertThat(receive(second), contains("testSample2{name=\"alpha\"} 2", "testSample2{name=\"alpha\"} 6"));
+  }
+
+  @Test
+  void whenGroupNamed_runOnlyItsQueries() throws Exception {
+    LiveConfiguration.loadFromString("subscriptions:\n" + GROUPED_QUERY_CONFIG);
+    addResponse(1, 2);
+
+    final MetricsSubscriptions.Subscription subscription = subscribeToGroup("fast", CREDENTIALS);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(1));
+    assertThat(receive(subscription), contains("testSample1{name=\"alpha\"} 1", "testSample2{name=\"alpha\"} 2"));
+  }
+
+  private MetricsSubscriptions.Subscription subscribeToGroup(String group, String credentials)
+        throws SubscriptionRejectedException {
+    final MetricsSubscriptions.Subscription subscription
+          = subscriptions.subscribe(credentials, group, Collections.emptyList());
+    opened.add(subscription);
+    return subscription;
+  }
+
+  @Test
+  void whenUndefinedGroupNamed_rejectSubscriber() {
+    LiveConfiguration.loadFromString("subscriptions:\n" + GROUPED_QUERY_CONFIG);
+
+    final SubscriptionRejectedException exception
+          = assertThrows(SubscriptionRejectedException.class, () -> subscribeToGroup("unknown", CREDENTIALS));
+
+    assertThat(exception.getStatus(), equalTo(HTTP_NOT_FOUND));
+  }
+
+  @Test
+  void subscribersNamingDifferentGroups_runSeparateQueries() throws Exception {
+    LiveConfiguration.loadFromString("subscriptions:\n" + GROUPED_QUERY_CONFIG);
+    addResponse(1, 2);
+    subscribeToGroup("fast", CREDENTIALS);
+    factory.addJsonResponse("{\"clubs\": {\"items\": [{\"name\": \"aleph\", \"testSample3\": 3}]}}");
+    final MetricsSubscriptions.Subscription slow = subscribeToGroup("slow", CREDENTIALS);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+    assertThat(receive(slow), contains("testSample3{name=\"aleph\"} 3"));
+  }
+
+  @Test
+  void subscribersWithDifferentCredentials_runSeparateQueries() throws Exception {
+    addResponse(1, 2);
+    subscribeAs(CREDENTIALS);
+    addResponse(1, 2);
+    subscribeAs(OTHER_CREDENTIALS);
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  @Test
+  void whenSubscriberFallsBehind_dropOldestSamples() throws Exception {
+    configure("  queueCapacity: 2\n");
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+
+    addResponse(3, 4);
+    subscriptions.collect(true);
+
+    assertThat(receive(subscription), contains("testSample1{name=\"alpha\"} 3", "testSample2{name=\"alpha\"} 4"));
+    assertThat(MetricsSubscriptions.getNumEventsDropped(), equalTo(2L));
+  }
+
+  @Test
+  void whenSamplesReceived_countThem() throws Exception {
+    addResponse(1, 2);
+    receive(subscribe());
+
+    assertThat(MetricsSubscriptions.getNumEventsSent(), equalTo(2L));
+  }
+
+  @Test
+  void countConnectedSubscribers() throws Exception {
+    addResponse(1, 2);
+    subscribe();
+    subscribe().close();
+
+    assertThat(MetricsSubscriptions.getNumSubscribers(), equalTo(1));
+  }
+
+  @Test
+  void whenTooManySubscribers_rejectSubscriber() throws Exception {
+    configure("  maxSubscribers: 1\n");
+    addResponse(1, 2);
+    subscribe();
+
+    final SubscriptionRejectedException exception = assertThrows(SubscriptionRejectedException.class, this::subscribe);
+
+    assertThat(exception.getStatus(), equalTo(HTTP_UNAVAILABLE));
+  }
+
+  @Test
+  void whenSubscriberRejected_dontCountIt() throws Exception {
+    configure("  maxSubscribers: 1\n");
+    addResponse(1, 2);
+    subscribe();
+
+    assertThrows(SubscriptionRejectedException.class, this::subscribe);
+
+    assertThat(MetricsSubscriptions.getNumSubscribers(), equalTo(1));
+  }
+
+  @Test
+  void afterSubscriberCloses_acceptAnother() throws Exception {
+    configure("  maxSubscribers: 1\n");
+    addResponse(1, 2);
+    subscribe().close();
+
+    addResponse(1, 2);
+    subscribe();
+
+    assertThat(MetricsSubscriptions.getNumSubscribers(), equalTo(1));
+  }
+
+  @Test
+  void afterLastSubscriberCloses_nextSubscriberReceivesLaterCollections() throws Exception {
+    addResponse(1, 2);
+    subscribe().close();
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+    receive(subscription);
+
+    addResponse(1, 3);
+    subscriptions.collect(true);
+
+    assertThat(receive(subscription), contains("testSample2{name=\"alpha\"} 3"));
+  }
+
+  @Test
+  void afterLastSubscriberCloses_nextSubscriberRunsQueries() throws Exception {
+    addResponse(1, 2);
+    subscribe().close();
+
+    addResponse(1, 2);
+    subscribe();
+
+    assertThat(factory.getNumQueriesSent(), equalTo(2));
+  }
+
+  @Test
+  void whenServerRequiresAuthentication_rejectSubscriberWithChallenge() {
+    factory.reportAuthenticationRequired("Test-Realm");
+
+    final SubscriptionRejectedException exception = assertThrows(SubscriptionRejectedException.class, this::subscribe);
+
+    assertThat(exception.getStatus(), equalTo(HTTP_UNAUTHORIZED));
+    assertThat(exception.getChallenge(), equalTo("Basic realm=\"Test-Realm\""));
+  }
+
+  @Test
+  void whenServerCannotBeReached_rejectSubscriber() {
+    factory.throwConnectionFailure("myhost", 7001);
+
+    final SubscriptionRejectedException exception = assertThrows(SubscriptionRejectedException.class, this::subscribe);
+
+    assertThat(exception.getStatus(), equalTo(HTTP_INTERNAL_ERROR));
+  }
+
+  @Test
+  void whenCredentialsLaterRejected_endSubscription() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+
+    factory.reportNotAuthorized();
+    subscriptions.collect(true);
+
+    assertThat(subscription.isClosed(), is(true));
+    assertThat(subscription.getEndReason(), notNullValue());
+  }
+
+  @Test
+  void whenLaterQueryFails_reportFailureToSubscriber() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+
+    factory.throwConnectionFailure("myhost", 7001);
+    subscriptions.collect(true);
+
+    assertThat(subscription.isClosed(), is(false));
+    assertThat(subscription.takeFailure(), notNullValue());
+  }
+
+  @Test
+  void whenSubscriptionsNoLongerConfigured_endSubscription() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe();
+
+    LiveConfiguration.loadFromString(QUERY_CONFIG);
+    subscriptions.collect(false);
+
+    assertThat(subscription.isClosed(), is(true));
+    assertThat(subscription.getEndReason(), containsString("no longer configured"));
+  }
+
+  @Test
+  void whenNoSamplesArrive_awaitReturnsEmptyList() throws Exception {
+    addResponse(1, 2);
+    final MetricsSubscriptions.Subscription subscription = subscribe("noSuchMetric");
+
+    assertThat(subscription.awaitSamples(10, TimeUnit.MILLISECONDS), equalTo(Collections.emptyList()));
+  }
+
+  @Test
+  void whenSubscriptionsConfigured_exporterMetricsIncludeSubscriptionCounts() throws Exception {
+    addResponse(1, 2);
+    final InvocationContextStub context = InvocationContextStub.create();
+    new ExporterCall(factory, context).doWithAuthentication();
+
+    assertThat(context.getResponse(), containsString(MetricsStream.SUBSCRIPTION_EVENTS_DROPPED));
+  }
+}
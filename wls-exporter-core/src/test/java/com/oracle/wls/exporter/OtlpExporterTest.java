@@ -0,0 +1,422 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import com.meterware.simplestub.Memento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.oracle.wls.exporter.OtlpExporter.PROTOBUF_CONTENT_TYPE;
+import static com.oracle.wls.exporter.OtlpExporter.SERVICE_INSTANCE_ATTRIBUTE;
+import static com.oracle.wls.exporter.OtlpExporter.SERVICE_NAME;
+import static com.oracle.wls.exporter.OtlpExporter.SERVICE_NAME_ATTRIBUTE;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_ENCODING_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_TYPE_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.GZIP_ENCODING;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+class OtlpExporterTest {
+
+  private static final String METRICS_PATH = "/v1/metrics";
+  private static final String QUERY_CONFIG = "queries:\n- groups:\n    key: name\n"
+        + "    values: [testSample1, invocations]\n    counters: [invocations]\n";
+  private static final int INTERVAL_SECONDS = 60;
+
+  private static final int REQUEST_RESOURCE_METRICS = 1;
+  private static final int RESOURCE_METRICS_RESOURCE = 1;
+  private static final int RESOURCE_METRICS_SCOPE_METRICS = 2;
+  private static final int RESOURCE_ATTRIBUTES = 1;
+  private static final int SCOPE_METRICS_METRICS = 2;
+  private static final int METRIC_NAME = 1;
+  private static final int METRIC_GAUGE = 5;
+  private static final int METRIC_SUM = 7;
+  private static final int DATA_POINTS = 1;
+  private static final int SUM_TEMPORALITY = 2;
+  private static final int SUM_IS_MONOTONIC = 3;
+  private static final int POINT_START_TIME = 2;
+  private static final int POINT_TIME = 3;
+  private static final int POINT_AS_DOUBLE = 4;
+  private static final int POINT_ATTRIBUTES = 7;
+  private static final int KEY_VALUE_KEY = 1;
+  private static final int KEY_VALUE_VALUE = 2;
+  private static final int ANY_VALUE_STRING = 1;
+  private static final int DELTA = 1;
+  private static final int CUMULATIVE = 2;
+
+  private final WebClientFactoryStub factory = new WebClientFactoryStub();
+  private final OtlpExporter exporter
+        = new OtlpExporter(factory, "exportingServer", () -> UrlBuilder.create(false).withHostName("myhost").withPort(7001));
+  private final List<Memento> mementos = new ArrayList<>();
+  private final PushReceiver receiver = new PushReceiver(METRICS_PATH);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    mementos.add(SystemClockTestSupport.installClock());
+    AuthenticatedCall.clearCookies();
+    QueryResultCache.clear();
+    OtlpExporter.clear();
+    receiver.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    receiver.stop();
+    OtlpExporter.clear();
+    LiveConfiguration.loadFromString("");
+    mementos.forEach(Memento::revert);
+  }
+
+  private void configure(String otlpSettings) {
+    LiveConfiguration.loadFromString("otlp:\n  url: " + receiver.getUrl() + "\n" + otlpSettings + QUERY_CONFIG);
+  }
+
+  private void startExporter() {
+    OtlpExporter.start(factory, "exportingServer", () -> UrlBuilder.create(false).withHostName("myhost").withPort(7001));
+  }
+
+  @Test
+  void whenStartedWithoutOtlpConfigured_dontStartThread() {
+    LiveConfiguration.loadFromString(QUERY_CONFIG);
+
+    startExporter();
+
+    assertThat(OtlpExporter.isScheduled(), is(false));
+  }
+
+  @Test
+  void whenOtlpConfiguredAfterStart_startThread() {
+    LiveConfiguration.loadFromString(QUERY_CONFIG);
+    startExporter();
+
+    configure("");
+
+    assertThat(OtlpExporter.isScheduled(), is(true));
+  }
+
+  @Test
+  void whenOtlpRemovedFromConfiguration_endThread() {
+    configure("");
+    startExporter();
+
+    LiveConfiguration.loadFromString(QUERY_CONFIG);
+
+    assertThat(OtlpExporter.isScheduled(), is(false));
+  }
+
+  @Test
+  void afterStop_endThreadEvenIfOtlpConfigured() {
+    configure("");
+    startExporter();
+
+    OtlpExporter.stop();
+    configure("");
+
+    assertThat(OtlpExporter.isScheduled(), is(false));
+  }
+
+  // Runs the queries, which return the specified values for servers alpha and beta.
+  private void export(int alphaSample, int alphaInvocations, int betaSample, int betaInvocations) {
+    factory.addJsonResponse("{\"groups\": {\"items\": [\n"
+          + "  {\"name\": \"alpha\", \"testSample1\": " + alphaSample + ", \"invocations\": " + alphaInvocations + "},\n"
+          + "  {\"name\": \"beta\", \"testSample1\": " + betaSample + ", \"invocations\": " + betaInvocations + "}\n"
+          + "]}}");
+    receiver.getRequests().clear();
+    exporter.export(LiveConfiguration.getOtlpConfiguration());
+    SystemClockTestSupport.increment(INTERVAL_SECONDS);
+  }
+
+  @Test
+  void whenExported_requestIsGzippedProtobuf() {
+    configure("");
+
+    export(1, 10, 2, 20);
+
+    assertThat(receiver.getRequests().get(0).getHeaders().getFirst(CONTENT_TYPE_HEADER), equalTo(PROTOBUF_CONTENT_TYPE));
+    assertThat(receiver.getRequests().get(0).getHeaders().getFirst(CONTENT_ENCODING_HEADER), equalTo(GZIP_ENCODING));
+  }
+
+  @Test
+  void whenExported_resourceIdentifiesServer() {
+    configure("");
+
+    export(1, 10, 2, 20);
+
+    final ProtobufReader resource = getResourceMetrics().get(0).getMessage(RESOURCE_METRICS_RESOURCE);
+    assertThat(getAttributes(resource.getMessages(RESOURCE_ATTRIBUTES)),
+          containsInAnyOrder(SERVICE_NAME_ATTRIBUTE + "=" + SERVICE_NAME, SERVICE_INSTANCE_ATTRIBUTE + "=exportingServer"));
+  }
+
+  @Test
+  void whenExported_sendGaugeForEachSeries() {
+    configure("");
+
+    export(1, 10, 2, 20);
+
+    final ProtobufReader metric = getMetric("testSample1");
+    assertThat(metric.hasField(METRIC_GAUGE), is(true));
+    assertThat(getPointValues(metric.getMessage(METRIC_GAUGE)), containsInAnyOrder("name=alpha:1.0", "name=beta:2.0"));
+  }
+
+  @Test
+  void withDeltaTemporality_firstExportOmitsCounters() {
+    configure("");
+
+    export(1, 10, 2, 20);
+
+    assertThat(getMetricNames(), not(hasItem("invocations")));
+  }
+
+  @Test
+  void withDeltaTemporality_sendChangeInCounterAsMonotonicSum() {
+    configure("");
+    export(1, 10, 2, 20);
+
+    export(1, 15, 2, 27);
+
+    final ProtobufReader sum = getMetric("invocations").getMessage(METRIC_SUM);
+    assertThat(sum.getVarint(SUM_TEMPORALITY), equalTo((long) DELTA));
+    assertThat(sum.getVarint(SUM_IS_MONOTONIC), equalTo(1L));
+    assertThat(getPointValues(sum), containsInAnyOrder("name=alpha:5.0", "name=beta:7.0"));
+  }
+
+  @Test
+  void withDeltaTemporality_sumCoversTimeSincePreviousExport() {
+    configure("");
+    final long firstExportNanos = currentTimeNanos();
+    export(1, 10, 2, 20);
+    final long secondExportNanos = currentTimeNanos();
+
+    export(1, 15, 2, 27);
+
+    final ProtobufReader point = getMetric("invocations").getMessage(METRIC_SUM).getMessages(DATA_POINTS).get(0);
+    assertThat(point.getVarint(POINT_START_TIME), equalTo(firstExportNanos));
+    assertThat(point.getVarint(POINT_TIME), equalTo(secondExportNanos));
+  }
+
+  private long currentTimeNanos() {
+    return TimeUnit.MILLISECONDS.toNanos(SystemClock.now().toInstant().toEpochMilli());
+  }
+
+  @Test
+  void whenCounterResets_sendItsNewValueAsDelta() {
+    configure("");
+    export(1, 10, 2, 20);
+
+    export(1, 3, 2, 20);
+
+    assertThat(getPointValues(getMetric("invocations").getMessage(METRIC_SUM)), contains("name=alpha:3.0"));
+  }
+
+  @Test
+  void whenSeriesUnchanged_omitThem() {
+    configure("");
+    export(1, 10, 2, 20);
+
+    export(1, 10, 3, 25);
+
+    assertThat(getPointValues(getMetric("testSample1").getMessage(METRIC_GAUGE)), contains("name=beta:3.0"));
+    assertThat(getPointValues(getMetric("invocations").getMessage(METRIC_SUM)), contains("name=beta:5.0"));
+    assertThat(OtlpExporter.getNumDataPointsUnchanged(), greaterThan(1L));
+  }
+
+  @Test
+  void whenAllQueriedSeriesUnchanged_sendNoneOfThem() {
+    configure("");
+    export(1, 10, 2, 20);
+
+    export(1, 10, 2, 20);
+
+    assertThat(getMetricNames(), not(hasItem("testSample1")));
+    assertThat(getMetricNames(), not(hasItem("invocations")));
+  }
+
+  @Test
+  void whenSendingUnchangedSeries_includeThem() {
+    configure("  onlyChangedSeries: false\n");
+    export(1, 10, 2, 20);
+
+    export(1, 10, 2, 20);
+
+    assertThat(getPointValues(getMetric("testSample1").getMessage(METRIC_GAUGE)), containsInAnyOrder("name=alpha:1.0", "name=beta:2.0"));
+    assertThat(getPointValues(getMetric("invocations").getMessage(METRIC_SUM)), containsInAnyOrder("name=alpha:0.0", "name=beta:0.0"));
+  }
+
+  @Test
+  void withCumulativeTemporality_sendCounterTotals() {
+    configure("  temporality: cumulative\n");
+
+    export(1, 10, 2, 20);
+
+    final ProtobufReader sum = getMetric("invocations").getMessage(METRIC_SUM);
+    assertThat(sum.getVarint(SUM_TEMPORALITY), equalTo((long) CUMULATIVE));
+    assertThat(getPointValues(sum), containsInAnyOrder("name=alpha:10.0", "name=beta:20.0"));
+  }
+
+  @Test
+  void withCumulativeTemporality_sumStartsWhenSeriesFirstSeen() {
+    configure("  temporality: cumulative\n");
+    final long firstExportNanos = currentTimeNanos();
+    export(1, 10, 2, 20);
+
+    export(1, 15, 2, 27);
+
+    final ProtobufReader point = getMetric("invocations").getMessage(METRIC_SUM).getMessages(DATA_POINTS).get(0);
+    assertThat(point.getVarint(POINT_START_TIME), equalTo(firstExportNanos));
+    assertThat(point.getDouble(POINT_AS_DOUBLE), equalTo(15.0));
+  }
+
+  @Test
+  void whenMoreDataPointsThanBatchSize_sendSeveralRequests() {
+    configure("  maxDataPointsPerRequest: 1\n");
+
+    export(1, 10, 2, 20);
+
+    assertThat(receiver.getRequests().size(), greaterThan(1));
+    assertThat(getDataPointCounts(), everyItem(equalTo(1)));
+  }
+
+  @Test
+  void whenExportSucceeds_countDataPointsAndBytesSent() {
+    configure("");
+
+    export(1, 10, 2, 20);
+
+    assertThat(OtlpExporter.getNumDataPointsSent(), equalTo((long) getDataPointCounts().stream().mapToInt(i -> i).sum()));
+    assertThat(OtlpExporter.getNumBytesSent(), equalTo((long) receiver.getRequests().get(0).getBody().length));
+  }
+
+  @Test
+  void whenCollectorRejectsRequest_countDroppedDataPoints() {
+    configure("");
+    receiver.replyWith(400);
+
+    export(1, 10, 2, 20);
+
+    assertThat(OtlpExporter.getNumDataPointsSent(), equalTo(0L));
+    assertThat(OtlpExporter.getNumDataPointsDropped(), greaterThan(0L));
+  }
+
+  @Test
+  void afterRequestRejected_nextExportSendsChangeSinceLastAcceptedExport() {
+    configure("");
+    export(1, 10, 2, 20);
+    receiver.replyWith(500);
+    export(1, 15, 2, 27);
+
+    export(1, 18, 2, 30);
+
+    assertThat(getPointValues(getMetric("invocations").getMessage(METRIC_SUM)),
+          containsInAnyOrder("name=alpha:8.0", "name=beta:10.0"));
+  }
+
+  @Test
+  void afterRequestRejected_nextExportResendsSeriesWithoutFurtherChange() {
+    configure("");
+    export(1, 10, 2, 20);
+    receiver.replyWith(500);
+    export(3, 10, 4, 20);
+
+    export(3, 10, 4, 20);
+
+    assertThat(getPointValues(getMetric("testSample1").getMessage(METRIC_GAUGE)),
+          containsInAnyOrder("name=alpha:3.0", "name=beta:4.0"));
+  }
+
+  @Test
+  void whenQueriesFail_sendNothing() {
+    configure("");
+    factory.throwConnectionFailure("myhost", 7001);
+
+    exporter.export(LiveConfiguration.getOtlpConfiguration());
+
+    assertThat(receiver.getRequests(), empty());
+  }
+
+  @Test
+  void whenOtlpConfigured_exporterMetricsIncludeOtlpCounts() throws IOException {
+    configure("");
+
+    final InvocationContextStub context = InvocationContextStub.create();
+    new ExporterCall(factory, context).doWithAuthentication();
+
+    assertThat(context.getResponse(), containsString(MetricsStream.OTLP_DATA_POINTS_SENT));
+  }
+
+  private List<ProtobufReader> getResourceMetrics() {
+    return receiver.getRequests().stream()
+          .map(r -> new ProtobufReader(gunzip(r.getBody())))
+          .flatMap(m -> m.getMessages(REQUEST_RESOURCE_METRICS).stream())
+          .collect(Collectors.toList());
+  }
+
+  private List<ProtobufReader> getMetrics() {
+    return getResourceMetrics().stream()
+          .flatMap(r -> r.getMessages(RESOURCE_METRICS_SCOPE_METRICS).stream())
+          .flatMap(s -> s.getMessages(SCOPE_METRICS_METRICS).stream())
+          .collect(Collectors.toList());
+  }
+
+  private List<String> getMetricNames() {
+    return getMetrics().stream().map(m -> m.getString(METRIC_NAME)).collect(Collectors.toList());
+  }
+
+  private ProtobufReader getMetric(String name) {
+    return getMetrics().stream()
+          .filter(m -> name.equals(m.getString(METRIC_NAME)))
+          .findFirst()
+          .orElseThrow(() -> new AssertionError("No metric named " + name));
+  }
+
+  private List<Integer> getDataPointCounts() {
+    return getMetrics().stream()
+          .map(m -> m.getMessage(m.hasField(METRIC_SUM) ? METRIC_SUM : METRIC_GAUGE).getMessages(DATA_POINTS).size())
+          .collect(Collectors.toList());
+  }
+
+  // Describes each data point as its attributes followed by its value, such as "name=alpha:1.0".
+  private List<String> getPointValues(ProtobufReader data) {
+    return data.getMessages(DATA_POINTS).stream()
+          .map(p -> String.join(",", getAttributes(p.getMessages(POINT_ATTRIBUTES))) + ":" + p.getDouble(POINT_AS_DOUBLE))
+          .collect(Collectors.toList());
+  }
+
+  private List<String> getAttributes(List<ProtobufReader> keyValues) {
+    return keyValues.stream()
+          .map(kv -> kv.getString(KEY_VALUE_KEY) + "=" + kv.getMessage(KEY_VALUE_VALUE).getString(ANY_VALUE_STRING))
+          .collect(Collectors.toList());
+  }
+
+  private byte[] gunzip(byte[] compressed) {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[1024];
+      for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+        out.write(buffer, 0, n);
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
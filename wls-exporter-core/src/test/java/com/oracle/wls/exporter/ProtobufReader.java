@@ -0,0 +1,135 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A decoder for protocol buffer messages, used by unit tests to inspect what the exporter has encoded.
+ */
+class ProtobufReader {
+
+  private final byte[] bytes;
+  private final int start;
+  private final int limit;
+  private int position;
+
+  ProtobufReader(byte[] bytes) {
+    this(bytes, 0, bytes.length);
+  }
+
+  private ProtobufReader(byte[] bytes, int start, int limit) {
+    this.bytes = bytes;
+    this.start = start;
+    this.limit = limit;
+    this.position = start;
+  }
+
+  /**
+   * Splits a stream of length-delimited messages into its messages.
+   */
+  static List<ProtobufReader> readDelimited(byte[] bytes) {
+    final List<ProtobufReader> messages = new ArrayList<>();
+    final ProtobufReader stream = new ProtobufReader(bytes);
+    while (stream.position < stream.limit) {
+      final int length = (int) stream.readVarint();
+      messages.add(new ProtobufReader(bytes, stream.position, stream.position + length));
+      stream.position += length;
+    }
+    return messages;
+  }
+
+  /**
+   * Returns the values of the specified field, each as a Long for varint and fixed64 fields,
+   * or as a nested reader for length-delimited fields.
+   */
+  List<Object> getFields(int field) {
+    final List<Object> result = new ArrayList<>();
+    position = start;
+    while (position < limit) {
+      final long tag = readVarint();
+      final Object value = readValue((int) (tag & 7));
+      if ((tag >>> 3) == field) result.add(value);
+    }
+    return result;
+  }
+
+  private Object readValue(int wireType) {
+    switch (wireType) {
+      case 0:
+        return readVarint();
+      case 1:
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++)
+          value |= (bytes[position++] & 0xFFL) << (8 * i);
+        return value;
+      case 2:
+        final int length = (int) readVarint();
+        final ProtobufReader nested = new ProtobufReader(bytes, position, position + length);
+        position += length;
+        return nested;
+      default:
+        throw new IllegalStateException("Unsupported wire type " + wireType);
+    }
+  }
+
+  private long readVarint() {
+    long value = 0;
+    for (int shift = 0; ; shift += 7) {
+      final byte b = bytes[position++];
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return value;
+    }
+  }
+
+  /**
+   * Returns the first value of a nested message field.
+   */
+  ProtobufReader getMessage(int field) {
+    return (ProtobufReader) getFields(field).get(0);
+  }
+
+  /**
+   * Returns the messages in a repeated field.
+   */
+  List<ProtobufReader> getMessages(int field) {
+    final List<ProtobufReader> result = new ArrayList<>();
+    getFields(field).forEach(f -> result.add((ProtobufReader) f));
+    return result;
+  }
+
+  /**
+   * Returns the first value of a string field.
+   */
+  String getString(int field) {
+    return getMessage(field).asString();
+  }
+
+  /**
+   * Returns the first value of a varint field.
+   */
+  long getVarint(int field) {
+    return (Long) getFields(field).get(0);
+  }
+
+  /**
+   * Returns the first value of a double field.
+   */
+  double getDouble(int field) {
+    return Double.longBitsToDouble((Long) getFields(field).get(0));
+  }
+
+  /**
+   * Returns true if the message contains the specified field.
+   */
+  boolean hasField(int field) {
+    return !getFields(field).isEmpty();
+  }
+
+  private String asString() {
+    return new String(bytes, start, limit - start, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A stand-in for a system which receives pushed metrics, used by unit tests. It records each request,
+ * and replies with the specified statuses in turn, then with success.
+ */
+class PushReceiver {
+  private final String path;
+  private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+  private final List<ReceivedRequest> requests = Collections.synchronizedList(new ArrayList<>());
+  private HttpServer server;
+
+  PushReceiver(String path) {
+    this.path = path;
+  }
+
+  void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(path, this::handle);
+    server.start();
+  }
+
+  void stop() {
+    if (server != null) server.stop(0);
+    server = null;
+  }
+
+  String getUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + path;
+  }
+
+  void replyWith(Integer... replyStatuses) {
+    Collections.addAll(statuses, replyStatuses);
+  }
+
+  List<ReceivedRequest> getRequests() {
+    return requests;
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.add(new ReceivedRequest(exchange.getRequestHeaders(), readBody(exchange.getRequestBody())));
+    final Integer status = statuses.poll();
+    exchange.sendResponseHeaders(status == null ? 200 : status, -1);
+    exchange.close();
+  }
+
+  private byte[] readBody(InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[1024];
+    for (int n = in.read(buffer); n >= 0; n = in.read(buffer))
+      out.write(buffer, 0, n);
+    return out.toByteArray();
+  }
+
+  static class ReceivedRequest {
+    private final Headers headers;
+    private final byte[] body;
+
+    ReceivedRequest(Headers headers, byte[] body) {
+      this.headers = headers;
+      this.body = body;
+    }
+
+    Headers getHeaders() {
+      return headers;
+    }
+
+    byte[] getBody() {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,215 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.oracle.wls.exporter.domain.ExporterConfig;
+import com.oracle.wls.exporter.domain.MBeanSelector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryPlannerTest {
+
+  private static final String SPLITTABLE_QUERY = "queries:\n- groups:\n    values: a\n  clubs:\n    values: b\n";
+  private static final String UNSPLITTABLE_QUERY = "queries:\n- groups:\n    values: a\n";
+  private static final long MIN_BYTES = 1000;
+  private static final int MIN_LATENCY = 100;
+
+  private final MBeanSelector selector = loadQuery(SPLITTABLE_QUERY);
+
+  @BeforeEach
+  void setUp() {
+    QueryPlanner.clear();
+    configureSplitting(4);
+  }
+
+  private void configureSplitting(int maxParallelRequests) {
+    QueryPlanner.configure(ExporterConfig.loadConfig(
+          "querySplitting:\n  minResponseBytes: " + MIN_BYTES + "\n  minLatencyMillis: " + MIN_LATENCY
+                + "\n  maxParallelRequests: " + maxParallelRequests + "\nqueries:\n").getQuerySplittingConfiguration());
+  }
+
+  private MBeanSelector loadQuery(String yaml) {
+    return ExporterConfig.loadConfig(yaml).getQueries()[0];
+  }
+
+  @AfterEach
+  void tearDown() {
+    QueryPlanner.configure(null);
+    ConcurrencyLimiter.configure(null);
+    QueryPlanner.clear();
+  }
+
+  @Test
+  void whenNoReplyRecorded_dontSplitQuery() {
+    assertThat(QueryPlanner.getPieces(selector), empty());
+  }
+
+  @Test
+  void whenReplyIsSmallAndFast_dontSplitQuery() {
+    QueryPlanner.recordReply(selector, false, MIN_BYTES - 1, MIN_LATENCY - 1);
+
+    assertThat(QueryPlanner.getPieces(selector), empty());
+  }
+
+  @Test
+  void whenReplyIsLarge_splitQuery() {
+    QueryPlanner.recordReply(selector, false, MIN_BYTES, 1);
+
+    assertThat(QueryPlanner.getPieces(selector), hasSize(2));
+  }
+
+  @Test
+  void whenReplyIsSlow_splitQuery() {
+    QueryPlanner.recordReply(selector, false, 1, MIN_LATENCY);
+
+    assertThat(QueryPlanner.getPieces(selector), hasSize(2));
+  }
+
+  @Test
+  void whenSplittingNotConfigured_dontSplitQuery() {
+    QueryPlanner.configure(null);
+    QueryPlanner.recordReply(selector, false, MIN_BYTES, MIN_LATENCY);
+
+    assertThat(QueryPlanner.getPieces(selector), empty());
+  }
+
+  @Test
+  void whenQueryHasOnlyOneCollection_dontSplitQuery() {
+    final MBeanSelector unsplittable = loadQuery(UNSPLITTABLE_QUERY);
+    QueryPlanner.recordReply(unsplittable, false, MIN_BYTES, MIN_LATENCY);
+
+    assertThat(QueryPlanner.getPieces(unsplittable), empty());
+  }
+
+  @Test
+  void whenSplitRepliesAreSomewhatBelowThresholds_keepQuerySplit() {
+    QueryPlanner.recordReply(selector, true, MIN_BYTES / 2, MIN_LATENCY - 1);
+
+    assertThat(QueryPlanner.getPieces(selector), hasSize(2));
+  }
+
+  @Test
+  void whenSplitRepliesAreWellBelowThresholds_rejoinQuery() {
+    QueryPlanner.recordReply(selector, true, MIN_BYTES / 2 - 1, MIN_LATENCY / 2 - 1);
+
+    assertThat(QueryPlanner.getPieces(selector), empty());
+  }
+
+  @Test
+  void whenPiecesSent_returnRepliesInOrder() throws IOException {
+    final List<MBeanSelector> pieces = selector.getSplitQueries();
+
+    final QueryPlanner.Replies<String> replies = QueryPlanner.sendPieces(pieces, null, MBeanSelector::getQueryName);
+
+    assertThat(replies.getReplies(), contains("groups", "clubs"));
+    assertThat(QueryPlanner.getNumSplitQueries(), equalTo(1L));
+  }
+
+  @Test
+  void whenParallelRequestsPermitted_sendPiecesAtSameTime() throws IOException {
+    final CountDownLatch allStarted = new CountDownLatch(2);
+
+    final QueryPlanner.Replies<Boolean> replies
+          = QueryPlanner.sendPieces(selector.getSplitQueries(), null, p -> awaitOtherPieces(allStarted));
+
+    assertThat(replies.getReplies(), contains(true, true));
+  }
+
+  private boolean awaitOtherPieces(CountDownLatch allStarted) throws IOException {
+    allStarted.countDown();
+    try {
+      return allStarted.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Test
+  void whenOnlyOneRequestPermitted_sendPiecesOnCallingThread() throws IOException {
+    configureSplitting(1);
+    final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    QueryPlanner.sendPieces(selector.getSplitQueries(), null, p -> threads.add(Thread.currentThread()));
+
+    assertThat(threads, contains(Thread.currentThread()));
+  }
+
+  @Test
+  void whenConcurrencyLimitReached_sendPiecesOnCallingThread() throws IOException {
+    configureConcurrencyLimit(1);
+    ConcurrencyLimiter.acquire();
+    final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    QueryPlanner.sendPieces(selector.getSplitQueries(), null, p -> threads.add(Thread.currentThread()));
+
+    assertThat(threads, contains(Thread.currentThread()));
+  }
+
+  private void configureConcurrencyLimit(int limit) {
+    ConcurrencyLimiter.configure(ExporterConfig.loadConfig(
+          "concurrency:\n  initialLimit: " + limit + "\n  minLimit: " + limit + "\nqueries:\n")
+          .getConcurrencyConfiguration());
+  }
+
+  @Test
+  void whilePiecesSentAtSameTime_countThemAgainstConcurrencyLimit() throws IOException {
+    configureConcurrencyLimit(2);
+    ConcurrencyLimiter.acquire();
+    final CountDownLatch allStarted = new CountDownLatch(2);
+    final List<Integer> inFlight = Collections.synchronizedList(new ArrayList<>());
+
+    QueryPlanner.sendPieces(selector.getSplitQueries(), null, p -> {
+      inFlight.add(ConcurrencyLimiter.getCurrent().getInFlight());
+      return awaitOtherPieces(allStarted);
+    });
+
+    assertThat(inFlight, contains(2, 2));
+    assertThat(ConcurrencyLimiter.getCurrent().getInFlight(), equalTo(1));
+  }
+
+  @Test
+  void whenPiecesFail_throwFailureOfFirstFailedPiece() {
+    final IOException exception = assertThrows(IOException.class,
+          () -> QueryPlanner.sendPieces(selector.getSplitQueries(), null, this::fail));
+
+    assertThat(exception.getMessage(), equalTo("groups"));
+  }
+
+  private String fail(MBeanSelector piece) throws IOException {
+    throw new IOException(piece.getQueryName());
+  }
+
+  @Test
+  void whenPieceThrowsRuntimeException_rethrowIt() {
+    assertThrows(IllegalStateException.class,
+          () -> QueryPlanner.sendPieces(selector.getSplitQueries(), null, p -> {
+            throw new IllegalStateException();
+          }));
+  }
+
+  @Test
+  void afterReplyRecorded_piecesAreReusedForQuery() {
+    QueryPlanner.recordReply(selector, false, MIN_BYTES, MIN_LATENCY);
+
+    assertThat(QueryPlanner.getPieces(selector) == QueryPlanner.getPieces(selector), is(true));
+  }
+}
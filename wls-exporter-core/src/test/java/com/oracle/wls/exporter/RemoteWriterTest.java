@@ -0,0 +1,346 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.meterware.simplestub.Memento;
+import com.sun.net.httpserver.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.oracle.wls.exporter.RemoteWriter.METRIC_NAME_LABEL;
+import static com.oracle.wls.exporter.RemoteWriter.PROTOBUF_CONTENT_TYPE;
+import static com.oracle.wls.exporter.RemoteWriter.REMOTE_WRITE_VERSION;
+import static com.oracle.wls.exporter.RemoteWriter.REMOTE_WRITE_VERSION_HEADER;
+import static com.oracle.wls.exporter.RemoteWriter.SNAPPY_ENCODING;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_ENCODING_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.CONTENT_TYPE_HEADER;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+class RemoteWriterTest {
+
+  private static final String WRITE_PATH = "/api/v1/write";
+  private static final String ONE_VALUE_CONFIG = "queries:\n- groups:\n    key: name\n    values: testSample1";
+  private static final String RESPONSE_JSON = "{\"groups\": {\"items\": [\n" +
+        "     {\"name\": \"alpha\", \"testSample1\": 1},\n" +
+        "     {\"name\": \"beta\", \"testSample1\": 2}\n" +
+        "]}}";
+  private static final int WRITE_REQUEST_TIMESERIES = 1;
+  private static final int TIMESERIES_LABELS = 1;
+  private static final int TIMESERIES_SAMPLES = 2;
+  private static final int LABEL_NAME = 1;
+  private static final int LABEL_VALUE = 2;
+  private static final int SAMPLE_VALUE = 1;
+  private static final int SAMPLE_TIMESTAMP = 2;
+
+  private final WebClientFactoryStub factory = new WebClientFactoryStub();
+  private final RemoteWriter writer = createWriter(factory);
+  private final List<Memento> mementos = new ArrayList<>();
+  private final PushReceiver receiver = new PushReceiver(WRITE_PATH);
+
+  private static RemoteWriter createWriter(WebClientFactory factory) {
+    return new RemoteWriter(factory, "pushingServer", () -> UrlBuilder.create(false).withHostName("myhost").withPort(7001));
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    mementos.add(SystemClockTestSupport.installClock());
+    AuthenticatedCall.clearCookies();
+    QueryResultCache.clear();
+    RemoteWriter.clear();
+    factory.addJsonResponse(RESPONSE_JSON);
+    receiver.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    receiver.stop();
+    RemoteWriter.clear();
+    LiveConfiguration.loadFromString("");
+    mementos.forEach(Memento::revert);
+  }
+
+  private void configure(String remoteWriteSettings) {
+    LiveConfiguration.loadFromString("remoteWrite:\n  url: " + receiver.getUrl()
+          + "\n  minBackoffMillis: 1\n  maxBackoffMillis: 5\n" + remoteWriteSettings + ONE_VALUE_CONFIG);
+  }
+
+  private void push() {
+    writer.push(LiveConfiguration.getRemoteWriteConfiguration());
+  }
+
+  private void startWriter() {
+    RemoteWriter.start(factory, "pushingServer", () -> UrlBuilder.create(false).withHostName("myhost").withPort(7001));
+  }
+
+  @Test
+  void whenStartedWithoutRemoteWriteConfigured_dontStartThread() {
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    startWriter();
+
+    assertThat(RemoteWriter.isScheduled(), is(false));
+  }
+
+  @Test
+  void whenRemoteWriteConfiguredAfterStart_startThread() {
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+    startWriter();
+
+    configure("");
+
+    assertThat(RemoteWriter.isScheduled(), is(true));
+  }
+
+  @Test
+  void whenRemoteWriteRemovedFromConfiguration_endThread() {
+    configure("");
+    startWriter();
+
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    assertThat(RemoteWriter.isScheduled(), is(false));
+  }
+
+  @Test
+  void afterStop_endThreadEvenIfRemoteWriteConfigured() {
+    configure("");
+    startWriter();
+
+    RemoteWriter.stop();
+    configure("");
+
+    assertThat(RemoteWriter.isScheduled(), is(false));
+  }
+
+  @Test
+  void whenPushed_requestIdentifiesRemoteWriteProtocol() {
+    configure("");
+
+    push();
+
+    final Headers headers = receiver.getRequests().get(0).getHeaders();
+    assertThat(headers.getFirst(CONTENT_ENCODING_HEADER), equalTo(SNAPPY_ENCODING));
+    assertThat(headers.getFirst(CONTENT_TYPE_HEADER), equalTo(PROTOBUF_CONTENT_TYPE));
+    assertThat(headers.getFirst(REMOTE_WRITE_VERSION_HEADER), equalTo(REMOTE_WRITE_VERSION));
+  }
+
+  @Test
+  void whenPushed_sendQueriedMetricsAsTimeSeries() {
+    configure("");
+
+    push();
+
+    assertThat(getSeriesValue("testSample1", "beta"), equalTo(2.0));
+  }
+
+  @Test
+  void whenPushed_labelsAreSortedByName() {
+    configure("");
+
+    push();
+
+    final List<String> labelNames = getLabelNames(getSeries("testSample1", "beta"));
+    final List<String> sortedNames = new ArrayList<>(labelNames);
+    Collections.sort(sortedNames);
+    assertThat(labelNames, equalTo(sortedNames));
+    assertThat(labelNames, contains(METRIC_NAME_LABEL, "name"));
+  }
+
+  @Test
+  void whenPushed_samplesHaveCurrentTime() {
+    configure("");
+
+    push();
+
+    assertThat(getSeries("testSample1", "beta").getMessage(TIMESERIES_SAMPLES).getVarint(SAMPLE_TIMESTAMP),
+          equalTo(SystemClock.now().toInstant().toEpochMilli()));
+  }
+
+  @Test
+  void whenPushSucceeds_countSamplesSent() {
+    configure("");
+
+    push();
+
+    assertThat(RemoteWriter.getNumSamplesSent(), equalTo((long) getAllSeries().size()));
+    assertThat(RemoteWriter.getNumSamplesDropped(), equalTo(0L));
+    assertThat(RemoteWriter.getQueueLength(), equalTo(0));
+  }
+
+  @Test
+  void whenReceiverReportsServerError_retryBatch() {
+    configure("");
+    receiver.replyWith(503);
+
+    push();
+
+    assertThat(receiver.getRequests(), hasSize(2));
+    assertThat(RemoteWriter.getNumRetries(), equalTo(1L));
+    assertThat(RemoteWriter.getNumSamplesDropped(), equalTo(0L));
+  }
+
+  @Test
+  void whenReceiverAsksToSlowDown_retryBatch() {
+    configure("");
+    receiver.replyWith(429);
+
+    push();
+
+    assertThat(receiver.getRequests(), hasSize(2));
+  }
+
+  @Test
+  void whenReceiverRejectsBatch_dropItWithoutRetry() {
+    configure("");
+    receiver.replyWith(400);
+
+    push();
+
+    assertThat(receiver.getRequests(), hasSize(1));
+    assertThat(RemoteWriter.getNumRetries(), equalTo(0L));
+    assertThat(RemoteWriter.getNumSamplesDropped(), equalTo((long) getAllSeries().size()));
+  }
+
+  @Test
+  void whenRetriesExhausted_dropBatch() {
+    configure("  maxRetries: 2\n");
+    receiver.replyWith(503, 503, 503);
+
+    push();
+
+    assertThat(receiver.getRequests(), hasSize(3));
+    assertThat(RemoteWriter.getNumSamplesSent(), equalTo(0L));
+    assertThat(RemoteWriter.getNumSamplesDropped(), greaterThan(0L));
+  }
+
+  @Test
+  void whenBatchDropped_leaveRemainingSamplesQueued() {
+    configure("  maxRetries: 0\n  maxSamplesPerSend: 1\n");
+    receiver.replyWith(503);
+
+    push();
+
+    assertThat(receiver.getRequests(), hasSize(1));
+    assertThat(RemoteWriter.getQueueLength(), greaterThan(0));
+  }
+
+  @Test
+  void whenReceiverUnreachable_dropBatchAfterRetries() {
+    configure("  maxRetries: 1\n");
+    receiver.stop();
+
+    push();
+
+    assertThat(RemoteWriter.getNumRetries(), equalTo(1L));
+    assertThat(RemoteWriter.getNumSamplesDropped(), greaterThan(0L));
+  }
+
+  @Test
+  void whenMoreSamplesThanBatchSize_sendSeveralBatches() {
+    configure("  maxSamplesPerSend: 2\n");
+
+    push();
+
+    assertThat(receiver.getRequests().size(), greaterThan(1));
+    assertThat(getSeriesCounts(), everyItem(lessThanOrEqualTo(2)));
+  }
+
+  @Test
+  void whenQueueFull_countDroppedSamples() {
+    configure("  queueCapacity: 1\n");
+
+    push();
+
+    assertThat(RemoteWriter.getNumSamplesSent(), equalTo(1L));
+    assertThat(RemoteWriter.getNumSamplesDropped(), greaterThan(0L));
+  }
+
+  @Test
+  void whenQueriesFail_sendNothing() {
+    configure("");
+    final WebClientFactoryStub failingFactory = new WebClientFactoryStub();
+    failingFactory.throwConnectionFailure("myhost", 7001);
+
+    createWriter(failingFactory).push(LiveConfiguration.getRemoteWriteConfiguration());
+
+    assertThat(receiver.getRequests(), empty());
+    assertThat(LiveConfiguration.getErrorCounts().keySet(), hasItem(WebClientException.class.getSimpleName()));
+  }
+
+  @Test
+  void whenRemoteWriteConfigured_exporterMetricsIncludeRemoteWriteCounts() throws IOException {
+    configure("");
+    push();
+
+    factory.addJsonResponse(RESPONSE_JSON);
+    final InvocationContextStub context = InvocationContextStub.create();
+    new ExporterCall(factory, context).doWithAuthentication();
+
+    assertThat(context.getResponse(), containsString(MetricsStream.REMOTE_WRITE_SAMPLES_SENT));
+  }
+
+  @Test
+  void whenRemoteWriteNotConfigured_exporterMetricsOmitRemoteWriteCounts() throws IOException {
+    LiveConfiguration.loadFromString(ONE_VALUE_CONFIG);
+
+    final InvocationContextStub context = InvocationContextStub.create();
+    new ExporterCall(factory, context).doWithAuthentication();
+
+    assertThat(context.getResponse(), not(containsString(MetricsStream.REMOTE_WRITE_SAMPLES_SENT)));
+  }
+
+  private List<ProtobufReader> getAllSeries() {
+    return receiver.getRequests().stream()
+          .map(r -> new ProtobufReader(SnappyDecompressor.decompress(r.getBody())))
+          .flatMap(m -> m.getMessages(WRITE_REQUEST_TIMESERIES).stream())
+          .collect(Collectors.toList());
+  }
+
+  private List<Integer> getSeriesCounts() {
+    return receiver.getRequests().stream()
+          .map(r -> new ProtobufReader(SnappyDecompressor.decompress(r.getBody())))
+          .map(m -> m.getMessages(WRITE_REQUEST_TIMESERIES).size())
+          .collect(Collectors.toList());
+  }
+
+  private ProtobufReader getSeries(String metricName, String name) {
+    return getAllSeries().stream()
+          .filter(s -> metricName.equals(getLabel(s, METRIC_NAME_LABEL)) && name.equals(getLabel(s, "name")))
+          .findFirst()
+          .orElseThrow(() -> new AssertionError("No series found for " + metricName + " with name " + name));
+  }
+
+  private double getSeriesValue(String metricName, String name) {
+    return getSeries(metricName, name).getMessage(TIMESERIES_SAMPLES).getDouble(SAMPLE_VALUE);
+  }
+
+  private String getLabel(ProtobufReader series, String labelName) {
+    return series.getMessages(TIMESERIES_LABELS).stream()
+          .filter(l -> labelName.equals(l.getString(LABEL_NAME)))
+          .map(l -> l.getString(LABEL_VALUE))
+          .findFirst().orElse(null);
+  }
+
+  private List<String> getLabelNames(ProtobufReader series) {
+    return series.getMessages(TIMESERIES_LABELS).stream().map(l -> l.getString(LABEL_NAME)).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,197 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.oracle.wls.exporter.domain.ExporterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestHedgerTest {
+
+  private static final String QUERY = "query";
+  private static final long FAST_MILLIS = 1;
+  private static final long SLOW_MILLIS = 200;
+
+  private final CountDownLatch primaryReleased = new CountDownLatch(1);
+  private final AtomicBoolean hedgeRequested = new AtomicBoolean();
+
+  @BeforeEach
+  void setUp() {
+    RequestHedger.clear();
+    configureHedging(100);
+  }
+
+  private void configureHedging(int maxHedgePercent) {
+    RequestHedger.configure(ExporterConfig.loadConfig(
+          "hedging:\n  minDelayMillis: 10\n  latencyPercentile: 50\n  maxHedgePercent: " + maxHedgePercent
+                + "\nqueries:\n").getHedgingConfiguration());
+  }
+
+  @AfterEach
+  void tearDown() {
+    primaryReleased.countDown();
+    RequestHedger.configure(null);
+    RequestHedger.clear();
+  }
+
+  private void recordFastSamples() {
+    for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++)
+      RequestHedger.recordLatency(QUERY, FAST_MILLIS);
+  }
+
+  private String sendWithHedge(RequestHedger.Request<String> primary, RequestHedger.Request<String> hedge)
+        throws IOException {
+    return RequestHedger.send(QUERY, primary, () -> {
+      hedgeRequested.set(true);
+      return hedge;
+    });
+  }
+
+  private String blockedPrimary() throws IOException {
+    try {
+      primaryReleased.await(5, TimeUnit.SECONDS);
+      return "primary";
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private String slowPrimary() throws IOException {
+    pause(SLOW_MILLIS);
+    return "primary";
+  }
+
+  private void pause(long millis) throws IOException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  @Test
+  void whenHedgingNotConfigured_sendOnlyPrimaryRequest() throws IOException {
+    RequestHedger.configure(null);
+    recordFastSamples();
+
+    assertThat(sendWithHedge(this::slowPrimary, () -> "hedge"), equalTo("primary"));
+    assertThat(hedgeRequested.get(), is(false));
+  }
+
+  @Test
+  void whenTooFewTimesRecorded_dontHedge() throws IOException {
+    assertThat(RequestHedger.mayHedge(QUERY), is(false));
+    assertThat(sendWithHedge(this::slowPrimary, () -> "hedge"), equalTo("primary"));
+    assertThat(hedgeRequested.get(), is(false));
+  }
+
+  @Test
+  void whenEnoughTimesRecorded_mayHedge() {
+    recordFastSamples();
+
+    assertThat(RequestHedger.mayHedge(QUERY), is(true));
+  }
+
+  @Test
+  void whenPrimaryRepliesQuickly_dontHedge() throws IOException {
+    recordFastSamples();
+
+    assertThat(sendWithHedge(() -> "primary", () -> "hedge"), equalTo("primary"));
+    assertThat(hedgeRequested.get(), is(false));
+  }
+
+  @Test
+  void whenPrimaryIsSlow_useHedgeReply() throws IOException {
+    recordFastSamples();
+
+    assertThat(sendWithHedge(this::blockedPrimary, () -> "hedge"), equalTo("hedge"));
+    assertThat(RequestHedger.getNumHedgedRequests(), equalTo(1L));
+    assertThat(RequestHedger.getNumHedgesWon(), equalTo(1L));
+  }
+
+  @Test
+  void whenNoAlternateAvailable_awaitPrimaryReply() throws IOException {
+    recordFastSamples();
+
+    assertThat(RequestHedger.send(QUERY, this::slowPrimary, () -> null), equalTo("primary"));
+    assertThat(RequestHedger.getNumHedgedRequests(), equalTo(0L));
+  }
+
+  @Test
+  void whenNoAlternateHost_sendOnCallingThread() throws IOException {
+    recordFastSamples();
+    final Thread caller = Thread.currentThread();
+
+    assertThat(RequestHedger.send(QUERY, () -> Thread.currentThread() == caller ? "caller" : "pool", null),
+          equalTo("caller"));
+  }
+
+  @Test
+  void whenHedgeBudgetExhausted_dontHedge() throws IOException {
+    configureHedging(0);
+    recordFastSamples();
+
+    assertThat(sendWithHedge(this::slowPrimary, () -> "hedge"), equalTo("primary"));
+    assertThat(hedgeRequested.get(), is(false));
+  }
+
+  @Test
+  void hedgeBudgetLimitsHedgesToConfiguredPercentage() throws IOException {
+    configureHedging(50);
+    recordFastSamples();
+
+    sendWithHedge(this::slowPrimary, () -> "hedge");
+    assertThat(hedgeRequested.get(), is(false));
+
+    sendWithHedge(this::slowPrimary, () -> "hedge");
+    assertThat(hedgeRequested.get(), is(true));
+  }
+
+  @Test
+  void whenHedgeFails_usePrimaryReply() throws IOException {
+    recordFastSamples();
+
+    assertThat(sendWithHedge(this::slowPrimary, () -> {
+      throw new IOException("hedge failed");
+    }), equalTo("primary"));
+    assertThat(RequestHedger.getNumHedgesWon(), equalTo(0L));
+  }
+
+  @Test
+  void whenBothRequestsFail_reportPrimaryFailure() {
+    recordFastSamples();
+
+    IOException thrown = assertThrows(IOException.class, () -> sendWithHedge(
+          () -> {
+            pause(SLOW_MILLIS);
+            throw new IOException("primary failed");
+          },
+          () -> {
+            throw new IOException("hedge failed");
+          }));
+
+    assertThat(thrown.getMessage(), equalTo("primary failed"));
+  }
+
+  @Test
+  void whenPrimaryFailsBeforeHedgeDelay_reportFailureWithoutHedging() {
+    recordFastSamples();
+
+    assertThrows(RestQueryException.class, () -> sendWithHedge(() -> {
+      throw new RestQueryException();
+    }, () -> "hedge"));
+    assertThat(hedgeRequested.get(), is(false));
+  }
+}
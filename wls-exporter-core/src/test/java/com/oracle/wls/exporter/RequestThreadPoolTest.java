@@ -0,0 +1,79 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestThreadPoolTest {
+
+  private final RequestThreadPool threadPool = RequestThreadPool.create("test-pool-");
+  private final ThreadPoolExecutor pool = threadPool.getExecutor();
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    RequestThreadPool.shutdownAll();
+  }
+
+  @Test
+  void threadsAreNamedWithPrefix() throws Exception {
+    final Future<String> name = pool.submit(() -> Thread.currentThread().getName());
+
+    assertThat(name.get(), equalTo("test-pool-1"));
+  }
+
+  @Test
+  void threadsAreDaemons() throws Exception {
+    final Future<Boolean> daemon = pool.submit(() -> Thread.currentThread().isDaemon());
+
+    assertThat(daemon.get(), is(true));
+  }
+
+  @Test
+  void whenAllThreadsBusy_rejectTask() {
+    for (int i = 0; i < RequestThreadPool.MAX_THREADS; i++)
+      pool.execute(this::awaitRelease);
+
+    assertThrows(RejectedExecutionException.class, () -> pool.execute(this::awaitRelease));
+  }
+
+  @Test
+  void afterShutdownAll_threadsAreEnded() throws Exception {
+    pool.execute(this::awaitRelease);
+
+    RequestThreadPool.shutdownAll();
+
+    assertThat(pool.awaitTermination(5, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  void afterShutdownAll_poolStartsNewThreads() throws Exception {
+    RequestThreadPool.shutdownAll();
+
+    final Future<String> name = threadPool.getExecutor().submit(() -> Thread.currentThread().getName());
+
+    assertThat(name.get(), equalTo("test-pool-1"));
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResponseLimitTest {
+
+  private final ResponseLimit scrapeLimit = ResponseLimit.forScrape(100);
+
+  @Test
+  void whenNoLimitDefined_doNotWrapStream() {
+    final InputStream inputStream = createStream(10);
+
+    assertThat(ResponseLimit.NONE.limit(inputStream), sameInstance(inputStream));
+  }
+
+  @Test
+  void whenStreamWithinLimit_readAllBytes() throws IOException {
+    assertThat(readAll(scrapeLimit.forQuery(50).limit(createStream(50))), equalTo(50));
+  }
+
+  @Test
+  void whenStreamExceedsQueryLimit_throwException() {
+    final InputStream limited = scrapeLimit.forQuery(50).limit(createStream(51));
+
+    assertThrows(ResponseTooLargeException.class, () -> readAll(limited));
+  }
+
+  @Test
+  void whenStreamExceedsQueryLimit_exceptionReportsLimit() {
+    final InputStream limited = scrapeLimit.forQuery(50).limit(createStream(51));
+
+    final ResponseTooLargeException exception = assertThrows(ResponseTooLargeException.class, () -> readAll(limited));
+    assertThat(exception.getLimit(), equalTo(50L));
+  }
+
+  @Test
+  void whenStreamsTogetherExceedScrapeLimit_throwException() throws IOException {
+    readAll(scrapeLimit.forQuery(60).limit(createStream(60)));
+    final InputStream limited = scrapeLimit.forQuery(60).limit(createStream(60));
+
+    assertThrows(ResponseTooLargeException.class, () -> readAll(limited));
+  }
+
+  @Test
+  void whenSingleBytesRead_countThem() {
+    final InputStream limited = scrapeLimit.forQuery(2).limit(createStream(3));
+
+    assertThrows(ResponseTooLargeException.class, () -> readOneByteAtATime(limited));
+  }
+
+  @Test
+  void whenLimitExceeded_incrementCount() {
+    final long numLimitsExceeded = ResponseLimit.getNumLimitsExceeded();
+    final InputStream limited = scrapeLimit.forQuery(50).limit(createStream(51));
+
+    assertThrows(ResponseTooLargeException.class, () -> readAll(limited));
+    assertThat(ResponseLimit.getNumLimitsExceeded(), equalTo(numLimitsExceeded + 1));
+  }
+
+  @Test
+  void whenScrapeLimitNotReached_isNotExhausted() throws IOException {
+    readAll(scrapeLimit.forQuery(60).limit(createStream(60)));
+
+    assertThat(scrapeLimit.isExhausted(), is(false));
+  }
+
+  @Test
+  void whenScrapeLimitReached_isExhausted() throws IOException {
+    readAll(scrapeLimit.forQuery(60).limit(createStream(50)));
+    readAll(scrapeLimit.forQuery(60).limit(createStream(50)));
+
+    assertThat(scrapeLimit.isExhausted(), is(true));
+  }
+
+  private InputStream createStream(int numBytes) {
+    return new ByteArrayInputStream(new byte[numBytes]);
+  }
+
+  private int readAll(InputStream inputStream) throws IOException {
+    final byte[] buffer = new byte[16];
+    int total = 0;
+    int numBytes;
+    while ((numBytes = inputStream.read(buffer)) >= 0)
+      total += numBytes;
+    return total;
+  }
+
+  private void readOneByteAtATime(InputStream inputStream) throws IOException {
+    while (inputStream.read() >= 0) {
+      // keep reading until the end or the limit
+    }
+  }
+}
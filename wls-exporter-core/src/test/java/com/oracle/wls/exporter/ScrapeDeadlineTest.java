@@ -0,0 +1,180 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.meterware.simplestub.Memento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScrapeDeadlineTest {
+
+  private static final int OFFSET_MILLIS = 500;
+
+  private final List<Memento> mementos = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws NoSuchFieldException {
+    mementos.add(SystemClockTestSupport.installClock());
+  }
+
+  @AfterEach
+  void tearDown() {
+    mementos.forEach(Memento::revert);
+  }
+
+  @Test
+  void whenNoTimeoutDefined_deadlineIsUnlimited() {
+    assertThat(ScrapeDeadline.create(null, null, OFFSET_MILLIS), sameInstance(ScrapeDeadline.NONE));
+  }
+
+  @Test
+  void unlimitedDeadline_neverExpires() {
+    SystemClockTestSupport.increment(1000);
+
+    assertThat(ScrapeDeadline.NONE.isExpired(), is(false));
+  }
+
+  @Test
+  void unlimitedDeadline_doesNotReduceTimeout() {
+    assertThat(ScrapeDeadline.NONE.getTimeoutMillis(5000), equalTo(5000));
+  }
+
+  @Test
+  void whenHeaderDefined_remainingTimeExcludesOffset() {
+    assertThat(ScrapeDeadline.create("10", null, OFFSET_MILLIS).getRemainingMillis(), equalTo(9500L));
+  }
+
+  @Test
+  void whenHeaderHasFractionalSeconds_useThem() {
+    assertThat(ScrapeDeadline.create("2.5", null, OFFSET_MILLIS).getRemainingMillis(), equalTo(2000L));
+  }
+
+  @Test
+  void whenHeaderNotDefined_useConfiguredTimeout() {
+    assertThat(ScrapeDeadline.create(null, 5, OFFSET_MILLIS).getRemainingMillis(), equalTo(4500L));
+  }
+
+  @Test
+  void whenHeaderNotParseable_useConfiguredTimeout() {
+    assertThat(ScrapeDeadline.create("soon", 5, OFFSET_MILLIS).getRemainingMillis(), equalTo(4500L));
+  }
+
+  @Test
+  void whenHeaderAndConfigurationDefined_useHeader() {
+    assertThat(ScrapeDeadline.create("3", 5, OFFSET_MILLIS).getRemainingMillis(), equalTo(2500L));
+  }
+
+  @Test
+  void whenOffsetWouldLeaveNoTime_ignoreIt() {
+    assertThat(ScrapeDeadline.create("0.25", null, OFFSET_MILLIS).getRemainingMillis(), equalTo(250L));
+  }
+
+  @Test
+  void whenTimeRemains_deadlineHasNotExpired() {
+    final ScrapeDeadline deadline = ScrapeDeadline.create("3", null, OFFSET_MILLIS);
+
+    SystemClockTestSupport.increment(2);
+
+    assertThat(deadline.isExpired(), is(false));
+  }
+
+  @Test
+  void whenTimeRunsOut_deadlineHasExpired() {
+    final ScrapeDeadline deadline = ScrapeDeadline.create("3", null, OFFSET_MILLIS);
+
+    SystemClockTestSupport.increment(3);
+
+    assertThat(deadline.isExpired(), is(true));
+  }
+
+  @Test
+  void timeoutIsLimitedToRemainingTime() {
+    final ScrapeDeadline deadline = ScrapeDeadline.create("3", null, OFFSET_MILLIS);
+
+    SystemClockTestSupport.increment(1);
+
+    assertThat(deadline.getTimeoutMillis(5000), equalTo(1500));
+  }
+
+  @Test
+  void whenMoreTimeRemainsThanDefaultTimeout_useDefault() {
+    assertThat(ScrapeDeadline.create("30", null, OFFSET_MILLIS).getTimeoutMillis(5000), equalTo(5000));
+  }
+
+  @Test
+  void unlimitedDeadline_doesNotWrapStream() {
+    final InputStream inputStream = new ByteArrayInputStream(new byte[10]);
+
+    assertThat(ScrapeDeadline.NONE.limit(inputStream), sameInstance(inputStream));
+  }
+
+  @Test
+  void whenReplyArrivesWithinDeadline_readItAll() throws IOException {
+    final ScrapeDeadline deadline = ScrapeDeadline.create("30", null, OFFSET_MILLIS);
+    final SlowDripStream reply = new SlowDripStream(20);
+
+    readAll(deadline.limit(reply));
+
+    assertThat(reply.numBytesRead, equalTo(20));
+  }
+
+  // Each read takes one second, far less than the read timeout, but together they take longer than the deadline.
+  @Test
+  void whenSlowReplyOutlastsDeadline_abandonIt() {
+    final ScrapeDeadline deadline = ScrapeDeadline.create("10", null, OFFSET_MILLIS);
+    final SlowDripStream reply = new SlowDripStream(20);
+
+    assertThrows(ScrapeDeadlineExceededException.class, () -> readAll(deadline.limit(reply)));
+    assertThat(reply.numBytesRead, lessThan(20));
+  }
+
+  private void readAll(InputStream inputStream) throws IOException {
+    final byte[] buffer = new byte[100];
+    while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+      // keep reading
+    }
+  }
+
+  // A reply which sends one byte each second.
+  static class SlowDripStream extends InputStream {
+    private final int length;
+    private int numBytesRead;
+
+    SlowDripStream(int length) {
+      this.length = length;
+    }
+
+    @Override
+    public int read() {
+      if (numBytesRead >= length) return -1;
+
+      SystemClockTestSupport.increment(1);
+      numBytesRead++;
+      return 'x';
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      final int result = read();
+      if (result < 0) return -1;
+
+      b[off] = (byte) result;
+      return 1;
+    }
+  }
+}
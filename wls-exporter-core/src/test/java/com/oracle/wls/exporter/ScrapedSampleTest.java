@@ -0,0 +1,56 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class ScrapedSampleTest {
+
+  private static final String METRICS = "# TYPE requests_total counter\n"
+        + "requests_total{app=\"a b\"} 3\n"
+        + "# TYPE heap gauge\n"
+        + "heap 4.5\n"
+        + "state{server=\"ms1\"} RUNNING\n"
+        + "# Help comments are ignored\n";
+
+  @Test
+  void whenMetricsParsed_skipCommentsAndNonNumericValues() {
+    assertThat(getSeries(ScrapedSample.parse(METRICS)), contains("requests_total{app=\"a b\"}", "heap"));
+  }
+
+  @Test
+  void whenMetricsParsed_recordValues() {
+    assertThat(ScrapedSample.parse(METRICS).get(1).getValue(), equalTo(4.5));
+  }
+
+  @Test
+  void whenTypeIsCounter_sampleIsCounter() {
+    assertThat(ScrapedSample.parse(METRICS).get(0).isCounter(), is(true));
+  }
+
+  @Test
+  void whenTypeIsGauge_sampleIsNotCounter() {
+    assertThat(ScrapedSample.parse(METRICS).get(1).isCounter(), is(false));
+  }
+
+  @Test
+  void whenSampleHasLabels_separateThemFromMetricName() {
+    final ScrapedSample sample = ScrapedSample.parse(METRICS).get(0);
+
+    assertThat(sample.getMetricName(), equalTo("requests_total"));
+    assertThat(sample.getLabels().get(0), equalTo(new String[] {"app", "a b"}));
+  }
+
+  private List<String> getSeries(List<ScrapedSample> samples) {
+    return samples.stream().map(ScrapedSample::getSeries).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.meterware.simplestub.Memento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class SessionCookieStoreTest {
+
+  private static final long LIFETIME_SECONDS = 100;
+  private static final String CREDENTIALS = "Basic dXNlcjpwYXNzd29yZA==";
+
+  private final SessionCookieStore store = new SessionCookieStore(LIFETIME_SECONDS);
+  private final List<Memento> mementos = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws NoSuchFieldException {
+    mementos.add(SystemClockTestSupport.installClock());
+  }
+
+  @AfterEach
+  void tearDown() {
+    mementos.forEach(Memento::revert);
+  }
+
+  @Test
+  void whenNoCredentials_returnNoCookies() {
+    store.addCookie(CREDENTIALS, "cookie1=value1");
+
+    assertThat(store.getCookies(null), empty());
+  }
+
+  @Test
+  void afterCookieAdded_returnItWithoutParameters() {
+    store.addCookie(CREDENTIALS, "cookie1=value1; http-only");
+
+    assertThat(store.getCookies(CREDENTIALS), contains("cookie1=value1"));
+  }
+
+  @Test
+  void whenSessionCookieAdded_reportSession() {
+    store.addCookie(CREDENTIALS, SessionCookieStore.SESSION_COOKIE_NAME + "=abcde; path=/");
+
+    assertThat(store.hasSession(CREDENTIALS), is(true));
+  }
+
+  @Test
+  void whenSessionInUseLongAfterCredentialsAccepted_reportItNotRecentlyVerified() {
+    store.addCookie(CREDENTIALS, SessionCookieStore.SESSION_COOKIE_NAME + "=abcde");
+
+    for (int i = 0; i < 3; i++) {
+      SystemClockTestSupport.increment(LIFETIME_SECONDS / 2);
+      store.getCookies(CREDENTIALS);
+    }
+
+    assertThat(store.hasSession(CREDENTIALS), is(true));
+    assertThat(store.hasSessionVerifiedWithin(CREDENTIALS, LIFETIME_SECONDS), is(false));
+  }
+
+  @Test
+  void afterSessionMarkedVerified_reportItRecentlyVerified() {
+    store.addCookie(CREDENTIALS, SessionCookieStore.SESSION_COOKIE_NAME + "=abcde");
+    SystemClockTestSupport.increment(LIFETIME_SECONDS / 2);
+    store.getCookies(CREDENTIALS);
+    SystemClockTestSupport.increment(LIFETIME_SECONDS / 2);
+
+    store.markSessionVerified(CREDENTIALS);
+
+    assertThat(store.hasSessionVerifiedWithin(CREDENTIALS, 1), is(true));
+  }
+
+  @Test
+  void whenOnlyOtherCookiesAdded_reportNoSession() {
+    store.addCookie(CREDENTIALS, "cookie1=value1");
+
+    assertThat(store.hasSession(CREDENTIALS), is(false));
+  }
+
+  @Test
+  void whenCookiesUnusedForLifetime_removeThemOnSweep() {
+    store.addCookie(CREDENTIALS, "cookie1=value1");
+    store.addCookie("other credentials", "cookie2=value2");
+
+    SystemClockTestSupport.increment(LIFETIME_SECONDS + 1);
+    store.removeExpiredCookies(SessionCookieStore.currentTimeMillis());
+
+    assertThat(store.getNumSessions(), equalTo(0));
+  }
+
+  @Test
+  void whenCookiesExpire_nextRequestSweepsThem() {
+    store.getCookies(CREDENTIALS);
+    store.addCookie("other credentials", "cookie2=value2");
+
+    SystemClockTestSupport.increment(2 * LIFETIME_SECONDS + 1);
+    store.getCookies(CREDENTIALS);
+
+    assertThat(store.getNumSessions(), equalTo(0));
+  }
+
+  @Test
+  void whenUsedConcurrently_retainAllCookies() throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 100; i++) {
+      final int index = i;
+      executor.execute(() -> store.addCookie("credentials " + (index % 10), "cookie" + index + "=value"));
+      executor.execute(() -> store.getCookies("credentials " + (index % 10)));
+    }
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertThat(store.getNumSessions(), equalTo(10));
+    assertThat(store.getCookies("credentials 3").size(), equalTo(10));
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+class SnappyCompressorTest {
+
+  private static final String REPETITIVE_TEXT
+        = "wls_servlet_invocation_total_count{app=\"receivables\",servletName=\"Dispatcher\"} 17\n";
+
+  @Test
+  void whenInputIsEmpty_roundTripRestoresIt() {
+    assertThat(roundTrip(new byte[0]), equalTo(new byte[0]));
+  }
+
+  @Test
+  void whenInputIsShort_roundTripRestoresIt() {
+    final byte[] input = "abc".getBytes(StandardCharsets.UTF_8);
+
+    assertThat(roundTrip(input), equalTo(input));
+  }
+
+  @Test
+  void whenInputIsRepetitive_compressedFormIsSmaller() {
+    final byte[] input = repeat(REPETITIVE_TEXT, 100);
+
+    assertThat(SnappyCompressor.compress(input).length, lessThan(input.length / 10));
+  }
+
+  @Test
+  void whenInputIsRepetitive_roundTripRestoresIt() {
+    final byte[] input = repeat(REPETITIVE_TEXT, 100);
+
+    assertThat(roundTrip(input), equalTo(input));
+  }
+
+  @Test
+  void whenInputIsRandom_roundTripRestoresIt() {
+    final byte[] input = new byte[5000];
+    new Random(17).nextBytes(input);
+
+    assertThat(roundTrip(input), equalTo(input));
+  }
+
+  @Test
+  void whenInputSpansSeveralFragments_roundTripRestoresIt() {
+    final byte[] input = repeat(REPETITIVE_TEXT, 3000);
+
+    assertThat(roundTrip(input), equalTo(input));
+  }
+
+  private byte[] roundTrip(byte[] input) {
+    return SnappyDecompressor.decompress(SnappyCompressor.compress(input));
+  }
+
+  private byte[] repeat(String text, int count) {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++)
+      sb.append(text).append(i % 7);
+    return sb.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
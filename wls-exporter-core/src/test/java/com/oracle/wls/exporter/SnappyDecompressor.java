@@ -0,0 +1,81 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter;
+
+/**
+ * A decoder for the Snappy block format, used by unit tests to inspect what the exporter has compressed.
+ */
+class SnappyDecompressor {
+
+  private final byte[] input;
+  private int position;
+
+  private SnappyDecompressor(byte[] input) {
+    this.input = input;
+  }
+
+  /**
+   * Returns the original form of the specified compressed data.
+   */
+  static byte[] decompress(byte[] compressed) {
+    return new SnappyDecompressor(compressed).decompress();
+  }
+
+  private byte[] decompress() {
+    final byte[] output = new byte[readVarint()];
+    int outputPosition = 0;
+    while (position < input.length) {
+      final int tag = nextByte();
+      switch (tag & 3) {
+        case 0:
+          final int length = readLiteralLength(tag >>> 2);
+          System.arraycopy(input, position, output, outputPosition, length);
+          position += length;
+          outputPosition += length;
+          break;
+        case 1:
+          outputPosition = copy(output, outputPosition, (tag >>> 5) << 8 | nextByte(), ((tag >>> 2) & 7) + 4);
+          break;
+        case 2:
+          outputPosition = copy(output, outputPosition, readLittleEndian(2), (tag >>> 2) + 1);
+          break;
+        default:
+          outputPosition = copy(output, outputPosition, readLittleEndian(4), (tag >>> 2) + 1);
+      }
+    }
+    if (outputPosition != output.length) throw new IllegalStateException("Decompressed length does not match preamble");
+    return output;
+  }
+
+  private int readLiteralLength(int lengthCode) {
+    return (lengthCode < 60 ? lengthCode : readLittleEndian(lengthCode - 59)) + 1;
+  }
+
+  private int copy(byte[] output, int outputPosition, int offset, int length) {
+    if (offset <= 0 || offset > outputPosition) throw new IllegalStateException("Invalid copy offset " + offset);
+    for (int i = 0; i < length; i++)
+      output[outputPosition + i] = output[outputPosition - offset + i];
+    return outputPosition + length;
+  }
+
+  private int readLittleEndian(int numBytes) {
+    int result = 0;
+    for (int i = 0; i < numBytes; i++)
+      result |= nextByte() << (8 * i);
+    return result;
+  }
+
+  private int readVarint() {
+    int result = 0;
+    for (int shift = 0; ; shift += 7) {
+      final int b = nextByte();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) return result;
+    }
+  }
+
+  private int nextByte() {
+    return input[position++] & 0xFF;
+  }
+}
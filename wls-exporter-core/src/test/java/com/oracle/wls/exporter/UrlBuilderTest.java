@@ -1,19 +1,21 @@
-// Copyright (c) 2020, 2023, Oracle and/or its affiliates.
+// Copyright (c) 2020, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 
 package com.oracle.wls.exporter;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.meterware.simplestub.Memento;
-import com.meterware.simplestub.StaticStubSupport;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class UrlBuilderTest {
@@ -26,16 +28,17 @@ class UrlBuilderTest {
   private static final int REST_PORT = 7010;
   private static final int LOCAL_PORT = 7356;
   private final RestPortConnectionException connectionException = new RestPortConnectionException("http://localhost:7010");
-  private Memento successMemento;
+  private final List<Memento> mementos = new ArrayList<>();
 
   @BeforeEach
   void setUp() throws NoSuchFieldException {
-    successMemento = StaticStubSupport.preserve(UrlBuilder.class, "successes");
+    mementos.add(SystemClockTestSupport.installClock());
   }
 
   @AfterEach
   void tearDown() {
-    successMemento.<Set<Object>>getOriginalValue().clear();
+    UrlBuilder.clearHistory();
+    mementos.forEach(Memento::revert);
   }
 
   @Test
@@ -131,4 +134,187 @@ class UrlBuilderTest {
     UrlBuilder builder2 = createUrlBuilder().withHostName(REST_HOSTNAME).withHostName(HOSTNAME).withPort(LOCAL_PORT);
     assertThat(builder2.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
   }
+
+  @Test
+  void afterRestPortFails_newBuilderPrefersLocalPortEvenIfUntried() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+    builder.reportFailure(connectionException);
+
+    UrlBuilder builder2 = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder2.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void whenAllCandidatesHaveFailed_tryThemInConfiguredOrder() {
+    failRestAndLocalPorts();
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  private void failRestAndLocalPorts() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+    builder.reportFailure(connectionException);
+    builder.createUrl(URL_PATTERN);
+    assertThrows(RestPortConnectionException.class, () -> builder.reportFailure(connectionException));
+  }
+
+  @Test
+  void afterBackoffExpires_probeFailedHostBeforeHostStillBackingOff() {
+    failRestPortOnly();
+    SystemClockTestSupport.increment(1);
+    failOnly(LOCAL_PORT);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(LOCAL_PORT).withPort(REST_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  // Fails the REST port in a builder which tries nothing else, leaving the local port untried.
+  private void failRestPortOnly() {
+    failOnly(REST_PORT);
+  }
+
+  private void failOnly(int port) {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(port);
+    builder.createUrl(URL_PATTERN);
+    assertThrows(RestPortConnectionException.class, () -> builder.reportFailure(connectionException));
+  }
+
+  @Test
+  void beforeBackoffExpires_avoidFailedHost() {
+    failRestPortOnly();
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void whileProbeInProgress_otherBuildersAvoidFailedHost() {
+    failRestPortOnly();
+    SystemClockTestSupport.increment(2);
+    createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).createUrl(URL_PATTERN);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void afterRepeatedFailures_backoffGrows() {
+    failRestPortOnly();
+    SystemClockTestSupport.increment(2);
+    failRestPortOnly();
+    SystemClockTestSupport.increment(1);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void afterProbeSucceeds_preferRecoveredHostAgain() {
+    failRestPortOnly();
+    SystemClockTestSupport.increment(2);
+    succeedWith(REST_PORT, 0);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  private void succeedWith(int port, long latencySeconds) {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(port);
+    builder.createUrl(URL_PATTERN);
+    SystemClockTestSupport.increment(latencySeconds);
+    builder.reportSuccess();
+  }
+
+  @Test
+  void whenBothHostsSucceeded_preferFasterHost() {
+    succeedWith(REST_PORT, 3);
+    succeedWith(LOCAL_PORT, 1);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void whenHostsEquallyFast_preferConfiguredOrder() {
+    succeedWith(LOCAL_PORT, 1);
+    succeedWith(REST_PORT, 1);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  @Test
+  void latencyIsMeasuredPerUrl() {
+    UrlBuilder restBuilder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT);
+    for (int i = 0; i < 4; i++) restBuilder.createUrl(URL_PATTERN);
+    SystemClockTestSupport.increment(4);
+    restBuilder.reportSuccess();
+    succeedWith(LOCAL_PORT, 2);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(LOCAL_PORT).withPort(REST_PORT);
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  @Test
+  void whenNoOtherCandidate_noAlternateUrl() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+
+    assertThat(builder.selectAlternateHost(URL_PATTERN).isPresent(), is(false));
+  }
+
+  @Test
+  void whenNextCandidateHealthy_useItForAlternateUrl() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+
+    assertThat(builder.selectAlternateHost(URL_PATTERN).map(UrlBuilder.AlternateHost::getUrl).orElse(null),
+          equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void whenNextCandidateFailing_noAlternateUrl() {
+    failOnly(LOCAL_PORT);
+    SystemClockTestSupport.increment(2);
+    succeedWith(REST_PORT, 0);
+
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+
+    assertThat(builder.selectAlternateHost(URL_PATTERN).isPresent(), is(false));
+  }
+
+  @Test
+  void whenAlternateHostFails_avoidItLater() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+    builder.selectAlternateHost(URL_PATTERN).ifPresent(UrlBuilder.AlternateHost::reportFailure);
+
+    UrlBuilder nextBuilder = createUrlBuilder().withHostName(HOSTNAME).withPort(LOCAL_PORT).withPort(REST_PORT);
+    assertThat(nextBuilder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, REST_PORT)));
+  }
+
+  @Test
+  void whenAlternateHostSucceeds_preferItToUntriedHost() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+    builder.selectAlternateHost(URL_PATTERN).ifPresent(host -> host.reportSuccess(1));
+
+    UrlBuilder nextBuilder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    assertThat(nextBuilder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+  }
+
+  @Test
+  void afterFailureAnsweredByAlternateHost_useAlternateHost() {
+    UrlBuilder builder = createUrlBuilder().withHostName(HOSTNAME).withPort(REST_PORT).withPort(LOCAL_PORT);
+    builder.createUrl(URL_PATTERN);
+
+    builder.reportFailureAnsweredBy(builder.selectAlternateHost(URL_PATTERN).orElseThrow(AssertionError::new));
+
+    assertThat(builder.createUrl(URL_PATTERN), equalTo(String.format(URL_PATTERN, "http", HOSTNAME, LOCAL_PORT)));
+    assertThat(builder.getFailedHosts(), contains(String.format("http://%s:%d", HOSTNAME, REST_PORT)));
+  }
 }
@@ -1,10 +1,64 @@
-// Copyright (c) 2020, Oracle and/or its affiliates.
+// Copyright (c) 2020, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
 public class WebClient8ImplTest extends WebClientTestBase {
   public WebClient8ImplTest() {
     super(WebClient8Impl::new);
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenResponseClosed_keepConnectionForReuse() throws IOException {
+    final ConnectionStub connection = new ConnectionStub();
+
+    new WebClient8Impl.Java8WebResponse(connection).close();
+
+    assertThat(connection.disconnected, is(false));
+  }
+
+  @Test
+  void whenResponseAbandoned_disconnect() throws IOException {
+    final ConnectionStub connection = new ConnectionStub();
+
+    new WebClient8Impl.Java8WebResponse(connection).abandon();
+
+    assertThat(connection.disconnected, is(true));
+  }
+
+  static class ConnectionStub extends HttpURLConnection {
+    private boolean disconnected;
+
+    ConnectionStub() throws IOException {
+      super(new URL("http://localhost:7001"));
+    }
+
+    @Override
+    public int getResponseCode() {
+      return HTTP_OK;
+    }
+
+    @Override
+    public void disconnect() {
+      disconnected = true;
+    }
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+
+    @Override
+    public void connect() {
+    }
+  }
+}
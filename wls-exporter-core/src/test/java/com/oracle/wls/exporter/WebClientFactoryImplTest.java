@@ -13,6 +13,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.sameInstance;
 
 class WebClientFactoryImplTest {
@@ -46,4 +47,16 @@ class WebClientFactoryImplTest {
     assertThat(WebClientFactoryImpl.getClientConstructor().getDeclaringClass(), sameInstance(WebClient8Impl.class));
   }
 
+  @Test
+  void whenClientSupplierSpecified_useItToCreateClients() {
+    final WebClientFactory factory = new WebClientFactoryImpl(WebClient8Impl::new);
+
+    assertThat(factory.createClient(), instanceOf(WebClient8Impl.class));
+  }
+
+  @Test
+  void whenNoClientSupplierSpecified_createSelectedClient() {
+    assertThat(new WebClientFactoryImpl().createClient(), instanceOf(WebClientImpl.class));
+  }
+
 }
\ No newline at end of file
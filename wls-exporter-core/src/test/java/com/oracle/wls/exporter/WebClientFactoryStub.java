@@ -3,6 +3,10 @@
 
 package com.oracle.wls.exporter;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -10,8 +14,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 import static com.meterware.simplestub.Stub.createStrictStub;
 import static com.oracle.wls.exporter.WebAppConstants.SET_COOKIE_HEADER;
@@ -39,6 +47,21 @@ public class WebClientFactoryStub implements WebClientFactory {
         webClient.addJsonResponse(json);
     }
 
+    /**
+     * Adds a response which advances the system clock by the specified time before it is returned.
+     * Requires that a test clock has been installed.
+     */
+    void addSlowJsonResponse(String json, long numSeconds) {
+        webClient.addResponse(new SlowJsonResponse(json, numSeconds));
+    }
+
+    /**
+     * Adds a response which is not returned until the specified latch is released, or ten seconds have passed.
+     */
+    void addBlockedJsonResponse(String json, CountDownLatch release) {
+        webClient.addResponse(new BlockedJsonResponse(json, release));
+    }
+
     ResponseBuilder forJson(String json) {
         return webClient.forJson(json);
     }
@@ -67,6 +90,14 @@ public class WebClientFactoryStub implements WebClientFactory {
         return webClient.getAuthentication();
     }
 
+    boolean isAuthenticationDeferred() {
+        return webClient.isAuthenticationDeferred();
+    }
+
+    int getClientTimeout() {
+        return webClient.getTimeoutMillis();
+    }
+
     public String getClientUrl() {
         return webClient.url;
     }
@@ -103,6 +134,7 @@ public class WebClientFactoryStub implements WebClientFactory {
         private final Map<String, List<String>> addedHeaders = new HashMap<>();
         private Map<String, List<String>> sentHeaders;
         private String postedString;
+        private ResponseLimit responseLimit = ResponseLimit.NONE;
 
         private void addJsonResponse(String responseJson) {
             addResponse(new JsonResponse(responseJson));
@@ -173,6 +205,11 @@ public class WebClientFactoryStub implements WebClientFactory {
             return this;
         }
 
+        @Override
+        public void setResponseLimit(ResponseLimit responseLimit) {
+            this.responseLimit = responseLimit;
+        }
+
         @Override
         public void addHeader(String name, String value) {
             addedHeaders.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
@@ -187,6 +224,15 @@ public class WebClientFactoryStub implements WebClientFactory {
             return getResult(getNextResponse());
         }
 
+        @Override
+        public JsonObject doPostRequestForJson(String postBody) {
+            return toJsonObject(doPostRequest(postBody));
+        }
+
+        private JsonObject toJsonObject(String response) {
+            return response == null || response.isEmpty() ? null : JsonParser.parseString(response).getAsJsonObject();
+        }
+
         @Override
         public String doGetRequest() {
             if (url == null) throw new NullPointerException("No URL specified");
@@ -212,7 +258,22 @@ public class WebClientFactoryStub implements WebClientFactory {
             if (response.getException() != null) throw response.getException();
 
             invokeSetCookieHandlerCallbacks(getSetCookieHeaders(response));
-            return response.getJsonResponse();
+            return withinLimit(response.getJsonResponse());
+        }
+
+        // Reads the response through the current limit, so that an oversized reply is rejected as a real one would be.
+        private String withinLimit(String response) {
+            if (response == null) return null;
+
+            try (InputStream limited = responseLimit.limit(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)))) {
+                final byte[] buffer = new byte[1024];
+                while (limited.read(buffer) >= 0) {
+                    // read to the end so that the limit sees every byte
+                }
+                return response;
+            } catch (IOException e) {
+                throw new WebClientException(e, "Unable to read response");
+            }
         }
 
         private List<String> getSetCookieHeaders(TestResponse response) {
@@ -279,4 +340,38 @@ public class WebClientFactoryStub implements WebClientFactory {
         }
     }
 
+    static class SlowJsonResponse extends JsonResponse {
+        private final long numSeconds;
+
+        SlowJsonResponse(String jsonResponse, long numSeconds) {
+            super(jsonResponse);
+            this.numSeconds = numSeconds;
+        }
+
+        @Override
+        public String getJsonResponse() {
+            SystemClockTestSupport.increment(numSeconds);
+            return super.getJsonResponse();
+        }
+    }
+
+    static class BlockedJsonResponse extends JsonResponse {
+        private final CountDownLatch release;
+
+        BlockedJsonResponse(String jsonResponse, CountDownLatch release) {
+            super(jsonResponse);
+            this.release = release;
+        }
+
+        @Override
+        public String getJsonResponse() {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getJsonResponse();
+        }
+    }
+
 }
@@ -3,14 +3,19 @@
 
 package com.oracle.wls.exporter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.meterware.simplestub.Memento;
 import com.meterware.pseudoserver.PseudoServer;
 import com.meterware.pseudoserver.PseudoServlet;
 import com.meterware.pseudoserver.WebResource;
@@ -18,6 +23,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static com.oracle.wls.exporter.WebAppConstants.ACCEPT_ENCODING_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.AUTHENTICATION_HEADER;
 import static com.oracle.wls.exporter.WebAppConstants.CONTENT_TYPE_HEADER;
 import static com.oracle.wls.exporter.WebClient.X_REQUESTED_BY_HEADER;
@@ -36,6 +42,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -262,6 +269,154 @@ abstract class WebClientTestBase {
         assertThat(webClient.doPostRequest("abced"), equalTo(RESPONSE));
     }
 
+    @Test
+    public void whenPostCreated_requestsGzipEncoding() throws IOException {
+        defineResource("headers", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                sentHeaders.put(ACCEPT_ENCODING_HEADER, getHeader(ACCEPT_ENCODING_HEADER));
+                return new WebResource("", "text/plain");
+            }
+        });
+
+        withWebClient("headers").doPostRequest("abced");
+
+        assertThat(sentHeaders.get(ACCEPT_ENCODING_HEADER), containsString("gzip"));
+    }
+
+    @Test
+    public void whenResponseIsGzipped_returnDecodedValue() throws Exception {
+        final String RESPONSE = "returned this compressed";
+
+        defineGzippedResource("compressed", RESPONSE);
+
+        assertThat(withWebClient("compressed").doPostRequest("abced"), equalTo(RESPONSE));
+    }
+
+    private void defineGzippedResource(String resourceName, String response) {
+        defineResource(resourceName, new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() throws IOException {
+                WebResource resource = new WebResource(gzip(response), "application/json");
+                resource.addHeader("Content-Encoding: gzip");
+                return resource;
+            }
+        });
+    }
+
+    private static byte[] gzip(String contents) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(baos)) {
+            out.write(contents.getBytes(StandardCharsets.UTF_8));
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void whenJsonRequested_returnParsedResponse() throws Exception {
+        defineResource("json", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                return new WebResource("{\"name\": \"alpha\", \"count\": 3}", "application/json");
+            }
+        });
+
+        final JsonObject response = withWebClient("json").doPostRequestForJson("abced");
+
+        assertThat(response.get("count").getAsInt(), equalTo(3));
+    }
+
+    @Test
+    public void whenJsonRequestedAndResponseIsGzipped_returnParsedResponse() throws Exception {
+        defineGzippedResource("compressedJson", "{\"name\": \"alpha\", \"count\": 3}");
+
+        final JsonObject response = withWebClient("compressedJson").doPostRequestForJson("abced");
+
+        assertThat(response.get("name").getAsString(), equalTo("alpha"));
+    }
+
+    @Test
+    public void whenJsonRequestedAndResponseIsEmpty_returnNull() throws Exception {
+        defineResource("empty", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                return new WebResource("", "application/json");
+            }
+        });
+
+        assertThat(withWebClient("empty").doPostRequestForJson("abced"), nullValue());
+    }
+
+    @Test
+    public void whenResponseExceedsLimit_throwsResponseTooLargeException() {
+        defineLargeResource("large");
+        final WebClient webClient = withWebClient("large");
+        webClient.setResponseLimit(ResponseLimit.forScrape(ResponseLimit.UNLIMITED).forQuery(1000));
+
+        assertThrows(ResponseTooLargeException.class, () -> webClient.doPostRequest("abced"));
+    }
+
+    private void defineLargeResource(String resourceName) {
+        defineResource(resourceName, new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                return new WebResource(createLargeJsonResponse(), "application/json");
+            }
+        });
+    }
+
+    private static String createLargeJsonResponse() {
+        final StringBuilder sb = new StringBuilder("{\"items\": [");
+        for (int i = 0; i < 10000; i++)
+            sb.append(i == 0 ? "" : ",").append("{\"count\": ").append(i).append("}");
+        return sb.append("]}").toString();
+    }
+
+    @Test
+    public void whenJsonResponseExceedsLimit_throwsResponseTooLargeException() {
+        defineLargeResource("largeJson");
+        final WebClient webClient = withWebClient("largeJson");
+        webClient.setResponseLimit(ResponseLimit.forScrape(ResponseLimit.UNLIMITED).forQuery(1000));
+
+        assertThrows(ResponseTooLargeException.class, () -> webClient.doPostRequestForJson("abced"));
+    }
+
+    @Test
+    public void whenResponsesExceedScrapeLimit_throwsResponseTooLargeException() throws IOException {
+        defineLargeResource("scraped");
+        final WebClient webClient = withWebClient("scraped");
+        final ResponseLimit scrapeLimit = ResponseLimit.forScrape(createLargeJsonResponse().length() + 10);
+        webClient.setResponseLimit(scrapeLimit.forQuery(ResponseLimit.UNLIMITED));
+        webClient.doPostRequestForJson("abced");
+        webClient.setResponseLimit(scrapeLimit.forQuery(ResponseLimit.UNLIMITED));
+
+        assertThrows(ResponseTooLargeException.class, () -> webClient.doPostRequestForJson("abced"));
+    }
+
+    @Test
+    public void whenDeadlinePassesBeforeResponseRead_throwsScrapeDeadlineExceededException() throws Exception {
+        defineLargeResource("late");
+        final WebClient webClient = withWebClient("late");
+        final Memento clock = SystemClockTestSupport.installClock();
+        try {
+            webClient.setDeadline(ScrapeDeadline.create("1", null, 0));
+            SystemClockTestSupport.increment(2);
+
+            assertThrows(ScrapeDeadlineExceededException.class, () -> webClient.doPostRequestForJson("abced"));
+        } finally {
+            clock.revert();
+        }
+    }
+
+    @Test
+    public void whenResponseWithinLimit_returnParsedResponse() throws IOException {
+        defineLargeResource("withinLimit");
+        final WebClient webClient = withWebClient("withinLimit");
+        webClient.setResponseLimit(ResponseLimit.forScrape(ResponseLimit.UNLIMITED).forQuery(1000000));
+
+        assertThat(webClient.doPostRequestForJson("abced").getAsJsonArray("items").size(), equalTo(10000));
+    }
+
     @Test
     public void when400StatusReceived_throwsRestQueryException() {
         defineResource("badRestQuery", new PseudoServlet() {
@@ -278,6 +433,47 @@ abstract class WebClientTestBase {
         withWebClient(resourceName).doPostRequest("abced");
     }
 
+    @Test
+    public void whenAuthenticationDeferred_dontSendAuthorizationHeader() throws Exception {
+        defineResource("session", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                sentHeaders.put(AUTHENTICATION_HEADER, getHeader(AUTHENTICATION_HEADER));
+                return new WebResource("session ok", "text/plain");
+            }
+        });
+
+        WebClient webClient = withWebClient("session");
+        webClient.setAuthentication("auth-value");
+        webClient.setAuthenticationDeferred(true);
+
+        assertThat(webClient.doPostRequest("abced"), equalTo("session ok"));
+        assertThat(sentHeaders.get(AUTHENTICATION_HEADER), nullValue());
+    }
+
+    @Test
+    public void whenAuthenticationDeferredAndServerRejectsSession_resendWithAuthorizationHeader() throws Exception {
+        defineResource("expiredSession", new PseudoServlet() {
+            @Override
+            public WebResource getPostResponse() {
+                if (getHeader(AUTHENTICATION_HEADER) == null) {
+                    WebResource resource = new WebResource("unauthorized", "text/plain", SC_UNAUTHORIZED);
+                    resource.addHeader("WWW-Authenticate: Basic realm=\"REST Realm\"");
+                    return resource;
+                }
+                sentHeaders.put(AUTHENTICATION_HEADER, getHeader(AUTHENTICATION_HEADER));
+                return new WebResource("authenticated", "text/plain");
+            }
+        });
+
+        WebClient webClient = withWebClient("expiredSession");
+        webClient.setAuthentication("auth-value");
+        webClient.setAuthenticationDeferred(true);
+
+        assertThat(webClient.doPostRequest("abced"), equalTo("authenticated"));
+        assertThat(sentHeaders, hasEntry(AUTHENTICATION_HEADER, "auth-value"));
+    }
+
     @Test
     public void when401ReceivedFromServer_throwsException() {
         defineResource("protected", new PseudoServlet() {
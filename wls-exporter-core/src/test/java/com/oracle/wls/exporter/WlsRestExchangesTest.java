@@ -3,11 +3,15 @@
 
 package com.oracle.wls.exporter;
 
+import com.google.gson.JsonParser;
 import com.meterware.simplestub.Memento;
+import com.oracle.wls.exporter.domain.ExporterConfig;
+import com.oracle.wls.exporter.domain.MessagesConfiguration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -15,7 +19,9 @@ import java.util.stream.IntStream;
 
 import static com.oracle.wls.exporter.WlsRestExchanges.MAX_EXCHANGES;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
@@ -38,6 +44,7 @@ class WlsRestExchangesTest {
   @AfterEach
   void tearDown() {
     mementos.forEach(Memento::revert);
+    WlsRestExchanges.configure(null);
   }
 
   @Test
@@ -127,4 +134,90 @@ class WlsRestExchangesTest {
     final int expectedLength = 3 * minimumExchangeLength + 20 + 15 + 40;
     assertThat(WlsRestExchanges.getTotalExchangeLengthOverPastTenMinutes(), equalTo(expectedLength));
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenExchangesPrinted_outputMatchesListedExchanges() throws IOException {
+    IntStream.rangeClosed(1, MAX_EXCHANGES).forEach(this::addTestExchange);
+    final StringBuilder sb = new StringBuilder();
+
+    WlsRestExchanges.printExchanges(sb);
+
+    assertThat(sb.toString(), equalTo(getExchanges() + System.lineSeparator()));
+  }
+
+  @Test
+  void whenCaptureDisabled_dontRecordExchanges() {
+    WlsRestExchanges.configure(loadMessagesConfiguration("enabled: false"));
+
+    addTestExchange(1);
+
+    assertThat(WlsRestExchanges.getExchanges(), empty());
+    assertThat(WlsRestExchanges.getMessageAllocation(), equalTo(0));
+  }
+
+  private MessagesConfiguration loadMessagesConfiguration(String settings) {
+    return ExporterConfig.loadConfig("messages:\n  " + settings + "\nqueries:").getMessagesConfiguration();
+  }
+
+  @Test
+  void whenCaptureDisabled_discardExistingExchanges() {
+    addTestExchange(1);
+
+    WlsRestExchanges.configure(loadMessagesConfiguration("enabled: false"));
+
+    assertThat(WlsRestExchanges.getExchanges(), empty());
+  }
+
+  @Test
+  void whenMaxReplyLengthDefined_truncateLongReplies() {
+    WlsRestExchanges.configure(loadMessagesConfiguration("maxReplyLength: 10"));
+
+    WlsRestExchanges.addExchange(URL, "request", "a reply longer than ten characters");
+
+    assertThat(getExchanges(), both(containsString("a reply lo... (truncated)")).and(not(containsString("characters"))));
+  }
+
+  @Test
+  void whenMaxReplyLengthDefined_truncateLongJsonReplies() {
+    WlsRestExchanges.configure(loadMessagesConfiguration("maxReplyLength: 10"));
+
+    WlsRestExchanges.addExchange(URL, "request", JsonParser.parseString("{\"name\": \"a long value\", \"count\": 3}"));
+
+    assertThat(getExchanges(), both(containsString("{\"name\":\"a... (truncated)")).and(not(containsString("count"))));
+  }
+
+  @Test
+  void whenJsonReplyRecorded_displayIt() {
+    WlsRestExchanges.addExchange(URL, "request", JsonParser.parseString("{\"name\": \"alpha\", \"count\": 3}"));
+
+    assertThat(getExchanges(), containsString("{\"name\":\"alpha\",\"count\":3}"));
+  }
+
+  @Test
+  void whenCompressionEnabled_displayOriginalReply() {
+    WlsRestExchanges.configure(loadMessagesConfiguration("compress: true"));
+
+    WlsRestExchanges.addExchange(URL, "request", "the original reply");
+
+    assertThat(getExchanges(), containsString("the original reply"));
+  }
+
+  @Test
+  void whenCompressionEnabled_repetitiveRepliesTakeLessSpace() {
+    final String reply = createRepetitiveReply();
+    WlsRestExchanges.addExchange(URL, "request", reply);
+    final int uncompressedAllocation = WlsRestExchanges.getMessageAllocation();
+    WlsRestExchanges.clear();
+
+    WlsRestExchanges.configure(loadMessagesConfiguration("compress: true"));
+    WlsRestExchanges.addExchange(URL, "request", reply);
+
+    assertThat(WlsRestExchanges.getMessageAllocation(), lessThan(uncompressedAllocation));
+  }
+
+  private String createRepetitiveReply() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) sb.append("{\"name\": \"server\", \"count\": 0}");
+    return sb.toString();
+  }
+}
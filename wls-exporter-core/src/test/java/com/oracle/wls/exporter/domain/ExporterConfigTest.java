@@ -7,6 +7,7 @@ import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,7 +28,10 @@ import static com.oracle.wls.exporter.domain.ExporterConfigTest.QueryHierarchyMa
 import static com.oracle.wls.exporter.domain.MetricMatcher.hasMetric;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.equalToCompressingWhiteSpace;
@@ -306,6 +310,943 @@ class ExporterConfigTest {
             "      key: applicationName\n" +
             "      values: [pendingRequests, completedRequests, stuckThreadCount]\n";
 
+    @Test
+    void whenNotSpecified_responseLimitsAreNull() {
+        ExporterConfig config = loadFromString(REST_PORT_CONFIG);
+
+        assertThat(config.getMaxScrapeBytes(), nullValue());
+        assertThat(config.getMaxResponseBytes(config.getQueries()[0]), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readMaxScrapeBytesFromYaml() {
+        ExporterConfig config = loadFromString(RESPONSE_LIMIT_CONFIG);
+
+        assertThat(config.getMaxScrapeBytes(), equalTo(5000000L));
+    }
+
+    @Test
+    void whenSpecified_useGlobalMaxResponseBytesForQueryWithoutLimit() {
+        ExporterConfig config = loadFromString(RESPONSE_LIMIT_CONFIG);
+
+        assertThat(config.getMaxResponseBytes(config.getQueries()[1]), equalTo(1000000L));
+    }
+
+    @Test
+    void whenQuerySpecifiesMaxResponseBytes_overrideGlobalLimit() {
+        ExporterConfig config = loadFromString(RESPONSE_LIMIT_CONFIG);
+
+        assertThat(config.getMaxResponseBytes(config.getQueries()[0]), equalTo(200000L));
+    }
+
+    @Test
+    void includeResponseLimitsInToString() {
+        ExporterConfig config = loadFromString(RESPONSE_LIMIT_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(RESPONSE_LIMIT_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedResponseLimits() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, RESPONSE_LIMIT_CONFIG).getMaxScrapeBytes(), equalTo(5000000L));
+        assertThat(getReplacedConfiguration(RESPONSE_LIMIT_CONFIG, SERVLET_CONFIG).getMaxScrapeBytes(), nullValue());
+    }
+
+    private static final String RESPONSE_LIMIT_CONFIG =
+            "maxResponseBytes: 1000000\n" +
+            "maxScrapeBytes: 5000000\n" +
+            "queries:\n" +
+            "- maxResponseBytes: 200000\n" +
+            "  applicationRuntimes:\n" +
+            "    key: name\n" +
+            "    workManagerRuntimes:\n" +
+            "      prefix: workmanager_\n" +
+            "      key: applicationName\n" +
+            "      values: [pendingRequests, completedRequests, stuckThreadCount]\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenResponseLimitNotParseable_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("maxScrapeBytes: many\nqueries:"));
+    }
+
+    @Test
+    void whenNoGroupSpecified_selectAllQueries() {
+        ExporterConfig config = loadFromString(GROUP_CONFIG);
+
+        assertThat(config.getEffectiveQueries(null), arrayWithSize(3));
+    }
+
+    @Test
+    void whenGroupSpecified_selectOnlyQueriesInGroup() {
+        ExporterConfig config = loadFromString(GROUP_CONFIG);
+
+        assertThat(config.getEffectiveQueries("fast"), arrayWithSize(1));
+        assertThat(config.getEffectiveQueries("fast")[0].getQueryName(), equalTo("JVMRuntime"));
+    }
+
+    @Test
+    void whenGroupSpecifiedAndDomainQualifierUsed_includeDomainNameQuery() {
+        ExporterConfig config = loadFromString("domainQualifier: true\n" + GROUP_CONFIG);
+
+        assertThat(config.getEffectiveQueries("fast"), arrayWithSize(2));
+    }
+
+    @Test
+    void whenQueriesInGroup_groupIsDefined() {
+        ExporterConfig config = loadFromString(GROUP_CONFIG);
+
+        assertThat(config.hasQueryGroup("slow"), is(true));
+        assertThat(config.hasQueryGroup("medium"), is(false));
+    }
+
+    @Test
+    void whenQueriesInDifferentGroups_doNotMergeThem() {
+        ExporterConfig config = loadFromString(GROUP_CONFIG);
+
+        assertThat(config.getQueries(), arrayWithSize(3));
+    }
+
+    @Test
+    void includeGroupsInToString() {
+        ExporterConfig config = loadFromString(GROUP_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(GROUP_CONFIG));
+    }
+
+    @Test
+    void whenQueriesHaveDifferentCacheTimes_doNotMergeThem() {
+        ExporterConfig config = loadFromString(CACHED_QUERY_CONFIG);
+
+        assertThat(config.getQueries(), arrayWithSize(2));
+    }
+
+    @Test
+    void includeCacheSecondsInToString() {
+        ExporterConfig config = loadFromString(CACHED_QUERY_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(CACHED_QUERY_CONFIG));
+    }
+
+    private static final String CACHED_QUERY_CONFIG =
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n" +
+            "- cacheSeconds: 600\n" +
+            "  JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: uptime\n";
+
+    private static final String GROUP_CONFIG =
+            "queries:\n" +
+            "- group: fast\n" +
+            "  JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n" +
+            "- group: slow\n" +
+            "  JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: uptime\n" +
+            "- applicationRuntimes:\n" +
+            "    key: name\n" +
+            "    workManagerRuntimes:\n" +
+            "      prefix: workmanager_\n" +
+            "      key: applicationName\n" +
+            "      values: [pendingRequests, completedRequests, stuckThreadCount]\n";
+
+    @Test
+    void whenNotSpecified_queryTimeoutIsNull() {
+        ExporterConfig config = loadFromString(REST_PORT_CONFIG);
+
+        assertThat(config.getQueryTimeoutMillis(config.getQueries()[0]), nullValue());
+    }
+
+    @Test
+    void whenSpecified_useGlobalQueryTimeoutForQueryWithoutTimeout() {
+        ExporterConfig config = loadFromString(QUERY_TIMEOUT_CONFIG);
+
+        assertThat(config.getQueryTimeoutMillis(config.getQueries()[1]), equalTo(3000));
+    }
+
+    @Test
+    void whenQuerySpecifiesQueryTimeout_overrideGlobalTimeout() {
+        ExporterConfig config = loadFromString(QUERY_TIMEOUT_CONFIG);
+
+        assertThat(config.getQueryTimeoutMillis(config.getQueries()[0]), equalTo(10000));
+    }
+
+    @Test
+    void includeQueryTimeoutsInToString() {
+        ExporterConfig config = loadFromString(QUERY_TIMEOUT_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(QUERY_TIMEOUT_CONFIG));
+    }
+
+    private static final String QUERY_TIMEOUT_CONFIG =
+            "queryTimeoutMillis: 3000\n" +
+            "queries:\n" +
+            "- queryTimeoutMillis: 10000\n" +
+            "  JDBCServiceRuntime:\n" +
+            "    JDBCDataSourceRuntimeMBeans:\n" +
+            "      prefix: ds_\n" +
+            "      key: name\n" +
+            "      values: activeConnectionsCurrentCount\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenQueryTimeoutNotPositive_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("queryTimeoutMillis: -1\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_scrapeTimeoutIsNull() {
+        ExporterConfig config = loadFromString(REST_PORT_CONFIG);
+
+        assertThat(config.getScrapeTimeoutSeconds(), nullValue());
+    }
+
+    @Test
+    void whenNotSpecified_useDefaultScrapeTimeoutOffset() {
+        ExporterConfig config = loadFromString(REST_PORT_CONFIG);
+
+        assertThat(config.getScrapeTimeoutOffsetMillis(), equalTo(ExporterConfig.DEFAULT_SCRAPE_TIMEOUT_OFFSET_MILLIS));
+    }
+
+    @Test
+    void whenSpecified_readScrapeTimeoutFromYaml() {
+        ExporterConfig config = loadFromString(SCRAPE_TIMEOUT_CONFIG);
+
+        assertThat(config.getScrapeTimeoutSeconds(), equalTo(10));
+        assertThat(config.getScrapeTimeoutOffsetMillis(), equalTo(250));
+    }
+
+    @Test
+    void includeScrapeTimeoutInToString() {
+        ExporterConfig config = loadFromString(SCRAPE_TIMEOUT_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(SCRAPE_TIMEOUT_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedScrapeTimeout() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, SCRAPE_TIMEOUT_CONFIG).getScrapeTimeoutSeconds(), equalTo(10));
+        assertThat(getReplacedConfiguration(SCRAPE_TIMEOUT_CONFIG, SERVLET_CONFIG).getScrapeTimeoutSeconds(), nullValue());
+    }
+
+    private static final String SCRAPE_TIMEOUT_CONFIG =
+            "scrapeTimeoutSeconds: 10\n" +
+            "scrapeTimeoutOffsetMillis: 250\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenScrapeTimeoutNotPositive_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("scrapeTimeoutSeconds: 0\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_messagesConfigurationIsNull() {
+        ExporterConfig config = loadFromString(REST_PORT_CONFIG);
+
+        assertThat(config.getMessagesConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readMessagesConfiguration() {
+        MessagesConfiguration messages = loadFromString(MESSAGES_CONFIG).getMessagesConfiguration();
+
+        assertThat(messages.isEnabled(), is(true));
+        assertThat(messages.getMaxReplyLength(), equalTo(2000));
+        assertThat(messages.isCompress(), is(true));
+    }
+
+    @Test
+    void includeMessagesConfigurationInToString() {
+        ExporterConfig config = loadFromString(MESSAGES_CONFIG);
+
+        assertThat(config.toString(), equalToCompressingWhiteSpace(MESSAGES_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedMessagesConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, MESSAGES_CONFIG).getMessagesConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(MESSAGES_CONFIG, SERVLET_CONFIG).getMessagesConfiguration(), nullValue());
+    }
+
+    private static final String MESSAGES_CONFIG =
+            "messages:\n" +
+            "  enabled: true\n" +
+            "  maxReplyLength: 2000\n" +
+            "  compress: true\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenMessagesMaxReplyLengthNotPositive_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("messages:\n  maxReplyLength: -1\nqueries:"));
+    }
+
+    @Test
+    void whenMessagesConfigurationNotAStructure_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("messages: off\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_hedgingConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getHedgingConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readHedgingConfiguration() {
+        HedgingConfiguration hedging = loadFromString(HEDGING_CONFIG).getHedgingConfiguration();
+
+        assertThat(hedging.isEnabled(), is(true));
+        assertThat(hedging.getLatencyPercentile(), equalTo(90));
+        assertThat(hedging.getMinDelayMillis(), equalTo(200));
+        assertThat(hedging.getMaxHedgePercent(), equalTo(5));
+    }
+
+    @Test
+    void whenHedgingSectionEmpty_useDefaults() {
+        HedgingConfiguration hedging = loadFromString("hedging:\nqueries:").getHedgingConfiguration();
+
+        assertThat(hedging.isEnabled(), is(true));
+        assertThat(hedging.getLatencyPercentile(), equalTo(HedgingConfiguration.DEFAULT_LATENCY_PERCENTILE));
+        assertThat(hedging.getMinDelayMillis(), equalTo(HedgingConfiguration.DEFAULT_MIN_DELAY_MILLIS));
+        assertThat(hedging.getMaxHedgePercent(), equalTo(HedgingConfiguration.DEFAULT_MAX_HEDGE_PERCENT));
+    }
+
+    @Test
+    void includeHedgingConfigurationInToString() {
+        assertThat(loadFromString(HEDGING_CONFIG).toString(), equalToCompressingWhiteSpace(HEDGING_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedHedgingConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, HEDGING_CONFIG).getHedgingConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(HEDGING_CONFIG, SERVLET_CONFIG).getHedgingConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenHedgePercentageOutOfRange_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("hedging:\n  maxHedgePercent: 150\nqueries:"));
+    }
+
+    @Test
+    void whenHedgingConfigurationNotAStructure_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("hedging: on\nqueries:"));
+    }
+
+    private static final String HEDGING_CONFIG =
+            "hedging:\n" +
+            "  enabled: true\n" +
+            "  latencyPercentile: 90\n" +
+            "  minDelayMillis: 200\n" +
+            "  maxHedgePercent: 5\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenNotSpecified_concurrencyConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getConcurrencyConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readConcurrencyConfiguration() {
+        ConcurrencyConfiguration concurrency = loadFromString(CONCURRENCY_CONFIG).getConcurrencyConfiguration();
+
+        assertThat(concurrency.getInitialLimit(), equalTo(3));
+        assertThat(concurrency.getMinLimit(), equalTo(2));
+        assertThat(concurrency.getMaxLimit(), equalTo(8));
+        assertThat(concurrency.getMaxQueueLength(), equalTo(5));
+        assertThat(concurrency.getQueueTimeoutMillis(), equalTo(500));
+        assertThat(concurrency.getOverloadAction(), equalTo(ConcurrencyConfiguration.OverloadAction.SNAPSHOT));
+    }
+
+    @Test
+    void whenConcurrencySectionEmpty_useDefaults() {
+        ConcurrencyConfiguration concurrency = loadFromString("concurrency:\nqueries:").getConcurrencyConfiguration();
+
+        assertThat(concurrency.getInitialLimit(), equalTo(ConcurrencyConfiguration.DEFAULT_INITIAL_LIMIT));
+        assertThat(concurrency.getMaxQueueLength(), equalTo(ConcurrencyConfiguration.DEFAULT_MAX_QUEUE_LENGTH));
+        assertThat(concurrency.getOverloadAction(), equalTo(ConcurrencyConfiguration.OverloadAction.SHED));
+    }
+
+    @Test
+    void includeConcurrencyConfigurationInToString() {
+        assertThat(loadFromString(CONCURRENCY_CONFIG).toString(), equalToCompressingWhiteSpace(CONCURRENCY_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedConcurrencyConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, CONCURRENCY_CONFIG).getConcurrencyConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(CONCURRENCY_CONFIG, SERVLET_CONFIG).getConcurrencyConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenInitialLimitAboveMaximum_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("concurrency:\n  initialLimit: 5\n  maxLimit: 4\nqueries:"));
+    }
+
+    @Test
+    void whenOverloadActionUnknown_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("concurrency:\n  whenOverloaded: panic\nqueries:"));
+    }
+
+    private static final String CONCURRENCY_CONFIG =
+            "concurrency:\n" +
+            "  initialLimit: 3\n" +
+            "  minLimit: 2\n" +
+            "  maxLimit: 8\n" +
+            "  maxQueueLength: 5\n" +
+            "  queueTimeoutMillis: 500\n" +
+            "  whenOverloaded: snapshot\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    @Test
+    void whenNotSpecified_querySplittingConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getQuerySplittingConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readQuerySplittingConfiguration() {
+        QuerySplittingConfiguration splitting = loadFromString(QUERY_SPLITTING_CONFIG).getQuerySplittingConfiguration();
+
+        assertThat(splitting.getMinResponseBytes(), equalTo(500000L));
+        assertThat(splitting.getMinLatencyMillis(), equalTo(1500));
+        assertThat(splitting.getMaxParallelRequests(), equalTo(3));
+    }
+
+    @Test
+    void whenQuerySplittingSectionEmpty_useDefaults() {
+        QuerySplittingConfiguration splitting = loadFromString("querySplitting:\nqueries:").getQuerySplittingConfiguration();
+
+        assertThat(splitting.getMinResponseBytes(), equalTo(QuerySplittingConfiguration.DEFAULT_MIN_RESPONSE_BYTES));
+        assertThat(splitting.getMinLatencyMillis(), equalTo(QuerySplittingConfiguration.DEFAULT_MIN_LATENCY_MILLIS));
+        assertThat(splitting.getMaxParallelRequests(), equalTo(QuerySplittingConfiguration.DEFAULT_MAX_PARALLEL_REQUESTS));
+    }
+
+    @Test
+    void includeQuerySplittingConfigurationInToString() {
+        assertThat(loadFromString(QUERY_SPLITTING_CONFIG).toString(), equalToCompressingWhiteSpace(QUERY_SPLITTING_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedQuerySplittingConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, QUERY_SPLITTING_CONFIG).getQuerySplittingConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(QUERY_SPLITTING_CONFIG, SERVLET_CONFIG).getQuerySplittingConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenMaxParallelRequestsNotPositive_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("querySplitting:\n  maxParallelRequests: 0\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_domainRuntimeConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getDomainRuntimeConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readDomainRuntimeConfiguration() {
+        DomainRuntimeConfiguration domainRuntime = loadFromString(DOMAIN_RUNTIME_CONFIG).getDomainRuntimeConfiguration();
+
+        assertThat(domainRuntime.getServersPerRequest(), equalTo(20));
+    }
+
+    @Test
+    void whenDomainRuntimeSectionEmpty_dontPageServers() {
+        DomainRuntimeConfiguration domainRuntime = loadFromString("domainRuntime:\nqueries:").getDomainRuntimeConfiguration();
+
+        assertThat(domainRuntime.getServersPerRequest(), nullValue());
+    }
+
+    @Test
+    void includeDomainRuntimeConfigurationInToString() {
+        assertThat(loadFromString(DOMAIN_RUNTIME_CONFIG).toString(), equalToCompressingWhiteSpace(DOMAIN_RUNTIME_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedDomainRuntimeConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, DOMAIN_RUNTIME_CONFIG).getDomainRuntimeConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(DOMAIN_RUNTIME_CONFIG, SERVLET_CONFIG).getDomainRuntimeConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenServersPerRequestNotPositive_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("domainRuntime:\n  serversPerRequest: 0\nqueries:"));
+    }
+
+    @Test
+    void whenDomainRuntimeSpecified_effectiveQueriesUseDomainRuntime() {
+        final MBeanSelector[] queries = loadFromString(DOMAIN_RUNTIME_CONFIG).getEffectiveQueries();
+
+        assertThat(queries[0].getQueryType(), equalTo(QueryType.DOMAIN_RUNTIME));
+    }
+
+    @Test
+    void whenDomainRuntimeSpecified_domainNameQueryIsUnchanged() {
+        final MBeanSelector[] queries = loadFromString("domainQualifier: true\n" + DOMAIN_RUNTIME_CONFIG).getEffectiveQueries();
+
+        assertThat(queries[0].getQueryType(), equalTo(QueryType.CONFIGURATION));
+        assertThat(queries[1].getQueryType(), equalTo(QueryType.DOMAIN_RUNTIME));
+    }
+
+    @Test
+    void whenNotSpecified_federationConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getFederationConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readFederationConfiguration() {
+        FederationConfiguration federation = loadFromString(FEDERATION_CONFIG).getFederationConfiguration();
+
+        assertThat(federation.getExporters(), contains("http://host1:7001/wls-exporter/metrics", "https://host2:7002/metrics"));
+        assertThat(federation.getMaxParallelRequests(), equalTo(4));
+        assertThat(federation.getTimeoutMillis(), equalTo(2000));
+    }
+
+    @Test
+    void whenFederationLimitsNotSpecified_useDefaults() {
+        FederationConfiguration federation
+              = loadFromString("federation:\n  exporters: [http://host1:7001/metrics]\nqueries:").getFederationConfiguration();
+
+        assertThat(federation.getMaxParallelRequests(), equalTo(FederationConfiguration.DEFAULT_MAX_PARALLEL_REQUESTS));
+        assertThat(federation.getTimeoutMillis(), equalTo(FederationConfiguration.DEFAULT_TIMEOUT_MILLIS));
+    }
+
+    @Test
+    void includeFederationConfigurationInToString() {
+        assertThat(loadFromString(FEDERATION_CONFIG).toString(), equalToCompressingWhiteSpace(FEDERATION_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedFederationConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, FEDERATION_CONFIG).getFederationConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(FEDERATION_CONFIG, SERVLET_CONFIG).getFederationConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenFederationHasNoExporters_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("federation:\n  timeoutMillis: 10\nqueries:"));
+    }
+
+    @Test
+    void whenFederatedExporterIsNotHttpUrl_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("federation:\n  exporters: [ftp://host1/metrics]\nqueries:"));
+    }
+
+    @Test
+    void whenFederatedExportersShareHostAndPort_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("federation:\n  exporters: [http://host1:7001/a/metrics, http://host1:7001/b/metrics]"
+                    + "\nqueries:"));
+    }
+
+    @Test
+    void whenFederationTimeoutNotPositive_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("federation:\n  exporters: [http://host1:7001/metrics]\n  timeoutMillis: 0\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_remoteWriteConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getRemoteWriteConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readRemoteWriteConfiguration() {
+        RemoteWriteConfiguration remoteWrite = loadFromString(REMOTE_WRITE_CONFIG).getRemoteWriteConfiguration();
+
+        assertThat(remoteWrite.getUrl(), equalTo("https://prometheus:9090/api/v1/write"));
+        assertThat(remoteWrite.getIntervalSeconds(), equalTo(15));
+        assertThat(remoteWrite.getMaxSamplesPerSend(), equalTo(500));
+        assertThat(remoteWrite.getQueueCapacity(), equalTo(10000));
+        assertThat(remoteWrite.getMaxRetries(), equalTo(3));
+        assertThat(remoteWrite.getMinBackoffMillis(), equalTo(50));
+        assertThat(remoteWrite.getMaxBackoffMillis(), equalTo(5000));
+        assertThat(remoteWrite.getTimeoutMillis(), equalTo(3000));
+    }
+
+    @Test
+    void whenRemoteWriteLimitsNotSpecified_useDefaults() {
+        RemoteWriteConfiguration remoteWrite
+              = loadFromString("remoteWrite:\n  url: http://prometheus:9090/api/v1/write\nqueries:").getRemoteWriteConfiguration();
+
+        assertThat(remoteWrite.getIntervalSeconds(), equalTo(RemoteWriteConfiguration.DEFAULT_INTERVAL_SECONDS));
+        assertThat(remoteWrite.getQueueCapacity(), equalTo(RemoteWriteConfiguration.DEFAULT_QUEUE_CAPACITY));
+        assertThat(remoteWrite.getMaxRetries(), equalTo(RemoteWriteConfiguration.DEFAULT_MAX_RETRIES));
+        assertThat(remoteWrite.getAuthenticationHeader(), nullValue());
+    }
+
+    @Test
+    void whenRemoteWriteCredentialsSpecified_createAuthenticationHeader() {
+        RemoteWriteConfiguration remoteWrite = loadFromString(REMOTE_WRITE_CONFIG).getRemoteWriteConfiguration();
+
+        assertThat(remoteWrite.getAuthenticationHeader(), equalTo("Basic " + Base64.getEncoder().encodeToString("monitor:secret".getBytes())));
+    }
+
+    @Test
+    void includeRemoteWriteConfigurationWithoutPasswordInToString() {
+        assertThat(loadFromString(REMOTE_WRITE_CONFIG).toString(),
+              equalToCompressingWhiteSpace(REMOTE_WRITE_CONFIG.replace("  password: secret\n", "")));
+    }
+
+    @Test
+    void afterReplace_configHasChangedRemoteWriteConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, REMOTE_WRITE_CONFIG).getRemoteWriteConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(REMOTE_WRITE_CONFIG, SERVLET_CONFIG).getRemoteWriteConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenRemoteWriteHasNoUrl_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("remoteWrite:\n  intervalSeconds: 10\nqueries:"));
+    }
+
+    @Test
+    void whenRemoteWriteUrlIsNotHttpUrl_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("remoteWrite:\n  url: ftp://prometheus/write\nqueries:"));
+    }
+
+    @Test
+    void whenRemoteWriteMaxBackoffBelowMinimum_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("remoteWrite:\n  url: http://prometheus:9090/api/v1/write\n"
+                    + "  minBackoffMillis: 100\n  maxBackoffMillis: 10\nqueries:"));
+    }
+
+    @Test
+    void whenRemoteWriteMaxRetriesNegative_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("remoteWrite:\n  url: http://prometheus:9090/api/v1/write\n  maxRetries: -1\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_otlpConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getOtlpConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readOtlpConfiguration() {
+        OtlpConfiguration otlp = loadFromString(OTLP_CONFIG).getOtlpConfiguration();
+
+        assertThat(otlp.getUrl(), equalTo("http://collector:4318/v1/metrics"));
+        assertThat(otlp.getIntervalSeconds(), equalTo(30));
+        assertThat(otlp.getTemporality(), equalTo(AggregationTemporality.CUMULATIVE));
+        assertThat(otlp.isOnlyChangedSeries(), is(false));
+        assertThat(otlp.getMaxDataPointsPerRequest(), equalTo(1000));
+        assertThat(otlp.getTimeoutMillis(), equalTo(3000));
+    }
+
+    @Test
+    void whenOtlpSettingsNotSpecified_useDefaults() {
+        OtlpConfiguration otlp
+              = loadFromString("otlp:\n  url: http://collector:4318/v1/metrics\nqueries:").getOtlpConfiguration();
+
+        assertThat(otlp.getIntervalSeconds(), equalTo(OtlpConfiguration.DEFAULT_INTERVAL_SECONDS));
+        assertThat(otlp.getTemporality(), equalTo(AggregationTemporality.DELTA));
+        assertThat(otlp.isOnlyChangedSeries(), is(true));
+        assertThat(otlp.getMaxDataPointsPerRequest(), equalTo(OtlpConfiguration.DEFAULT_MAX_DATA_POINTS_PER_REQUEST));
+        assertThat(otlp.getAuthenticationHeader(), nullValue());
+    }
+
+    @Test
+    void includeOtlpConfigurationWithoutPasswordInToString() {
+        assertThat(loadFromString(OTLP_CONFIG).toString(),
+              equalToCompressingWhiteSpace(OTLP_CONFIG.replace("  password: secret\n", "")));
+    }
+
+    @Test
+    void afterReplace_configHasChangedOtlpConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, OTLP_CONFIG).getOtlpConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(OTLP_CONFIG, SERVLET_CONFIG).getOtlpConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenOtlpHasNoUrl_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("otlp:\n  intervalSeconds: 10\nqueries:"));
+    }
+
+    @Test
+    void whenOtlpTemporalityUnknown_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("otlp:\n  url: http://collector:4318/v1/metrics\n  temporality: sometimes\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_subscriptionConfigurationIsNull() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getSubscriptionConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenSpecified_readSubscriptionConfiguration() {
+        SubscriptionConfiguration subscriptions = loadFromString(SUBSCRIPTION_CONFIG).getSubscriptionConfiguration();
+
+        assertThat(subscriptions.getIntervalSeconds(), equalTo(2));
+        assertThat(subscriptions.getQueueCapacity(), equalTo(50));
+        assertThat(subscriptions.getMaxSubscribers(), equalTo(10));
+    }
+
+    @Test
+    void whenSubscriptionSettingsNotSpecified_useDefaults() {
+        SubscriptionConfiguration subscriptions
+              = loadFromString("subscriptions:\nqueries:").getSubscriptionConfiguration();
+
+        assertThat(subscriptions.getIntervalSeconds(), equalTo(SubscriptionConfiguration.DEFAULT_INTERVAL_SECONDS));
+        assertThat(subscriptions.getQueueCapacity(), equalTo(SubscriptionConfiguration.DEFAULT_QUEUE_CAPACITY));
+        assertThat(subscriptions.getMaxSubscribers(), equalTo(SubscriptionConfiguration.DEFAULT_MAX_SUBSCRIBERS));
+    }
+
+    @Test
+    void includeSubscriptionConfigurationInToString() {
+        assertThat(loadFromString(SUBSCRIPTION_CONFIG).toString(), equalToCompressingWhiteSpace(SUBSCRIPTION_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedSubscriptionConfiguration() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, SUBSCRIPTION_CONFIG).getSubscriptionConfiguration(),
+              notNullValue());
+        assertThat(getReplacedConfiguration(SUBSCRIPTION_CONFIG, SERVLET_CONFIG).getSubscriptionConfiguration(),
+              nullValue());
+    }
+
+    @Test
+    void whenSubscriptionQueueCapacityNotPositive_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("subscriptions:\n  queueCapacity: 0\nqueries:"));
+    }
+
+    @Test
+    void whenNotSpecified_metricsSourceIsRestApi() {
+        assertThat(loadFromString(REST_PORT_CONFIG).getMetricsSource(), equalTo(MetricsSourceType.REST));
+    }
+
+    @Test
+    void whenSpecified_readMetricsSource() {
+        assertThat(loadFromString(MBEAN_SERVER_CONFIG).getMetricsSource(), equalTo(MetricsSourceType.MBEAN_SERVER));
+    }
+
+    @Test
+    void includeMetricsSourceInToString() {
+        assertThat(loadFromString(MBEAN_SERVER_CONFIG).toString(), equalToCompressingWhiteSpace(MBEAN_SERVER_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedMetricsSource() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, MBEAN_SERVER_CONFIG).getMetricsSource(),
+              equalTo(MetricsSourceType.MBEAN_SERVER));
+        assertThat(getReplacedConfiguration(MBEAN_SERVER_CONFIG, SERVLET_CONFIG).getMetricsSource(),
+              equalTo(MetricsSourceType.REST));
+    }
+
+    @Test
+    void whenMetricsSourceUnknown_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("metricsSource: snmp\nqueries:"));
+    }
+
+    @Test
+    void whenJmxSpecified_readServiceUrl() {
+        final JmxConfiguration jmx = loadFromString(JMX_CONFIG).getJmxConfiguration();
+
+        assertThat(jmx.getUrl(), equalTo("service:jmx:t3://{host}:{port}/jndi/weblogic.management.mbeanservers.runtime"));
+    }
+
+    @Test
+    void jmxUrlPattern_substitutesHostAndPort() {
+        final String pattern = loadFromString(JMX_CONFIG).getJmxConfiguration().getUrlPattern();
+
+        assertThat(String.format(pattern, "http", "myhost", 7001),
+              equalTo("service:jmx:t3://myhost:7001/jndi/weblogic.management.mbeanservers.runtime"));
+    }
+
+    @Test
+    void includeJmxInToString() {
+        assertThat(loadFromString(JMX_CONFIG).toString(), equalToCompressingWhiteSpace(JMX_CONFIG));
+    }
+
+    @Test
+    void afterReplace_configHasChangedJmx() {
+        assertThat(getReplacedConfiguration(SERVLET_CONFIG, JMX_CONFIG).getJmxConfiguration(), notNullValue());
+        assertThat(getReplacedConfiguration(JMX_CONFIG, SERVLET_CONFIG).getJmxConfiguration(), nullValue());
+    }
+
+    @Test
+    void whenMetricsSourceIsJmxWithoutJmxSection_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("metricsSource: jmx\nqueries:"));
+    }
+
+    @Test
+    void whenMetricsSourceIsMBeanServerWithDomainRuntime_reportError() {
+        assertThrows(ConfigurationException.class,
+              () -> loadFromString("metricsSource: mbeanServer\n" + DOMAIN_RUNTIME_CONFIG));
+    }
+
+    @Test
+    void whenJmxHasNoUrl_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("jmx:\n  timeout: 10\nqueries:"));
+    }
+
+    @Test
+    void whenJmxUrlIsNotServiceUrl_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString("jmx:\n  url: http://host:7001\nqueries:"));
+    }
+
+    @Test
+    void whenCountersSpecified_includeThemInToString() {
+        assertThat(loadFromString(COUNTERS_CONFIG).toString(), equalToCompressingWhiteSpace(COUNTERS_CONFIG));
+    }
+
+    @Test
+    void whenCountersSpecified_returnCounterNamesWithPrefixes() {
+        assertThat(loadFromString(COUNTERS_CONFIG).getCounterNames(),
+              containsInAnyOrder("wls_servlet_invocationTotalCount", "wls_app_openSessionsTotalCount"));
+    }
+
+    @Test
+    void whenMetricNamesAreSnakeCase_returnSnakeCaseCounterNames() {
+        assertThat(loadFromString("metricsNameSnakeCase: true\n" + COUNTERS_CONFIG).getCounterNames(),
+              containsInAnyOrder("wls_servlet_invocation_total_count", "wls_app_open_sessions_total_count"));
+    }
+
+    @Test
+    void afterAppendingQueries_retainCountersOfBoth() {
+        ExporterConfig config = loadFromString("queries:\n- JVMRuntime:\n    prefix: jvm_\n    values: [a, b]\n    counters: a\n");
+        config.append(loadFromString("queries:\n- JVMRuntime:\n    prefix: jvm_\n    values: [b, c]\n    counters: c\n"));
+
+        assertThat(config.getCounterNames(), containsInAnyOrder("jvm_a", "jvm_c"));
+    }
+
+    @Test
+    void whenNoCountersSpecified_returnNoCounterNames() {
+        assertThat(loadFromString(MBEAN_SERVER_CONFIG).getCounterNames(), empty());
+    }
+
+    @Test
+    void whenCountersDuplicated_reportError() {
+        assertThrows(ConfigurationException.class, () -> loadFromString(
+              "queries:\n- JVMRuntime:\n    values: [a, b]\n    counters: [a, a]\n"));
+    }
+
+    private static final String COUNTERS_CONFIG =
+            "queries:\n" +
+            "- applicationRuntimes:\n" +
+            "    key: name\n" +
+            "    componentRuntimes:\n" +
+            "      prefix: wls_app_\n" +
+            "      key: name\n" +
+            "      values: [openSessionsCurrentCount, openSessionsTotalCount]\n" +
+            "      counters: openSessionsTotalCount\n" +
+            "      servlets:\n" +
+            "        prefix: wls_servlet_\n" +
+            "        key: servletName\n" +
+            "        values: invocationTotalCount\n" +
+            "        counters: invocationTotalCount\n";
+
+    private static final String JMX_CONFIG =
+            "jmx:\n" +
+            "  url: service:jmx:t3://{host}:{port}/jndi/weblogic.management.mbeanservers.runtime\n" +
+            "metricsSource: jmx\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String MBEAN_SERVER_CONFIG =
+            "metricsSource: mbeanServer\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String FEDERATION_CONFIG =
+            "federation:\n" +
+            "  exporters: [http://host1:7001/wls-exporter/metrics, https://host2:7002/metrics]\n" +
+            "  maxParallelRequests: 4\n" +
+            "  timeoutMillis: 2000\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String REMOTE_WRITE_CONFIG =
+            "remoteWrite:\n" +
+            "  url: https://prometheus:9090/api/v1/write\n" +
+            "  intervalSeconds: 15\n" +
+            "  maxSamplesPerSend: 500\n" +
+            "  queueCapacity: 10000\n" +
+            "  maxRetries: 3\n" +
+            "  minBackoffMillis: 50\n" +
+            "  maxBackoffMillis: 5000\n" +
+            "  timeoutMillis: 3000\n" +
+            "  username: monitor\n" +
+            "  password: secret\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String OTLP_CONFIG =
+            "otlp:\n" +
+            "  url: http://collector:4318/v1/metrics\n" +
+            "  intervalSeconds: 30\n" +
+            "  temporality: cumulative\n" +
+            "  onlyChangedSeries: false\n" +
+            "  maxDataPointsPerRequest: 1000\n" +
+            "  timeoutMillis: 3000\n" +
+            "  username: monitor\n" +
+            "  password: secret\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String SUBSCRIPTION_CONFIG =
+            "subscriptions:\n" +
+            "  intervalSeconds: 2\n" +
+            "  queueCapacity: 50\n" +
+            "  maxSubscribers: 10\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String DOMAIN_RUNTIME_CONFIG =
+            "domainRuntime:\n" +
+            "  serversPerRequest: 20\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
+    private static final String QUERY_SPLITTING_CONFIG =
+            "querySplitting:\n" +
+            "  minResponseBytes: 500000\n" +
+            "  minLatencyMillis: 1500\n" +
+            "  maxParallelRequests: 3\n" +
+            "queries:\n" +
+            "- JVMRuntime:\n" +
+            "    key: name\n" +
+            "    values: [heapFreeCurrent, heapFreePercent]\n";
+
     @Test
     void whenRestPortSetAsIntegerString_parseIt() {
         ExporterConfig config = loadFromString(STRING_REST_PORT_CONFIG);
@@ -639,6 +1580,27 @@ class ExporterConfigTest {
         assertThat(metrics, hasMetric("workmanager_stuckThreadCount{domain=\"mydomain\",applicationName=\"thisOne\"}", 3));
     }
 
+    @Test
+    void afterReplacingConfiguration_retainDomainName() {
+        ExporterConfig exporterConfig = loadFromString(DOMAIN_QUALIFIER_CONFIG);
+        exporterConfig.scrapeMetrics(MBeanSelector.DOMAIN_NAME_SELECTOR, getJsonResponse(CONFIG_RESPONSE));
+
+        exporterConfig.replace(loadFromString(DOMAIN_QUALIFIER_CONFIG));
+
+        assertThat(exporterConfig.getDomainName(), equalTo("mydomain"));
+        assertThat(exporterConfig.getEffectiveQueries(), arrayWithSize(1));
+    }
+
+    @Test
+    void afterReplacingConfigurationWithoutDomainQualifier_discardDomainName() {
+        ExporterConfig exporterConfig = loadFromString(DOMAIN_QUALIFIER_CONFIG);
+        exporterConfig.scrapeMetrics(MBeanSelector.DOMAIN_NAME_SELECTOR, getJsonResponse(CONFIG_RESPONSE));
+
+        exporterConfig.replace(loadFromString(PARTITION_CONFIG));
+
+        assertThat(exporterConfig.getDomainName(), nullValue());
+    }
+
     private Map<String, Object> getMetrics(ExporterConfig exporterConfig) {
         Map<String, Object> metrics = new HashMap<>();
         Arrays.stream(exporterConfig.getEffectiveQueries())
@@ -0,0 +1,166 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.io.IOException;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.oracle.wls.exporter.domain.MetricMatcher.hasMetric;
+import static com.oracle.wls.exporter.domain.MetricMatcher.hasNoSuchMetric;
+import static com.oracle.wls.exporter.domain.SyntheticMBean.toObjectName;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MBeanScrapeSourceTest {
+
+    private static final ObjectName SERVER = toObjectName("ms1", "ServerRuntime");
+    private static final ObjectName JVM = toObjectName("ms1", "JVMRuntime");
+    private static final ObjectName APP1 = toObjectName("mbeans", "ApplicationRuntime");
+    private static final ObjectName APP2 = toObjectName("weblogic", "ApplicationRuntime");
+    private static final ObjectName EJB = toObjectName("EjbStatusBean", "EJBComponentRuntime");
+    private static final ObjectName WEB_APP = toObjectName("ejb30_weblogic", "WebAppComponentRuntime");
+    private static final ObjectName DOMAIN = toObjectName("mydomain", "Domain");
+
+    private final MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+    private final SyntheticMBean jvmRuntime = new SyntheticMBean()
+          .with("Name", "ms1").with("HeapFreeCurrent", 100L).with("HeapFreePercent", 25).with("Uptime", 1234L);
+
+    @BeforeEach
+    void setUp() throws JMException {
+        register(MBeanScrapeSource.RUNTIME_SERVICE,
+              new SyntheticMBean().with("ServerRuntime", SERVER).with("DomainConfiguration", DOMAIN));
+        register(SERVER, new SyntheticMBean().with("Name", "ms1").with("JVMRuntime", JVM)
+              .with("ApplicationRuntimes", new ObjectName[] {APP1, APP2}));
+        register(JVM, jvmRuntime);
+        register(APP1, new SyntheticMBean().with("Name", "mbeans").with("HealthState", "HEALTH_OK")
+              .with("ComponentRuntimes", new ObjectName[] {EJB}));
+        register(APP2, new SyntheticMBean().with("Name", "weblogic").with("HealthState", "HEALTH_WARN")
+              .with("ComponentRuntimes", new ObjectName[] {WEB_APP}));
+        register(EJB, new SyntheticMBean().with("Name", "EjbStatusBean")
+              .with("Type", "EJBComponentRuntime").with("DeploymentState", 2));
+        register(WEB_APP, new SyntheticMBean().with("Name", "ejb30_weblogic")
+              .with("Type", "WebAppComponentRuntime").with("DeploymentState", 3).with("OpenSessionsCurrentCount", 7));
+        register(DOMAIN, new SyntheticMBean().with("Name", "mydomain"));
+    }
+
+    private void register(String objectName, SyntheticMBean mbean) throws JMException {
+        register(new ObjectName(objectName), mbean);
+    }
+
+    private void register(ObjectName objectName, SyntheticMBean mbean) throws JMException {
+        mbeanServer.registerMBean(mbean, objectName);
+    }
+
+    private Map<String, Object> scrape(String yaml) throws IOException {
+        final ExporterConfig config = ExporterConfig.loadConfig(yaml);
+        return config.scrapeMetrics(config.getQueries()[0], mbeanServer);
+    }
+
+    @Test
+    void whenQuerySelectsSingleMBean_scrapeItsValues() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- JVMRuntime:\n    key: name\n    values: [heapFreeCurrent, heapFreePercent]");
+
+        assertThat(metrics, allOf(
+              hasMetric("heapFreeCurrent{name=\"ms1\"}", 100),
+              hasMetric("heapFreePercent{name=\"ms1\"}", 25),
+              hasNoSuchMetric("uptime{name=\"ms1\"}")));
+    }
+
+    @Test
+    void whenQuerySelectsCollections_scrapeEachMBean() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- applicationRuntimes:\n    key: name\n    keyName: app\n"
+              + "    componentRuntimes:\n      key: name\n      values: deploymentState");
+
+        assertThat(metrics, allOf(
+              hasMetric("deploymentState{app=\"mbeans\",name=\"EjbStatusBean\"}", 2),
+              hasMetric("deploymentState{app=\"weblogic\",name=\"ejb30_weblogic\"}", 3)));
+    }
+
+    @Test
+    void whenQueryFiltersByName_skipOtherMBeans() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- applicationRuntimes:\n    key: name\n    keyName: app\n"
+              + "    includedKeyValues: mbe.*\n    componentRuntimes:\n      key: name\n      values: deploymentState");
+
+        assertThat(metrics, allOf(
+              hasMetric("deploymentState{app=\"mbeans\",name=\"EjbStatusBean\"}", 2),
+              hasNoSuchMetric("deploymentState{app=\"weblogic\",name=\"ejb30_weblogic\"}")));
+    }
+
+    @Test
+    void whenQueryFiltersByType_skipOtherMBeans() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- applicationRuntimes:\n    key: name\n    keyName: app\n"
+              + "    componentRuntimes:\n      type: WebAppComponentRuntime\n      key: name\n      values: deploymentState");
+
+        assertThat(metrics, allOf(
+              hasNoSuchMetric("deploymentState{app=\"mbeans\",name=\"EjbStatusBean\"}"),
+              hasMetric("deploymentState{app=\"weblogic\",name=\"ejb30_weblogic\"}", 3)));
+    }
+
+    @Test
+    void whenQueryUsesAllValues_scrapeAllNumericAttributes() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- JVMRuntime:\n    prefix: jvm_\n    key: name\n");
+
+        assertThat(metrics, allOf(
+              hasMetric("jvm_heapFreeCurrent{name=\"ms1\"}", 100),
+              hasMetric("jvm_uptime{name=\"ms1\"}", 1234)));
+    }
+
+    @Test
+    void whenQueryHasStringValues_convertThemToIndices() throws IOException {
+        final Map<String, Object> metrics = scrape("queries:\n- applicationRuntimes:\n    key: name\n"
+              + "    stringValues:\n      healthState: [HEALTH_OK, HEALTH_WARN]");
+
+        assertThat(metrics, allOf(
+              hasMetric("healthState{name=\"mbeans\",value=\"HEALTH_OK\"}", 0),
+              hasMetric("healthState{name=\"weblogic\",value=\"HEALTH_WARN\"}", 1)));
+    }
+
+    @Test
+    void readAllFieldsOfAnMBeanInOneRequest() throws IOException {
+        scrape("queries:\n- JVMRuntime:\n    key: name\n    values: [heapFreeCurrent, heapFreePercent]");
+
+        assertThat(jvmRuntime.getNumRequests(), equalTo(1));
+    }
+
+    @Test
+    void whenDomainNameRequested_readItFromDomainConfiguration() throws IOException {
+        final ExporterConfig config = ExporterConfig.loadConfig("domainQualifier: true\nqueries:\n");
+
+        config.scrapeMetrics(MBeanSelector.DOMAIN_NAME_SELECTOR, mbeanServer);
+
+        assertThat(config.getDomainName(), equalTo("mydomain"));
+    }
+
+    @Test
+    void whenNotWebLogicMBeanServer_reportFailure() {
+        final MBeanServer otherServer = MBeanServerFactory.newMBeanServer();
+        final ExporterConfig config = ExporterConfig.loadConfig("queries:\n- JVMRuntime:\n    key: name\n    values: uptime");
+
+        assertThrows(IOException.class, () -> config.scrapeMetrics(config.getQueries()[0], otherServer));
+    }
+
+    @Test
+    void whenDomainRuntimeServiceNotRegistered_reportFailure() {
+        final ExporterConfig config = ExporterConfig.loadConfig(
+              "domainRuntime:\n  serversPerRequest: 5\nqueries:\n- JVMRuntime:\n    key: name\n    values: uptime");
+
+        assertThrows(IOException.class, () -> config.scrapeMetrics(config.getEffectiveQueries()[0], mbeanServer));
+    }
+
+    @Test
+    void whenAttributeBeginsWithAcronym_fieldNameKeepsCapital() {
+        assertThat(MBeanScrapeSource.toFieldName("JVMRuntime"), equalTo("JVMRuntime"));
+        assertThat(MBeanScrapeSource.toFieldName("HeapFreeCurrent"), equalTo("heapFreeCurrent"));
+        assertThat(MBeanScrapeSource.toAttributeName("applicationRuntimes"), equalTo("ApplicationRuntimes"));
+    }
+}
@@ -40,6 +40,7 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -156,6 +157,112 @@ class MBeanSelectorTest {
         assertThat(selector.getKeyName(), equalTo(EXPECTED_KEY_NAME));
     }
 
+    @Test
+    void whenNoMaxResponseBytesInMap_selectorHasNoLimit() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of());
+
+        assertThat(selector.getMaxResponseBytes(), nullValue());
+    }
+
+    @Test
+    void whenMapHasMaxResponseBytes_selectorHasLimit() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.MAX_RESPONSE_BYTES_KEY, 50000));
+
+        assertThat(selector.getMaxResponseBytes(), equalTo(50000L));
+    }
+
+    @Test
+    void whenMapHasMaxResponseBytesAsString_selectorHasLimit() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.MAX_RESPONSE_BYTES_KEY, "50000"));
+
+        assertThat(selector.getMaxResponseBytes(), equalTo(50000L));
+    }
+
+    @Test
+    void whenMaxResponseBytesNotAnInteger_reportError() {
+        Map<String, Object> map = ImmutableMap.of(MBeanSelector.MAX_RESPONSE_BYTES_KEY, "lots");
+
+        assertThrows(ConfigurationException.class, () -> MBeanSelector.create(map));
+    }
+
+    @Test
+    void whenNoQueryTimeoutInMap_selectorHasNoTimeout() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of());
+
+        assertThat(selector.getQueryTimeoutMillis(), nullValue());
+    }
+
+    @Test
+    void whenMapHasQueryTimeout_selectorHasTimeout() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.QUERY_TIMEOUT_MILLIS_KEY, 2500));
+
+        assertThat(selector.getQueryTimeoutMillis(), equalTo(2500));
+    }
+
+    @Test
+    void whenQueryTimeoutNotAnInteger_reportError() {
+        Map<String, Object> map = ImmutableMap.of(MBeanSelector.QUERY_TIMEOUT_MILLIS_KEY, "forever");
+
+        assertThrows(ConfigurationException.class, () -> MBeanSelector.create(map));
+    }
+
+    @Test
+    void whenNoGroupInMap_selectorHasNoGroup() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of());
+
+        assertThat(selector.getGroup(), nullValue());
+    }
+
+    @Test
+    void whenMapHasGroup_selectorHasGroup() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.GROUP_KEY, "fast"));
+
+        assertThat(selector.getGroup(), equalTo("fast"));
+    }
+
+    @Test
+    void whenNoCacheSecondsInMap_selectorIsNotCached() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of());
+
+        assertThat(selector.getCacheSeconds(), nullValue());
+    }
+
+    @Test
+    void whenMapHasCacheSeconds_selectorHasCacheSeconds() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.CACHE_SECONDS_KEY, 300));
+
+        assertThat(selector.getCacheSeconds(), equalTo(300));
+    }
+
+    @Test
+    void whenCacheSecondsNotPositive_reportError() {
+        Map<String, Object> map = ImmutableMap.of(MBeanSelector.CACHE_SECONDS_KEY, 0);
+
+        assertThrows(ConfigurationException.class, () -> MBeanSelector.create(map));
+    }
+
+    @Test
+    void queryName_isNameOfTopLevelCollection() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("applicationRuntimes",
+                  ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"a"})));
+
+        assertThat(selector.getQueryName(), equalTo("applicationRuntimes"));
+    }
+
+    @Test
+    void whenQueryHasMultipleTopLevelCollections_queryNameIncludesAll() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(
+                  "JVMRuntime", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"a"}),
+                  "applicationRuntimes", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"b"})));
+
+        assertThat(selector.getQueryName(), equalTo("JVMRuntime,applicationRuntimes"));
+    }
+
+    @Test
+    void whenQueryHasNoCollections_queryNameIsQueryType() {
+        assertThat(MBeanSelector.DOMAIN_NAME_SELECTOR.getQueryName(), equalTo("configuration"));
+    }
+
     @Test
     void whenNoValuesInMap_selectorHasNoValues() {
         MBeanSelector selector = MBeanSelector.create(ImmutableMap.of());
@@ -250,6 +357,74 @@ class MBeanSelectorTest {
         assertThat(querySpec(selector), hasJsonPath("$.excludeFields", contains("bottom")));
     }
 
+    @Test
+    void whenAllValuesSelectorHasNotScrapedReply_requestAllFields() {
+        MBeanSelector selector = MBeanSelector.create(ALL_VALUES_MAP);
+
+        assertThat(selector.getRequest(), hasNoJsonPath("$.children.servlets.fields"));
+    }
+
+    @Test
+    void afterAllValuesSelectorScrapesReply_requestOnlyNumericFields() {
+        MBeanSelector selector = MBeanSelector.create(ALL_VALUES_MAP);
+        new MetricsScraper("").scrape(selector, parseString(ALL_VALUES_RESPONSE).getAsJsonObject());
+
+        assertThat(selector.getRequest(),
+              hasJsonPath("$.children.servlets.fields", containsInAnyOrder("servletName", "invocationTotalCount", "executionTimeTotal")));
+    }
+
+    @Test
+    void afterFieldDiscoveryIntervalPasses_requestAllFieldsAgain() {
+        MBeanSelector selector = MBeanSelector.create(ALL_VALUES_MAP);
+        new MetricsScraper("").scrape(selector, parseString(ALL_VALUES_RESPONSE).getAsJsonObject());
+        clockStub.incrementSeconds(MBeanSelector.FIELD_DISCOVERY_INTERVAL_SECONDS);
+
+        assertThat(selector.getRequest(), hasNoJsonPath("$.children.servlets.fields"));
+    }
+
+    @Test
+    void whenFieldDiscoveryIntervalPassesWhileRequestInFlight_dontLearnFieldsFromItsReply() {
+        MBeanSelector selector = MBeanSelector.create(ALL_VALUES_MAP);
+        new MetricsScraper("").scrape(selector, parseString(ALL_VALUES_RESPONSE).getAsJsonObject());
+        final FieldDiscovery discovery = selector.getFieldDiscovery();
+        clockStub.incrementSeconds(MBeanSelector.FIELD_DISCOVERY_INTERVAL_SECONDS);
+
+        new MetricsScraper("").scrape(selector, discovery,
+              new JsonScrapeSource(parseString(NUMERIC_FIELDS_RESPONSE).getAsJsonObject()));
+
+        assertThat(selector.getRequest(), hasNoJsonPath("$.children.servlets.fields"));
+    }
+
+    @Test
+    void whenRequestBuiltWithFieldDiscovery_requestAllFieldsEvenAfterFieldsLearned() {
+        MBeanSelector selector = MBeanSelector.create(ALL_VALUES_MAP);
+        final FieldDiscovery discovery = selector.getFieldDiscovery();
+        new MetricsScraper("").scrape(selector, parseString(ALL_VALUES_RESPONSE).getAsJsonObject());
+
+        assertThat(selector.getRequest(discovery), hasNoJsonPath("$.children.servlets.fields"));
+    }
+
+    @Test
+    void whenQueryAcceptsStrings_alwaysRequestAllFields() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(MBeanSelector.PREFIX_KEY, "config_"));
+        selector.setQueryType(QueryType.CONFIGURATION);
+        new MetricsScraper("").scrape(selector, parseString("{\"name\": \"mydomain\", \"count\": 3}").getAsJsonObject());
+
+        assertThat(selector.getRequest(), hasNoJsonPath("$.fields"));
+    }
+
+    private static final Map<String, Object> ALL_VALUES_MAP = ImmutableMap.of("servlets",
+          ImmutableMap.of(MBeanSelector.PREFIX_KEY, "servlet_", MBeanSelector.QUERY_KEY, "servletName"));
+
+    private static final String ALL_VALUES_RESPONSE = "{\"servlets\": {\"items\": [\n" +
+          "  {\"servletName\": \"alpha\", \"invocationTotalCount\": 3, \"contextPath\": \"/alpha\"},\n" +
+          "  {\"servletName\": \"beta\", \"executionTimeTotal\": 17, \"internal\": false}\n" +
+          "]}}";
+
+    private static final String NUMERIC_FIELDS_RESPONSE = "{\"servlets\": {\"items\": [\n" +
+          "  {\"servletName\": \"alpha\", \"invocationTotalCount\": 4}\n" +
+          "]}}";
+
     @Test
     void whenSelectorExplicitlyIncludesForbiddenField_querySpecExcludesItFromList() {
         MBeanSelector selector = MBeanSelector.create(
@@ -351,6 +526,75 @@ class MBeanSelectorTest {
         assertThat(selector.needsNewKeys(), is(false));
     }
 
+    @Test
+    void whenSelectorHasNoFilter_hasNoFilterStrategy() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("servlets",
+                ImmutableMap.of(MBeanSelector.QUERY_KEY, "servletName")));
+
+        assertThat(selector.getFilterStrategy(), nullValue());
+    }
+
+    @Test
+    void whenFilteredSelectorCreated_filterOnServer() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+
+        assertThat(selector.getFilterStrategy(), equalTo(FilterStrategy.SERVER));
+    }
+
+    @Test
+    void whenFilteredCollectionIsSmall_filterOnClient() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+        selector.offerKeys(KEY_RESPONSE);
+        selector.recordResponseSize(200);
+
+        assertThat(selector.getFilterStrategy(), equalTo(FilterStrategy.CLIENT));
+    }
+
+    @Test
+    void whenFilteringOnClient_dontNeedNewKeys() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+        selector.offerKeys(KEY_RESPONSE);
+        selector.recordResponseSize(200);
+        clockStub.incrementSeconds(MBeanSelector.KEY_UPDATE_INTERVAL_SECONDS);
+
+        assertThat(selector.needsNewKeys(), is(false));
+    }
+
+    @Test
+    void whenFilteringOnClient_requestAllItemsWithNames() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+        selector.offerKeys(KEY_RESPONSE);
+        selector.recordResponseSize(200);
+
+        assertThat(selector.getRequest(), hasNoJsonPath("$.children.servlets.name"));
+        assertThat(selector.getRequest(), hasJsonPath("$.children.servlets.fields", hasItem(FILTER_KEY)));
+    }
+
+    @Test
+    void whenFilteredCollectionHasManyItems_filterOnServer() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+        selector.offerKeys(createKeyResponse(AdaptiveFilter.MAX_CLIENT_SIDE_ITEMS + 1));
+        selector.recordResponseSize(200);
+
+        assertThat(selector.getFilterStrategy(), equalTo(FilterStrategy.SERVER));
+    }
+
+    private JsonObject createKeyResponse(int numItems) {
+        final StringBuilder sb = new StringBuilder("{\"servlets\": {\"items\": [");
+        for (int i = 0; i < numItems; i++)
+            sb.append(i == 0 ? "" : ",").append("{\"name\": \"alpha").append(i).append("\"}");
+        return JsonParser.parseString(sb.append("]}}").toString()).getAsJsonObject();
+    }
+
+    @Test
+    void whenUnfilteredResponseWouldBeLarge_filterOnServer() {
+        MBeanSelector selector = MBeanSelector.create(MAP_WITH_INCLUDED_KEYS);
+        selector.offerKeys(KEY_RESPONSE);
+        selector.recordResponseSize(AdaptiveFilter.MAX_CLIENT_SIDE_BYTES);
+
+        assertThat(selector.getFilterStrategy(), equalTo(FilterStrategy.SERVER));
+    }
+
     private static final String KEY_RESPONSE_JSON = "{\"servlets\": {\"items\": [\n" +
                 "     {\"name\": \"alpha\"},\n" +
                 "     {\"name\": \"beta\" },\n" +
@@ -672,6 +916,14 @@ class MBeanSelectorTest {
         assertThat(result.getExcludedKeys(), equalTo(EXCLUDED));
     }
 
+    @Test
+    void whenMergingLeafElements_combineCounters() {
+        MBeanSelector selector1 = createLeaf("counters:first", "first", "second");
+        MBeanSelector selector2 = createLeaf("counters:third", "second", "third");
+
+        assertThat(selector1.merge(selector2).getCounters(), containsInAnyOrder("first", "third"));
+    }
+
     @Test
     void whenOnlyInitialConfigurationHasFilters_permitMerge() {
         MBeanSelector selector1 = createSelectorWithTopLevelFilter();
@@ -911,6 +1163,177 @@ class MBeanSelectorTest {
         assertThat(parseString(selector.getRequest()), equalTo(parseString(compressedJsonForm(EXPECTED_ALL_SERVLET_VALUES_JSON_REQUEST))));
     }
 
+    private static final Map<String, Object> SPLITTABLE_MAP = ImmutableMap.of("applicationRuntimes",
+          ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.VALUES_KEY, new String[] {"state"},
+                "componentRuntimes", ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.VALUES_KEY, new String[] {"age"}),
+                "workManagerRuntimes", ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.VALUES_KEY, new String[] {"size"})));
+
+    @Test
+    void whenQuerySelectsOneCollectionAtEachLevel_cannotSplitIt() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("applicationRuntimes",
+              ImmutableMap.of("componentRuntimes", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"age"}))));
+
+        assertThat(selector.getSplitQueries(), empty());
+    }
+
+    @Test
+    void whenQuerySelectsSeveralCollections_splitIntoOnePiecePerCollection() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP);
+
+        final List<MBeanSelector> pieces = selector.getSplitQueries();
+
+        assertThat(pieces, hasSize(2));
+        assertThat(pieces.get(0).getRequest(), hasJsonPath("$.children.applicationRuntimes.children.componentRuntimes.fields", contains("name", "age")));
+        assertThat(pieces.get(0).getRequest(), hasNoJsonPath("$.children.applicationRuntimes.children.workManagerRuntimes"));
+        assertThat(pieces.get(1).getRequest(), hasJsonPath("$.children.applicationRuntimes.children.workManagerRuntimes.fields", contains("name", "size")));
+        assertThat(pieces.get(1).getRequest(), hasNoJsonPath("$.children.applicationRuntimes.children.componentRuntimes"));
+    }
+
+    @Test
+    void whenQueryIsSplit_onlyFirstPieceSelectsValuesOfContainingMBeans() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP);
+
+        final List<MBeanSelector> pieces = selector.getSplitQueries();
+
+        assertThat(pieces.get(0).getRequest(), hasJsonPath("$.children.applicationRuntimes.fields", contains("name", "state")));
+        assertThat(pieces.get(1).getRequest(), hasJsonPath("$.children.applicationRuntimes.fields", contains("name")));
+    }
+
+    @Test
+    void whenCollectionAboveBranchIsFiltered_cannotSplitQuery() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("applicationRuntimes",
+              ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.INCLUDED_KEYS_KEY, "app.*",
+                    "componentRuntimes", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"age"}),
+                    "workManagerRuntimes", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"size"}))));
+
+        assertThat(selector.getSplitQueries(), empty());
+    }
+
+    @Test
+    void whenCollectionBelowBranchIsFiltered_splitQuery() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of(
+              "componentRuntimes", ImmutableMap.of(MBeanSelector.INCLUDED_KEYS_KEY, "comp.*", MBeanSelector.VALUES_KEY, new String[] {"age"}),
+              "workManagerRuntimes", ImmutableMap.of(MBeanSelector.VALUES_KEY, new String[] {"size"})));
+
+        assertThat(selector.getSplitQueries(), hasSize(2));
+    }
+
+    @Test
+    void whenPiecesRequestedAgain_returnSamePieces() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP);
+
+        assertThat(selector.getSplitQueries() == selector.getSplitQueries(), is(true));
+    }
+
+    @Test
+    void whenSelectorCopied_copyDoesNotShareKeys() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("servlets",
+              ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.INCLUDED_KEYS_KEY, "serv.*")));
+        selector.offerKeys(parseString("{'servlets': {'items': [{'name': 'servlet1'}]}}").getAsJsonObject());
+
+        final MBeanSelector copy = selector.copy();
+
+        assertThat(selector.needsNewKeys(), is(false));
+        assertThat(copy.needsNewKeys(), is(true));
+    }
+
+    @Test
+    void whenSelectorCopied_copyHasSameCounters() {
+        MBeanSelector selector = createLeaf("counters:first", "first", "second");
+
+        assertThat(selector.copy().getCounters(), contains("first"));
+    }
+
+    @Test
+    void whenSelectorCopied_copyMakesSameRequest() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP);
+
+        assertThat(parseString(selector.copy().getRequest()), equalTo(parseString(selector.getRequest())));
+    }
+
+    @Test
+    void domainRuntimeQuery_usesDomainRuntimeUrl() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+
+        assertThat(selector.getUrl(Protocol.HTTP, "myhost", 7001),
+              equalTo(String.format(QueryType.DOMAIN_RUNTIME_URL_PATTERN, "http", "myhost", 7001)));
+    }
+
+    @Test
+    void domainRuntimeQuery_selectsQueryFromEachServer() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+
+        assertThat(selector.getRequest(), hasJsonPath("$.children.serverRuntimes.fields", contains("name")));
+        assertThat(selector.getRequest(),
+              hasJsonPath("$.children.serverRuntimes.children.applicationRuntimes.fields", contains("name", "state")));
+    }
+
+    @Test
+    void domainRuntimeQuery_isNamedForCollectionsOfEachServer() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+
+        assertThat(selector.getQueryName(), equalTo("applicationRuntimes"));
+    }
+
+    @Test
+    void whenDomainRuntimeQueryRequestedAgain_returnSameQuery() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP);
+
+        assertThat(selector.getDomainRuntimeQuery() == selector.getDomainRuntimeQuery(), is(true));
+    }
+
+    @Test
+    void whenDomainRuntimeReplyScraped_labelMetricsWithServer() {
+        MBeanSelector selector = MBeanSelector.create(ImmutableMap.of("applicationRuntimes",
+              ImmutableMap.of(MBeanSelector.QUERY_KEY, "name", MBeanSelector.VALUES_KEY, new String[] {"size"})))
+              .getDomainRuntimeQuery();
+
+        final Map<String, Object> metrics = new MetricsScraper("").scrape(selector, parseString(DOMAIN_RUNTIME_RESPONSE).getAsJsonObject());
+
+        assertThat(metrics, hasKey("size{server=\"ms1\",name=\"app1\"}"));
+        assertThat(metrics, hasKey("size{server=\"ms2\",name=\"app1\"}"));
+    }
+
+    private static final String DOMAIN_RUNTIME_RESPONSE = "{'serverRuntimes': {'items': [" +
+          "{'name': 'ms1', 'applicationRuntimes': {'items': [{'name': 'app1', 'size': 3}]}}," +
+          "{'name': 'ms2', 'applicationRuntimes': {'items': [{'name': 'app1', 'size': 4}]}}]}}";
+
+    private static final String SERVER_NAMES_RESPONSE = "{'serverRuntimes': {'items': [" +
+          "{'name': 'ms3'}, {'name': 'ms1'}, {'name': 'ms2'}]}}";
+
+    @Test
+    void serverNamesRequest_selectsNamesOfServers() {
+        assertThat(MBeanSelector.SERVER_NAMES_REQUEST, hasJsonPath("$.children.serverRuntimes.fields", contains("name")));
+    }
+
+    @Test
+    void whenServersFitInOneRequest_dontPageDomainRuntimeQuery() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+
+        assertThat(selector.getServerPages(parseString(SERVER_NAMES_RESPONSE).getAsJsonObject(), 3), empty());
+    }
+
+    @Test
+    void whenServersExceedPageSize_pageDomainRuntimeQueryByServerName() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+
+        final List<MBeanSelector> pages = selector.getServerPages(parseString(SERVER_NAMES_RESPONSE).getAsJsonObject(), 2);
+
+        assertThat(pages, hasSize(2));
+        assertThat(pages.get(0).getRequest(), hasJsonPath("$.children.serverRuntimes.name", containsInAnyOrder("ms1", "ms2")));
+        assertThat(pages.get(1).getRequest(), hasJsonPath("$.children.serverRuntimes.name", contains("ms3")));
+        assertThat(pages.get(1).getRequest(),
+              hasJsonPath("$.children.serverRuntimes.children.applicationRuntimes.fields", contains("name", "state")));
+    }
+
+    @Test
+    void whenServersUnchanged_reuseServerPages() {
+        MBeanSelector selector = MBeanSelector.create(SPLITTABLE_MAP).getDomainRuntimeQuery();
+        final JsonObject serverNames = parseString(SERVER_NAMES_RESPONSE).getAsJsonObject();
+
+        assertThat(selector.getServerPages(serverNames, 2) == selector.getServerPages(serverNames, 2), is(true));
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String,Object> getSubMap(Map<String, Object> map, String key) {
         return (Map<String,Object>) map.get(key);
@@ -364,6 +364,20 @@ class MetricsScraperTest {
         assertThat(metrics, not(hasMetric("component_deploymentState{application=\"mbeans\",component=\"EjbStatusBean\"}", 2)));
     }
 
+    @Test
+    void whenItemsNotFilteredByServer_scrapeOnlySelectedItems() {
+        Map<String, Object> metrics = scraper.scrape(MBeanSelector.create(getFilteredMap()), getJsonResponse(RESPONSE));
+
+        assertThat(metrics, hasMetric("component_deploymentState{application=\"weblogic\",component=\"ejb30_weblogic\"}", 2));
+        assertThat(metrics, hasNoSuchMetric("component_deploymentState{application=\"mbeans\",component=\"EjbStatusBean\"}"));
+    }
+
+    private Map<String, Object> getFilteredMap() {
+        return ImmutableMap.of("applicationRuntimes",
+                    ImmutableMap.of(MBeanSelector.KEY_NAME, "application", MBeanSelector.QUERY_KEY, "name",
+                                    MBeanSelector.EXCLUDED_KEYS_KEY, "mbeans", "componentRuntimes", componentMap));
+    }
+
     @Test
     void whenValuesAtTopLevel_scrapeThem() {
         final MBeanSelector selector = MBeanSelector.create(getMetricsMap());
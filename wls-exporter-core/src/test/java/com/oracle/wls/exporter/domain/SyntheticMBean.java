@@ -0,0 +1,92 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.domain;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * An MBean with fixed attributes, standing in for a WebLogic MBean in unit tests.
+ */
+public class SyntheticMBean implements DynamicMBean {
+
+    /** The name of the WebLogic MBean which refers to the runtime and configuration MBeans of a server. **/
+    public static final String RUNTIME_SERVICE = MBeanScrapeSource.RUNTIME_SERVICE;
+
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private int numRequests;
+
+    /**
+     * Returns an object name in the WebLogic domain, for an MBean of the specified name and type.
+     */
+    public static ObjectName toObjectName(String name, String type) {
+        try {
+            return new ObjectName("com.bea:Name=" + name + ",Type=" + type);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Adds an attribute to this MBean.
+     */
+    public SyntheticMBean with(String name, Object value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    /**
+     * Returns the number of requests made to read the attributes of this MBean.
+     */
+    int getNumRequests() {
+        return numRequests;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        numRequests++;
+        if (!attributes.containsKey(attribute)) throw new AttributeNotFoundException(attribute);
+        return attributes.get(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        numRequests++;
+        final AttributeList result = new AttributeList();
+        for (String name : names)
+            if (attributes.containsKey(name)) result.add(new Attribute(name, attributes.get(name)));
+        return result;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        final MBeanAttributeInfo[] attributeInfos = attributes.entrySet().stream()
+              .map(e -> new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(), "", true, false, false))
+              .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "", attributeInfos, null, null, null);
+    }
+}
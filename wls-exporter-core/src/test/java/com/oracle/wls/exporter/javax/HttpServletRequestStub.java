@@ -34,6 +34,7 @@ public abstract class HttpServletRequestStub implements HttpServletRequest {
 
     private static final String DEFAULT_CONTENT_TYPE = "application/x-www-form-urlencoded";
     private final Map<String,String> headers = new HashMap<>();
+    private final Map<String,String> parameters = new HashMap<>();
     private final String method;
     private String localhostName = "localhost";
     private int localPort = LOCAL_PORT;
@@ -85,6 +86,10 @@ public abstract class HttpServletRequestStub implements HttpServletRequest {
         headers.put(headerName, headerValue);
     }
 
+    public void setParameter(String name, String value) {
+        parameters.put(name, value);
+    }
+
     public HttpServletRequestStub withMultipartContent(String contents, String boundary) {
         setContent("multipart/form-data; boundary=" + boundary, contents);
         return this;
@@ -132,6 +137,11 @@ public abstract class HttpServletRequestStub implements HttpServletRequest {
         return headers.get(name);
     }
 
+    @Override
+    public String getParameter(String name) {
+        return parameters.get(name);
+    }
+
     @Override
     public Enumeration<String> getHeaders(String name) {
         final String header = getHeader(name);
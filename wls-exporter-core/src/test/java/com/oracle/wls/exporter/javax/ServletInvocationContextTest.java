@@ -11,6 +11,8 @@ import java.io.PrintStream;
 import org.junit.jupiter.api.Test;
 
 import static com.oracle.wls.exporter.WebAppConstants.AUTHENTICATION_HEADER;
+import static com.oracle.wls.exporter.WebAppConstants.GROUP_PARAMETER;
+import static com.oracle.wls.exporter.WebAppConstants.SCRAPE_TIMEOUT_HEADER;
 import static com.oracle.wls.exporter.javax.HttpServletRequestStub.HOST_NAME;
 import static com.oracle.wls.exporter.javax.HttpServletRequestStub.PORT;
 import static com.oracle.wls.exporter.javax.HttpServletResponseStub.SINGLE_ARG_METHOD_CALLED;
@@ -44,6 +46,20 @@ class ServletInvocationContextTest {
     assertThat(context.getAuthenticationHeader(), equalTo("A value"));
   }
 
+  @Test
+  void obtainRequestHeader() {
+    request.setHeader(SCRAPE_TIMEOUT_HEADER, "10");
+
+    assertThat(context.getRequestHeader(SCRAPE_TIMEOUT_HEADER), equalTo("10"));
+  }
+
+  @Test
+  void obtainRequestParameter() {
+    request.setParameter(GROUP_PARAMETER, "fast");
+
+    assertThat(context.getRequestParameter(GROUP_PARAMETER), equalTo("fast"));
+  }
+
   @Test
   void obtainContentType() {
     request.setContent("text/plain", "Abcedef");
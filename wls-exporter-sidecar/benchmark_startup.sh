@@ -0,0 +1,85 @@
+#!/bin/bash
+# Copyright (c) 2025, Oracle and/or its affiliates.
+# Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+# Compares the startup time and resident memory of the sidecar running on the JVM with those of the native image.
+# Build both first, from the project root:
+#
+#   mvn -pl wls-exporter-sidecar -am package                  # target/wls-exporter-sidecar.jar
+#   mvn -pl wls-exporter-sidecar -am package -Pnative-image   # target/wls-exporter-sidecar (requires GraalVM)
+#
+# For each mode, the sidecar is started RUNS times. The startup time is measured from launch until the sidecar
+# answers a request for its configuration page. The resident set size is read from /proc after startup, and again
+# after REQUESTS further requests. A WebLogic server is not needed, as the configuration page does not contact one.
+#
+# Usage: benchmark_startup.sh [RUNS] [REQUESTS]
+
+RUNS=${1:-5}
+REQUESTS=${2:-100}
+PORT=${BENCHMARK_PORT:-18080}
+TARGET_DIR="$(cd "$(dirname "$0")" && pwd)/target"
+JAR="${TARGET_DIR}/wls-exporter-sidecar.jar"
+NATIVE="${TARGET_DIR}/wls-exporter-sidecar"
+URL="http://localhost:${PORT}/"
+
+now_millis() {
+  date +%s%3N
+}
+
+rss_kb() {
+  awk '/^VmRSS:/ {print $2}' "/proc/$1/status"
+}
+
+await_ready() {
+  for _ in $(seq 1 600); do
+    curl -sf -o /dev/null "$URL" && return 0
+    sleep 0.05
+  done
+  return 1
+}
+
+# Runs one mode RUNS times and prints its averages. The arguments are the command which starts the sidecar.
+benchmark() {
+  local total_startup=0 total_idle_rss=0 total_loaded_rss=0
+  for run in $(seq 1 "$RUNS"); do
+    local start pid startup idle_rss loaded_rss
+    start=$(now_millis)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    if ! await_ready; then
+      echo "  run ${run}: the sidecar did not start" >&2
+      kill "$pid" 2> /dev/null
+      return 1
+    fi
+    startup=$(( $(now_millis) - start ))
+    idle_rss=$(rss_kb "$pid")
+    for _ in $(seq 1 "$REQUESTS"); do
+      curl -sf -o /dev/null "$URL"
+    done
+    loaded_rss=$(rss_kb "$pid")
+    kill "$pid"
+    wait "$pid" 2> /dev/null
+
+    echo "  run ${run}: startup ${startup} ms, RSS ${idle_rss} KB idle, ${loaded_rss} KB after ${REQUESTS} requests"
+    total_startup=$(( total_startup + startup ))
+    total_idle_rss=$(( total_idle_rss + idle_rss ))
+    total_loaded_rss=$(( total_loaded_rss + loaded_rss ))
+  done
+  echo "  average: startup $(( total_startup / RUNS )) ms," \
+       "RSS $(( total_idle_rss / RUNS )) KB idle, $(( total_loaded_rss / RUNS )) KB after ${REQUESTS} requests"
+}
+
+if [[ -f "$JAR" ]]; then
+  echo "JVM ($(java -version 2>&1 | head -1)):"
+  # shellcheck disable=SC2086
+  benchmark java $JAVA_OPTS -DEXPORTER_PORT="$PORT" -jar "$JAR"
+else
+  echo "Skipping JVM mode: ${JAR} not found"
+fi
+
+if [[ -x "$NATIVE" ]]; then
+  echo "Native image:"
+  benchmark "$NATIVE" -DEXPORTER_PORT="$PORT"
+else
+  echo "Skipping native mode: ${NATIVE} not found"
+fi
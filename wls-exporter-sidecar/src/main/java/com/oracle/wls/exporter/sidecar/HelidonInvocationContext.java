@@ -1,4 +1,4 @@
-// Copyright (c) 2021, 2024, Oracle and/or its affiliates.
+// Copyright (c) 2021, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.sidecar;
@@ -23,17 +23,23 @@ public class HelidonInvocationContext implements InvocationContext {
     private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
     private final PrintStream printStream = new PrintStream(baos);
     private final SidecarConfiguration configuration = new SidecarConfiguration();
+    private final ScrapeTarget target;
 
     public HelidonInvocationContext(ServerRequest request, ServerResponse response) {
+        this(request, response, null);
+    }
+
+    HelidonInvocationContext(ServerRequest request, ServerResponse response, ScrapeTarget target) {
         this.request = request;
         this.response = response;
+        this.target = target;
     }
 
     @Override
     public UrlBuilder createUrlBuilder() {
         return UrlBuilder.create(configuration.useWebLogicSsl())
-              .withHostName(configuration.getWebLogicHost())
-              .withPort(configuration.getWebLogicPort());
+              .withHostName(target == null ? configuration.getWebLogicHost() : target.getHost())
+              .withPort(target == null ? configuration.getWebLogicPort() : target.getPort());
     }
 
     @Override
@@ -51,9 +57,24 @@ public class HelidonInvocationContext implements InvocationContext {
         return request.headers().contentType().map(MediaType::toString).orElse("application/json");
     }
 
+    @Override
+    public String getRequestHeader(String name) {
+        return request.headers().first(HeaderNames.create(name)).orElse(null);
+    }
+
+    @Override
+    public String getRequestParameter(String name) {
+        return request.query().first(name).orElse(null);
+    }
+
     @Override
     public String getInstanceName() {
-        return configuration.getPodName();
+        return target == null ? configuration.getPodName() : target.toString();
+    }
+
+    @Override
+    public String getTarget() {
+        return target == null ? null : target.toString();
     }
 
     @Override
@@ -3,7 +3,12 @@
 
 package com.oracle.wls.exporter.sidecar;
 
+import com.oracle.wls.exporter.OtlpExporter;
+import com.oracle.wls.exporter.RemoteWriter;
+import com.oracle.wls.exporter.UrlBuilder;
+import com.oracle.wls.exporter.WebClientFactory;
 import com.oracle.wls.exporter.WebClientFactoryImpl;
+import com.oracle.wls.exporter.WebClientImpl;
 import io.helidon.logging.common.LogConfig;
 import io.helidon.webserver.WebServer;
 import io.helidon.webserver.http.HttpRouting;
@@ -14,12 +19,22 @@ public class Main {
     public static void main(String[] args) {
         LogConfig.configureRuntime();
         final SidecarConfiguration configuration = new SidecarConfiguration();
-        final MetricsService metricsService = new MetricsService(configuration, new WebClientFactoryImpl());
+        final WebClientFactory webClientFactory = new WebClientFactoryImpl(WebClientImpl::new);
+        final MetricsService metricsService = new MetricsService(configuration, webClientFactory);
 
         WebServer.builder()
                 .addRouting(HttpRouting.builder().register(metricsService))
                 .port(metricsService.getListenPort())
                 .build()
                 .start();
+
+        RemoteWriter.start(webClientFactory, configuration.getPodName(), () -> createPushUrlBuilder(configuration));
+        OtlpExporter.start(webClientFactory, configuration.getPodName(), () -> createPushUrlBuilder(configuration));
+    }
+
+    static UrlBuilder createPushUrlBuilder(SidecarConfiguration configuration) {
+        return UrlBuilder.create(configuration.useWebLogicSsl())
+              .withHostName(configuration.getWebLogicHost())
+              .withPort(configuration.getWebLogicPort());
     }
 }
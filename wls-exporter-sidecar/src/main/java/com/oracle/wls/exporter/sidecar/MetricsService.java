@@ -1,46 +1,78 @@
-// Copyright (c) 2021, 2024, Oracle and/or its affiliates.
+// Copyright (c) 2021, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.sidecar;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 import com.oracle.wls.exporter.AuthenticatedCall;
 import com.oracle.wls.exporter.ConfigurationDisplay;
 import com.oracle.wls.exporter.ConfigurationPutCall;
 import com.oracle.wls.exporter.ExporterCall;
+import com.oracle.wls.exporter.FederationCall;
 import com.oracle.wls.exporter.InvocationContext;
 import com.oracle.wls.exporter.LiveConfiguration;
 import com.oracle.wls.exporter.MessagesCall;
+import com.oracle.wls.exporter.MetricsSubscriptions;
+import com.oracle.wls.exporter.SubscriptionRejectedException;
 import com.oracle.wls.exporter.WebClientFactory;
+import io.helidon.http.HeaderNames;
+import io.helidon.http.Status;
 import io.helidon.webserver.http.Handler;
 import io.helidon.webserver.http.ServerRequest;
 import io.helidon.webserver.http.ServerResponse;
 import io.helidon.webserver.http.HttpRules;
 import io.helidon.webserver.http.HttpService;
 
+import static com.oracle.wls.exporter.WebAppConstants.GROUP_PARAMETER;
+import static com.oracle.wls.exporter.WebAppConstants.TARGET_PARAMETER;
+
 class MetricsService implements HttpService {
 
+    private static final String METRIC_PARAMETER = "metric";
+    private static final long HEARTBEAT_SECONDS = 15;
+
     private final WebClientFactory webClientFactory;
 
     private final AuthenticatedHandler metricsHandler = new AuthenticatedHandler(ExporterCall::new);
+    private final TargetMetricsHandler targetMetricsHandler = new TargetMetricsHandler();
     private final AuthenticatedHandler configurationHandler = new AuthenticatedHandler(ConfigurationPutCall::new);
     private final MainHandler mainHandler = new MainHandler();
     private final AuthenticatedHandler messagesHandler = new AuthenticatedHandler(MessagesCall::new);
+    private final FederationHandler federationHandler = new FederationHandler();
+    private final SubscriptionHandler subscriptionHandler = new SubscriptionHandler();
     private final int listenPort;
+    private final Map<String, ScrapeTarget> targets = new LinkedHashMap<>();
+    private final Semaphore targetScrapes;
+    private final MetricsSubscriptions subscriptions;
 
     MetricsService(SidecarConfiguration configuration, WebClientFactory webClientFactory) {
         this.listenPort = configuration.getListenPort();
         this.webClientFactory = webClientFactory;
+        configuration.getTargets().forEach(target -> targets.put(target.toString(), target));
+        this.targetScrapes = new Semaphore(configuration.getMaxTargetScrapes());
+        this.subscriptions = new MetricsSubscriptions(webClientFactory, configuration.getPodName(),
+              () -> Main.createPushUrlBuilder(configuration));
         LiveConfiguration.setServer(configuration.getWebLogicHost(), configuration.getWebLogicPort());
     }
 
     @Override
     public void routing(HttpRules rules) {
         rules.get("/", mainHandler)
-            .get("/metrics", metricsHandler)
+            .get("/metrics", targets.isEmpty() ? metricsHandler : targetMetricsHandler)
             .get("/messages", messagesHandler)
+            .get("/federate", federationHandler)
+            .get("/subscribe", subscriptionHandler)
             .put("/configuration", configurationHandler);
     }
 
@@ -50,8 +82,12 @@ class MetricsService implements HttpService {
 
     abstract class MyHandler implements Handler {
         public void handle(ServerRequest request, ServerResponse response) {
+            handle(new HelidonInvocationContext(request, response), response);
+        }
+
+        void handle(InvocationContext context, ServerResponse response) {
             try {
-                invoke(new HelidonInvocationContext(request, response));
+                invoke(context);
             } catch (IOException e) {
                 reportServerFailure(response, e);
             }
@@ -77,6 +113,111 @@ class MetricsService implements HttpService {
         }
     }
 
+    // Scrapes the server named by the target parameter. Only configured targets may be scraped, so that the sidecar
+    // cannot be used to send requests to arbitrary hosts, and only a limited number of them at once.
+    class TargetMetricsHandler extends AuthenticatedHandler {
+        TargetMetricsHandler() {
+            super(ExporterCall::new);
+        }
+
+        @Override
+        public void handle(ServerRequest request, ServerResponse response) {
+            final ScrapeTarget target = request.query().first(TARGET_PARAMETER).map(targets::get).orElse(null);
+            if (target == null) {
+                response.status(Status.NOT_FOUND_404).send("Specify one of the configured targets: " + targets.keySet());
+            } else if (!targetScrapes.tryAcquire()) {
+                response.status(Status.SERVICE_UNAVAILABLE_503).send("Too many targets are being scraped");
+            } else {
+                try {
+                    handle(new HelidonInvocationContext(request, response, target), response);
+                } finally {
+                    targetScrapes.release();
+                }
+            }
+        }
+    }
+
+    class FederationHandler extends MyHandler {
+        @Override
+        void invoke(InvocationContext context) throws IOException {
+            new FederationCall(webClientFactory, context).invoke();
+        }
+    }
+
+    // Streams the changed samples of the metrics named by the metric parameters as server-sent events, one sample
+    // per data line, until the client disconnects or the subscription ends. If the group parameter names a group
+    // of queries, only those queries are run. A comment is sent when nothing has changed for a while, so that
+    // the connection is not closed as idle, and so that a departed client is noticed.
+    class SubscriptionHandler implements Handler {
+        @Override
+        public void handle(ServerRequest request, ServerResponse response) {
+            final List<String> metricNames = request.query().all(METRIC_PARAMETER, List::of).stream()
+                  .flatMap(value -> Arrays.stream(value.split(",")))
+                  .map(String::trim)
+                  .filter(name -> !name.isEmpty())
+                  .toList();
+            final String group = request.query().first(GROUP_PARAMETER).orElse(null);
+
+            subscriptions.start();
+            try (MetricsSubscriptions.Subscription subscription
+                       = subscriptions.subscribe(request.headers().first(HeaderNames.AUTHORIZATION).orElse(null),
+                                                 group, metricNames)) {
+                response.headers().set(HeaderNames.CONTENT_TYPE, "text/event-stream");
+                response.headers().set(HeaderNames.CACHE_CONTROL, "no-cache");
+                try (OutputStream out = response.outputStream()) {
+                    stream(subscription, out);
+                }
+            } catch (SubscriptionRejectedException e) {
+                reject(response, e);
+            } catch (IOException | UncheckedIOException e) {
+                // the client has disconnected; closing the subscription releases its queue
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void stream(MetricsSubscriptions.Subscription subscription, OutputStream out)
+              throws IOException, InterruptedException {
+            while (!subscription.isClosed()) {
+                final List<String> samples = subscription.awaitSamples(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                final String failure = subscription.takeFailure();
+                if (failure != null)
+                    send(out, toEvent("error", failure));
+                if (samples.isEmpty())
+                    send(out, ": heartbeat\n\n");
+                else
+                    send(out, toEvent(samples));
+            }
+            send(out, toEvent("close", subscription.getEndReason()));
+        }
+
+        // A message may span several lines, each of which must be sent as a data line of its own, since a line break
+        // would otherwise end the data, and an empty line the event.
+        private String toEvent(String type, String message) {
+            final StringBuilder sb = new StringBuilder("event: ").append(type).append('\n');
+            for (String line : String.valueOf(message).split("\r\n|\r|\n"))
+                sb.append("data: ").append(line).append('\n');
+            return sb.append('\n').toString();
+        }
+
+        private String toEvent(List<String> samples) {
+            final StringBuilder sb = new StringBuilder();
+            samples.forEach(sample -> sb.append("data: ").append(sample).append('\n'));
+            return sb.append('\n').toString();
+        }
+
+        private void send(OutputStream out, String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private void reject(ServerResponse response, SubscriptionRejectedException e) {
+            if (e.getChallenge() != null)
+                response.headers().set(HeaderNames.WWW_AUTHENTICATE, e.getChallenge());
+            response.status(e.getStatus()).send(e.getMessage());
+        }
+    }
+
     class MainHandler extends MyHandler {
         void invoke(InvocationContext context) throws IOException {
             ConfigurationDisplay.displayConfiguration(context.getResponseStream());
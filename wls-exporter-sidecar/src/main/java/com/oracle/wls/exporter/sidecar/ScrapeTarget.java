@@ -0,0 +1,61 @@
+// Copyright (c) 2025, Oracle and/or its affiliates.
+// Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
+
+package com.oracle.wls.exporter.sidecar;
+
+import java.util.Objects;
+
+/**
+ * A WebLogic server which the sidecar may scrape on request, identified as host:port.
+ */
+class ScrapeTarget {
+
+  private final String host;
+  private final int port;
+
+  ScrapeTarget(String host, int port) {
+    this.host = host;
+    this.port = port;
+  }
+
+  /**
+   * Creates a target from its description.
+   * @param description a string of the form host:port
+   * @throws IllegalArgumentException if the description does not name a host and port
+   */
+  static ScrapeTarget parse(String description) {
+    final String target = description.trim();
+    final int separator = target.lastIndexOf(':');
+    if (separator <= 0 || separator == target.length() - 1)
+      throw new IllegalArgumentException("Target '" + target + "' is not of the form host:port");
+
+    try {
+      return new ScrapeTarget(target.substring(0, separator), Integer.parseInt(target.substring(separator + 1)));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Target '" + target + "' does not specify a numeric port");
+    }
+  }
+
+  String getHost() {
+    return host;
+  }
+
+  int getPort() {
+    return port;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ScrapeTarget that && host.equals(that.host) && port == that.port;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(host, port);
+  }
+
+  @Override
+  public String toString() {
+    return host + ':' + port;
+  }
+}
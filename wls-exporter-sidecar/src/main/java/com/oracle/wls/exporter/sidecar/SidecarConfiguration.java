@@ -1,10 +1,20 @@
-// Copyright (c) 2021, 2022, Oracle and/or its affiliates.
+// Copyright (c) 2021, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.sidecar;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 public class SidecarConfiguration {
 
@@ -13,16 +23,22 @@ public class SidecarConfiguration {
   static final String WLS_PORT_PROPERTY = "WLS_PORT";
   static final String WLS_SECURE_PROPERTY = "WLS_SECURE";
   static final String POD_NAME_PROPERTY = "POD_NAME";
+  static final String WLS_TARGETS_PROPERTY = "WLS_TARGETS";
+  static final String WLS_TARGETS_FILE_PROPERTY = "WLS_TARGETS_FILE";
+  static final String MAX_TARGET_SCRAPES_PROPERTY = "MAX_TARGET_SCRAPES";
 
   static final int DEFAULT_LISTEN_PORT = 8080;
   static final int DEFAULT_WLS_PORT = 7001;
   static final String DEFAULT_POD_NAME = "<unknown>";
+  static final int DEFAULT_MAX_TARGET_SCRAPES = 16;
 
   private final int listenPort;
   private final String webLogicHost;
   private final int webLogicPort;
   private final String podName;
   private final boolean secure;
+  private final int maxTargetScrapes;
+  private List<ScrapeTarget> targets;
 
   public SidecarConfiguration() {
     listenPort = Integer.getInteger(LISTEN_PORT_PROPERTY, DEFAULT_LISTEN_PORT);
@@ -30,6 +46,7 @@ public class SidecarConfiguration {
     webLogicPort = Integer.getInteger(WLS_PORT_PROPERTY, DEFAULT_WLS_PORT);
     podName = System.getProperty(POD_NAME_PROPERTY, DEFAULT_POD_NAME);
     secure = Boolean.getBoolean(WLS_SECURE_PROPERTY);
+    maxTargetScrapes = Integer.getInteger(MAX_TARGET_SCRAPES_PROPERTY, DEFAULT_MAX_TARGET_SCRAPES);
   }
 
   static String getDefaultWlsHostName() {
@@ -59,4 +76,48 @@ public class SidecarConfiguration {
   public boolean useWebLogicSsl() {
     return secure;
   }
+
+  /**
+   * Returns the servers which may be scraped by naming them in the target parameter of a metrics request.
+   * These are listed, separated by commas, in the WLS_TARGETS property, and one per line in the file named
+   * by the WLS_TARGETS_FILE property, in which blank lines and those starting with '#' are ignored.
+   * @return a list of targets, empty if the sidecar scrapes only the server given by WLS_HOST and WLS_PORT
+   */
+  synchronized List<ScrapeTarget> getTargets() {
+    if (targets == null)
+      targets = loadTargets();
+    return targets;
+  }
+
+  private List<ScrapeTarget> loadTargets() {
+    final Set<ScrapeTarget> result = new LinkedHashSet<>();
+    addTargets(result, Arrays.asList(System.getProperty(WLS_TARGETS_PROPERTY, "").split(",")));
+    if (System.getProperty(WLS_TARGETS_FILE_PROPERTY) != null)
+      addTargets(result, readTargetsFile(System.getProperty(WLS_TARGETS_FILE_PROPERTY)));
+    return Collections.unmodifiableList(new ArrayList<>(result));
+  }
+
+  private void addTargets(Set<ScrapeTarget> result, List<String> descriptions) {
+    descriptions.stream()
+          .map(String::trim)
+          .filter(description -> !description.isEmpty() && !description.startsWith("#"))
+          .map(ScrapeTarget::parse)
+          .forEach(result::add);
+  }
+
+  private List<String> readTargetsFile(String fileName) {
+    try {
+      return Files.readAllLines(Paths.get(fileName));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read targets file " + fileName, e);
+    }
+  }
+
+  /**
+   * Returns the maximum number of targets which may be scraped at the same time. A request to scrape a target
+   * while this many scrapes are in progress is rejected, so that a burst of requests cannot exhaust the sidecar.
+   */
+  int getMaxTargetScrapes() {
+    return maxTargetScrapes;
+  }
 }
@@ -18,6 +18,7 @@ import com.oracle.wls.exporter.InvocationContext;
 import com.oracle.wls.exporter.WebAppConstants;
 import io.helidon.common.media.type.MediaType;
 import io.helidon.common.media.type.MediaTypes;
+import io.helidon.common.uri.UriQuery;
 import io.helidon.http.Header;
 import io.helidon.http.HeaderName;
 import io.helidon.http.HeaderNames;
@@ -83,6 +84,25 @@ class HelidonInvocationContextTest {
     assertThat(invocationContext.getAuthenticationHeader(), equalTo("asdef"));
   }
 
+  @Test
+  void whenRequestHeaderSpecified_returnIt() {
+    request.addHeader(WebAppConstants.SCRAPE_TIMEOUT_HEADER, "10");
+
+    assertThat(invocationContext.getRequestHeader(WebAppConstants.SCRAPE_TIMEOUT_HEADER), equalTo("10"));
+  }
+
+  @Test
+  void whenRequestParameterSpecified_returnIt() {
+    request.setQuery("group=fast");
+
+    assertThat(invocationContext.getRequestParameter(WebAppConstants.GROUP_PARAMETER), equalTo("fast"));
+  }
+
+  @Test
+  void whenRequestParameterNotSpecified_returnNull() {
+    assertThat(invocationContext.getRequestParameter(WebAppConstants.GROUP_PARAMETER), nullValue());
+  }
+
   @Test
   void returnSpecifiedContentType() {
     request.setContentType(MediaTypes.APPLICATION_XML);
@@ -95,8 +115,32 @@ class HelidonInvocationContextTest {
     assertThat(invocationContext.getInstanceName(), equalTo(POD_NAME));
   }
 
+  @Test
+  void whenTargetSpecified_requestUrlUsesIt() {
+    invocationContext = new HelidonInvocationContext(request, createStrictStub(ServerResponse.class),
+          new ScrapeTarget("managed1", 8001));
+
+    assertThat(invocationContext.createUrlBuilder().createUrl(REQUEST_URL_PATTERN),
+               equalTo(String.format(REQUEST_URL_PATTERN, "http", "managed1", 8001)));
+  }
+
+  @Test
+  void whenTargetSpecified_instanceNameIsTarget() {
+    invocationContext = new HelidonInvocationContext(request, createStrictStub(ServerResponse.class),
+          new ScrapeTarget("managed1", 8001));
+
+    assertThat(invocationContext.getInstanceName(), equalTo("managed1:8001"));
+    assertThat(invocationContext.getTarget(), equalTo("managed1:8001"));
+  }
+
+  @Test
+  void whenNoTargetSpecified_targetIsNull() {
+    assertThat(invocationContext.getTarget(), nullValue());
+  }
+
   abstract static class ServerRequestStub implements ServerRequest {
     private final RequestHeadersStub headers = createStrictStub(RequestHeadersStub.class);
+    private UriQuery query = UriQuery.empty();
 
     @SuppressWarnings("SameParameterValue")
     void addHeader(String name, String value) {
@@ -108,10 +152,19 @@ class HelidonInvocationContextTest {
         headers.setContentType(contentType);
     }
 
+    void setQuery(String query) {
+      this.query = UriQuery.create(query);
+    }
+
     @Override
     public ServerRequestHeaders headers() {
       return headers;
     }
+
+    @Override
+    public UriQuery query() {
+      return query;
+    }
   }
 
   abstract static class RequestHeadersStub implements ServerRequestHeaders {
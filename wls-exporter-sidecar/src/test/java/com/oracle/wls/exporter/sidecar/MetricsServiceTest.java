@@ -32,6 +32,7 @@ import org.junit.jupiter.api.Test;
 import static com.meterware.simplestub.Stub.createStub;
 import static com.oracle.wls.exporter.domain.QueryType.RUNTIME_URL_PATTERN;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
@@ -287,6 +288,33 @@ class MetricsServiceTest {
         assertThat(response, containsString(ONE_VALUE_CONFIG));
     }
 
+    // -------------- subscriptions ----------
+
+    @Test
+    void whenSubscriptionsNotConfigured_subscribeReturnsNotFound() {
+        assertThat(client.get("/subscribe").request().status().code(), equalTo(HTTP_NOT_FOUND));
+    }
+
+    @Test
+    void whenServerSends401StatusOnSubscribe_returnChallengeToClient() {
+        LiveConfiguration.loadFromString("subscriptions:\n" + ONE_VALUE_CONFIG);
+        clientFactory.reportAuthenticationRequired("Test-Realm");
+
+        final HttpClientResponse response = client.get("/subscribe").queryParam("metric", "testSample1").request();
+
+        assertThat(response.status().code(), equalTo(HTTP_UNAUTHORIZED));
+        assertThat(getAuthenticationChallengeHeader(response), equalTo("Basic realm=\"Test-Realm\""));
+    }
+
+    @Test
+    void whenSubscriptionNamesUndefinedGroup_returnNotFound() {
+        LiveConfiguration.loadFromString("subscriptions:\n" + ONE_VALUE_CONFIG);
+
+        final HttpClientResponse response = client.get("/subscribe").queryParam("group", "unknown").request();
+
+        assertThat(response.status().code(), equalTo(HTTP_NOT_FOUND));
+    }
+
     // -------------- get interactions ----------
 
 
@@ -1,8 +1,11 @@
-// Copyright (c) 2021, 2022, Oracle and/or its affiliates.
+// Copyright (c) 2021, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.sidecar;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,16 +15,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.DEFAULT_LISTEN_PORT;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.DEFAULT_MAX_TARGET_SCRAPES;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.DEFAULT_POD_NAME;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.DEFAULT_WLS_PORT;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.LISTEN_PORT_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.MAX_TARGET_SCRAPES_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.POD_NAME_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_HOST_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_PORT_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_SECURE_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_TARGETS_FILE_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_TARGETS_PROPERTY;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class SidecarConfigurationTest {
 
@@ -46,6 +56,8 @@ class SidecarConfigurationTest {
     assertThat(configuration.getWebLogicHost(), equalTo(SidecarConfiguration.getDefaultWlsHostName()));
     assertThat(configuration.useWebLogicSsl(), is(false));
     assertThat(configuration.getPodName(), equalTo(DEFAULT_POD_NAME));
+    assertThat(configuration.getTargets(), empty());
+    assertThat(configuration.getMaxTargetScrapes(), equalTo(DEFAULT_MAX_TARGET_SCRAPES));
   }
 
   @Test
@@ -96,4 +108,57 @@ class SidecarConfigurationTest {
 
     assertThat(configuration.getPodName(), equalTo(podName));
   }
+
+  @Test
+  void whenTargetsPropertySpecified_useIt() {
+    System.setProperty(WLS_TARGETS_PROPERTY, "managed1:8001, managed2:8001");
+
+    final SidecarConfiguration configuration = new SidecarConfiguration();
+
+    assertThat(configuration.getTargets(),
+          contains(new ScrapeTarget("managed1", 8001), new ScrapeTarget("managed2", 8001)));
+  }
+
+  @Test
+  void whenTargetsFileSpecified_useIt() throws IOException {
+    final Path targetsFile = Files.createTempFile("targets", ".txt");
+    try {
+      Files.write(targetsFile, List.of("# the managed servers", "managed1:8001", "", "managed2:8001"));
+      System.setProperty(WLS_TARGETS_FILE_PROPERTY, targetsFile.toString());
+
+      final SidecarConfiguration configuration = new SidecarConfiguration();
+
+      assertThat(configuration.getTargets(),
+            contains(new ScrapeTarget("managed1", 8001), new ScrapeTarget("managed2", 8001)));
+    } finally {
+      Files.delete(targetsFile);
+    }
+  }
+
+  @Test
+  void whenTargetListedTwice_includeItOnce() {
+    System.setProperty(WLS_TARGETS_PROPERTY, "managed1:8001,managed1:8001");
+
+    final SidecarConfiguration configuration = new SidecarConfiguration();
+
+    assertThat(configuration.getTargets(), contains(new ScrapeTarget("managed1", 8001)));
+  }
+
+  @Test
+  void whenTargetHasNoPort_throwException() {
+    System.setProperty(WLS_TARGETS_PROPERTY, "managed1");
+
+    final SidecarConfiguration configuration = new SidecarConfiguration();
+
+    assertThrows(IllegalArgumentException.class, configuration::getTargets);
+  }
+
+  @Test
+  void whenMaxTargetScrapesPropertySpecified_useIt() {
+    System.setProperty(MAX_TARGET_SCRAPES_PROPERTY, "4");
+
+    final SidecarConfiguration configuration = new SidecarConfiguration();
+
+    assertThat(configuration.getMaxTargetScrapes(), equalTo(4));
+  }
 }
@@ -1,4 +1,4 @@
-// Copyright (c) 2021, Oracle and/or its affiliates.
+// Copyright (c) 2021, 2025, Oracle and/or its affiliates.
 // Licensed under the Universal Permissive License v 1.0 as shown at https://oss.oracle.com/licenses/upl.
 
 package com.oracle.wls.exporter.sidecar;
@@ -10,14 +10,18 @@ import com.meterware.simplestub.Memento;
 import com.meterware.simplestub.SystemPropertySupport;
 
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.LISTEN_PORT_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.MAX_TARGET_SCRAPES_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.POD_NAME_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_HOST_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_PORT_PROPERTY;
 import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_SECURE_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_TARGETS_FILE_PROPERTY;
+import static com.oracle.wls.exporter.sidecar.SidecarConfiguration.WLS_TARGETS_PROPERTY;
 
 public class SidecarConfigurationTestSupport {
   private static final String[] CONFIGURATION_PROPERTIES
-        = {LISTEN_PORT_PROPERTY, POD_NAME_PROPERTY, WLS_HOST_PROPERTY, WLS_PORT_PROPERTY, WLS_SECURE_PROPERTY};
+        = {LISTEN_PORT_PROPERTY, POD_NAME_PROPERTY, WLS_HOST_PROPERTY, WLS_PORT_PROPERTY, WLS_SECURE_PROPERTY,
+           WLS_TARGETS_PROPERTY, WLS_TARGETS_FILE_PROPERTY, MAX_TARGET_SCRAPES_PROPERTY};
 
   static void preserveConfigurationProperties(List<Memento> mementos) {
     Arrays.stream(CONFIGURATION_PROPERTIES).forEach(property -> preserveAndClearProperty(mementos, property));
@@ -11,6 +11,8 @@ import java.util.List;
 import java.util.Map;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.oracle.wls.exporter.AuthenticationChallengeException;
 import com.oracle.wls.exporter.ForbiddenException;
 import com.oracle.wls.exporter.WebClient;
@@ -110,6 +112,15 @@ public class WebClientFactoryStub implements WebClientFactory {
             return getResult(getNextResponse());
         }
 
+        @Override
+        public JsonObject doPostRequestForJson(String postBody) {
+            return toJsonObject(doPostRequest(postBody));
+        }
+
+        private JsonObject toJsonObject(String response) {
+            return response == null || response.isEmpty() ? null : JsonParser.parseString(response).getAsJsonObject();
+        }
+
         @Override
         public String doGetRequest() {
             if (url == null) throw new NullPointerException("No URL specified");